@@ -0,0 +1,631 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.commons.indexedgraph;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.ImmutableGraph;
+import org.apache.clerezza.commons.rdf.RDFTerm;
+import org.apache.clerezza.commons.rdf.Triple;
+import org.apache.clerezza.commons.rdf.impl.utils.AbstractGraph;
+import org.apache.clerezza.commons.rdf.impl.utils.AbstractImmutableGraph;
+import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
+
+/**
+ * {@link Graph} implementation that dictionary encodes {@link RDFTerm}s to
+ * <code>int</code> ids and stores triples as id tuples in primitive arrays.
+ * <p>
+ * Every {@link RDFTerm} is assigned an id on its first use. Triples are stored
+ * in slots of three parallel <code>int[]</code> (subject, predicate and object
+ * id). For every role (subject, predicate, object) an index maps the term id
+ * to the (unordered) list of slots the term is used in that role. Lists are
+ * plain <code>int[]</code> so that no per triple objects need to be kept in
+ * memory. Removing a triple is <code>O(1)</code> as the position of a triple
+ * within the lists is also stored and the last element of the list is moved
+ * to the freed position. Ids of terms that are no longer used by any triple
+ * and free slots are reused.
+ * <p>
+ * {@link #filter(BlankNodeOrIRI, IRI, RDFTerm)} iterates over the shortest
+ * list of the parsed terms. {@link Triple}s returned by iterators are created
+ * on the fly. In contrast to the {@link IndexedGraph} the iteration order is
+ * not defined.
+ * <p>
+ * Iterators do support {@link Iterator#remove()}. Any other modification of
+ * the graph while iterating causes a {@link ConcurrentModificationException}.
+ */
+public class DictionaryIndexedGraph extends AbstractGraph implements Graph {
+
+    private static final int SUBJECT = 0;
+    private static final int PREDICATE = 1;
+    private static final int OBJECT = 2;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The dictionary used to lookup the ids of terms
+     */
+    private final Map<RDFTerm,Integer> dictionary = new HashMap<RDFTerm,Integer>();
+    /**
+     * The terms by id
+     */
+    private RDFTerm[] terms = new RDFTerm[INITIAL_CAPACITY];
+    /**
+     * the next unused term id
+     */
+    private int termCount;
+    /**
+     * stack of the ids of removed terms
+     */
+    private int[] freeTerms = new int[INITIAL_CAPACITY];
+    private int freeTermCount;
+    /**
+     * The term ids of the triples: <code>ids[role][slot]</code>. A subject id
+     * of <code>-1</code> marks a free slot
+     */
+    private final int[][] ids = new int[3][INITIAL_CAPACITY];
+    /**
+     * The positions of the triples within the index lists:
+     * <code>positions[role][slot]</code>
+     */
+    private final int[][] positions = new int[3][INITIAL_CAPACITY];
+    /**
+     * the next unused slot
+     */
+    private int slotCount;
+    /**
+     * stack of the free slots
+     */
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+    private int freeSlotCount;
+    /**
+     * The subject, predicate and object index
+     */
+    private final Index[] indexes = new Index[]{new Index(), new Index(), new Index()};
+    
+    private int size;
+    /**
+     * incremented on every modification. Used by iterators to detect
+     * concurrent modifications
+     */
+    private int modCount;
+
+    /**
+     * Creates an empty {@link DictionaryIndexedGraph}
+     */
+    public DictionaryIndexedGraph() {
+        super();
+    }
+
+    /**
+     * Creates a {@link DictionaryIndexedGraph} using the passed iterator, the
+     * iterator is consumed before the constructor returns
+     *
+     * @param iterator Triple Iterator
+     */
+    public DictionaryIndexedGraph(Iterator<Triple> iterator) {
+        super();
+        while (iterator.hasNext()) {
+            performAdd(iterator.next());
+        }
+    }
+
+    /**
+     * Creates a {@link DictionaryIndexedGraph} for the specified collection of
+     * triples, subsequent modification of baseSet do not affect the created
+     * instance.
+     *
+     * @param baseCollection collection of triples
+     */
+    public DictionaryIndexedGraph(Collection<Triple> baseCollection) {
+        this(baseCollection.iterator());
+    }
+
+    @Override
+    public ImmutableGraph getImmutableGraph() {
+        return new DictionaryIndexedImmutableGraph(new DictionaryIndexedGraph(this));
+    }
+
+    @Override
+    protected Iterator<Triple> performFilter(BlankNodeOrIRI subject, IRI predicate, RDFTerm object) {
+        if (subject == null && predicate == null && object == null) { //[n,n,n]
+            return new SlotIterator();
+        }
+        int[] pattern = new int[3];
+        if(!encode(subject, predicate, object, pattern)){
+            return new SlotIterator(true); //one of the terms is unknown
+        }
+        int role = selectIndex(pattern);
+        return new IndexIterator(role, pattern);
+    }
+
+    @Override
+    protected boolean performAdd(Triple triple) {
+        int[] pattern = new int[3];
+        if(encode(triple.getSubject(), triple.getPredicate(), triple.getObject(), pattern) &&
+                find(pattern) >= 0){
+            return false; //already present
+        }
+        int subject = pattern[SUBJECT] < 0 ? addTerm(triple.getSubject()) : pattern[SUBJECT];
+        int predicate = pattern[PREDICATE] < 0 ? addTerm(triple.getPredicate()) : pattern[PREDICATE];
+        int object = pattern[OBJECT] < 0 ? addTerm(triple.getObject()) : pattern[OBJECT];
+        int slot = allocateSlot();
+        ids[SUBJECT][slot] = subject;
+        ids[PREDICATE][slot] = predicate;
+        ids[OBJECT][slot] = object;
+        positions[SUBJECT][slot] = indexes[SUBJECT].add(subject, slot);
+        positions[PREDICATE][slot] = indexes[PREDICATE].add(predicate, slot);
+        positions[OBJECT][slot] = indexes[OBJECT].add(object, slot);
+        size++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    protected boolean performRemove(Object t) {
+        if (t instanceof Triple) {
+            Triple triple = (Triple)t;
+            int[] pattern = new int[3];
+            if(encode(triple.getSubject(), triple.getPredicate(), triple.getObject(), pattern)){
+                int slot = find(pattern);
+                if(slot >= 0){
+                    removeSlot(slot);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected boolean performContains(Object t) {
+        if (t instanceof Triple) {
+            Triple triple = (Triple)t;
+            int[] pattern = new int[3];
+            return encode(triple.getSubject(), triple.getPredicate(), triple.getObject(), pattern) &&
+                    find(pattern) >= 0;
+        }
+        return false;
+    }
+
+    @Override
+    protected void performClear() {
+        dictionary.clear();
+        terms = new RDFTerm[INITIAL_CAPACITY];
+        termCount = 0;
+        freeTermCount = 0;
+        for(int role = 0; role < 3; role++){
+            ids[role] = new int[INITIAL_CAPACITY];
+            positions[role] = new int[INITIAL_CAPACITY];
+            indexes[role] = new Index();
+        }
+        slotCount = 0;
+        freeSlotCount = 0;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public int performSize() {
+        return size;
+    }
+
+    /**
+     * Looks up the ids of the parsed terms. <code>null</code> terms and terms
+     * not present in the dictionary are encoded as <code>-1</code>
+     * @param subject the subject or <code>null</code>
+     * @param predicate the predicate or <code>null</code>
+     * @param object the object or <code>null</code>
+     * @param pattern the array to store the ids
+     * @return <code>false</code> if any of the parsed (non <code>null</code>)
+     * terms is not known
+     */
+    private boolean encode(RDFTerm subject, RDFTerm predicate, RDFTerm object, int[] pattern) {
+        pattern[SUBJECT] = lookup(subject);
+        pattern[PREDICATE] = lookup(predicate);
+        pattern[OBJECT] = lookup(object);
+        return !((subject != null && pattern[SUBJECT] < 0) ||
+                (predicate != null && pattern[PREDICATE] < 0) ||
+                (object != null && pattern[OBJECT] < 0));
+    }
+
+    private int lookup(RDFTerm term) {
+        if(term == null){
+            return -1;
+        }
+        Integer id = dictionary.get(term);
+        return id == null ? -1 : id.intValue();
+    }
+
+    /**
+     * Selects the index with the shortest list for the terms of the pattern
+     * @param pattern the term ids (at least one MUST BE <code>&gt;= 0</code>)
+     * @return the role of the index to use
+     */
+    private int selectIndex(int[] pattern) {
+        int selected = -1;
+        int selectedSize = Integer.MAX_VALUE;
+        for(int role = 0; role < 3; role++){
+            if(pattern[role] >= 0){
+                int s = indexes[role].size(pattern[role]);
+                if(s < selectedSize){
+                    selected = role;
+                    selectedSize = s;
+                }
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Searches the slot of the triple with the parsed term ids
+     * @param pattern the subject, predicate and object id
+     * @return the slot or <code>-1</code> if not present
+     */
+    private int find(int[] pattern) {
+        int role = selectIndex(pattern);
+        Index index = indexes[role];
+        int term = pattern[role];
+        int size = index.size(term);
+        if(size == 0){ //term not used in this role
+            return -1;
+        }
+        int[] list = index.lists[term];
+        for(int i = size - 1; i >= 0; i--){
+            int slot = list[i];
+            if(matches(slot, pattern)){
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private boolean matches(int slot, int[] pattern) {
+        return (pattern[SUBJECT] < 0 || ids[SUBJECT][slot] == pattern[SUBJECT]) &&
+                (pattern[PREDICATE] < 0 || ids[PREDICATE][slot] == pattern[PREDICATE]) &&
+                (pattern[OBJECT] < 0 || ids[OBJECT][slot] == pattern[OBJECT]);
+    }
+
+    /**
+     * Returns the id of the parsed term and assigns a new id if the term is
+     * not yet known
+     */
+    private int addTerm(RDFTerm term) {
+        Integer known = dictionary.get(term);
+        if(known != null){ //same term used for multiple roles
+            return known.intValue();
+        }
+        int id;
+        if(freeTermCount > 0){
+            id = freeTerms[--freeTermCount];
+        } else {
+            id = termCount++;
+            if(id == terms.length){
+                terms = Arrays.copyOf(terms, id * 2);
+            }
+        }
+        terms[id] = term;
+        dictionary.put(term, Integer.valueOf(id));
+        return id;
+    }
+
+    /**
+     * Removes the term with the parsed id if it is no longer used
+     */
+    private void releaseTerm(int id) {
+        if(indexes[SUBJECT].size(id) == 0 && indexes[PREDICATE].size(id) == 0 &&
+                indexes[OBJECT].size(id) == 0){
+            dictionary.remove(terms[id]);
+            terms[id] = null;
+            for(int role = 0; role < 3; role++){
+                indexes[role].release(id);
+            }
+            if(freeTermCount == freeTerms.length){
+                freeTerms = Arrays.copyOf(freeTerms, freeTermCount * 2);
+            }
+            freeTerms[freeTermCount++] = id;
+        }
+    }
+
+    private int allocateSlot() {
+        if(freeSlotCount > 0){
+            return freeSlots[--freeSlotCount];
+        }
+        int slot = slotCount++;
+        if(slot == ids[SUBJECT].length){
+            for(int role = 0; role < 3; role++){
+                ids[role] = Arrays.copyOf(ids[role], slot * 2);
+                positions[role] = Arrays.copyOf(positions[role], slot * 2);
+            }
+        }
+        return slot;
+    }
+
+    private void removeSlot(int slot) {
+        int[] removed = new int[3];
+        for(int role = 0; role < 3; role++){
+            int term = ids[role][slot];
+            removed[role] = term;
+            int moved = indexes[role].remove(term, positions[role][slot]);
+            if(moved >= 0){ //update the position of the moved slot
+                positions[role][moved] = positions[role][slot];
+            }
+        }
+        ids[SUBJECT][slot] = -1; //mark as free
+        if(freeSlotCount == freeSlots.length){
+            freeSlots = Arrays.copyOf(freeSlots, freeSlotCount * 2);
+        }
+        freeSlots[freeSlotCount++] = slot;
+        size--;
+        modCount++;
+        for(int role = 0; role < 3; role++){
+            int term = removed[role];
+            if(terms[term] != null){ //not yet released (e.g. subject == object)
+                releaseTerm(term);
+            }
+        }
+    }
+
+    private Triple createTriple(int slot) {
+        return new TripleImpl((BlankNodeOrIRI)terms[ids[SUBJECT][slot]],
+            (IRI)terms[ids[PREDICATE][slot]], terms[ids[OBJECT][slot]]);
+    }
+
+    /**
+     * Maps term ids to the list of slots the term is used in a specific role.
+     */
+    private static class Index {
+        
+        int[][] lists = new int[INITIAL_CAPACITY][];
+        int[] sizes = new int[INITIAL_CAPACITY];
+
+        int size(int term) {
+            return term < sizes.length ? sizes[term] : 0;
+        }
+
+        /**
+         * Adds the slot to the list of the term
+         * @return the position of the slot within the list
+         */
+        int add(int term, int slot) {
+            if(term >= lists.length){
+                int capacity = Math.max(lists.length * 2, term + 1);
+                lists = Arrays.copyOf(lists, capacity);
+                sizes = Arrays.copyOf(sizes, capacity);
+            }
+            int[] list = lists[term];
+            int pos = sizes[term];
+            if(list == null){
+                list = new int[2];
+                lists[term] = list;
+            } else if(pos == list.length){
+                list = Arrays.copyOf(list, pos * 2);
+                lists[term] = list;
+            }
+            list[pos] = slot;
+            sizes[term] = pos + 1;
+            return pos;
+        }
+
+        /**
+         * Removes the slot at the parsed position by moving the last slot of
+         * the list to this position.
+         * @return the moved slot or <code>-1</code> if the removed slot was
+         * the last one of the list
+         */
+        int remove(int term, int pos) {
+            int[] list = lists[term];
+            int last = --sizes[term];
+            if(pos < last){
+                int moved = list[last];
+                list[pos] = moved;
+                return moved;
+            }
+            return -1;
+        }
+
+        void release(int term) {
+            if(term < lists.length){
+                lists[term] = null;
+            }
+        }
+    }
+
+    /**
+     * Base class for iterators that supports removal and checks for
+     * concurrent modifications
+     */
+    private abstract class SlotIteratorBase implements Iterator<Triple> {
+
+        protected int expectedModCount = modCount;
+        protected int next = -1;
+        protected int last = -1;
+
+        /**
+         * Searches the next matching slot
+         * @return the slot or <code>-1</code> if none
+         */
+        protected abstract int seek();
+
+        @Override
+        public boolean hasNext() {
+            checkModification();
+            if(next < 0){
+                next = seek();
+            }
+            return next >= 0;
+        }
+
+        @Override
+        public Triple next() {
+            if(!hasNext()){
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = -1;
+            return createTriple(last);
+        }
+
+        @Override
+        public void remove() {
+            if(last < 0){
+                throw new IllegalStateException();
+            }
+            checkModification();
+            removed(last);
+            removeSlot(last);
+            last = -1;
+            expectedModCount = modCount;
+        }
+
+        /**
+         * Called before the parsed slot is removed
+         */
+        protected abstract void removed(int slot);
+
+        protected final void checkModification() {
+            if(modCount != expectedModCount){
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /**
+     * Iterates over all slots
+     */
+    private class SlotIterator extends SlotIteratorBase {
+
+        private int slot = 0;
+        private final boolean empty;
+
+        SlotIterator() {
+            this(false);
+        }
+        /**
+         * @param empty if <code>true</code> this iterates over no elements
+         * (used for filter requests with unknown terms)
+         */
+        SlotIterator(boolean empty) {
+            this.empty = empty;
+        }
+
+        @Override
+        protected int seek() {
+            if(empty){
+                return -1;
+            }
+            while(slot < slotCount){
+                int current = slot++;
+                if(ids[SUBJECT][current] >= 0){
+                    return current;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        protected void removed(int removed) {
+            //slots do not move
+        }
+    }
+
+    /**
+     * Iterates over the list of the index of a term and filters slots that
+     * do not match the pattern
+     */
+    private class IndexIterator extends SlotIteratorBase {
+
+        private final Index index;
+        private final int role;
+        private final int term;
+        private final int[] pattern;
+        /**
+         * the next position in the list to check
+         */
+        private int pos = 0;
+        /**
+         * the list position of the last returned slot
+         */
+        private int lastPos = -1;
+
+        IndexIterator(int role, int[] pattern) {
+            this.role = role;
+            this.index = indexes[role];
+            this.term = pattern[role];
+            this.pattern = pattern;
+        }
+
+        @Override
+        protected int seek() {
+            //NOTE: lists need to be accessed via the index as they may grow
+            while(pos < index.size(term)){
+                int current = pos++;
+                int slot = index.lists[term][current];
+                if(matches(slot, pattern)){
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public Triple next() {
+            Triple triple = super.next();
+            lastPos = positions[role][last];
+            return triple;
+        }
+
+        @Override
+        protected void removed(int slot) {
+            //the last slot of the list will be moved to the position of the
+            //removed one. So we need to continue at this position
+            pos = lastPos;
+            next = -1;
+        }
+    }
+
+    /**
+     * {@link ImmutableGraph} implementation that internally uses a
+     * {@link DictionaryIndexedGraph} to hold the RDF graph.
+     */
+    private static class DictionaryIndexedImmutableGraph extends AbstractImmutableGraph {
+
+        private final Graph graph;
+
+        DictionaryIndexedImmutableGraph(Graph graph) {
+            this.graph = graph;
+        }
+
+        @Override
+        protected Iterator<Triple> performFilter(BlankNodeOrIRI subject, IRI predicate, RDFTerm object) {
+            return graph.filter(subject, predicate, object);
+        }
+
+        @Override
+        public int performSize() {
+            return graph.size();
+        }
+    }
+}
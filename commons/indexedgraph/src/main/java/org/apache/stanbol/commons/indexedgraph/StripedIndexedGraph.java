@@ -0,0 +1,398 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.commons.indexedgraph;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.ImmutableGraph;
+import org.apache.clerezza.commons.rdf.RDFTerm;
+import org.apache.clerezza.commons.rdf.Triple;
+
+/**
+ * Thread safe {@link Graph} implementation that partitions triples by their
+ * subject over a fixed number of stripes. Every stripe is a
+ * {@link DictionaryIndexedGraph} guarded by its own {@link ReadWriteLock}.
+ * Threads adding or removing triples with different subjects will therefore
+ * typically not block each other.
+ * <p>
+ * Iterators returned by {@link #filter(BlankNodeOrIRI, IRI, RDFTerm)} are
+ * weakly consistent: The matching triples of a stripe are copied while
+ * holding the read lock of the stripe. Iterators never throw
+ * {@link java.util.ConcurrentModificationException}s and
+ * {@link Iterator#remove()} removes the last returned triple from the graph.
+ * <p>
+ * Single operations do not require any external locking. The read and write
+ * locks returned by {@link #getLock()} acquire the according locks of all
+ * stripes (in a fixed order). Holding the read lock therefore blocks all
+ * modifications and holding the write lock blocks all other readers and
+ * writers as required by the locking contract of {@link Graph}. As with
+ * {@link ReentrantReadWriteLock} a thread holding the read lock MUST NOT
+ * modify the graph.
+ */
+public class StripedIndexedGraph extends AbstractCollection<Triple> implements Graph {
+
+    /**
+     * The default number of stripes
+     */
+    public static final int DEFAULT_STRIPES = 16;
+
+    private final Stripe[] stripes;
+
+    private final ReadWriteLock lock;
+    
+    /**
+     * Creates an empty {@link StripedIndexedGraph} with the
+     * {@link #DEFAULT_STRIPES default number} of stripes
+     */
+    public StripedIndexedGraph() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * Creates an empty {@link StripedIndexedGraph}
+     * @param stripes the number of stripes. Rounded up to the next power of two
+     * @throws IllegalArgumentException if the parsed number of stripes is
+     * <code>&lt; 1</code>
+     */
+    public StripedIndexedGraph(int stripes) {
+        if(stripes < 1){
+            throw new IllegalArgumentException("The number of stripes MUST BE >= 1 (parsed: "
+                + stripes + ")!");
+        }
+        int num = Integer.highestOneBit(stripes);
+        if(num < stripes){
+            num = num << 1;
+        }
+        this.stripes = new Stripe[num];
+        for(int i = 0; i < num; i++){
+            this.stripes[i] = new Stripe();
+        }
+        Lock[] readLocks = new Lock[num];
+        Lock[] writeLocks = new Lock[num];
+        for(int i = 0; i < num; i++){
+            readLocks[i] = this.stripes[i].lock.readLock();
+            writeLocks[i] = this.stripes[i].lock.writeLock();
+        }
+        final Lock readLock = new AllStripesLock(readLocks);
+        final Lock writeLock = new AllStripesLock(writeLocks);
+        this.lock = new ReadWriteLock() {
+            @Override
+            public Lock readLock() {
+                return readLock;
+            }
+            @Override
+            public Lock writeLock() {
+                return writeLock;
+            }
+        };
+    }
+
+    /**
+     * Creates a {@link StripedIndexedGraph} for the specified collection of
+     * triples, subsequent modification of baseSet do not affect the created
+     * instance.
+     *
+     * @param baseCollection collection of triples
+     */
+    public StripedIndexedGraph(Collection<Triple> baseCollection) {
+        this(DEFAULT_STRIPES);
+        for(Triple triple : baseCollection){
+            add(triple);
+        }
+    }
+
+    private Stripe getStripe(RDFTerm subject) {
+        int h = subject.hashCode();
+        h ^= (h >>> 16);
+        return stripes[h & (stripes.length - 1)];
+    }
+
+    @Override
+    public boolean add(Triple triple) {
+        Stripe stripe = getStripe(triple.getSubject());
+        stripe.lock.writeLock().lock();
+        try {
+            return stripe.graph.add(triple);
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if(!(o instanceof Triple)){
+            return false;
+        }
+        Triple triple = (Triple)o;
+        Stripe stripe = getStripe(triple.getSubject());
+        stripe.lock.writeLock().lock();
+        try {
+            return stripe.graph.remove(triple);
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if(!(o instanceof Triple)){
+            return false;
+        }
+        Triple triple = (Triple)o;
+        Stripe stripe = getStripe(triple.getSubject());
+        stripe.lock.readLock().lock();
+        try {
+            return stripe.graph.contains(triple);
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for(Stripe stripe : stripes){
+            stripe.lock.readLock().lock();
+            try {
+                size = size + stripe.graph.size();
+            } finally {
+                stripe.lock.readLock().unlock();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for(Stripe stripe : stripes){
+            stripe.lock.readLock().lock();
+            try {
+                if(!stripe.graph.isEmpty()){
+                    return false;
+                }
+            } finally {
+                stripe.lock.readLock().unlock();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        for(Stripe stripe : stripes){
+            stripe.lock.writeLock().lock();
+            try {
+                stripe.graph.clear();
+            } finally {
+                stripe.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public Iterator<Triple> iterator() {
+        return filter(null, null, null);
+    }
+
+    @Override
+    public Iterator<Triple> filter(BlankNodeOrIRI subject, IRI predicate, RDFTerm object) {
+        if(subject != null){
+            return new StripeIterator(new Stripe[]{getStripe(subject)}, subject, predicate, object);
+        } else {
+            return new StripeIterator(stripes, null, predicate, object);
+        }
+    }
+
+    @Override
+    public ImmutableGraph getImmutableGraph() {
+        return new IndexedImmutableGraph(iterator());
+    }
+
+    @Override
+    public ReadWriteLock getLock() {
+        return lock;
+    }
+
+    private static final class Stripe {
+        
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Graph graph = new DictionaryIndexedGraph();
+
+        /**
+         * Copies the matching triples while holding the read lock
+         */
+        List<Triple> filter(BlankNodeOrIRI subject, IRI predicate, RDFTerm object) {
+            lock.readLock().lock();
+            try {
+                Iterator<Triple> it = graph.filter(subject, predicate, object);
+                if(!it.hasNext()){
+                    return Collections.emptyList();
+                }
+                List<Triple> triples = new ArrayList<Triple>();
+                while(it.hasNext()){
+                    triples.add(it.next());
+                }
+                return triples;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * {@link Lock} that acquires the parsed locks in their order and releases
+     * them in reverse order.
+     */
+    private static final class AllStripesLock implements Lock {
+        
+        private final Lock[] locks;
+        
+        AllStripesLock(Lock[] locks) {
+            this.locks = locks;
+        }
+
+        @Override
+        public void lock() {
+            for(Lock lock : locks){
+                lock.lock();
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            int locked = 0;
+            try {
+                for(; locked < locks.length; locked++){
+                    locks[locked].lockInterruptibly();
+                }
+            } finally {
+                if(locked < locks.length){
+                    unlock(locked);
+                }
+            }
+        }
+
+        @Override
+        public boolean tryLock() {
+            for(int i = 0; i < locks.length; i++){
+                if(!locks[i].tryLock()){
+                    unlock(i);
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(time);
+            int locked = 0;
+            try {
+                for(; locked < locks.length; locked++){
+                    if(!locks[locked].tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)){
+                        return false;
+                    }
+                }
+                return true;
+            } finally {
+                if(locked < locks.length){
+                    unlock(locked);
+                }
+            }
+        }
+
+        @Override
+        public void unlock() {
+            unlock(locks.length);
+        }
+        /**
+         * Releases the first <code>num</code> locks in reverse order
+         */
+        private void unlock(int num) {
+            for(int i = num - 1; i >= 0; i--){
+                locks[i].unlock();
+            }
+        }
+
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException("Conditions are not supported");
+        }
+    }
+
+    /**
+     * Iterates over the matching triples of the parsed stripes. The
+     * triples of a stripe are copied when the iterator reaches the stripe.
+     */
+    private class StripeIterator implements Iterator<Triple> {
+
+        private final Stripe[] toIterate;
+        private final BlankNodeOrIRI subject;
+        private final IRI predicate;
+        private final RDFTerm object;
+        private int stripeIndex = 0;
+        private Iterator<Triple> current = Collections.<Triple>emptyList().iterator();
+        private Triple last;
+
+        StripeIterator(Stripe[] toIterate, BlankNodeOrIRI subject, IRI predicate, RDFTerm object) {
+            this.toIterate = toIterate;
+            this.subject = subject;
+            this.predicate = predicate;
+            this.object = object;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while(!current.hasNext() && stripeIndex < toIterate.length){
+                current = toIterate[stripeIndex++].filter(subject, predicate, object).iterator();
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public Triple next() {
+            if(!hasNext()){
+                throw new NoSuchElementException();
+            }
+            last = current.next();
+            return last;
+        }
+
+        @Override
+        public void remove() {
+            if(last == null){
+                throw new IllegalStateException();
+            }
+            StripedIndexedGraph.this.remove(last);
+            last = null;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.commons.indexedgraph;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.RDFTerm;
+import org.apache.clerezza.commons.rdf.Triple;
+import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
+import org.apache.clerezza.commons.rdf.impl.utils.simple.SimpleGraph;
+import org.apache.clerezza.rdf.core.test.GraphTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DictionaryIndexedGraphTest extends GraphTest {
+
+    private IRI uriRef1 = new IRI("http://example.org/foo");
+    private IRI uriRef2 = new IRI("http://example.org/bar");
+    private IRI uriRef3 = new IRI("http://example.org/test");
+    private Triple triple1 = new TripleImpl(uriRef1, uriRef2, uriRef3);
+    private Triple triple2 = new TripleImpl(uriRef2, uriRef2, uriRef1);
+    private Triple triple3 = new TripleImpl(uriRef3, uriRef1, uriRef3);
+    private Triple triple4 = new TripleImpl(uriRef1, uriRef3, uriRef2);
+    private Triple triple5 = new TripleImpl(uriRef2, uriRef3, uriRef2);
+
+    @Override
+    protected Graph getEmptyGraph() {
+        return new DictionaryIndexedGraph();
+    }
+
+    private Graph createTestGraph(){
+        Graph graph = getEmptyGraph();
+        graph.add(triple1);
+        graph.add(triple2);
+        graph.add(triple3);
+        graph.add(triple4);
+        graph.add(triple5);
+        return graph;
+    }
+
+    @Test
+    public void iteratorRemove() {
+        Graph graph = createTestGraph();
+        Iterator<Triple> iter = graph.iterator();
+        while (iter.hasNext()) {
+            iter.next();
+            iter.remove();
+        }
+        Assert.assertEquals(0, graph.size());
+        Assert.assertFalse(graph.filter(uriRef1, null, null).hasNext());
+    }
+
+    @Test
+    public void filterIteratorRemove() {
+        Graph graph = createTestGraph();
+        Iterator<Triple> iter = graph.filter(null, uriRef3, null);
+        int removed = 0;
+        while (iter.hasNext()) {
+            Assert.assertEquals(uriRef3, iter.next().getPredicate());
+            iter.remove();
+            removed++;
+        }
+        Assert.assertEquals(2, removed);
+        Assert.assertEquals(3, graph.size());
+        Assert.assertTrue(graph.contains(triple1));
+        Assert.assertTrue(graph.contains(triple2));
+        Assert.assertTrue(graph.contains(triple3));
+    }
+
+    @Test(expected=ConcurrentModificationException.class)
+    public void remove() {
+        Graph graph = createTestGraph();
+        Iterator<Triple> iter = graph.filter(uriRef1, null, null);
+        while (iter.hasNext()) {
+            Triple triple = iter.next();
+            graph.remove(triple);
+        }
+    }
+
+    @Test
+    public void unknownTerms() {
+        Graph graph = createTestGraph();
+        IRI unknown = new IRI("http://example.org/unknown");
+        Assert.assertFalse(graph.filter(unknown, null, null).hasNext());
+        Assert.assertFalse(graph.filter(uriRef1, unknown, null).hasNext());
+        Assert.assertFalse(graph.contains(new TripleImpl(uriRef1, uriRef2, unknown)));
+        Assert.assertFalse(graph.remove(new TripleImpl(uriRef1, uriRef2, unknown)));
+        Assert.assertFalse(graph.add(triple1));
+        Assert.assertEquals(5, graph.size());
+    }
+
+    /**
+     * Randomly adds and removes triples and validates the state of the
+     * {@link DictionaryIndexedGraph} against a {@link SimpleGraph}. This
+     * ensures that reused slots and term ids do not corrupt the indexes.
+     */
+    @Test
+    public void randomModifications() {
+        Random rnd = new Random(42);
+        List<IRI> resources = new ArrayList<IRI>();
+        for(int i = 0; i < 20; i++){
+            resources.add(new IRI("http://example.org/resource"+i));
+        }
+        Graph expected = new SimpleGraph();
+        Graph graph = getEmptyGraph();
+        for(int i = 0; i < 5000; i++){
+            Triple triple = new TripleImpl(resources.get(rnd.nextInt(resources.size())),
+                resources.get(rnd.nextInt(5)),resources.get(rnd.nextInt(resources.size())));
+            if(rnd.nextInt(3) == 0){
+                Assert.assertEquals(expected.remove(triple), graph.remove(triple));
+            } else {
+                Assert.assertEquals(expected.add(triple), graph.add(triple));
+            }
+        }
+        //remove all triples of a single subject by using the iterator
+        for(Iterator<Triple> it = graph.filter(resources.get(0), null, null);it.hasNext();){
+            Assert.assertTrue(expected.remove(it.next()));
+            it.remove();
+        }
+        Assert.assertEquals(expected.size(), graph.size());
+        for(IRI resource : resources){
+            assertFilter(expected, graph, resource, null, null);
+            assertFilter(expected, graph, null, resource, null);
+            assertFilter(expected, graph, null, null, resource);
+            assertFilter(expected, graph, resource, resources.get(1), null);
+            assertFilter(expected, graph, null, resources.get(2), resource);
+        }
+        assertFilter(expected, graph, null, null, null);
+        Assert.assertEquals(expected.getImmutableGraph(), graph.getImmutableGraph());
+    }
+
+    private void assertFilter(Graph expected, Graph graph, BlankNodeOrIRI s, IRI p, RDFTerm o){
+        Set<Triple> expectedTriples = new HashSet<Triple>();
+        for(Iterator<Triple> it = expected.filter(s, p, o);it.hasNext();){
+            expectedTriples.add(it.next());
+        }
+        Set<Triple> triples = new HashSet<Triple>();
+        for(Iterator<Triple> it = graph.filter(s, p, o);it.hasNext();){
+            Assert.assertTrue(triples.add(it.next()));
+        }
+        Assert.assertEquals(expectedTriples, triples);
+    }
+}
@@ -229,6 +229,9 @@ public class IndexedGraphTest  extends GraphTest {
         start = System.currentTimeMillis();
         Graph ig = new IndexedGraph(graph);
         log.info("  ... {}: {}",ig.getClass().getSimpleName(), System.currentTimeMillis()-start);
+        start = System.currentTimeMillis();
+        Graph dg = new DictionaryIndexedGraph(graph);
+        log.info("  ... {}: {}",dg.getClass().getSimpleName(), System.currentTimeMillis()-start);
         //Simple ImmutableGraph reference test
         TestCase testCase = new TestCase(sg, 20, 5, 20); //reduced form 100,5,100
         log.info("Filter Performance Test (graph size {} triples, iterations {})",graphsize,iterations);
@@ -242,6 +245,12 @@ public class IndexedGraphTest  extends GraphTest {
         List<Long> igr = executeTest(ig, testCase, iterations);
         log.info(" --- TEST completed in {}ms",System.currentTimeMillis()-start);
         Assert.assertEquals(sgr, igr); //validate filter implementation
+
+        log.info(" --- TEST {} {} triples ---",dg.getClass().getSimpleName(),sg.size());
+        start = System.currentTimeMillis();
+        List<Long> dgr = executeTest(dg, testCase, iterations);
+        log.info(" --- TEST completed in {}ms",System.currentTimeMillis()-start);
+        Assert.assertEquals(sgr, dgr); //validate filter implementation
     }
     
     public List<Long> executeTest(Graph graph, TestCase test, int testCount){
@@ -413,7 +422,7 @@ public class IndexedGraphTest  extends GraphTest {
         return count;
     }
     
-    private static void createGraph(Collection<Triple> tc, int triples, Long seed){
+    static void createGraph(Collection<Triple> tc, int triples, Long seed){
         Random rnd = new Random();
         if(seed != null){
              rnd.setSeed(seed);
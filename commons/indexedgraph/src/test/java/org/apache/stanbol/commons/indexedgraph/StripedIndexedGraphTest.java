@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.commons.indexedgraph;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.Triple;
+import org.apache.clerezza.commons.rdf.impl.utils.PlainLiteralImpl;
+import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
+import org.apache.clerezza.rdf.core.test.GraphTest;
+import org.apache.clerezza.rdf.ontologies.RDFS;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StripedIndexedGraphTest extends GraphTest {
+
+    private IRI uriRef1 = new IRI("http://example.org/foo");
+    private IRI uriRef2 = new IRI("http://example.org/bar");
+    private IRI uriRef3 = new IRI("http://example.org/test");
+
+    @Override
+    protected Graph getEmptyGraph() {
+        return new StripedIndexedGraph();
+    }
+
+    @Test
+    public void iteratorRemove() {
+        Graph graph = getEmptyGraph();
+        graph.add(new TripleImpl(uriRef1, uriRef2, uriRef3));
+        graph.add(new TripleImpl(uriRef2, uriRef2, uriRef1));
+        graph.add(new TripleImpl(uriRef3, uriRef1, uriRef3));
+        Iterator<Triple> iter = graph.filter(null, uriRef2, null);
+        while (iter.hasNext()) {
+            iter.next();
+            iter.remove();
+        }
+        Assert.assertEquals(1, graph.size());
+    }
+
+    /**
+     * Iterators are weakly consistent and MUST NOT throw
+     * ConcurrentModificationExceptions
+     */
+    @Test
+    public void modifyWhileIterating() {
+        Graph graph = getEmptyGraph();
+        graph.add(new TripleImpl(uriRef1, uriRef2, uriRef3));
+        graph.add(new TripleImpl(uriRef1, uriRef3, uriRef2));
+        graph.add(new TripleImpl(uriRef2, uriRef2, uriRef1));
+        Iterator<Triple> iter = graph.filter(uriRef1, null, null);
+        while (iter.hasNext()) {
+            Triple triple = iter.next();
+            graph.remove(triple);
+            graph.add(new TripleImpl(uriRef3, triple.getPredicate(), triple.getObject()));
+        }
+        Assert.assertEquals(3, graph.size());
+        Assert.assertFalse(graph.filter(uriRef1, null, null).hasNext());
+    }
+
+    @Test
+    public void concurrentModifications() throws Exception {
+        final Graph graph = getEmptyGraph();
+        final int threads = 4;
+        final int triples = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+            for(int t = 0; t < threads; t++){
+                final int thread = t;
+                results.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        int read = 0;
+                        for(int i = 0; i < triples; i++){
+                            IRI subject = new IRI("http://example.org/thread"+thread+"/"+i);
+                            graph.add(new TripleImpl(subject, RDFS.label, 
+                                new PlainLiteralImpl("label "+i)));
+                            graph.add(new TripleImpl(subject, RDFS.seeAlso, uriRef1));
+                            for(Iterator<Triple> it = graph.filter(null, null, uriRef1);
+                                    it.hasNext() && read < triples;read++){
+                                it.next();
+                            }
+                            if(i % 2 == 0){
+                                graph.remove(new TripleImpl(subject, RDFS.seeAlso, uriRef1));
+                            }
+                        }
+                        return read;
+                    }
+                }));
+            }
+            for(Future<Integer> result : results){
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertEquals(threads * triples * 3 / 2, graph.size());
+        int seeAlso = 0;
+        for(Iterator<Triple> it = graph.filter(null, RDFS.seeAlso, null); it.hasNext(); it.next()){
+            seeAlso++;
+        }
+        Assert.assertEquals(threads * triples / 2, seeAlso);
+    }
+
+    /**
+     * The write lock returned by {@link Graph#getLock()} MUST block
+     * modifications and reads of other threads
+     */
+    @Test
+    public void writeLockBlocksOtherThreads() throws Exception {
+        final Graph graph = getEmptyGraph();
+        graph.add(new TripleImpl(uriRef1, uriRef2, uriRef3));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Boolean> add;
+            Future<Integer> size;
+            graph.getLock().writeLock().lock();
+            try {
+                //the lock is reentrant for the holder
+                Assert.assertTrue(graph.add(new TripleImpl(uriRef2, uriRef2, uriRef3)));
+                add = executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        return graph.add(new TripleImpl(uriRef3, uriRef2, uriRef1));
+                    }
+                });
+                size = executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        return graph.size();
+                    }
+                });
+                try {
+                    add.get(200, TimeUnit.MILLISECONDS);
+                    Assert.fail("add(..) MUST block while an other thread holds the write lock");
+                } catch (TimeoutException e) {/* expected */}
+                Assert.assertFalse(size.isDone());
+                Assert.assertEquals(2, graph.size());
+            } finally {
+                graph.getLock().writeLock().unlock();
+            }
+            Assert.assertTrue(add.get(5, TimeUnit.SECONDS));
+            int s = size.get(5, TimeUnit.SECONDS);
+            Assert.assertTrue(s == 2 || s == 3);
+            Assert.assertEquals(3, graph.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * The read lock returned by {@link Graph#getLock()} MUST block
+     * modifications of other threads but not readers
+     */
+    @Test
+    public void readLockBlocksWriters() throws Exception {
+        final Graph graph = getEmptyGraph();
+        graph.add(new TripleImpl(uriRef1, uriRef2, uriRef3));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> remove;
+            graph.getLock().readLock().lock();
+            try {
+                Assert.assertTrue(graph.getLock().readLock().tryLock());
+                graph.getLock().readLock().unlock();
+                Integer size = executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        return graph.size();
+                    }
+                }).get(5, TimeUnit.SECONDS);
+                Assert.assertEquals(1, size.intValue());
+                Assert.assertFalse(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        return graph.getLock().writeLock().tryLock();
+                    }
+                }).get(5, TimeUnit.SECONDS));
+                remove = executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        return graph.remove(new TripleImpl(uriRef1, uriRef2, uriRef3));
+                    }
+                });
+                try {
+                    remove.get(200, TimeUnit.MILLISECONDS);
+                    Assert.fail("remove(..) MUST block while an other thread holds the read lock");
+                } catch (TimeoutException e) {/* expected */}
+                Assert.assertEquals(1, graph.size());
+            } finally {
+                graph.getLock().readLock().unlock();
+            }
+            Assert.assertTrue(remove.get(5, TimeUnit.SECONDS));
+            Assert.assertTrue(graph.isEmpty());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -29,6 +29,8 @@ public interface JobManager {
      * 
      * @param task
      * @return
+     * @throws java.util.concurrent.RejectedExecutionException
+     *             if the job can not be accepted because too many jobs are waiting for execution
      */
     public String execute(Job job);
 
@@ -72,4 +74,11 @@ public interface JobManager {
      * Interrupt all asynch processes and remove them form the job list.
      */
     public void removeAll();
+
+    /**
+     * The current state of the executor (queue depth, running jobs, latencies)
+     * 
+     * @return
+     */
+    public JobStatistics getStatistics();
 }
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.commons.jobs.api;
+
+/**
+ * A snapshot of the state of a {@link JobManager}.
+ */
+public interface JobStatistics {
+
+    /**
+     * The maximum number of jobs executed concurrently
+     * 
+     * @return
+     */
+    public int getMaxThreads();
+
+    /**
+     * The maximum number of jobs waiting for execution
+     * 
+     * @return
+     */
+    public int getQueueCapacity();
+
+    /**
+     * The number of jobs waiting for execution
+     * 
+     * @return
+     */
+    public int getQueued();
+
+    /**
+     * The number of jobs currently executed
+     * 
+     * @return
+     */
+    public int getRunning();
+
+    /**
+     * The number of completed jobs whose results are still available
+     * 
+     * @return
+     */
+    public int getCompleted();
+
+    /**
+     * The number of jobs executed since the manager was started
+     * 
+     * @return
+     */
+    public long getExecuted();
+
+    /**
+     * The number of jobs rejected because the queue was full
+     * 
+     * @return
+     */
+    public long getRejected();
+
+    /**
+     * The number of jobs that exceeded the maximum execution time
+     * 
+     * @return
+     */
+    public long getTimedOut();
+
+    /**
+     * The average time (in milliseconds) executed jobs have been waiting in the queue
+     * 
+     * @return
+     */
+    public long getAverageQueueTime();
+
+    /**
+     * The average time (in milliseconds) needed to execute a job
+     * 
+     * @return
+     */
+    public long getAverageExecutionTime();
+
+    /**
+     * The average CPU time (in milliseconds) used by a job, or <code>-1</code> if the JVM does not support
+     * measuring the CPU time of threads
+     * 
+     * @return
+     */
+    public long getAverageCpuTime();
+}
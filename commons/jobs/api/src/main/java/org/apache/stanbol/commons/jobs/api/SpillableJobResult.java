@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.commons.jobs.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A {@link JobResult} that can be written to a file while it waits to be retrieved. The {@link JobManager}
+ * spills results with a {@link #getSize() size} above its configured threshold and reloads them when the
+ * result is requested, so that large results do not stay in memory until they expire.
+ */
+public interface SpillableJobResult extends JobResult {
+
+    /**
+     * The size of the held data in an implementation specific unit (e.g. the number of statements). Results
+     * with a size of <code>0</code> are never spilled.
+     *
+     * @return
+     */
+    public long getSize();
+
+    /**
+     * Writes the held data to the parsed stream. The stream is not closed. Called by the thread of the job
+     * before the job completes; if writing fails the job fails.
+     *
+     * @param out
+     * @throws IOException
+     */
+    public void writeTo(OutputStream out) throws IOException;
+
+    /**
+     * Drops the held data. Called after the data was successfully written by {@link #writeTo(OutputStream)}.
+     */
+    public void release();
+
+    /**
+     * Creates a new result with the data read from the parsed stream. The stream is not closed.
+     *
+     * @param in
+     *            the data as written by {@link #writeTo(OutputStream)}
+     * @return the reloaded result
+     * @throws IOException
+     */
+    public JobResult readFrom(InputStream in) throws IOException;
+}
@@ -16,93 +16,318 @@
  */
 package org.apache.stanbol.commons.jobs.impl;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ExecutorService;
+import java.util.Dictionary;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.codec.binary.Base64;
+import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Properties;
+import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Service;
 import org.apache.stanbol.commons.jobs.api.Job;
 import org.apache.stanbol.commons.jobs.api.JobManager;
+import org.apache.stanbol.commons.jobs.api.JobResult;
+import org.apache.stanbol.commons.jobs.api.JobStatistics;
+import org.apache.stanbol.commons.jobs.api.PrioritizedJob;
+import org.apache.stanbol.commons.jobs.api.SpillableJobResult;
+import org.osgi.service.cm.ConfigurationException;
+import org.osgi.service.component.ComponentContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 /**
- * Implementation of the {@JobManager} interface.
+ * Implementation of the {@JobManager} interface.<p>
+ * Jobs are executed by a bounded number of threads. Jobs that can not be executed immediately wait in a
+ * bounded queue ordered by {@link PrioritizedJob#getPriority()}; if the queue is full new jobs are rejected.
+ * Jobs running longer than the configured maximum execution time complete with a {@link TimeoutException}
+ * and their thread is interrupted. Completed jobs (and their results) are removed after the configured time
+ * to live. {@link SpillableJobResult}s larger as the configured threshold are written to a file until they
+ * are requested or removed. Jobs fail if their result can not be written.
  * 
  * @author enridaga
  *
  */
-@Component(immediate = true)
+@Component(immediate = true, metatype = true)
 @Service(JobManager.class)
+@Properties(value={
+    @Property(name=JobManagerImpl.MAX_THREADS,intValue=JobManagerImpl.DEFAULT_MAX_THREADS),
+    @Property(name=JobManagerImpl.QUEUE_SIZE,intValue=JobManagerImpl.DEFAULT_QUEUE_SIZE),
+    @Property(name=JobManagerImpl.MAX_EXECUTION_TIME,longValue=JobManagerImpl.DEFAULT_MAX_EXECUTION_TIME),
+    @Property(name=JobManagerImpl.RESULT_TTL,longValue=JobManagerImpl.DEFAULT_RESULT_TTL),
+    @Property(name=JobManagerImpl.SPILL_THRESHOLD,longValue=JobManagerImpl.DEFAULT_SPILL_THRESHOLD)
+})
 public class JobManagerImpl implements JobManager {
-    private ExecutorService pool;
-    private Map<String,Future<?>> taskMap;
-    private Map<String,String> locations;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    /**
+     * The maximum number of jobs executed concurrently. Values <code>&lt;= 0</code> use the number of
+     * available processors.
+     */
+    public static final String MAX_THREADS = "org.apache.stanbol.commons.jobs.maxThreads";
+
+    public static final int DEFAULT_MAX_THREADS = 0;
+    /**
+     * The maximum number of jobs waiting for execution
+     */
+    public static final String QUEUE_SIZE = "org.apache.stanbol.commons.jobs.queueSize";
+
+    public static final int DEFAULT_QUEUE_SIZE = 100;
+    /**
+     * The maximum time (in seconds) a job may run before it completes with a {@link TimeoutException}.
+     * Values <code>&lt;= 0</code> deactivate the limit.<p>
+     * Java threads can not be stopped: the thread of the job is only interrupted. Jobs need to check
+     * {@link Thread#isInterrupted()} (or call interruptible methods) to actually stop. Until then the
+     * thread stays busy and is not available for other jobs.
+     */
+    public static final String MAX_EXECUTION_TIME = "org.apache.stanbol.commons.jobs.maxExecutionTime";
+
+    public static final long DEFAULT_MAX_EXECUTION_TIME = 0;
+    /**
+     * The time (in seconds) the results of completed jobs are kept. Values <code>&lt;= 0</code> keep them
+     * until the job is removed.
+     */
+    public static final String RESULT_TTL = "org.apache.stanbol.commons.jobs.resultTTL";
+
+    public static final long DEFAULT_RESULT_TTL = 3600;
+    /**
+     * The {@link SpillableJobResult#getSize() size} above that results are written to a file until they
+     * are requested. Values <code>&lt;= 0</code> keep all results in memory.
+     */
+    public static final String SPILL_THRESHOLD = "org.apache.stanbol.commons.jobs.spillThreshold";
+
+    public static final long DEFAULT_SPILL_THRESHOLD = 10000;
+
+    private ThreadPoolExecutor pool;
+    private ScheduledExecutorService scheduler;
+    private int queueSize;
+    private long maxExecutionTime;
+    private long resultTTL;
+    private long spillThreshold;
+    /**
+     * The directory for spilled results or <code>null</code> to use the default temporary directory
+     */
+    private File spillDirectory;
+
+    private final ConcurrentMap<String,ManagedJob> taskMap = new ConcurrentHashMap<String,ManagedJob>();
+    private final ConcurrentMap<String,String> locations = new ConcurrentHashMap<String,String>();
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong queueTime = new AtomicLong();
+    private final AtomicLong executionTime = new AtomicLong();
+    private final AtomicLong cpuTime = new AtomicLong();
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
 
     public JobManagerImpl() {
-        this.pool = Executors.newCachedThreadPool();
-        this.taskMap = new HashMap<String,Future<?>>();
-        this.locations = new HashMap<String,String>();
+        this(DEFAULT_MAX_THREADS, DEFAULT_QUEUE_SIZE, 
+            TimeUnit.SECONDS.toMillis(DEFAULT_MAX_EXECUTION_TIME),
+            TimeUnit.SECONDS.toMillis(DEFAULT_RESULT_TTL), DEFAULT_SPILL_THRESHOLD);
+    }
+
+    /**
+     * Creates a manager with the given limits and the {@link #DEFAULT_SPILL_THRESHOLD}
+     * 
+     * @see #JobManagerImpl(int, int, long, long, long)
+     */
+    public JobManagerImpl(int maxThreads, int queueSize, long maxExecutionTime, long resultTTL) {
+        this(maxThreads, queueSize, maxExecutionTime, resultTTL, DEFAULT_SPILL_THRESHOLD);
+    }
+
+    /**
+     * Creates a manager with the given limits
+     * 
+     * @param maxThreads the maximum number of jobs executed concurrently (<code>&lt;= 0</code> for the 
+     * number of available processors)
+     * @param queueSize the maximum number of jobs waiting for execution
+     * @param maxExecutionTime the maximum execution time of a job in milliseconds (<code>&lt;= 0</code>
+     * for no limit)
+     * @param resultTTL the time in milliseconds completed jobs are kept (<code>&lt;= 0</code> to keep them 
+     * until removed)
+     * @param spillThreshold the size above that {@link SpillableJobResult}s are written to a temporary
+     * file (<code>&lt;= 0</code> to keep all results in memory)
+     */
+    public JobManagerImpl(int maxThreads, int queueSize, long maxExecutionTime, long resultTTL,
+                          long spillThreshold) {
+        configure(maxThreads, queueSize, maxExecutionTime, resultTTL, spillThreshold);
+    }
+
+    @Activate
+    protected void activate(ComponentContext ctx) throws ConfigurationException {
+        log.info("activate {}", getClass().getName());
+        @SuppressWarnings("unchecked")
+        Dictionary<String,Object> config = ctx.getProperties();
+        int maxThreads = (int) getLongValue(config, MAX_THREADS, DEFAULT_MAX_THREADS);
+        int queueSize = (int) getLongValue(config, QUEUE_SIZE, DEFAULT_QUEUE_SIZE);
+        if (queueSize <= 0) {
+            throw new ConfigurationException(QUEUE_SIZE, "The queue size MUST BE > 0!");
+        }
+        long maxExecutionTime = getLongValue(config, MAX_EXECUTION_TIME, DEFAULT_MAX_EXECUTION_TIME);
+        long resultTTL = getLongValue(config, RESULT_TTL, DEFAULT_RESULT_TTL);
+        long spillThreshold = getLongValue(config, SPILL_THRESHOLD, DEFAULT_SPILL_THRESHOLD);
+        File dir = ctx.getBundleContext().getDataFile("results");
+        if (dir != null && (dir.isDirectory() || dir.mkdirs())) {
+            spillDirectory = dir;
+        } else {
+            log.warn("Unable to use the bundle data directory for results (use the temporary directory)");
+            spillDirectory = null;
+        }
+        configure(maxThreads, queueSize, TimeUnit.SECONDS.toMillis(maxExecutionTime),
+            TimeUnit.SECONDS.toMillis(resultTTL), spillThreshold);
+    }
+
+    @Deactivate
+    protected void deactivate(ComponentContext ctx) {
+        log.info("deactivate {}", getClass().getName());
+        removeAll();
+        pool.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    private static long getLongValue(Dictionary<String,Object> config, String key, long defaultValue) 
+            throws ConfigurationException {
+        Object value = config.get(key);
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        } else if (value != null && !value.toString().trim().isEmpty()) {
+            try {
+                return Long.parseLong(value.toString().trim());
+            } catch (NumberFormatException e) {
+                throw new ConfigurationException(key, "Unable to parse integer value from '" + value + "'!", e);
+            }
+        } else {
+            return defaultValue;
+        }
+    }
+
+    private synchronized void configure(int maxThreads, int queueSize, long maxExecutionTime, long resultTTL,
+                                        long spillThreshold) {
+        if (maxThreads <= 0) {
+            maxThreads = Runtime.getRuntime().availableProcessors();
+        }
+        if (pool != null) { // jobs of the previous configuration
+            removeAll();
+            pool.shutdownNow();
+            scheduler.shutdownNow();
+        }
+        this.queueSize = queueSize;
+        this.maxExecutionTime = maxExecutionTime;
+        this.resultTTL = resultTTL;
+        this.spillThreshold = spillThreshold;
+        this.pool = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<Runnable>(), new NamedDaemonThreadFactory("Stanbol Job"));
+        this.pool.allowCoreThreadTimeOut(true);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+            new NamedDaemonThreadFactory("Stanbol Job Timeout"));
+        log.info(" ... execute jobs with {} threads (queueSize: {}, maxExecutionTime: {}ms, resultTTL: {}ms, "
+                + "spillThreshold: {})", new Object[]{maxThreads, queueSize, maxExecutionTime, resultTTL,
+                        spillThreshold});
     }
 
     @Override
     public String execute(Job job) {
         String id = JobManagerImpl.buildId(job);
-        Future<?> future = this.pool.submit(job);
-        synchronized (taskMap) {
-            taskMap.put(id, future);
-            locations.put(id, job.buildResultLocation(id));
-            return id;
+        ManagedJob task = new ManagedJob(id, job);
+        synchronized (this) {
+            if (pool.getQueue().size() >= queueSize) {
+                rejected.incrementAndGet();
+                throw new RejectedExecutionException("Unable to execute Job " + id + " because " 
+                        + queueSize + " jobs are already waiting for execution");
+            }
+            String location = job.buildResultLocation(id);
+            if (location != null) {
+                locations.put(id, location);
+            } else {
+                locations.remove(id);
+            }
+            ManagedJob old = taskMap.put(id, task);
+            if (old != null) {
+                old.cancel(true);
+                pool.remove(old);
+                old.discard();
+            }
+            pool.execute(task);
         }
+        return id;
     }
 
     @Override
     public Future<?> ping(String id) {
-        synchronized (taskMap) {
-            return taskMap.get(id);            
-        }
+        return taskMap.get(id);
     }
 
-
     @Override
     public String getResultLocation(String id) {
-        synchronized (locations) {
-            return locations.get(id);            
-        }
+        return locations.get(id);
     }
 
     @Override
     public boolean hasJob(String id) {
-        synchronized (taskMap) {
-            return taskMap.containsKey(id);
-        }
+        return taskMap.containsKey(id);
     }
 
     @Override
     public int size() {
-        synchronized (taskMap) {
-            return taskMap.size();
-        }
+        return taskMap.size();
     }
 
     @Override
     public void remove(String id) {
-        synchronized (taskMap) {
-            // If the job does not exists
-            Future<?> f = taskMap.get(id);
-            if(f==null) {
-                throw new IllegalArgumentException("Job does not exists");
-            }
-            f.cancel(true);
-            taskMap.remove(id);
-            synchronized (locations) {
-                locations.remove(id);
+        // If the job does not exists
+        ManagedJob f = taskMap.remove(id);
+        if(f==null) {
+            throw new IllegalArgumentException("Job does not exists");
+        }
+        f.cancel(true);
+        pool.remove(f);
+        f.discard();
+        locations.remove(id);
+    }
+
+    /**
+     * Removes a completed job after its time to live, unless it was replaced by a new job with the same id
+     */
+    private void evict(ManagedJob job) {
+        job.discard();
+        if (taskMap.remove(job.id, job)) {
+            // the location is the same for jobs with the same id
+            if (!taskMap.containsKey(job.id)) {
+                locations.remove(job.id);
             }
+            log.debug("Evicted completed Job {}", job.id);
         }
     }
 
@@ -134,13 +359,362 @@ public class JobManagerImpl implements JobManager {
      */
     @Override
     public void removeAll() {
-        String[] ids;
-        synchronized (taskMap) {
-            ids =  taskMap.keySet().toArray(new String[taskMap.keySet().size()]);
-        }
+        String[] ids = taskMap.keySet().toArray(new String[0]);
         for(String j : ids){
-            remove(j);
+            try {
+                remove(j);
+            } catch (IllegalArgumentException e) {
+                // already removed by a concurrent call
+            }
         }
     }
 
+    @Override
+    public JobStatistics getStatistics() {
+        int completed = 0;
+        for (ManagedJob job : taskMap.values()) {
+            if (job.isDone()) {
+                completed++;
+            }
+        }
+        long executed = this.executed.get();
+        long cpuTime = threadBean.isThreadCpuTimeEnabled() ? 
+                (executed > 0 ? this.cpuTime.get() / executed : 0) : -1;
+        return new Statistics(pool.getMaximumPoolSize(), queueSize, pool.getQueue().size(), running.get(),
+                completed, executed, rejected.get(), timedOut.get(),
+                executed > 0 ? queueTime.get() / executed : 0,
+                executed > 0 ? executionTime.get() / executed : 0, cpuTime);
+    }
+
+    /**
+     * Wraps a {@link Job} to order it within the queue, enforce the maximum execution time, spill large
+     * results and collect statistics.
+     */
+    private class ManagedJob extends FutureTask<JobResult> implements Comparable<ManagedJob> {
+
+        private final String id;
+        private final int priority;
+        private final long seq;
+        private final long submitted;
+        /**
+         * The thread executing this job. Only read and written while holding
+         * the monitor of this job, so that a timeout can never interrupt a
+         * thread that already moved on to an other job.
+         */
+        private Thread runner;
+        private ScheduledFuture<?> timeout;
+        /**
+         * Guards the completion of this job, so that only the first of a
+         * result, an exception, a cancellation or a timeout changes its state.
+         */
+        private final AtomicBoolean completed = new AtomicBoolean(false);
+        /**
+         * The file holding the spilled result or <code>null</code> if the result is kept in memory
+         */
+        private volatile File spillFile;
+
+        ManagedJob(String id, Job job) {
+            super(job);
+            this.id = id;
+            this.priority = job instanceof PrioritizedJob ? 
+                    ((PrioritizedJob) job).getPriority() : PrioritizedJob.NORMAL_PRIORITY;
+            this.seq = sequence.incrementAndGet();
+            this.submitted = System.currentTimeMillis();
+        }
+
+        @Override
+        public void run() {
+            if (isDone()) { // canceled while queued
+                return;
+            }
+            long start = System.currentTimeMillis();
+            boolean measureCpu = threadBean.isThreadCpuTimeEnabled();
+            long cpuStart = measureCpu ? threadBean.getCurrentThreadCpuTime() : 0;
+            synchronized (this) {
+                runner = Thread.currentThread();
+            }
+            running.incrementAndGet();
+            if (maxExecutionTime > 0) {
+                timeout = scheduler.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        timeout();
+                    }
+                }, maxExecutionTime, TimeUnit.MILLISECONDS);
+            }
+            try {
+                super.run();
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                    // clear the interrupted state set by a timeout of this job
+                    Thread.interrupted();
+                }
+                if (timeout != null) {
+                    timeout.cancel(false);
+                }
+                running.decrementAndGet();
+                executed.incrementAndGet();
+                queueTime.addAndGet(start - submitted);
+                executionTime.addAndGet(System.currentTimeMillis() - start);
+                if (measureCpu) {
+                    cpuTime.addAndGet(TimeUnit.NANOSECONDS.toMillis(
+                        threadBean.getCurrentThreadCpuTime() - cpuStart));
+                }
+            }
+        }
+
+        private synchronized void timeout() {
+            if (runner == null || !completed.compareAndSet(false, true)) {
+                return; // already finished
+            }
+            log.warn("Job {} exceeded the maximum execution time of {}ms and gets interrupted", 
+                id, maxExecutionTime);
+            timedOut.incrementAndGet();
+            super.setException(new TimeoutException("Job " + id
+                    + " exceeded the maximum execution time of " + maxExecutionTime + "ms"));
+            // still the runner of this job as run() resets it while holding the lock
+            runner.interrupt();
+        }
+
+        /**
+         * Spills the result before the job completes, so that the maximum execution time also applies to
+         * results computed while they are written (e.g. lazily inferred statements).
+         */
+        @Override
+        protected void set(JobResult v) {
+            if (v instanceof SpillableJobResult && spillThreshold > 0 && !completed.get()
+                    && ((SpillableJobResult) v).getSize() > spillThreshold) {
+                try {
+                    spill((SpillableJobResult) v);
+                } catch (IOException e) {
+                    spillFailed(e);
+                    return;
+                } catch (RuntimeException e) {
+                    spillFailed(e);
+                    return;
+                }
+            }
+            if (completed.compareAndSet(false, true)) {
+                super.set(v);
+            } else { // timed out or canceled while spilling
+                discard();
+            }
+        }
+
+        private void spillFailed(Exception e) {
+            if (!completed.get()) { // not caused by a timeout or a cancellation
+                log.warn("Unable to spill the result of Job " + id, e);
+            }
+            setException(e);
+        }
+
+        /**
+         * Writes the result to a file and releases it
+         */
+        private void spill(SpillableJobResult result) throws IOException {
+            File file = File.createTempFile("job-", ".result", spillDirectory);
+            boolean spilled = false;
+            try {
+                OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+                try {
+                    result.writeTo(out);
+                } finally {
+                    out.close();
+                }
+                spilled = true;
+            } finally {
+                if (!spilled) {
+                    file.delete();
+                }
+            }
+            result.release();
+            spillFile = file;
+            log.debug("Spilled result of Job {} to {}", id, file);
+        }
+
+        @Override
+        public JobResult get() throws InterruptedException, ExecutionException {
+            return reload(super.get());
+        }
+
+        @Override
+        public JobResult get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException,
+                TimeoutException {
+            return reload(super.get(timeout, unit));
+        }
+
+        /**
+         * Reads a spilled result from its file
+         */
+        private JobResult reload(JobResult result) throws ExecutionException {
+            File file = spillFile;
+            if (file == null) {
+                return result;
+            }
+            try {
+                InputStream in = new BufferedInputStream(new FileInputStream(file));
+                try {
+                    return ((SpillableJobResult) result).readFrom(in);
+                } finally {
+                    in.close();
+                }
+            } catch (IOException e) {
+                throw new ExecutionException("Unable to read the spilled result of Job " + id, e);
+            }
+        }
+
+        /**
+         * Deletes the file of a spilled result
+         */
+        void discard() {
+            File file = spillFile;
+            spillFile = null;
+            if (file != null && !file.delete() && file.exists()) {
+                log.warn("Unable to delete the spilled result {} of Job {}", file, id);
+            }
+        }
+
+        @Override
+        protected void setException(Throwable t) {
+            if (completed.compareAndSet(false, true)) {
+                super.setException(t);
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return completed.compareAndSet(false, true) && super.cancel(mayInterruptIfRunning);
+        }
+
+        @Override
+        protected void done() {
+            if (resultTTL > 0) {
+                try {
+                    scheduler.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            evict(ManagedJob.this);
+                        }
+                    }, resultTTL, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    // the manager was deactivated
+                }
+            }
+        }
+
+        @Override
+        public int compareTo(ManagedJob other) {
+            if (priority != other.priority) {
+                return priority > other.priority ? -1 : 1;
+            }
+            return seq < other.seq ? -1 : (seq == other.seq ? 0 : 1);
+        }
+    }
+
+    /**
+     * Immutable {@link JobStatistics} snapshot
+     */
+    private static class Statistics implements JobStatistics {
+
+        private final int maxThreads;
+        private final int queueCapacity;
+        private final int queued;
+        private final int running;
+        private final int completed;
+        private final long executed;
+        private final long rejected;
+        private final long timedOut;
+        private final long averageQueueTime;
+        private final long averageExecutionTime;
+        private final long averageCpuTime;
+
+        Statistics(int maxThreads, int queueCapacity, int queued, int running, int completed, long executed,
+                   long rejected, long timedOut, long averageQueueTime, long averageExecutionTime,
+                   long averageCpuTime) {
+            this.maxThreads = maxThreads;
+            this.queueCapacity = queueCapacity;
+            this.queued = queued;
+            this.running = running;
+            this.completed = completed;
+            this.executed = executed;
+            this.rejected = rejected;
+            this.timedOut = timedOut;
+            this.averageQueueTime = averageQueueTime;
+            this.averageExecutionTime = averageExecutionTime;
+            this.averageCpuTime = averageCpuTime;
+        }
+
+        @Override
+        public int getMaxThreads() {
+            return maxThreads;
+        }
+
+        @Override
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        @Override
+        public int getQueued() {
+            return queued;
+        }
+
+        @Override
+        public int getRunning() {
+            return running;
+        }
+
+        @Override
+        public int getCompleted() {
+            return completed;
+        }
+
+        @Override
+        public long getExecuted() {
+            return executed;
+        }
+
+        @Override
+        public long getRejected() {
+            return rejected;
+        }
+
+        @Override
+        public long getTimedOut() {
+            return timedOut;
+        }
+
+        @Override
+        public long getAverageQueueTime() {
+            return averageQueueTime;
+        }
+
+        @Override
+        public long getAverageExecutionTime() {
+            return averageExecutionTime;
+        }
+
+        @Override
+        public long getAverageCpuTime() {
+            return averageCpuTime;
+        }
+    }
+
+    private static class NamedDaemonThreadFactory implements ThreadFactory {
+
+        private final String name;
+        private final AtomicInteger count = new AtomicInteger();
+
+        NamedDaemonThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, name + " " + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
 }
@@ -0,0 +1,360 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.reasoners.jobs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.stanbol.commons.jobs.api.Job;
+import org.apache.stanbol.commons.jobs.api.JobManager;
+import org.apache.stanbol.commons.jobs.api.JobResult;
+import org.apache.stanbol.commons.jobs.api.JobStatistics;
+import org.apache.stanbol.commons.jobs.api.PrioritizedJob;
+import org.apache.stanbol.commons.jobs.api.SpillableJobResult;
+import org.apache.stanbol.commons.jobs.impl.JobManagerImpl;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests the limits (threads, queue size, execution time, time to live, spilling) of the {@see JobManagerImpl}
+ */
+public class TestJobManagerLimits {
+
+    private JobManager jobManager;
+
+    @After
+    public void cleanup() {
+        if (jobManager != null) {
+            jobManager.removeAll();
+        }
+    }
+
+    /**
+     * A job waiting for the parsed latch (if any) and than sleeping for the parsed time. The
+     * {@link #started} latch is counted down as soon as the job is executed.
+     */
+    private static class TestJob implements PrioritizedJob {
+        private final String name;
+        private final int priority;
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch latch;
+        private final long sleep;
+        private final List<String> executed;
+
+        TestJob(String name, int priority, CountDownLatch latch, long sleep, List<String> executed) {
+            this.name = name;
+            this.priority = priority;
+            this.latch = latch;
+            this.sleep = sleep;
+            this.executed = executed;
+        }
+
+        @Override
+        public JobResult call() throws Exception {
+            started.countDown();
+            if (latch != null) {
+                latch.await();
+            }
+            if (executed != null) {
+                executed.add(name);
+            }
+            Thread.sleep(sleep);
+            return new JobResult() {
+                @Override
+                public String getMessage() {
+                    return name;
+                }
+
+                @Override
+                public boolean isSuccess() {
+                    return true;
+                }
+            };
+        }
+
+        @Override
+        public String buildResultLocation(String jobId) {
+            return "jobs/test/" + jobId;
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    @Test
+    public void testQueueSize() throws Exception {
+        jobManager = new JobManagerImpl(1, 2, 0, 0);
+        CountDownLatch latch = new CountDownLatch(1);
+        TestJob running = new TestJob("running", 0, latch, 0, null);
+        String first = jobManager.execute(running);
+        assertTrue(running.started.await(5, TimeUnit.SECONDS));
+        jobManager.execute(new TestJob("queued1", 0, latch, 0, null));
+        jobManager.execute(new TestJob("queued2", 0, latch, 0, null));
+        try {
+            jobManager.execute(new TestJob("rejected", 0, latch, 0, null));
+            fail("Job not rejected by a full queue");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+        JobStatistics stats = jobManager.getStatistics();
+        assertEquals(1, stats.getRunning());
+        assertEquals(2, stats.getQueued());
+        assertEquals(1, stats.getRejected());
+        latch.countDown();
+        jobManager.ping(first).get();
+    }
+
+    @Test
+    public void testPriority() throws Exception {
+        jobManager = new JobManagerImpl(1, 10, 0, 0);
+        CountDownLatch latch = new CountDownLatch(1);
+        List<String> executed = Collections.synchronizedList(new ArrayList<String>());
+        TestJob first = new TestJob("first", 0, latch, 0, executed);
+        jobManager.execute(first);
+        assertTrue(first.started.await(5, TimeUnit.SECONDS));
+        String low = jobManager.execute(new TestJob("low", -1, null, 0, executed));
+        jobManager.execute(new TestJob("normal", 0, null, 0, executed));
+        jobManager.execute(new TestJob("high", 5, null, 0, executed));
+        latch.countDown();
+        jobManager.ping(low).get(5, TimeUnit.SECONDS);
+        assertEquals(4, executed.size());
+        assertEquals("first", executed.get(0));
+        assertEquals("high", executed.get(1));
+        assertEquals("normal", executed.get(2));
+        assertEquals("low", executed.get(3));
+    }
+
+    @Test
+    public void testMaxExecutionTime() throws Exception {
+        jobManager = new JobManagerImpl(1, 10, 200, 0);
+        String id = jobManager.execute(new TestJob("sleeping", 0, null, 10000, null));
+        Future<?> f = jobManager.ping(id);
+        try {
+            f.get(5, TimeUnit.SECONDS);
+            fail("Job not interrupted after the max execution time");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        assertEquals(1, jobManager.getStatistics().getTimedOut());
+        // the thread is available for new jobs
+        String next = jobManager.execute(new TestJob("next", 0, null, 0, null));
+        assertEquals("next", ((JobResult) jobManager.ping(next).get(5, TimeUnit.SECONDS)).getMessage());
+    }
+
+    @Test
+    public void testResultTTL() throws Exception {
+        jobManager = new JobManagerImpl(1, 10, 0, 200);
+        String id = jobManager.execute(new TestJob("evicted", 0, null, 0, null));
+        jobManager.ping(id).get();
+        assertTrue(jobManager.hasJob(id));
+        assertEquals(1, jobManager.getStatistics().getCompleted());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (jobManager.hasJob(id) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertFalse(jobManager.hasJob(id));
+        assertEquals(null, jobManager.getResultLocation(id));
+        assertEquals(0, jobManager.size());
+    }
+
+    /**
+     * A result holding lines of text
+     */
+    private static class LinesResult implements SpillableJobResult {
+        private List<String> lines;
+
+        LinesResult(List<String> lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public String getMessage() {
+            return lines == null ? null : lines.size() + " lines";
+        }
+
+        @Override
+        public boolean isSuccess() {
+            return true;
+        }
+
+        @Override
+        public long getSize() {
+            return lines == null ? 0 : lines.size();
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            Writer writer = new OutputStreamWriter(out, "UTF-8");
+            for (String line : lines) {
+                writer.write(line);
+                writer.write('\n');
+            }
+            writer.flush();
+        }
+
+        @Override
+        public void release() {
+            lines = null;
+        }
+
+        @Override
+        public JobResult readFrom(InputStream in) throws IOException {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+            List<String> read = new ArrayList<String>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                read.add(line);
+            }
+            return new LinesResult(read);
+        }
+    }
+
+    private static Set<File> listSpilled() {
+        File[] files = new File(System.getProperty("java.io.tmpdir")).listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith("job-") && name.endsWith(".result");
+            }
+        });
+        return files == null ? new HashSet<File>() : new HashSet<File>(Arrays.asList(files));
+    }
+
+    @Test
+    public void testSpillResult() throws Exception {
+        jobManager = new JobManagerImpl(1, 10, 0, 500, 2);
+        final LinesResult result = new LinesResult(Arrays.asList("first", "second", "third"));
+        Set<File> before = listSpilled();
+        String id = jobManager.execute(new Job() {
+            @Override
+            public JobResult call() throws Exception {
+                return result;
+            }
+
+            @Override
+            public String buildResultLocation(String jobId) {
+                return null;
+            }
+        });
+        LinesResult reloaded = (LinesResult) jobManager.ping(id).get(5, TimeUnit.SECONDS);
+        assertNotSame(result, reloaded);
+        assertEquals(null, result.lines); // released after spilling
+        assertEquals(Arrays.asList("first", "second", "third"), reloaded.lines);
+        // every get reloads the result
+        assertEquals(reloaded.lines, ((LinesResult) jobManager.ping(id).get()).lines);
+        Set<File> spilled = listSpilled();
+        spilled.removeAll(before);
+        assertEquals(1, spilled.size());
+        // the file is deleted on eviction
+        long deadline = System.currentTimeMillis() + 5000;
+        while (jobManager.hasJob(id) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertFalse(jobManager.hasJob(id));
+        assertFalse(spilled.iterator().next().exists());
+    }
+
+    @Test
+    public void testSpillTimeout() throws Exception {
+        jobManager = new JobManagerImpl(1, 10, 200, 0, 2);
+        Set<File> before = listSpilled();
+        // a result that is computed while it is written
+        final LinesResult result = new LinesResult(Arrays.asList("first", "second", "third")) {
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                try {
+                    Thread.sleep(10000);
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+            }
+        };
+        String id = jobManager.execute(new Job() {
+            @Override
+            public JobResult call() throws Exception {
+                return result;
+            }
+
+            @Override
+            public String buildResultLocation(String jobId) {
+                return null;
+            }
+        });
+        try {
+            jobManager.ping(id).get(5, TimeUnit.SECONDS);
+            fail("Job not interrupted while spilling its result");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        // the thread is available for new jobs and the file was deleted
+        String next = jobManager.execute(new TestJob("next", 0, null, 0, null));
+        assertEquals("next", ((JobResult) jobManager.ping(next).get(5, TimeUnit.SECONDS)).getMessage());
+        assertEquals(before, listSpilled());
+    }
+
+    @Test
+    public void testSpillThreshold() throws Exception {
+        jobManager = new JobManagerImpl(1, 10, 0, 0, 3);
+        final LinesResult result = new LinesResult(Arrays.asList("first", "second", "third"));
+        String id = jobManager.execute(new Job() {
+            @Override
+            public JobResult call() throws Exception {
+                return result;
+            }
+
+            @Override
+            public String buildResultLocation(String jobId) {
+                return null;
+            }
+        });
+        // not larger as the threshold
+        assertTrue(result == jobManager.ping(id).get(5, TimeUnit.SECONDS));
+        jobManager.remove(id);
+    }
+}
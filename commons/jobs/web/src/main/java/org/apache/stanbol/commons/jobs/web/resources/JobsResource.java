@@ -24,11 +24,13 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
@@ -45,6 +47,7 @@ import org.apache.stanbol.commons.jobs.api.Job;
 import org.apache.stanbol.commons.jobs.api.JobInfo;
 import org.apache.stanbol.commons.jobs.api.JobManager;
 import org.apache.stanbol.commons.jobs.api.JobResult;
+import org.apache.stanbol.commons.jobs.api.JobStatistics;
 import org.apache.stanbol.commons.jobs.impl.JobInfoImpl;
 import org.apache.stanbol.commons.web.viewable.Viewable;
 import org.slf4j.Logger;
@@ -79,6 +82,19 @@ public class JobsResource extends BaseStanbolResource {
         return Response.ok(new Viewable("index",new ResultData() {})).build();
     }
     
+    /**
+     * GET the state of the {@see JobManager}: queue depth, running and completed jobs, job latencies.
+     * 
+     * @return Response
+     */
+    @GET
+    @Path("/stats")
+    @Produces({"application/json","text/plain"})
+    public Response stats() {
+        JobStatistics stats = jobManager.getStatistics();
+        return Response.ok(stats).build();
+    }
+
     /**
      * GET info about a Background Job
      * 
@@ -115,6 +131,14 @@ public class JobsResource extends BaseStanbolResource {
                 }else{
                     // Job is complete
                     info.setFinished();
+                    try {
+                        f.get();
+                    } catch (ExecutionException e) {
+                        // e.g. the job exceeded the maximum execution time
+                        info.addMessage("The job failed: " + e.getCause());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
                     info.addMessage("You can remove this job using DELETE");
                 }
             }else{
@@ -269,34 +293,41 @@ public class JobsResource extends BaseStanbolResource {
         }else{
             // No id have been provided, we create a new test job
             JobManager m = jobManager;
-            String id = m.execute(new Job() {
-                @Override
-                public JobResult call() throws Exception {
-                    for (int i = 0; i < 30; i++) {
-                        try {
-                            log.info("Test Process is working");
-                            Thread.sleep(1000);
-                        } catch (InterruptedException ie) {}
-                    }
-                    return new JobResult(){
-    
-                        @Override
-                        public String getMessage() {
-                            return "This is a test job";
+            String id;
+            try {
+                id = m.execute(new Job() {
+                    @Override
+                    public JobResult call() throws Exception {
+                        for (int i = 0; i < 30; i++) {
+                            try {
+                                log.info("Test Process is working");
+                                Thread.sleep(1000);
+                            } catch (InterruptedException ie) {}
                         }
+                        return new JobResult(){
     
-                        @Override
-                        public boolean isSuccess() {
-                            return true;
-                        }
-                    };
-                }
+                            @Override
+                            public String getMessage() {
+                                return "This is a test job";
+                            }
     
-                @Override
-                public String buildResultLocation(String jobId) {
-                    return "jobs/test/" + jobId;
-                }
-            });
+                            @Override
+                            public boolean isSuccess() {
+                                return true;
+                            }
+                        };
+                    }
+    
+                    @Override
+                    public String buildResultLocation(String jobId) {
+                        return "jobs/test/" + jobId;
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                log.warn("Test job rejected: {}", e.getMessage());
+                return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                        .header("Content-type","text/plain").entity(e.getMessage()).build();
+            }
             // This service returns 201 Created on success
             String location = getPublicBaseUri() + "jobs/" + id;
             String info = new StringBuilder().append("Job started.\n")
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.commons.jobs.web.writers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.Service;
+import org.apache.stanbol.commons.jobs.api.JobStatistics;
+
+/**
+ * Writer for the statistics of the job manager
+ */
+@Component
+@Service(Object.class)
+@Property(name = "javax.ws.rs", boolValue = true)
+@Provider
+@Produces({"application/json","text/plain"})
+public class JobStatisticsWriter implements MessageBodyWriter<JobStatistics> {
+
+    public String toString(JobStatistics t, String mediaType) {
+        if (mediaType.equals("application/json")) {
+            return new StringBuilder()
+            .append("{")
+            .append("\n\t").append("\"maxThreads\": ").append(t.getMaxThreads())
+            .append(",\n\t").append("\"queueCapacity\": ").append(t.getQueueCapacity())
+            .append(",\n\t").append("\"queued\": ").append(t.getQueued())
+            .append(",\n\t").append("\"running\": ").append(t.getRunning())
+            .append(",\n\t").append("\"completed\": ").append(t.getCompleted())
+            .append(",\n\t").append("\"executed\": ").append(t.getExecuted())
+            .append(",\n\t").append("\"rejected\": ").append(t.getRejected())
+            .append(",\n\t").append("\"timedOut\": ").append(t.getTimedOut())
+            .append(",\n\t").append("\"averageQueueTime\": ").append(t.getAverageQueueTime())
+            .append(",\n\t").append("\"averageExecutionTime\": ").append(t.getAverageExecutionTime())
+            .append(",\n\t").append("\"averageCpuTime\": ").append(t.getAverageCpuTime())
+            .append("\n}").toString();
+        } else {
+            // Plain text
+            return new StringBuilder()
+            .append("Max threads: ").append(t.getMaxThreads())
+            .append("\nQueue capacity: ").append(t.getQueueCapacity())
+            .append("\nQueued: ").append(t.getQueued())
+            .append("\nRunning: ").append(t.getRunning())
+            .append("\nCompleted: ").append(t.getCompleted())
+            .append("\nExecuted: ").append(t.getExecuted())
+            .append("\nRejected: ").append(t.getRejected())
+            .append("\nTimed out: ").append(t.getTimedOut())
+            .append("\nAverage queue time (ms): ").append(t.getAverageQueueTime())
+            .append("\nAverage execution time (ms): ").append(t.getAverageExecutionTime())
+            .append("\nAverage CPU time (ms): ").append(t.getAverageCpuTime())
+            .append("\n").toString();
+        }
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return JobStatistics.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public long getSize(JobStatistics t,
+                        Class<?> type,
+                        Type genericType,
+                        Annotation[] annotations,
+                        MediaType mediaType) {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(JobStatistics t,
+                        Class<?> type,
+                        Type genericType,
+                        Annotation[] annotations,
+                        MediaType mediaType,
+                        MultivaluedMap<String,Object> httpHeaders,
+                        OutputStream entityStream) throws WebApplicationException {
+        try {
+            IOUtils.write(toString(t, mediaType.getType() + "/" + mediaType.getSubtype()), entityStream, "UTF-8");
+        } catch (IOException e) {
+            throw new WebApplicationException(e);
+        }
+    }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.enhancer.engines.dereference;
+
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.IRI;
+
+/**
+ * Optional extension of the {@link EntityDereferencer} interface for
+ * implementations that can dereference several Entities more efficiently
+ * than by calling {@link #dereference(IRI, Graph, Lock, DereferenceContext)}
+ * for every single one of them (e.g. by using a single bulk request to the
+ * underlying data source).<p>
+ * The {@link EntityDereferenceEngine} will split the referenced Entities in
+ * batches with a maximum size of {@link DereferenceConstants#BATCH_SIZE} and
+ * parse each of them to {@link #dereference(Collection, Graph, Lock, DereferenceContext)}.
+ * If an {@link #getExecutor() ExecutorService} is present batches are
+ * processed in parallel.
+ */
+public interface BatchEntityDereferencer extends EntityDereferencer {
+
+    /**
+     * Dereferences the Entities with the parsed {@link IRI}s by copying the
+     * data to the parsed graph.
+     * @param entities the uris of the Entities to dereference
+     * @param graph the graph to add the dereferenced entities
+     * @param writeLock The writeLock for the graph. Dereferences MUST require
+     * a <code>{@link Lock#lock() writeLock#lock()}</code>  before adding 
+     * dereferenced data to the parsed graph. Failing to do so will cause
+     * {@link ConcurrentModificationException}s in this implementations or
+     * other components accessing the same graph.
+     * @param dereferenceContext Context information for the {@link EntityDereferencer}
+     * @return the Entities that where dereferenced. An empty set if none.
+     * @throws DereferenceException on any error while dereferencing the
+     * requested Entities
+     */
+    Set<IRI> dereference(Collection<IRI> entities, Graph graph, Lock writeLock, 
+            DereferenceContext dereferenceContext) throws DereferenceException;
+    
+}
@@ -131,6 +131,18 @@ public interface DereferenceConstants {
      */
     boolean DEFAULT_FALLBACK_MODE = true;
     
+    /**
+     * The maximum number of Entities an {@link EntityDereferencer} that also
+     * implements {@link BatchEntityDereferencer} is asked to dereference with
+     * a single call. Values <code>&lt; 2</code> deactivate batch dereferencing
+     * and cause Entities to be dereferenced one by one.
+     */
+    String BATCH_SIZE = "enhancer.engines.dereference.batchSize";
+    /**
+     * By default up to <code>25</code> Entities are dereferenced in a single batch
+     */
+    int DEFAULT_BATCH_SIZE = 25;
+    
     /**
      * Parameter allowing users to define a list of languages to be dereferenced.
      * An empty string is used for literals that do not have an language tag.
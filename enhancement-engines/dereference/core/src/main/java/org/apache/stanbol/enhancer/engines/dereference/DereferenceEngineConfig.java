@@ -48,6 +48,7 @@ public class DereferenceEngineConfig implements DereferenceConstants {
     private List<String> dereferenced;
     private Set<String> languages;
     private Set<IRI> entityReferences;
+    private int batchSize;
 
     /**
      * Creates a DereferenceEngine configuration based on a Dictionary. Typically
@@ -114,6 +115,7 @@ public class DereferenceEngineConfig implements DereferenceConstants {
         this.languages = parseLanguages();
         //STANBOL-1334
         this.entityReferences = parseEntityReferences();
+        this.batchSize = parseBatchSize();
     }
 
     /**
@@ -160,6 +162,29 @@ public class DereferenceEngineConfig implements DereferenceConstants {
         return dereferenced;
     }
 
+    /**
+     * Parses the {@link DereferenceConstants#BATCH_SIZE}
+     * @return the batch size or {@link DereferenceConstants#DEFAULT_BATCH_SIZE}
+     * if not configured
+     * @throws ConfigurationException if the configured value is not an integer
+     */
+    private int parseBatchSize() throws ConfigurationException {
+        Object value = config.get(BATCH_SIZE);
+        if(value instanceof Number){
+            return ((Number)value).intValue();
+        } else if(value != null && !StringUtils.isBlank(value.toString())){
+            try {
+                return Integer.parseInt(value.toString().trim());
+            } catch (NumberFormatException e){
+                throw new ConfigurationException(BATCH_SIZE, "Unable to parse "
+                    + "the batch size from the configured value '" + value 
+                    + "'!", e);
+            }
+        } else {
+            return DEFAULT_BATCH_SIZE;
+        }
+    }
+    
     /**
      * Parsed the {@link DereferenceConstants#DEREFERENCE_ENTITIES_FIELDS}
      * config from the parsed Dictionary regardless if it is defined as 
@@ -266,6 +291,16 @@ public class DereferenceEngineConfig implements DereferenceConstants {
         return config;
     }
     
+    /**
+     * The maximum number of Entities dereferenced by a single call to a
+     * {@link BatchEntityDereferencer}.
+     * @return the configured {@link DereferenceConstants#BATCH_SIZE}. Values
+     * <code>&lt; 2</code> indicate that batch dereferencing is deactivated.
+     */
+    public int getBatchSize(){
+        return batchSize;
+    }
+    
     /**
      * If the {@link DereferenceConstants#FALLBACK_MODE} is active or inactive
      * @return the fallback mode state
@@ -16,6 +16,8 @@
  */
 package org.apache.stanbol.enhancer.engines.dereference;
 
+import java.util.Collection;
+
 import org.apache.clerezza.commons.rdf.IRI;
 
 public class DereferenceException extends Exception {
@@ -29,5 +31,24 @@ public class DereferenceException extends Exception {
         super("Unable to dereference Entity " + entity + 
             (reason != null ? ": "+ reason : "") + "!");
     }
+    /**
+     * Used by {@link BatchEntityDereferencer}s to report a failure while
+     * dereferencing a batch of Entities
+     * @param entities the entities of the failed batch
+     * @param t the cause
+     */
+    public DereferenceException(Collection<IRI> entities, Throwable t){
+        super("Unable to dereference Entities " + entities + "!", t);
+    }
+    /**
+     * Used by {@link BatchEntityDereferencer}s to report a failure while
+     * dereferencing a batch of Entities
+     * @param entities the entities of the failed batch
+     * @param reason the reason
+     */
+    public DereferenceException(Collection<IRI> entities, String reason){
+        super("Unable to dereference Entities " + entities + 
+            (reason != null ? ": "+ reason : "") + "!");
+    }
 
 }
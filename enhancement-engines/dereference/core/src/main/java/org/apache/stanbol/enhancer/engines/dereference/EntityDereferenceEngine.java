@@ -84,6 +84,12 @@ public class EntityDereferenceEngine implements EnhancementEngine, ServiceProper
     protected final List<Pattern> patternList;
     
     protected final boolean fallbackMode;
+    /**
+     * The maximum number of Entities parsed to a {@link BatchEntityDereferencer}
+     * with a single call. <code>1</code> if the {@link #dereferencer} does not
+     * support batches or batch dereferencing is deactivated.
+     */
+    protected final int batchSize;
     /**
      * The Map holding the {@link #serviceProperties} for this engine.
      */
@@ -118,6 +124,9 @@ public class EntityDereferenceEngine implements EnhancementEngine, ServiceProper
         //init the default ordering
         this.fallbackMode = config.isFallbackMode();
         log.debug(" - fallback Mode: {}", fallbackMode);
+        this.batchSize = dereferencer instanceof BatchEntityDereferencer ?
+                Math.max(1, config.getBatchSize()) : 1;
+        log.debug(" - batch size: {}", batchSize);
         //Set the default engine ordering based on the fallback mode state:
         //in case of fallback mode call this after dereferencing engines 
         //without fallback mode
@@ -285,21 +294,27 @@ public class EntityDereferenceEngine implements EnhancementEngine, ServiceProper
         Set<IRI> failedEntities = new HashSet<IRI>();
         int dereferencedCount = 0;
         List<DereferenceJob> dereferenceJobs = new ArrayList<DereferenceJob>(
-                referencedEntities.size());
+                (referencedEntities.size()/batchSize) + 1);
+        //split the referenced entities in batches of up to batchSize entities
+        List<IRI> batch = new ArrayList<IRI>(Math.min(batchSize,referencedEntities.size()));
+        for(Iterator<IRI> it = referencedEntities.iterator(); it.hasNext();){
+            batch.add(it.next());
+            if(batch.size() >= batchSize || !it.hasNext()){
+                dereferenceJobs.add(new DereferenceJob(batch, metadata, writeLock, derefContext));
+                batch = new ArrayList<IRI>(batchSize);
+            }
+        }
+        log.trace(" - created {} dereference jobs (batch size: {})", 
+            dereferenceJobs.size(), batchSize);
         if(executor != null && !executor.isShutdown()){ //dereference using executor
-            //schedule all entities to dereference
-            for(final IRI entity : referencedEntities){
-                DereferenceJob dereferenceJob = new DereferenceJob(entity, 
-                    metadata, writeLock, derefContext);
+            //schedule all batches to dereference
+            for(DereferenceJob dereferenceJob : dereferenceJobs){
                 dereferenceJob.setFuture(executor.submit(dereferenceJob));
-                dereferenceJobs.add(dereferenceJob);
             }
             //wait for all entities to be dereferenced
             for(DereferenceJob dereferenceJob : dereferenceJobs){
                 try {
-                    if(dereferenceJob.await()){
-                        dereferencedCount++;
-                    }
+                    dereferencedCount = dereferencedCount + dereferenceJob.await();
                 } catch (InterruptedException e) {
                     // Restore the interrupted status
                     Thread.currentThread().interrupt();
@@ -307,29 +322,24 @@ public class EntityDereferenceEngine implements EnhancementEngine, ServiceProper
                         "Interupted while waiting for dereferencing Entities", e);
                 } catch (ExecutionException e) {
                     if(e.getCause() instanceof DereferenceException){
-                        failedEntities.add(dereferenceJob.entity);
+                        failedEntities.addAll(dereferenceJob.entities);
                         log.debug(" ... error while dereferencing " 
-                            + dereferenceJob.entity + "!", e);
+                            + dereferenceJob.entities + "!", e);
                     } else { //unknown error
                         throw new EngineException(this,ci, "Unchecked Error while "
-                            + "dereferencing Entity " + dereferenceJob.entity
+                            + "dereferencing Entities " + dereferenceJob.entities
                             + "!", e);
                     }
                 }
             }
         } else { //dereference using the current thread
-            for(IRI entity : referencedEntities){
+            for(DereferenceJob dereferenceJob : dereferenceJobs){
                 try {
-                    log.trace("  ... dereference {}", entity);
-                    if(dereferencer.dereference(entity, metadata, writeLock, derefContext)){
-                        dereferencedCount++;
-                        log.trace("    + success");
-                    } else {
-                        log.trace("    - not found");
-                    }
+                    dereferencedCount = dereferencedCount + dereferenceJob.call();
                 } catch (DereferenceException e) {
-                    log.debug(" ... error while dereferencing " + entity + "!", e);
-                    failedEntities.add(entity);
+                    log.debug(" ... error while dereferencing " 
+                            + dereferenceJob.entities + "!", e);
+                    failedEntities.addAll(dereferenceJob.entities);
                 }
             }
         }
@@ -448,44 +458,60 @@ public class EntityDereferenceEngine implements EnhancementEngine, ServiceProper
     
     /**
      * Used both as {@link Callable} submitted to the {@link ExecutorService}
-     * and as object to {@link #await()} the completion of the task.
+     * and as object to {@link #await()} the completion of the task. A job
+     * dereferences a batch of Entities. If the {@link #dereferencer} is not
+     * a {@link BatchEntityDereferencer} batches will only contain a single
+     * entity.
      * 
      * @author Rupert Westenthaler
      */
-    class DereferenceJob implements Callable<Boolean> {
+    class DereferenceJob implements Callable<Integer> {
         
-        final IRI entity;
+        final List<IRI> entities;
         final Graph metadata;
         final Lock writeLock;
         final DereferenceContext derefContext;
 
-        private Future<Boolean> future;
+        private Future<Integer> future;
         
-        DereferenceJob(IRI entity, Graph metadata, Lock writeLock, 
+        DereferenceJob(List<IRI> entities, Graph metadata, Lock writeLock, 
             DereferenceContext derefContext){
-            this.entity = entity;
+            this.entities = entities;
             this.metadata = metadata;
             this.writeLock = writeLock;
             this.derefContext = derefContext;
         }
         
+        /**
+         * Dereferences the Entities of this job
+         * @return the number of dereferenced Entities
+         */
         @Override
-        public Boolean call() throws DereferenceException {
-            log.trace("  ... dereference {}", entity);
-            boolean state = dereferencer.dereference(entity, metadata, writeLock, derefContext);
-            if(state){
-                log.trace("    + success");
-            } else {
-                log.trace("    - not found");
+        public Integer call() throws DereferenceException {
+            if(entities.size() == 1){
+                IRI entity = entities.get(0);
+                log.trace("  ... dereference {}", entity);
+                boolean state = dereferencer.dereference(entity, metadata, writeLock, derefContext);
+                if(state){
+                    log.trace("    + success");
+                } else {
+                    log.trace("    - not found");
+                }
+                return state ? 1 : 0;
+            } else { //only created if the dereferencer supports batches
+                log.trace("  ... dereference {}", entities);
+                Set<IRI> dereferenced = ((BatchEntityDereferencer)dereferencer)
+                        .dereference(entities, metadata, writeLock, derefContext);
+                log.trace("    + {}/{} dereferenced", dereferenced.size(), entities.size());
+                return dereferenced.size();
             }
-            return state;
         }
 
-        void setFuture(Future<Boolean> future){
+        void setFuture(Future<Integer> future){
             this.future = future;
         }
         
-        public boolean await() throws InterruptedException, ExecutionException {
+        public int await() throws InterruptedException, ExecutionException {
             return future.get();
         }
     }
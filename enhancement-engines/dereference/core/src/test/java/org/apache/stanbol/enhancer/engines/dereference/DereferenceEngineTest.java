@@ -16,6 +16,7 @@
  */
 package org.apache.stanbol.enhancer.engines.dereference;
 
+import static org.apache.stanbol.enhancer.engines.dereference.DereferenceConstants.BATCH_SIZE;
 import static org.apache.stanbol.enhancer.engines.dereference.DereferenceConstants.ENTITY_REFERENCES;
 import static org.apache.stanbol.enhancer.engines.dereference.DereferenceConstants.FILTER_ACCEPT_LANGUAGES;
 import static org.apache.stanbol.enhancer.engines.dereference.DereferenceConstants.FILTER_CONTENT_LANGUAGES;
@@ -25,13 +26,17 @@ import static org.apache.stanbol.enhancer.servicesapi.rdf.Properties.RDFS_LABEL;
 import static org.apache.stanbol.enhancer.servicesapi.rdf.Properties.RDF_TYPE;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Dictionary;
+import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 
 import org.apache.clerezza.commons.rdf.Language;
@@ -239,6 +244,65 @@ public class DereferenceEngineTest {
         validateDereferencedEntities(ci.getMetadata(), OTHER_ENTITY_REFERENCE, ENHANCER_ENTITY_REFERENCE);
     }
     
+    @Test
+    public void testSyncBatchDereferencing() throws Exception {
+        ContentItem ci = getContentItem("urn:test:testSyncBatchDereferencing");
+        TestBatchDereferencer dereferencer = new TestBatchDereferencer(null);
+        Dictionary<String,Object> dict = new Hashtable<String,Object>();
+        dict.put(EnhancementEngine.PROPERTY_NAME, "sync-batch");
+        dict.put(FILTER_CONTENT_LANGUAGES, false);
+        dict.put(FILTER_ACCEPT_LANGUAGES, false);
+        dict.put(BATCH_SIZE, "10");
+        EntityDereferenceEngine engine = new EntityDereferenceEngine(dereferencer,
+            new DereferenceEngineConfig(dict, null));
+        engine.computeEnhancements(ci);
+        validateDereferencedEntities(ci.getMetadata(), ENHANCER_ENTITY_REFERENCE);
+        validateBatches(dereferencer, 10);
+    }
+
+    @Test
+    public void testAsyncBatchDereferencing() throws Exception {
+        ContentItem ci = getContentItem("urn:test:testAsyncBatchDereferencing");
+        TestBatchDereferencer dereferencer = new TestBatchDereferencer(
+            Executors.newFixedThreadPool(4));
+        Dictionary<String,Object> dict = new Hashtable<String,Object>();
+        dict.put(EnhancementEngine.PROPERTY_NAME, "async-batch");
+        dict.put(FILTER_CONTENT_LANGUAGES, false);
+        dict.put(FILTER_ACCEPT_LANGUAGES, false);
+        dict.put(ENTITY_REFERENCES, new String[]{
+                OTHER_ENTITY_REFERENCE.getUnicodeString(), 
+                ENHANCER_ENTITY_REFERENCE.getUnicodeString()});
+        //use the default batch size
+        EntityDereferenceEngine engine = new EntityDereferenceEngine(dereferencer,
+            new DereferenceEngineConfig(dict, null));
+        engine.computeEnhancements(ci);
+        validateDereferencedEntities(ci.getMetadata(), OTHER_ENTITY_REFERENCE, ENHANCER_ENTITY_REFERENCE);
+        validateBatches(dereferencer, DereferenceConstants.DEFAULT_BATCH_SIZE);
+    }
+    
+    @Test
+    public void testDeactivatedBatchDereferencing() throws Exception {
+        ContentItem ci = getContentItem("urn:test:testDeactivatedBatchDereferencing");
+        TestBatchDereferencer dereferencer = new TestBatchDereferencer(null);
+        Dictionary<String,Object> dict = new Hashtable<String,Object>();
+        dict.put(EnhancementEngine.PROPERTY_NAME, "no-batch");
+        dict.put(FILTER_CONTENT_LANGUAGES, false);
+        dict.put(FILTER_ACCEPT_LANGUAGES, false);
+        dict.put(BATCH_SIZE, 0);
+        EntityDereferenceEngine engine = new EntityDereferenceEngine(dereferencer,
+            new DereferenceEngineConfig(dict, null));
+        engine.computeEnhancements(ci);
+        validateDereferencedEntities(ci.getMetadata(), ENHANCER_ENTITY_REFERENCE);
+        Assert.assertEquals(0, dereferencer.batchCount.get());
+    }
+    
+    private void validateBatches(TestBatchDereferencer dereferencer, int batchSize){
+        Assert.assertTrue("No batch was dereferenced", dereferencer.batchCount.get() > 0);
+        Assert.assertTrue("Maximum batch size exceeded (max: " + batchSize 
+            + ", actual: " + dereferencer.maxBatchSize.get() + ")!",
+            dereferencer.maxBatchSize.get() <= batchSize);
+    }
+    
     private void validateDereferencedEntities(Graph metadata, IRI...entityReferenceFields) {
         Graph expected = new IndexedGraph();
         for(IRI entityReferenceField : entityReferenceFields){
@@ -295,4 +359,32 @@ public class DereferenceEngineTest {
         
     }
     
+    private static class TestBatchDereferencer extends TestDereferencer implements BatchEntityDereferencer {
+
+        final AtomicInteger batchCount = new AtomicInteger();
+        final AtomicInteger maxBatchSize = new AtomicInteger();
+        
+        public TestBatchDereferencer(ExecutorService executorService) {
+            super(executorService);
+        }
+        
+        @Override
+        public Set<IRI> dereference(Collection<IRI> entities, Graph graph, Lock writeLock,
+                DereferenceContext context) throws DereferenceException {
+            batchCount.incrementAndGet();
+            int size = entities.size();
+            int max = maxBatchSize.get();
+            while(size > max && !maxBatchSize.compareAndSet(max, size)){
+                max = maxBatchSize.get();
+            }
+            Set<IRI> dereferenced = new HashSet<IRI>();
+            for(IRI entity : entities){
+                if(dereference(entity, graph, writeLock, context)){
+                    dereferenced.add(entity);
+                }
+            }
+            return dereferenced;
+        }
+    }
+    
 }
@@ -88,6 +88,8 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
     	boolValue=EntityhubDereferenceEngine.DEFAULT_SHARED_THREAD_POOL_STATE),
     @Property(name=EntityhubDereferenceEngine.THREAD_POOL_SIZE,
     	intValue=EntityhubDereferenceEngine.DEFAULT_THREAD_POOL_SIZE),
+    @Property(name=DereferenceConstants.BATCH_SIZE,
+        intValue=DereferenceConstants.DEFAULT_BATCH_SIZE),
     @Property(name=SERVICE_RANKING,intValue=0)
 })
 public class EntityhubDereferenceEngine implements ServiceTrackerCustomizer {
@@ -16,13 +16,24 @@
 */
 package org.apache.stanbol.enhancer.engines.dereference.entityhub;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.apache.marmotta.ldpath.api.backend.RDFBackend;
 import org.apache.stanbol.enhancer.engines.dereference.EntityDereferencer;
 import org.apache.stanbol.entityhub.ldpath.backend.EntityhubBackend;
 import org.apache.stanbol.entityhub.servicesapi.Entityhub;
 import org.apache.stanbol.entityhub.servicesapi.EntityhubException;
 import org.apache.stanbol.entityhub.servicesapi.model.Entity;
+import org.apache.stanbol.entityhub.servicesapi.model.ManagedEntityState;
+import org.apache.stanbol.entityhub.servicesapi.model.Reference;
 import org.apache.stanbol.entityhub.servicesapi.model.Representation;
+import org.apache.stanbol.entityhub.servicesapi.model.rdf.RdfResourceEnum;
+import org.apache.stanbol.entityhub.servicesapi.util.ModelUtils;
+import org.apache.stanbol.entityhub.servicesapi.yard.Yard;
 import org.osgi.framework.BundleContext;
 import org.osgi.util.tracker.ServiceTrackerCustomizer;
 
@@ -33,6 +44,11 @@ import org.osgi.util.tracker.ServiceTrackerCustomizer;
  */
 public final class EntityhubDereferencer extends TrackingDereferencerBase<Entityhub> implements EntityDereferencer {
     
+    /**
+     * The extension used by the Entityhub for the ids of the metadata of
+     * Entities
+     */
+    private static final String METADATA_EXTENSION = ".meta";
     
     public EntityhubDereferencer(BundleContext context) {
         this(context,null,null);
@@ -49,6 +65,65 @@ public final class EntityhubDereferencer extends TrackingDereferencerBase<Entity
         Entity e = eh.getEntity(id);
         return e == null ? null : e.getRepresentation();
     }
+    /**
+     * Uses {@link Yard#getRepresentations(Iterable)} to load the data and
+     * metadata of all requested Entities with a single request to the
+     * {@link Entityhub#getYard() Entityhub Yard}. Only Representations of
+     * Entities that are managed by the Entityhub are returned (the same as
+     * {@link Entityhub#getEntity(String)} would do). Ids that can not be
+     * decided based on the loaded Representations (e.g. ids of metadata) are
+     * looked up by using {@link Entityhub#getEntity(String)}.
+     */
+    @Override
+    protected Map<String,Representation> getRepresentations(Entityhub eh, Collection<String> ids,
+            boolean offlineMode) throws EntityhubException {
+        if(ids.size() < 2){
+            return super.getRepresentations(eh, ids, offlineMode);
+        }
+        List<String> requested = new ArrayList<String>(ids.size()*2);
+        for(String id : ids){
+            requested.add(id);
+            requested.add(id + METADATA_EXTENSION);
+        }
+        Map<String,Representation> loaded = new HashMap<String,Representation>(requested.size());
+        for(Representation rep : eh.getYard().getRepresentations(requested)){
+            loaded.put(rep.getId(), rep);
+        }
+        Map<String,Representation> reps = new HashMap<String,Representation>(ids.size());
+        for(String id : ids){
+            Representation rep = loaded.get(id);
+            if(rep == null){ //not found
+                continue;
+            }
+            Representation metadata = loaded.get(id + METADATA_EXTENSION);
+            if(ModelUtils.getAboutRepresentation(rep) == null && 
+                    isManagedEntity(id, metadata)){
+                reps.put(id, rep);
+            } else { //id of metadata or missing metadata
+                rep = getRepresentation(eh, id, offlineMode);
+                if(rep != null){
+                    reps.put(id, rep);
+                }
+            }
+        }
+        return reps;
+    }
+    /**
+     * Checks if the parsed metadata mark the Entity with the parsed id as
+     * managed by the Entityhub (the same check as performed by the Entityhub
+     * for Entities returned by {@link Entityhub#getEntity(String)})
+     * @param id the id of the entity
+     * @param metadata the metadata or <code>null</code> if not present
+     * @return the state
+     */
+    private boolean isManagedEntity(String id, Representation metadata){
+        if(metadata == null){
+            return false;
+        }
+        Reference state = metadata.getFirstReference(RdfResourceEnum.hasState.getUri());
+        return state != null && ManagedEntityState.isState(state.getReference()) &&
+                id.equals(ModelUtils.getAboutRepresentation(metadata));
+    }
     
     @Override
     public boolean supportsOfflineMode() {
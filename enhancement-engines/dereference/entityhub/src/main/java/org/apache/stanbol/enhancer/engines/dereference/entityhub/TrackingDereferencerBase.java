@@ -22,13 +22,18 @@ import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.locks.Lock;
 
@@ -41,10 +46,10 @@ import org.apache.marmotta.ldpath.api.backend.RDFBackend;
 import org.apache.marmotta.ldpath.exception.LDPathParseException;
 import org.apache.marmotta.ldpath.model.programs.Program;
 import org.apache.stanbol.commons.namespaceprefix.NamespacePrefixService;
+import org.apache.stanbol.enhancer.engines.dereference.BatchEntityDereferencer;
 import org.apache.stanbol.enhancer.engines.dereference.DereferenceConstants;
 import org.apache.stanbol.enhancer.engines.dereference.DereferenceContext;
 import org.apache.stanbol.enhancer.engines.dereference.DereferenceException;
-import org.apache.stanbol.enhancer.engines.dereference.EntityDereferencer;
 import org.apache.stanbol.entityhub.core.mapping.DefaultFieldMapperImpl;
 import org.apache.stanbol.entityhub.core.mapping.FieldMappingUtils;
 import org.apache.stanbol.entityhub.core.mapping.ValueConverterFactory;
@@ -72,11 +77,17 @@ import org.slf4j.LoggerFactory;
 /**
  * Abstract super class for EntityDereferencer that need to track the OSGI service
  * used to lookup Entities. Used by the {@link EntityhubDereferencer} and the 
- * {@link SiteDereferencer} implementation
+ * {@link SiteDereferencer} implementation.<p>
+ * Batches of Entities are loaded by a single call to 
+ * {@link #getRepresentations(Object, Collection, boolean)}. Concurrent requests
+ * for the same Entity (e.g. because several ContentItems referencing the
+ * same Entity are enhanced at the same time) are coalesced: only the first
+ * request loads the {@link Representation} while the others wait for its
+ * result.
  * @author Rupert Westenthaler
  *
  */
-public abstract class TrackingDereferencerBase<T> implements EntityDereferencer {
+public abstract class TrackingDereferencerBase<T> implements BatchEntityDereferencer {
     
     private final Logger log = LoggerFactory.getLogger(getClass());
     
@@ -100,6 +111,16 @@ public abstract class TrackingDereferencerBase<T> implements EntityDereferencer
     private final Class<T> serviceClass;
 
 	private ExecutorServiceProvider executorServiceProvider;
+	/**
+	 * {@link Representation}s currently loaded in online mode
+	 */
+	private final ConcurrentMap<String,PendingRepresentation> pending = 
+	        new ConcurrentHashMap<String,PendingRepresentation>();
+    /**
+     * {@link Representation}s currently loaded in offline mode
+     */
+	private final ConcurrentMap<String,PendingRepresentation> pendingOffline = 
+	        new ConcurrentHashMap<String,PendingRepresentation>();
     /**
      * Creates a new instance for the parsed parameter
      * @param context the BundleContexed used to create the {@link ServiceTracker}
@@ -290,34 +311,151 @@ public abstract class TrackingDereferencerBase<T> implements EntityDereferencer
                 + "service is currently not available");
         }
         EntityhubDereferenceContext derefContext = (EntityhubDereferenceContext)dc;
+        String id = uri.getUnicodeString();
         Representation rep;
         try {
-            rep = getRepresentation(service, uri.getUnicodeString(), derefContext.isOfflineMode());
+            rep = lookupRepresentations(service, Collections.singleton(id), 
+                derefContext.isOfflineMode()).get(id);
         } catch(EntityhubException e){
             throw new DereferenceException(uri,e);
         }
+        if(rep != null){
+            copyRepresentation(uri, rep, service, derefContext, graph, writeLock);
+            return true;
+        } else {
+            return false;
+        }
+    }
+    
+    @Override
+    public final Set<IRI> dereference(Collection<IRI> entities, Graph graph, Lock writeLock,
+            DereferenceContext dc) throws DereferenceException {
+        T service = getService();
+        if(service == null){
+            throw new DereferenceException(entities, serviceClass.getClass().getSimpleName() 
+                + "service is currently not available");
+        }
+        EntityhubDereferenceContext derefContext = (EntityhubDereferenceContext)dc;
+        Map<String,IRI> ids = new LinkedHashMap<String,IRI>(entities.size());
+        for(IRI entity : entities){
+            ids.put(entity.getUnicodeString(), entity);
+        }
+        Map<String,Representation> reps;
+        try {
+            reps = lookupRepresentations(service, ids.keySet(), derefContext.isOfflineMode());
+        } catch(EntityhubException e){
+            throw new DereferenceException(entities,e);
+        }
+        Set<IRI> dereferenced = new HashSet<IRI>(reps.size());
+        for(Entry<String,IRI> entry : ids.entrySet()){
+            Representation rep = reps.get(entry.getKey());
+            if(rep != null){
+                copyRepresentation(entry.getValue(), rep, service, derefContext, graph, writeLock);
+                dereferenced.add(entry.getValue());
+            }
+        }
+        return dereferenced;
+    }
+    /**
+     * Copies the data of the parsed Representation to the graph by considering
+     * the field mappings, languages and LDPath program of the parsed context
+     * @param uri the uri of the dereferenced Entity
+     * @param rep the Representation of the Entity
+     * @param service the service used to dereference the Entity
+     * @param derefContext the dereference context
+     * @param graph the graph to copy the data to
+     * @param writeLock the write lock for the graph
+     * @throws DereferenceException on any error while executing the LDPath program
+     */
+    private void copyRepresentation(IRI uri, Representation rep, T service, 
+            EntityhubDereferenceContext derefContext, Graph graph, Lock writeLock) 
+                    throws DereferenceException {
         //we need the languages as strings
         final Set<String> langs = derefContext.getLanguages();
         final FieldMapper fieldMapper = derefContext.getFieldMapper();
         final Program<Object>ldpathProgram = derefContext.getProgram();
-        if(rep != null){
-            if(fieldMapper == null && ldpathProgram == null && 
-                    (langs == null || langs.isEmpty())){
-                copyAll(uri, rep, graph, writeLock);
-            } else { //we need to apply some filters while dereferencing
-                if(fieldMapper != null || (langs != null && !langs.isEmpty())){
-                    //this considers speficied fields and included languages
-                    copyMapped(uri, rep, fieldMapper, langs, graph, writeLock);
+        if(fieldMapper == null && ldpathProgram == null && 
+                (langs == null || langs.isEmpty())){
+            copyAll(uri, rep, graph, writeLock);
+        } else { //we need to apply some filters while dereferencing
+            if(fieldMapper != null || (langs != null && !langs.isEmpty())){
+                //this considers speficied fields and included languages
+                copyMapped(uri, rep, fieldMapper, langs, graph, writeLock);
+            }
+            if(ldpathProgram != null){
+                //this executes LDPath statements
+                copyLdPath(uri, getRdfBackend(service), ldpathProgram, langs, graph, writeLock);
+            }
+        }
+    }
+    /**
+     * Loads the Representations for the parsed ids. Representations that are
+     * currently loaded by an other thread are not requested a 2nd time. In
+     * this case the result of the other request is used.
+     * @param service the service
+     * @param ids the ids of the requested Representations
+     * @param offlineMode the offline mode state
+     * @return the found Representations by id. Ids of Entities that where not
+     * found are not contained.
+     * @throws EntityhubException on any error while loading the Representations
+     */
+    private Map<String,Representation> lookupRepresentations(T service, Collection<String> ids, 
+            boolean offlineMode) throws EntityhubException {
+        ConcurrentMap<String,PendingRepresentation> inProgress = offlineMode ? 
+                pendingOffline : pending;
+        Map<String,PendingRepresentation> owned = new LinkedHashMap<String,PendingRepresentation>(ids.size());
+        Map<String,PendingRepresentation> joined = null;
+        for(String id : ids){
+            PendingRepresentation request = new PendingRepresentation();
+            PendingRepresentation current = inProgress.putIfAbsent(id, request);
+            if(current == null){
+                owned.put(id, request);
+            } else {
+                if(joined == null){
+                    joined = new HashMap<String,PendingRepresentation>();
+                }
+                joined.put(id, current);
+            }
+        }
+        Map<String,Representation> reps = null;
+        try {
+            if(!owned.isEmpty()){
+                reps = getRepresentations(service, owned.keySet(), offlineMode);
+            } else {
+                reps = new HashMap<String,Representation>();
+            }
+        } finally {
+            for(Entry<String,PendingRepresentation> entry : owned.entrySet()){
+                inProgress.remove(entry.getKey(), entry.getValue());
+                //reps == null if the lookup has failed
+                entry.getValue().complete(reps == null, 
+                    reps == null ? null : reps.get(entry.getKey()));
+            }
+        }
+        if(joined != null){
+            log.trace(" ... waiting for {} Representations loaded by other requests", 
+                joined.size());
+            for(Entry<String,PendingRepresentation> entry : joined.entrySet()){
+                PendingRepresentation request = entry.getValue();
+                Representation rep;
+                try {
+                    rep = request.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    request = null;
+                    rep = null;
                 }
-                if(ldpathProgram != null){
-                    //this executes LDPath statements
-                    copyLdPath(uri, getRdfBackend(service), ldpathProgram, langs, graph, writeLock);
+                if(request == null || request.failed){
+                    //the other request failed (or we got interrupted). So
+                    //retry the lookup for this Entity
+                    rep = getRepresentation(service, entry.getKey(), offlineMode);
+                }
+                if(rep != null){
+                    reps.put(entry.getKey(), rep);
                 }
             }
-            return true;
-        } else {
-            return false;
         }
+        return reps;
     }
     /**
      * Executes the {@link #ldpathProgram} using the parsed URI as context and
@@ -469,6 +607,29 @@ public abstract class TrackingDereferencerBase<T> implements EntityDereferencer
      * @throws DereferenceException 
      */
     protected abstract Representation getRepresentation(T service, String id, boolean offlineMode) throws EntityhubException;
+    /**
+     * Provides the Representations for the parsed ids. This default
+     * implementation calls {@link #getRepresentation(Object, String, boolean)}
+     * for each id. Subclasses should override this if the service allows
+     * to retrieve multiple Representations with a single request.
+     * @param service the service
+     * @param ids the ids
+     * @param offlineMode off line mode state
+     * @return the found Representations by id. A modifiable map that does
+     * not contain ids of Entities that where not found.
+     * @throws EntityhubException on any error while loading the Representations
+     */
+    protected Map<String,Representation> getRepresentations(T service, Collection<String> ids, 
+            boolean offlineMode) throws EntityhubException {
+        Map<String,Representation> reps = new HashMap<String,Representation>(ids.size());
+        for(String id : ids){
+            Representation rep = getRepresentation(service, id, offlineMode);
+            if(rep != null){
+                reps.put(id, rep);
+            }
+        }
+        return reps;
+    }
     /**
      * Creates an RDFBackend for the parsed service
      * @param service
@@ -489,5 +650,27 @@ public abstract class TrackingDereferencerBase<T> implements EntityDereferencer
         super.finalize();
     }
     
+    /**
+     * A {@link Representation} that is currently loaded by some thread. 
+     * Other threads requesting the same Entity can {@link #await()} the
+     * result.
+     */
+    private static final class PendingRepresentation {
+        
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile Representation rep;
+        private volatile boolean failed;
+        
+        void complete(boolean failed, Representation rep){
+            this.failed = failed;
+            this.rep = rep;
+            done.countDown();
+        }
+        
+        Representation await() throws InterruptedException {
+            done.await();
+            return rep;
+        }
+    }
+    
 }
- 
\ No newline at end of file
@@ -59,7 +59,10 @@ import org.apache.stanbol.commons.namespaceprefix.NamespacePrefixService;
 import org.apache.stanbol.enhancer.engines.entitylinking.LabelTokenizer;
 import org.apache.stanbol.enhancer.engines.entitylinking.config.EntityLinkerConfig;
 import org.apache.stanbol.enhancer.engines.entitylinking.config.TextProcessingConfig;
+import org.apache.stanbol.enhancer.engines.entitylinking.config.EntityLinkerConfig.RedirectProcessingMode;
 import org.apache.stanbol.enhancer.engines.entitylinking.engine.EntityLinkingEngine;
+import org.apache.stanbol.enhancer.engines.entitylinking.impl.CachingEntitySearcher;
+import org.apache.stanbol.enhancer.engines.entitylinking.impl.LookupCache;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementEngine;
 import org.apache.stanbol.enhancer.servicesapi.ServiceProperties;
 import org.apache.stanbol.entityhub.servicesapi.Entityhub;
@@ -130,6 +133,9 @@ import org.slf4j.LoggerFactory;
     @Property(name=DEREFERENCE_ENTITIES, boolValue=DEFAULT_DEREFERENCE_ENTITIES_STATE),
     @Property(name=DEREFERENCE_ENTITIES_FIELDS,cardinality=Integer.MAX_VALUE,
     	value={"rdfs:comment","geo:lat","geo:long","foaf:depiction","dbp-ont:thumbnail"}),
+    @Property(name=EntityhubLinkingEngine.LOOKUP_CACHE_SIZE,intValue=LookupCache.DEFAULT_SIZE),
+    @Property(name=EntityhubLinkingEngine.LOOKUP_CACHE_MAX_AGE,
+        longValue=EntityhubLinkingEngine.DEFAULT_LOOKUP_CACHE_MAX_AGE),
     @Property(name=SERVICE_RANKING,intValue=0)
 })
 public class EntityhubLinkingEngine implements ServiceTrackerCustomizer {
@@ -144,6 +150,26 @@ public class EntityhubLinkingEngine implements ServiceTrackerCustomizer {
      * To match against the Entityhub use "entityhub" as value.
      */
     public static final String SITE_ID = "enhancer.engines.linking.entityhub.siteId";
+    /**
+     * The maximum number of lookup results cached over the processing of
+     * several documents. Values &lt;= 0 deactivate the cache.<p>
+     * The cache is also deactivated if the
+     * {@link EntityLinkerConfig#REDIRECT_MODE} is set to 
+     * {@link RedirectProcessingMode#ADD_VALUES} as in this mode cached
+     * Entities would get modified.
+     */
+    public static final String LOOKUP_CACHE_SIZE = "enhancer.engines.linking.entityhub.lookupCacheSize";
+    /**
+     * The maximum time in seconds lookup results are cached. Cached results
+     * are also invalidated if the tracked site is modified or re-registered
+     * (e.g. after installing a new version of its index). However changes to
+     * the data of managed sites are only recognised after this time.
+     */
+    public static final String LOOKUP_CACHE_MAX_AGE = "enhancer.engines.linking.entityhub.lookupCacheMaxAge";
+    /**
+     * The default maximum age for cached lookups (600sec)
+     */
+    public static final long DEFAULT_LOOKUP_CACHE_MAX_AGE = LookupCache.DEFAULT_MAX_AGE/1000;
 
     /**
      * The engine initialised based on the configuration of this component
@@ -158,6 +184,10 @@ public class EntityhubLinkingEngine implements ServiceTrackerCustomizer {
      * The EntitySearcher used for the {@link #entityLinkingEngine}
      */
     private TrackingEntitySearcher<?> entitySearcher;
+    /**
+     * The cache for lookup results or <code>null</code> if deactivated
+     */
+    private LookupCache lookupCache;
     int trackedServiceCount = 0;
     
     /**
@@ -212,6 +242,44 @@ public class EntityhubLinkingEngine implements ServiceTrackerCustomizer {
         value = properties.get(Constants.SERVICE_RANKING);
         engineMetadata.put(Constants.SERVICE_RANKING, value == null ? Integer.valueOf(0) : value);
         
+        //init the lookup cache
+        value = properties.get(LOOKUP_CACHE_SIZE);
+        int cacheSize;
+        if(value instanceof Number){
+            cacheSize = ((Number)value).intValue();
+        } else if(value != null){
+            try {
+                cacheSize = Integer.parseInt(value.toString());
+            } catch (NumberFormatException e) {
+                throw new ConfigurationException(LOOKUP_CACHE_SIZE, "Unable to parse the size "
+                    + "of the lookup cache from the parsed value "+value, e);
+            }
+        } else {
+            cacheSize = LookupCache.DEFAULT_SIZE;
+        }
+        value = properties.get(LOOKUP_CACHE_MAX_AGE);
+        long cacheMaxAge;
+        if(value instanceof Number){
+            cacheMaxAge = ((Number)value).longValue();
+        } else if(value != null){
+            try {
+                cacheMaxAge = Long.parseLong(value.toString());
+            } catch (NumberFormatException e) {
+                throw new ConfigurationException(LOOKUP_CACHE_MAX_AGE, "Unable to parse the "
+                    + "maximum age of cached lookups from the parsed value "+value, e);
+            }
+        } else {
+            cacheMaxAge = DEFAULT_LOOKUP_CACHE_MAX_AGE;
+        }
+        if(cacheSize > 0 && linkerConfig.getRedirectProcessingMode() != RedirectProcessingMode.ADD_VALUES){
+            lookupCache = new LookupCache(cacheSize, cacheMaxAge*1000);
+        } else {
+            if(cacheSize > 0){
+                log.info(" ... deactivate lookup cache for Engine {} because of Redirect Mode {}",
+                    engineName, RedirectProcessingMode.ADD_VALUES);
+            }
+            lookupCache = null;
+        }
         //init the tracking entity searcher
         trackedServiceCount = 0;
         if(Entityhub.ENTITYHUB_IDS.contains(siteName.toLowerCase())){
@@ -306,7 +374,8 @@ public class EntityhubLinkingEngine implements ServiceTrackerCustomizer {
                 });
         //create the engine
         entityLinkingEngine = new EntityLinkingEngine(engineName,
-            entitySearcher, //the searcher might not be available
+            lookupCache == null ? entitySearcher : //the searcher might not be available
+                new CachingEntitySearcher(entitySearcher, lookupCache, siteName),
             textProcessingConfig, linkerConfig, 
             null);
         //start tracking
@@ -333,6 +402,11 @@ public class EntityhubLinkingEngine implements ServiceTrackerCustomizer {
         //close the tracking EntitySearcher
         entitySearcher.close();
         entitySearcher = null;
+        if(lookupCache != null){
+            log.info(" ... closed {} of Engine for Site {}", lookupCache, siteName);
+            lookupCache.clear();
+            lookupCache = null;
+        }
     }
     @Override
     public Object addingService(ServiceReference reference) {
@@ -350,6 +424,7 @@ public class EntityhubLinkingEngine implements ServiceTrackerCustomizer {
                     
                 }
                 trackedServiceCount++;
+                updateLookupCache(reference);
             }
             return service;
         } else {
@@ -358,6 +433,23 @@ public class EntityhubLinkingEngine implements ServiceTrackerCustomizer {
     }
     @Override
     public void modifiedService(ServiceReference reference, Object service) {
+        LookupCache cache = lookupCache;
+        if(cache != null){ //the site might have a new index
+            cache.invalidate(siteName);
+        }
+    }
+    /**
+     * Sets the version of the lookup cache to the service id of the
+     * tracked site. This ensures that lookups cached for a previously
+     * registered site (e.g. one with an old version of the index) are no
+     * longer used.
+     * @param reference the reference to the tracked service
+     */
+    private void updateLookupCache(ServiceReference reference) {
+        LookupCache cache = lookupCache;
+        if(cache != null && cache.updateVersion(siteName, reference.getProperty(Constants.SERVICE_ID))){
+            log.debug(" ... new version of Site {} (cache: {})", siteName, cache);
+        }
     }
     
     @Override
@@ -365,6 +457,10 @@ public class EntityhubLinkingEngine implements ServiceTrackerCustomizer {
         BundleContext bc = this.bundleContext;
         if(bc != null){
             trackedServiceCount--;
+            LookupCache cache = lookupCache;
+            if(cache != null){
+                cache.invalidate(siteName);
+            }
             if(trackedServiceCount == 0 && engineRegistration != null){
                engineRegistration.unregister();
             }
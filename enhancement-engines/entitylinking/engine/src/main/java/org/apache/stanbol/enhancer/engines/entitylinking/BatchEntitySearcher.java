@@ -0,0 +1,63 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.engines.entitylinking;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.clerezza.commons.rdf.IRI;
+
+/**
+ * Optional extension of the {@link EntitySearcher} interface for
+ * implementations that can resolve several lookups with a single request
+ * to the vocabulary (e.g. a multi search request to a remote index).<p>
+ * Users of an {@link EntitySearcher} are expected to check for this 
+ * interface and use
+ * {@link org.apache.stanbol.enhancer.engines.entitylinking.impl.BatchLookup#lookupEach(EntitySearcher, IRI, Set, Collection, String[], Integer)}
+ * (or single lookups) for other implementations.
+ */
+public interface BatchEntitySearcher extends EntitySearcher {
+    /**
+     * Lookup Entities for several search token lists (e.g. all candidate
+     * token windows of a sentence) at once. For every parsed list of search
+     * tokens the returned map MUST contain the same Entities (in the same
+     * order) as returned by 
+     * {@link #lookup(IRI, Set, List, String[], Integer, Integer)} with an
+     * offset of <code>0</code>. If fewer than the requested limit are returned
+     * for a list no further results are available for it.
+     * @param field the field used to search for values in the parsed languages
+     * @param selectedFields A set of fields that need to be included within the 
+     * returned {@link Representation}. The parsed field needs also to be included
+     * even if missing in this set. If <code>null</code> only the field needs
+     * to be included. Other fields MAY also be included.
+     * @param searches the lists of tokens to search for. MUST NOT be 
+     * <code>null</code> nor contain <code>null</code> or empty lists
+     * @param languages the languages to include in the search 
+     * @param limit The maximum number of results per list of search tokens or
+     * <code>null</code> to use the default
+     * @return the Entities found for the parsed lists of search tokens
+     * @throws EntitySearcherException An exception while searching for concepts
+     * @throws IllegalArgumentException if the parsed field is <code>null</code>;
+     * the collection of searches is <code>null</code> or contains 
+     * <code>null</code> or empty lists
+     */
+    Map<List<String>,Collection<? extends Entity>> lookup(IRI field, Set<IRI> selectedFields,
+        Collection<List<String>> searches, String[] languages, Integer limit)
+                throws EntitySearcherException;
+}
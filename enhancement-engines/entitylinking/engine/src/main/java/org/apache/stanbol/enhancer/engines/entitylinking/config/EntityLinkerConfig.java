@@ -103,6 +103,15 @@ public class EntityLinkerConfig {
      * @see EntityLinkerConfig#DEFAULT_LEMMA_MATCHING_STATE
      */
     public static final String LEMMA_MATCHING_STATE = "enhancer.engines.linking.lemmaMatching";
+    /**
+     * If enabled the lookups for all tokens of a sentence are collected up
+     * front and sent as a single batch to the {@link EntitySearcher}. Only
+     * used if the EntitySearcher implements
+     * {@link org.apache.stanbol.enhancer.engines.entitylinking.BatchEntitySearcher}.
+     * @see EntityLinkerConfig#isBatchLookup()
+     * @see EntityLinkerConfig#DEFAULT_BATCH_LOOKUP_STATE
+     */
+    public static final String BATCH_LOOKUP_STATE = "enhancer.engines.linking.batchLookup";
     /**
      * Can be used to that the "default language" from <code>null</code>
      * (labels without language tag) to an other value (e.g. "en").<p>
@@ -286,6 +295,10 @@ public class EntityLinkerConfig {
      * By default Lemma based matching is deactivated.
      */
     public static final boolean DEFAULT_LEMMA_MATCHING_STATE = false;
+    /**
+     * By default batch lookups are activated.
+     */
+    public static final boolean DEFAULT_BATCH_LOOKUP_STATE = true;
     public static final double DEFAULT_MIN_LABEL_SCORE = 0.75;
     public static final double DEFAULT_MIN_TEXT_SCORE = 0.4;
     public static final double DEFAULT_MIN_MATCH_SCORE = 0.3;
@@ -492,6 +505,10 @@ public class EntityLinkerConfig {
      * and match Entities within the linked vocabulary
      */
     private boolean lemmaMatchingState = DEFAULT_LEMMA_MATCHING_STATE;
+    /**
+     * If the lookups of a sentence are sent as a batch to the EntitySearcher
+     */
+    private boolean batchLookupState = DEFAULT_BATCH_LOOKUP_STATE;
     private double minLabelScore = DEFAULT_MIN_LABEL_SCORE;
     private double minTextScore = DEFAULT_MIN_TEXT_SCORE;
     private double minMatchScore = DEFAULT_MIN_MATCH_SCORE;
@@ -719,6 +736,14 @@ public class EntityLinkerConfig {
             linkerConfig.setLemmaMatchingState(Boolean.parseBoolean(value.toString()));
         }
         
+        //init BATCH_LOOKUP_STATE
+        value = configuration.get(BATCH_LOOKUP_STATE);
+        if(value instanceof Boolean){
+            linkerConfig.setBatchLookupState((Boolean)value);
+        } else if (value != null){
+            linkerConfig.setBatchLookupState(Boolean.parseBoolean(value.toString()));
+        }
+        
         //init MAX_SEARCH_TOKENS
         value = configuration.get(MAX_SEARCH_TOKENS);
         Integer maxSearchTokens;
@@ -1354,6 +1379,22 @@ public class EntityLinkerConfig {
             this.lemmaMatchingState = lemmaMatchingState;
         }
     }
+    /**
+     * If the lookups for all tokens of a sentence are sent as a single batch
+     * to the {@link EntitySearcher} (if it supports batch lookups)
+     * @return the batch lookup state
+     */
+    public boolean isBatchLookup() {
+        return batchLookupState;
+    }
+    
+    public void setBatchLookupState(Boolean batchLookupState) {
+        if(batchLookupState == null){
+            this.batchLookupState = DEFAULT_BATCH_LOOKUP_STATE;
+        } else {
+            this.batchLookupState = batchLookupState;
+        }
+    }
     /**
      * The minimum LabelScore required to suggest an Entity.<p>
      * The "Label Score" [0..1] represents how much of the
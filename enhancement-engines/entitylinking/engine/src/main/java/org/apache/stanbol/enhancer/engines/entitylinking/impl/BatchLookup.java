@@ -0,0 +1,79 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.engines.entitylinking.impl;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.stanbol.enhancer.engines.entitylinking.BatchEntitySearcher;
+import org.apache.stanbol.enhancer.engines.entitylinking.Entity;
+import org.apache.stanbol.enhancer.engines.entitylinking.EntitySearcher;
+import org.apache.stanbol.enhancer.engines.entitylinking.EntitySearcherException;
+
+/**
+ * Utility methods for implementing
+ * {@link BatchEntitySearcher#lookup(IRI, Set, Collection, String[], Integer)}
+ * and for performing batches of lookups with {@link EntitySearcher}s that do
+ * not implement {@link BatchEntitySearcher}.
+ */
+public final class BatchLookup {
+
+    private BatchLookup(){}
+
+    /**
+     * Performs a single {@link EntitySearcher#lookup(IRI, Set, List, String[], Integer, Integer)}
+     * for each of the parsed searches.
+     * @param searcher the searcher
+     * @param field the search field
+     * @param selectedFields the selected fields
+     * @param searches the lists of search tokens
+     * @param languages the languages
+     * @param limit the limit for every lookup
+     * @return the results for the parsed searches
+     * @throws EntitySearcherException on any error while performing a lookup
+     */
+    public static Map<List<String>,Collection<? extends Entity>> lookupEach(EntitySearcher searcher,
+            IRI field, Set<IRI> selectedFields, Collection<List<String>> searches, 
+            String[] languages, Integer limit) throws EntitySearcherException {
+        Map<List<String>,Collection<? extends Entity>> results = 
+                new LinkedHashMap<List<String>,Collection<? extends Entity>>();
+        for(List<String> search : validate(searches)){
+            results.put(search, searcher.lookup(field, selectedFields, search, languages, limit, 0));
+        }
+        return results;
+    }
+    
+    private static Collection<List<String>> validate(Collection<List<String>> searches) {
+        if(searches == null){
+            throw new IllegalArgumentException("The parsed collection of searches MUST NOT be NULL!");
+        }
+        Set<List<String>> distinct = new LinkedHashSet<List<String>>();
+        for(List<String> search : searches){
+            if(search == null || search.isEmpty()){
+                throw new IllegalArgumentException("The parsed collection of searches MUST NOT "
+                    + "contain NULL or empty lists (searches: "+searches+")!");
+            }
+            distinct.add(search);
+        }
+        return distinct.size() == searches.size() ? searches : distinct;
+    }
+}
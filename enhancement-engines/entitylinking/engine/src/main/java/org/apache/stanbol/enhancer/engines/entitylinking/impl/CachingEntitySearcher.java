@@ -0,0 +1,113 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.engines.entitylinking.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.RDFTerm;
+import org.apache.stanbol.enhancer.engines.entitylinking.Entity;
+import org.apache.stanbol.enhancer.engines.entitylinking.EntitySearcher;
+import org.apache.stanbol.enhancer.engines.entitylinking.EntitySearcherException;
+
+/**
+ * {@link EntitySearcher} that caches the results of lookups of the wrapped
+ * searcher in a {@link LookupCache}. As the cache can be shared by several
+ * searchers, lookups are cached for the parsed site. Requests for
+ * {@link #get(IRI, Set, String...) single entities} are not cached.<p>
+ * Only the results of single lookups of the wrapped searcher are cached.
+ * Because of that this class does not implement
+ * {@link org.apache.stanbol.enhancer.engines.entitylinking.BatchEntitySearcher}
+ * even if the wrapped searcher does.
+ */
+public class CachingEntitySearcher implements EntitySearcher {
+
+    private final EntitySearcher searcher;
+    private final LookupCache cache;
+    private final String site;
+
+    /**
+     * Creates a caching searcher
+     * @param searcher the wrapped searcher
+     * @param cache the cache
+     * @param site the id of the site used by the searcher. 
+     */
+    public CachingEntitySearcher(EntitySearcher searcher, LookupCache cache, String site) {
+        if(searcher == null){
+            throw new IllegalArgumentException("The parsed EntitySearcher MUST NOT be NULL!");
+        }
+        if(cache == null){
+            throw new IllegalArgumentException("The parsed LookupCache MUST NOT be NULL!");
+        }
+        this.searcher = searcher;
+        this.cache = cache;
+        this.site = site;
+    }
+    /**
+     * The wrapped searcher
+     * @return the searcher
+     */
+    public EntitySearcher getSearcher() {
+        return searcher;
+    }
+    /**
+     * The cache used by this searcher
+     * @return the cache
+     */
+    public LookupCache getCache() {
+        return cache;
+    }
+    
+    @Override
+    public Entity get(IRI id, Set<IRI> selectedFields, String...languages) throws EntitySearcherException {
+        return searcher.get(id, selectedFields, languages);
+    }
+
+    @Override
+    public Collection<? extends Entity> lookup(IRI field, Set<IRI> selectedFields,
+            List<String> search, String[] languages, Integer limit, Integer offset)
+                    throws EntitySearcherException {
+        Collection<? extends Entity> results = cache.get(site, field, selectedFields, 
+            search, languages, limit, offset);
+        if(results == null){
+            //do not cache results if the cache is invalidated during the lookup
+            long generation = cache.getGeneration();
+            results = searcher.lookup(field, selectedFields, search, languages, limit, offset);
+            cache.put(site, field, selectedFields, search, languages, limit, offset, results, generation);
+        }
+        return results;
+    }
+    
+    @Override
+    public boolean supportsOfflineMode() {
+        return searcher.supportsOfflineMode();
+    }
+
+    @Override
+    public Integer getLimit() {
+        return searcher.getLimit();
+    }
+
+    @Override
+    public Map<IRI,Collection<RDFTerm>> getOriginInformation() {
+        return searcher.getOriginInformation();
+    }
+    
+}
@@ -27,6 +27,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.NavigableMap;
 import java.util.Set;
 import java.util.TreeMap;
@@ -37,6 +38,7 @@ import org.apache.clerezza.commons.rdf.IRI;
 import org.apache.clerezza.commons.rdf.Literal;
 import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
 import org.apache.commons.lang.StringUtils;
+import org.apache.stanbol.enhancer.engines.entitylinking.BatchEntitySearcher;
 import org.apache.stanbol.enhancer.engines.entitylinking.Entity;
 import org.apache.stanbol.enhancer.engines.entitylinking.EntitySearcher;
 import org.apache.stanbol.enhancer.engines.entitylinking.EntitySearcherException;
@@ -62,6 +64,11 @@ public class EntityLinker {
     private final LanguageProcessingConfig textProcessingConfig;
     //private final AnalysedText analysedText;
     private final EntitySearcher entitySearcher;
+    /**
+     * The {@link #entitySearcher} if it supports batch lookups. Otherwise
+     * <code>null</code> and lookups are performed one by one when needed.
+     */
+    private final BatchEntitySearcher batchSearcher;
     /**
      * The state of the current processing
      */
@@ -97,6 +104,16 @@ public class EntityLinker {
     private long processingTime = -1;
 
     private Map<List<String>,List<Entity>> lookupCache;
+    /**
+     * First page results of lookups issued as batch for the current sentence.
+     * Entries are removed as soon as they are consumed by
+     * {@link #performLookup(List, String[], List, List, List)}
+     */
+    private Map<List<String>,Collection<? extends Entity>> prefetched;
+    /**
+     * The section for that the {@link #prefetched} lookups where collected
+     */
+    private Section prefetchedSection;
 
 
     public EntityLinker(AnalysedText analysedText, String language,
@@ -113,7 +130,10 @@ public class EntityLinker {
                 LabelTokenizer labelTokenizer, LinkingStateAware linkingStateAware) {
         //this.analysedText = analysedText;
         this.lookupCache = new HashMap<List<String>,List<Entity>>();
+        this.prefetched = new HashMap<List<String>,Collection<? extends Entity>>();
         this.entitySearcher = entitySearcher;
+        this.batchSearcher = entitySearcher instanceof BatchEntitySearcher ? 
+                (BatchEntitySearcher)entitySearcher : null;
         this.linkerConfig = linkerConfig;
         this.textProcessingConfig = textProcessingConfig;
         this.labelTokenizer = labelTokenizer;
@@ -154,6 +174,11 @@ public class EntityLinker {
                 }
                 linkingStateAware.startToken(state.getToken().token); //notify the current token
             }
+            if(batchSearcher != null && linkerConfig.isBatchLookup() && 
+                    !state.getSentence().equals(prefetchedSection)){
+                prefetchedSection = state.getSentence();
+                prefetchLookups();
+            }
             TokenData token = state.getToken();
             if(log.isDebugEnabled()){
                 log.debug("--- preocess Token {}: {} (lemma: {}) linkable={}, matchable={} | chunk: {}",
@@ -161,111 +186,7 @@ public class EntityLinker {
                         token.isLinkable, token.isMatchable, token.inChunk != null ? 
                                 (token.inChunk.chunk + " "+ token.inChunk.chunk.getSpan()) : "none"});
             }
-            List<TokenData> searchStrings = new ArrayList<TokenData>(linkerConfig.getMaxSearchTokens());
-            getSearchString(token);
-            searchStrings.add(token);
-            //Determine the range we are allowed to search for tokens
-            final int minIncludeIndex;
-            final int maxIndcludeIndex;
-            int consumedIndex = state.getConsumedIndex();
-            //NOTE: testing has shown that using Chunks to restrict search for
-            //      additional matchable tokens does have an negative impact on
-            //      recall. Because of that this restriction is for now deactivated
-//            if(token.inChunk != null && !textProcessingConfig.isIgnoreChunks()){
-//                minIncludeIndex = token.inChunk.getStartTokenIndex();
-//                maxIndcludeIndex = token.inChunk.getEndTokenIndex();
-//                log.debug("  - restrict context to chunk[{}, {}]",
-//                    minIncludeIndex, maxIndcludeIndex);
-//            } else {
-                maxIndcludeIndex = state.getTokens().size() - 1;
-                minIncludeIndex = 0;
-//            }
-            int prevIndex = token.index;
-            int pastIndex = token.index;
-            int pastNonMatchable = 0;
-            int prevNonMatchable = 0;
-            int distance = 0;
-            do { 
-                distance++;//keep track of the distance
-                //get the past token at the given distance (However ignore
-                //non AlphaNumeric tokens when calculating the distance)
-                pastIndex++;
-                TokenData pastToken = null;
-                while(pastToken == null && maxIndcludeIndex >= pastIndex &&
-                        pastNonMatchable <= 1){
-                    TokenData td = state.getTokens().get(pastIndex);
-                    if(td.hasAlphaNumeric){
-                        pastToken = td;
-                    } else {
-                        pastIndex++;
-                    }
-                }
-                //get the previous token at the given distance (However ignore
-                //non AlphaNumeric tokens when calculating the distance)
-                prevIndex--;
-                TokenData prevToken = null;
-                while(prevToken == null && minIncludeIndex <= prevIndex &&
-                        //allow one nonMatchable token if prevIndex > the last
-                        //consumed one and zero nonMatchable if prevIndex is <=
-                        //the last consumed one
-                        ((prevIndex > consumedIndex && prevNonMatchable <= 1) ||
-                                prevIndex <= consumedIndex && prevNonMatchable < 1)){
-                    TokenData td = state.getTokens().get(prevIndex);
-                    if(td.hasAlphaNumeric){
-                        prevToken = td;
-                    } else {
-                        prevIndex--;
-                    }
-                }
-                //now that we know the tokens at this distance check if they are matchable
-                //Fist the past token
-                if(pastToken != null){
-                    if(log.isDebugEnabled()){
-                        log.debug("    {} {}:'{}' (lemma: {}) linkable={}, matchable={}",new Object[]{
-                                pastToken.isMatchable? '+':'-',pastToken.index,
-                                pastToken.getTokenText(), pastToken.getTokenLemma(),
-                                pastToken.isLinkable, pastToken.isMatchable
-                        });
-                    }
-                    if(pastToken.isMatchable){
-                        searchStrings.add(pastToken);
-                    } else {
-                        pastNonMatchable++;
-                    }
-                }
-                //Second in the previous token
-                if(prevToken != null){
-                    if(log.isDebugEnabled()){
-                        log.debug("    {} {}:'{}' (lemma: {}) linkable={}, matchable={}",new Object[]{
-                            prevToken.isMatchable? '+':'-',prevToken.index,
-                            prevToken.getTokenText(), prevToken.getTokenLemma(),
-                            prevToken.isLinkable, prevToken.isMatchable
-                        });
-                    }
-                    if(prevToken.isMatchable){
-                        getSearchString(prevToken);
-                        searchStrings.add(0,prevToken);
-                    } else {
-                        prevNonMatchable++;
-                    }
-                }
-            } while(searchStrings.size() < linkerConfig.getMaxSearchTokens() && distance <
-                    linkerConfig.getMaxSearchDistance() &&
-                    (prevIndex > minIncludeIndex || pastIndex < maxIndcludeIndex) &&
-                    (prevNonMatchable <= 1 || pastNonMatchable <= 1));
-            //we might have an additional element in the list
-            if(searchStrings.size() > linkerConfig.getMaxSearchTokens()){
-                searchStrings = searchStrings.subList( //the last part of the list
-                    searchStrings.size()-linkerConfig.getMaxSearchTokens(), 
-                    searchStrings.size());
-            }
-            if(log.isDebugEnabled()){
-                List<String> list = new ArrayList<String>(searchStrings.size());
-                for(TokenData dt : searchStrings){
-                    list.add(dt.token.getSpan());
-                }
-                log.debug("  >> searchStrings {}",list);
-            }
+            List<TokenData> searchStrings = getSearchTokens(token, state.getConsumedIndex(), true);
             textProcessingStats.complete();
             //search for Entities
             List<Suggestion> suggestions = lookupEntities(searchStrings);
@@ -406,6 +327,120 @@ public class EntityLinker {
         }
         this.processingTime = System.currentTimeMillis()-startTime;
     }
+    /**
+     * Collects the tokens used to search Entities for the parsed token.
+     * @param token the current token
+     * @param consumedIndex the index of the last consumed token
+     * @param debug if debug level logging is enabled
+     * @return the tokens to search for
+     */
+    private List<TokenData> getSearchTokens(TokenData token, int consumedIndex, boolean debug) {
+        List<TokenData> searchStrings = new ArrayList<TokenData>(linkerConfig.getMaxSearchTokens());
+        getSearchString(token);
+        searchStrings.add(token);
+        //Determine the range we are allowed to search for tokens
+        final int minIncludeIndex;
+        final int maxIndcludeIndex;
+        //NOTE: testing has shown that using Chunks to restrict search for
+        //      additional matchable tokens does have an negative impact on
+        //      recall. Because of that this restriction is for now deactivated
+//            if(token.inChunk != null && !textProcessingConfig.isIgnoreChunks()){
+//                minIncludeIndex = token.inChunk.getStartTokenIndex();
+//                maxIndcludeIndex = token.inChunk.getEndTokenIndex();
+//                log.debug("  - restrict context to chunk[{}, {}]",
+//                    minIncludeIndex, maxIndcludeIndex);
+//            } else {
+        maxIndcludeIndex = state.getTokens().size() - 1;
+        minIncludeIndex = 0;
+//            }
+        int prevIndex = token.index;
+        int pastIndex = token.index;
+        int pastNonMatchable = 0;
+        int prevNonMatchable = 0;
+        int distance = 0;
+        do { 
+            distance++;//keep track of the distance
+            //get the past token at the given distance (However ignore
+            //non AlphaNumeric tokens when calculating the distance)
+            pastIndex++;
+            TokenData pastToken = null;
+            while(pastToken == null && maxIndcludeIndex >= pastIndex &&
+                    pastNonMatchable <= 1){
+                TokenData td = state.getTokens().get(pastIndex);
+                if(td.hasAlphaNumeric){
+                    pastToken = td;
+                } else {
+                    pastIndex++;
+                }
+            }
+            //get the previous token at the given distance (However ignore
+            //non AlphaNumeric tokens when calculating the distance)
+            prevIndex--;
+            TokenData prevToken = null;
+            while(prevToken == null && minIncludeIndex <= prevIndex &&
+                    //allow one nonMatchable token if prevIndex > the last
+                    //consumed one and zero nonMatchable if prevIndex is <=
+                    //the last consumed one
+                    ((prevIndex > consumedIndex && prevNonMatchable <= 1) ||
+                            prevIndex <= consumedIndex && prevNonMatchable < 1)){
+                TokenData td = state.getTokens().get(prevIndex);
+                if(td.hasAlphaNumeric){
+                    prevToken = td;
+                } else {
+                    prevIndex--;
+                }
+            }
+            //now that we know the tokens at this distance check if they are matchable
+            //Fist the past token
+            if(pastToken != null){
+                if(log.isDebugEnabled()){
+                    log.debug("    {} {}:'{}' (lemma: {}) linkable={}, matchable={}",new Object[]{
+                            pastToken.isMatchable? '+':'-',pastToken.index,
+                            pastToken.getTokenText(), pastToken.getTokenLemma(),
+                            pastToken.isLinkable, pastToken.isMatchable
+                    });
+                }
+                if(pastToken.isMatchable){
+                    searchStrings.add(pastToken);
+                } else {
+                    pastNonMatchable++;
+                }
+            }
+            //Second in the previous token
+            if(prevToken != null){
+                if(log.isDebugEnabled()){
+                    log.debug("    {} {}:'{}' (lemma: {}) linkable={}, matchable={}",new Object[]{
+                        prevToken.isMatchable? '+':'-',prevToken.index,
+                        prevToken.getTokenText(), prevToken.getTokenLemma(),
+                        prevToken.isLinkable, prevToken.isMatchable
+                    });
+                }
+                if(prevToken.isMatchable){
+                    getSearchString(prevToken);
+                    searchStrings.add(0,prevToken);
+                } else {
+                    prevNonMatchable++;
+                }
+            }
+        } while(searchStrings.size() < linkerConfig.getMaxSearchTokens() && distance <
+                linkerConfig.getMaxSearchDistance() &&
+                (prevIndex > minIncludeIndex || pastIndex < maxIndcludeIndex) &&
+                (prevNonMatchable <= 1 || pastNonMatchable <= 1));
+        //we might have an additional element in the list
+        if(searchStrings.size() > linkerConfig.getMaxSearchTokens()){
+            searchStrings = searchStrings.subList( //the last part of the list
+                searchStrings.size()-linkerConfig.getMaxSearchTokens(), 
+                searchStrings.size());
+        }
+        if(debug){
+            List<String> list = new ArrayList<String>(searchStrings.size());
+            for(TokenData dt : searchStrings){
+                list.add(dt.token.getSpan());
+            }
+            log.debug("  >> searchStrings {}",list);
+        }
+        return searchStrings;
+    }
     /**
      * @param suggestions
      */
@@ -587,18 +622,8 @@ public class EntityLinker {
      * @throws EntitySearcherException 
      */
     private List<Suggestion> lookupEntities(List<TokenData> searchTokens) throws EntitySearcherException {
-        Set<String> languages = new HashSet<String>();
-        languages.add(linkerConfig.getDefaultLanguage());
-        languages.add(state.getLanguage());
-        int countryCodeIndex = state.getLanguage() == null ? -1 : state.getLanguage().indexOf('-');
-        if(countryCodeIndex >= 2){
-            languages.add(state.getLanguage().substring(0,countryCodeIndex));
-        }
-        List<String> searchStrings = new ArrayList<String>(searchTokens.size());
-        for(Iterator<TokenData> it = searchTokens.iterator();it.hasNext();){
-            searchStrings.add(getSearchString(it.next()));
-        }
-        String[] languageArray = languages.toArray(new String[languages.size()]);
+        List<String> searchStrings = getSearchStrings(searchTokens);
+        String[] languageArray = getLanguages();
         List<Suggestion> suggestions = new ArrayList<Suggestion>();
         //check if we have the search strings in the cache
         List<Entity> results = lookupCache.get(searchStrings);
@@ -645,6 +670,87 @@ public class EntityLinker {
         }
         return suggestions;
     }
+    /**
+     * Collects the search strings of all linkable tokens of the current
+     * sentence that are not yet consumed and performs the lookups for those
+     * as a batch. Results are stored in {@link #prefetched} and used by
+     * {@link #performLookup(List, String[], List, List, List)} instead of
+     * issuing a single query. Only used if the {@link #entitySearcher} is a
+     * {@link BatchEntitySearcher}, as prefetching single lookups would only
+     * add lookups for tokens that are consumed by a preceding match.<p>
+     * Search strings are grouped by their lookup limit as this depends on
+     * the number of search tokens.
+     * @throws EntitySearcherException
+     */
+    private void prefetchLookups() throws EntitySearcherException {
+        prefetched.clear(); //results of the previous sentence are no longer needed
+        int consumedIndex = state.getConsumedIndex();
+        Map<Integer,Set<List<String>>> searchesByLimit = new HashMap<Integer,Set<List<String>>>();
+        textProcessingStats.begin();
+        for(TokenData token : state.getTokens()){
+            if(token.index > consumedIndex && token.isLinkable){
+                List<TokenData> searchTokens = getSearchTokens(token, consumedIndex, false);
+                List<String> searchStrings = getSearchStrings(searchTokens);
+                if(!lookupCache.containsKey(searchStrings)){
+                    Integer limit = getLookupLimit(searchTokens.size());
+                    Set<List<String>> searches = searchesByLimit.get(limit);
+                    if(searches == null){
+                        searches = new HashSet<List<String>>();
+                        searchesByLimit.put(limit, searches);
+                    }
+                    searches.add(searchStrings);
+                }
+            }
+        }
+        textProcessingStats.complete();
+        String[] languageArray = getLanguages();
+        for(Entry<Integer,Set<List<String>>> entry : searchesByLimit.entrySet()){
+            //a single search is better performed by performLookup(..)
+            if(entry.getValue().size() > 1){
+                log.debug("   > batch lookup of {} searches (limit: {})", 
+                    entry.getValue().size(), entry.getKey());
+                lookupStats.begin(); //keep statistics
+                prefetched.putAll(batchSearcher.lookup(linkerConfig.getNameField(),
+                    linkerConfig.getSelectedFields(), entry.getValue(), languageArray,
+                    entry.getKey()));
+                lookupStats.complete();
+            }
+        }
+    }
+    /**
+     * The search strings for the parsed tokens
+     * @param searchTokens the tokens
+     * @return the search strings
+     */
+    private List<String> getSearchStrings(List<TokenData> searchTokens) {
+        List<String> searchStrings = new ArrayList<String>(searchTokens.size());
+        for(Iterator<TokenData> it = searchTokens.iterator();it.hasNext();){
+            searchStrings.add(getSearchString(it.next()));
+        }
+        return searchStrings;
+    }
+    /**
+     * The languages used for lookups of the current sentence
+     * @return the languages
+     */
+    private String[] getLanguages() {
+        Set<String> languages = new HashSet<String>();
+        languages.add(linkerConfig.getDefaultLanguage());
+        languages.add(state.getLanguage());
+        int countryCodeIndex = state.getLanguage() == null ? -1 : state.getLanguage().indexOf('-');
+        if(countryCodeIndex >= 2){
+            languages.add(state.getLanguage().substring(0,countryCodeIndex));
+        }
+        return languages.toArray(new String[languages.size()]);
+    }
+    /**
+     * The number of Entities requested by a single lookup
+     * @param numSearchTokens the number of search tokens
+     * @return the lookup limit
+     */
+    private int getLookupLimit(int numSearchTokens) {
+        return Math.max(MIN_SEARCH_LIMIT, linkerConfig.getMaxSuggestions()*2*numSearchTokens);
+    }
     /**
      * @param searchStrings
      * @param languageArray
@@ -661,12 +767,15 @@ public class EntityLinker {
             List<Suggestion> suggestions, List<TokenData> searchTokens, 
             List<Entity> queryResults) throws EntitySearcherException {
         int minProcessedResults = linkerConfig.getMaxSuggestions()*3;
-        int lookupLimit = Math.max(MIN_SEARCH_LIMIT, linkerConfig.getMaxSuggestions()*2*searchTokens.size());
+        int lookupLimit = getLookupLimit(searchTokens.size());
         int maxResults = lookupLimit*2;
         int offset = 0;
         int numFiltered = 0;
         boolean moreResultsAvailable = true;
         int numResults = 0;
+        //ids of processed entities. Needed as following requests might not
+        //be consistent with prefetched results
+        Set<String> processedIds = new HashSet<String>();
         //search for entities until
         // (1) we have more as MAX_SUGGESTION results
         // (2) no more results are available
@@ -680,13 +789,18 @@ public class EntityLinker {
         while(suggestions.size() < linkerConfig.getMaxSuggestions() &&
                 moreResultsAvailable && (numResults-numFiltered) < (minProcessedResults) &&
                 numResults < maxResults){
-            Collection<? extends Entity> results;
-            log.debug("   > request entities [{}-{}] entities ...",offset,(offset+lookupLimit));
-            lookupStats.begin(); //keep statistics
-            results = entitySearcher.lookup(linkerConfig.getNameField(),
-                linkerConfig.getSelectedFields(), searchStrings, languageArray,
-                lookupLimit, offset);
-            lookupStats.complete();
+            Collection<? extends Entity> results = offset == 0 ? 
+                    prefetched.remove(searchStrings) : null;
+            if(results == null){
+                log.debug("   > request entities [{}-{}] entities ...",offset,(offset+lookupLimit));
+                lookupStats.begin(); //keep statistics
+                results = entitySearcher.lookup(linkerConfig.getNameField(),
+                    linkerConfig.getSelectedFields(), searchStrings, languageArray,
+                    lookupLimit, offset);
+                lookupStats.complete();
+            } else {
+                log.debug("   > use prefetched entities [0-{}] ...",lookupLimit);
+            }
             log.debug("      < found {} entities ...",results.size());
             //queries might return more as the requested results
             moreResultsAvailable = results.size() >= lookupLimit;
@@ -694,6 +808,9 @@ public class EntityLinker {
             offset = numResults;
             matchingStats.begin();
             for(Entity result : results){ 
+                if(!processedIds.add(result.getId())){
+                    continue; //already processed
+                }
                 if(log.isDebugEnabled()){
                     log.debug("    > {} (ranking: {})",result.getId(),result.getEntityRanking());
                 }
@@ -1292,6 +1409,9 @@ public class EntityLinker {
         float cacheHitPercentage = lookupStats.count > 0 ? //avoid division by zero
                 cacheHits*100f/(float)lookupStats.count : Float.NaN;
         log.info("    - cache hits: {} ({}%)",cacheHits,cacheHitPercentage);
+        if(entitySearcher instanceof CachingEntitySearcher){
+            log.info("    - shared {}",((CachingEntitySearcher)entitySearcher).getCache());
+        }
         log.info("      - {} query results ({} filtered - {}%)",
             new Object[]{numQueryResults,numFilteredResults, 
                 numFilteredResults*100f/(float)numQueryResults});
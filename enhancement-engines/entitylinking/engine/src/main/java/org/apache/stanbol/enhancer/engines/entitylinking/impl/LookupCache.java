@@ -0,0 +1,351 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.engines.entitylinking.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.stanbol.enhancer.engines.entitylinking.Entity;
+import org.apache.stanbol.enhancer.engines.entitylinking.EntitySearcher;
+
+/**
+ * Bounded cache for the results of {@link EntitySearcher#lookup(IRI, Set, List, String[], Integer, Integer)}
+ * requests that is shared over the processing of several documents.<p>
+ * Results are cached for the site, the search field, the selected fields,
+ * the languages, the normalised (trimmed, lower case) search tokens as well
+ * as the limit and offset of the lookup. Entries are removed in LRU order if
+ * the maximum size is reached and expire after the configured maximum age.<p>
+ * Sites can report an (index) version by calling 
+ * {@link #updateVersion(String, Object)}. If the version changes all cached
+ * lookups for that site are invalidated.<p>
+ * This class is thread save.
+ */
+public class LookupCache {
+
+    /**
+     * The default number of cached lookups
+     */
+    public static final int DEFAULT_SIZE = 10000;
+    /**
+     * The default maximum age of cached lookups (10min)
+     */
+    public static final long DEFAULT_MAX_AGE = 10*60*1000;
+
+    private final int size;
+    private final long maxAge;
+    /**
+     * LRU map with the cached lookup results. Guarded by itself
+     */
+    private final Map<LookupKey,CachedLookup> cache;
+    /**
+     * The current versions of the sites. Guarded by {@link #cache}
+     */
+    private final Map<String,Object> versions = new HashMap<String,Object>();
+    /**
+     * Incremented every time cached lookups are removed because of an
+     * invalidation. Guarded by {@link #cache}
+     * @see #getGeneration()
+     */
+    private long generation = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Creates a cache with the {@link #DEFAULT_SIZE} and {@link #DEFAULT_MAX_AGE}
+     */
+    public LookupCache(){
+        this(DEFAULT_SIZE,DEFAULT_MAX_AGE);
+    }
+    /**
+     * Creates a cache
+     * @param size the maximum number of cached lookups. MUST BE &gt; 0
+     * @param maxAge the maximum age of cached lookups in milliseconds. Values
+     * &lt;= 0 deactivate expiration.
+     */
+    public LookupCache(int size, long maxAge){
+        if(size <= 0){
+            throw new IllegalArgumentException("The size of the cache MUST BE > 0 (parsed: "+size+")!");
+        }
+        this.size = size;
+        this.maxAge = maxAge;
+        cache = new LinkedHashMap<LookupKey,CachedLookup>(Math.min(size, 1024), 0.75f, true){
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<LookupKey,CachedLookup> eldest) {
+                if(size() > LookupCache.this.size){
+                    evictions.incrementAndGet();
+                    return true;
+                } else {
+                    return false;
+                }
+            }
+        };
+    }
+    /**
+     * Getter for the cached results of a lookup
+     * @return the cached results or <code>null</code> if not cached
+     */
+    public Collection<? extends Entity> get(String site, IRI field, Set<IRI> selectedFields,
+            List<String> search, String[] languages, Integer limit, Integer offset){
+        LookupKey key = new LookupKey(site, field, selectedFields, search, languages, limit, offset);
+        CachedLookup cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+            if(cached != null && maxAge > 0 && 
+                    System.currentTimeMillis() - cached.created > maxAge){
+                cache.remove(key);
+                expirations.incrementAndGet();
+                cached = null;
+            }
+        }
+        if(cached != null){
+            hits.incrementAndGet();
+            return cached.results;
+        } else {
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+    /**
+     * Adds the results of a lookup to the cache
+     */
+    public void put(String site, IRI field, Set<IRI> selectedFields,
+            List<String> search, String[] languages, Integer limit, Integer offset,
+            Collection<? extends Entity> results){
+        put(site, field, selectedFields, search, languages, limit, offset, results, -1);
+    }
+    /**
+     * Adds the results of a lookup to the cache if no invalidation happened
+     * since the parsed {@link #getGeneration() generation} was retrieved. 
+     * This ensures that results of a lookup started before an invalidation
+     * (e.g. because the index of the site was updated) are not cached.
+     * @param generation the generation retrieved before the lookup was
+     * performed. Values &lt; 0 add the results regardless of the generation
+     * @return if the results where added
+     */
+    public boolean put(String site, IRI field, Set<IRI> selectedFields,
+            List<String> search, String[] languages, Integer limit, Integer offset,
+            Collection<? extends Entity> results, long generation){
+        LookupKey key = new LookupKey(site, field, selectedFields, search, languages, limit, offset);
+        CachedLookup cached = new CachedLookup(
+            Collections.unmodifiableList(new ArrayList<Entity>(results)));
+        synchronized (cache) {
+            if(generation >= 0 && generation != this.generation){
+                return false; //invalidated while the lookup was performed
+            }
+            cache.put(key, cached);
+            return true;
+        }
+    }
+    /**
+     * The current generation of this cache. The generation changes every time
+     * cached lookups are invalidated (including {@link #clear()}). Callers
+     * need to get the generation before performing a lookup and parse it to
+     * {@link #put(String, IRI, Set, List, String[], Integer, Integer, Collection, long)}.
+     * @return the current generation
+     */
+    public long getGeneration(){
+        synchronized (cache) {
+            return generation;
+        }
+    }
+    /**
+     * Updates the version of the parsed site. If the version is different from
+     * the current one all cached lookups for this site are removed.
+     * @param site the site
+     * @param version the version (e.g. the version of the index)
+     * @return if the version has changed
+     */
+    public boolean updateVersion(String site, Object version){
+        synchronized (cache) {
+            Object current = versions.put(site, version);
+            if(current == null ? version == null : current.equals(version)){
+                return false;
+            }
+            if(current != null){ //no need to invalidate for the first version
+                removeSite(site);
+            }
+            return true;
+        }
+    }
+    /**
+     * Removes all cached lookups of the parsed site
+     * @param site the site
+     */
+    public void invalidate(String site){
+        synchronized (cache) {
+            removeSite(site);
+        }
+    }
+    private void removeSite(String site) {
+        invalidations.incrementAndGet();
+        generation++;
+        for(Iterator<LookupKey> it = cache.keySet().iterator(); it.hasNext();){
+            LookupKey key = it.next();
+            if(site == null ? key.site == null : site.equals(key.site)){
+                it.remove();
+            }
+        }
+    }
+    /**
+     * Removes all cached lookups
+     */
+    public void clear(){
+        synchronized (cache) {
+            cache.clear();
+            generation++;
+        }
+    }
+    /**
+     * The number of cached lookups
+     */
+    public int size(){
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+    /**
+     * The maximum number of cached lookups
+     */
+    public int getMaxSize() {
+        return size;
+    }
+    /**
+     * The maximum age of cached lookups in milliseconds
+     */
+    public long getMaxAge() {
+        return maxAge;
+    }
+    public long getHitCount(){
+        return hits.get();
+    }
+    public long getMissCount(){
+        return misses.get();
+    }
+    public long getEvictionCount(){
+        return evictions.get();
+    }
+    public long getExpirationCount(){
+        return expirations.get();
+    }
+    /**
+     * The number of times the cached lookups of a site where invalidated
+     */
+    public long getInvalidationCount(){
+        return invalidations.get();
+    }
+    /**
+     * The ratio of lookups answered by the cache
+     * @return the hit rate [0..1] or <code>0</code> if no lookups where made
+     */
+    public double getHitRate(){
+        long h = hits.get();
+        long requests = h + misses.get();
+        return requests == 0 ? 0 : h/(double)requests;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "LookupCache[size: %d/%d | hits: %d | misses: %d | "
+            + "hit rate: %.3f | evictions: %d | expirations: %d | invalidations: %d]",
+            size(), size, getHitCount(), getMissCount(), getHitRate(),
+            getEvictionCount(), getExpirationCount(), getInvalidationCount());
+    }
+    
+    private static class CachedLookup {
+        
+        final long created = System.currentTimeMillis();
+        final Collection<? extends Entity> results;
+        
+        CachedLookup(Collection<? extends Entity> results){
+            this.results = results;
+        }
+    }
+    
+    private static class LookupKey {
+        
+        final String site;
+        final IRI field;
+        final Set<IRI> selectedFields;
+        final List<String> search;
+        final Set<String> languages;
+        final Integer limit;
+        final Integer offset;
+        final int hash;
+        
+        LookupKey(String site, IRI field, Set<IRI> selectedFields, List<String> search,
+                String[] languages, Integer limit, Integer offset){
+            this.site = site;
+            this.field = field;
+            this.selectedFields = selectedFields == null ? Collections.<IRI>emptySet() :
+                new HashSet<IRI>(selectedFields);
+            List<String> normalised = new ArrayList<String>(search.size());
+            for(String token : search){
+                normalised.add(token == null ? null : token.trim().toLowerCase(Locale.ROOT));
+            }
+            this.search = normalised;
+            this.languages = languages == null ? Collections.<String>emptySet() :
+                new HashSet<String>(Arrays.asList(languages));
+            this.limit = limit;
+            this.offset = offset == null || offset.intValue() < 0 ? Integer.valueOf(0) : offset;
+            this.hash = Arrays.hashCode(new Object[]{site, field, this.selectedFields, 
+                    this.search, this.languages, limit, this.offset});
+        }
+        
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if(o == this){
+                return true;
+            }
+            if(!(o instanceof LookupKey)){
+                return false;
+            }
+            LookupKey other = (LookupKey)o;
+            return hash == other.hash && equals(site, other.site) && 
+                    equals(field, other.field) && equals(limit, other.limit) &&
+                    offset.equals(other.offset) && search.equals(other.search) &&
+                    languages.equals(other.languages) &&
+                    selectedFields.equals(other.selectedFields);
+        }
+        
+        private static boolean equals(Object o1, Object o2){
+            return o1 == null ? o2 == null : o1.equals(o2);
+        }
+    }
+}
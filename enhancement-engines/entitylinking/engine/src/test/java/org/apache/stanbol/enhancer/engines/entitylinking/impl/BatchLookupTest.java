@@ -0,0 +1,105 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.engines.entitylinking.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.impl.utils.PlainLiteralImpl;
+import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
+import org.apache.stanbol.commons.indexedgraph.IndexedGraph;
+import org.apache.stanbol.enhancer.engines.entitylinking.Entity;
+import org.apache.stanbol.enhancer.engines.entitylinking.labeltokenizer.SimpleLabelTokenizer;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class BatchLookupTest {
+
+    private static final IRI NAME = new IRI("urn:test:name");
+    private static TestSearcherImpl searcher;
+
+    @BeforeClass
+    public static void initSearcher(){
+        searcher = new TestSearcherImpl("test", NAME, new SimpleLabelTokenizer());
+        Graph graph = new IndexedGraph();
+        addEntity(graph, "urn:test:PatrickMarshall", "Patrick Marshall");
+        addEntity(graph, "urn:test:Geologist", "Geologist");
+        addEntity(graph, "urn:test:NewZealand", "New Zealand");
+        addEntity(graph, "urn:test:Patrick", "Patrick");
+        addEntity(graph, "urn:test:Bern", "Bern");
+        addEntity(graph, "urn:test:Berlin", "Berlin");
+    }
+
+    private static void addEntity(Graph graph, String uri, String label){
+        IRI id = new IRI(uri);
+        graph.add(new TripleImpl(id, NAME, new PlainLiteralImpl(label)));
+        searcher.addEntity(new Entity(id, graph));
+    }
+
+    /**
+     * The results of a batch MUST BE the same (and in the same order) as
+     * the results of single lookups. Especially for searches with 
+     * overlapping labels (e.g. 'Bern' and 'Berlin')
+     */
+    @Test
+    public void testLookupEach() throws Exception {
+        Collection<List<String>> searches = new ArrayList<List<String>>();
+        searches.add(Arrays.asList("Patrick", "Marshall"));
+        searches.add(Arrays.asList("Geologist"));
+        searches.add(Arrays.asList("New", "Zealand"));
+        searches.add(Arrays.asList("Bern"));
+        searches.add(Arrays.asList("Berlin"));
+        searches.add(Arrays.asList("Bern")); //duplicate searches are ignored
+        searches.add(Arrays.asList("Unknown"));
+        Map<List<String>,Collection<? extends Entity>> results = BatchLookup.lookupEach(
+            searcher, NAME, null, searches, new String[]{null}, 10);
+        Assert.assertEquals(new LinkedHashSet<List<String>>(searches), results.keySet());
+        for(List<String> search : searches){
+            Assert.assertEquals("Results for "+search, 
+                new ArrayList<Entity>(searcher.lookup(NAME, null, search, new String[]{null}, 10, 0)), 
+                new ArrayList<Entity>(results.get(search)));
+        }
+        Assert.assertEquals(Collections.singletonList(new IRI("urn:test:Bern")), 
+            getIds(results.get(Arrays.asList("Bern"))));
+        Assert.assertEquals(Collections.singletonList(new IRI("urn:test:Berlin")), 
+            getIds(results.get(Arrays.asList("Berlin"))));
+        Assert.assertTrue(results.get(Arrays.asList("Unknown")).isEmpty());
+    }
+    
+    private static List<IRI> getIds(Collection<? extends Entity> entities){
+        List<IRI> ids = new ArrayList<IRI>(entities.size());
+        for(Entity entity : entities){
+            ids.add(entity.getUri());
+        }
+        return ids;
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testEmptySearch() throws Exception {
+        List<List<String>> searches = new ArrayList<List<String>>();
+        searches.add(new ArrayList<String>());
+        BatchLookup.lookupEach(searcher, NAME, null, searches, new String[]{null}, 10);
+    }
+}
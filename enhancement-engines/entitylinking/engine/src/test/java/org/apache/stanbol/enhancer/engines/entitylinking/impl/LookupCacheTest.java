@@ -0,0 +1,152 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.engines.entitylinking.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.impl.utils.PlainLiteralImpl;
+import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
+import org.apache.stanbol.commons.indexedgraph.IndexedGraph;
+import org.apache.stanbol.enhancer.engines.entitylinking.Entity;
+import org.apache.stanbol.enhancer.engines.entitylinking.labeltokenizer.SimpleLabelTokenizer;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LookupCacheTest {
+
+    private static final IRI NAME = new IRI("urn:test:name");
+    private static final String[] LANGUAGES = new String[]{null,"en"};
+    
+    /**
+     * Counts the lookups that are forwarded to the {@link TestSearcherImpl}
+     */
+    private static class CountingSearcher extends TestSearcherImpl {
+
+        int lookups = 0;
+        
+        CountingSearcher() {
+            super("test", NAME, new SimpleLabelTokenizer());
+            Graph graph = new IndexedGraph();
+            IRI id = new IRI("urn:test:Berlin");
+            graph.add(new TripleImpl(id, NAME, new PlainLiteralImpl("Berlin")));
+            addEntity(new Entity(id, graph));
+        }
+        @Override
+        public Collection<? extends Entity> lookup(IRI field, Set<IRI> includeFields,
+                List<String> search, String[] languages, Integer numResults, Integer offset) {
+            lookups++;
+            return super.lookup(field, includeFields, search, languages, numResults, offset);
+        }
+    }
+    
+    @Test
+    public void testCachedLookups() throws Exception {
+        CountingSearcher searcher = new CountingSearcher();
+        LookupCache cache = new LookupCache();
+        CachingEntitySearcher cachingSearcher = new CachingEntitySearcher(searcher, cache, "test");
+        Collection<? extends Entity> results = new ArrayList<Entity>(cachingSearcher.lookup(NAME, null, 
+            Arrays.asList("Berlin"), LANGUAGES, 10, 0));
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals(1, searcher.lookups);
+        //normalised tokens, languages in an other order and null as offset
+        Assert.assertEquals(results, cachingSearcher.lookup(NAME, null, 
+            Arrays.asList(" berlin"), new String[]{"en",null}, 10, null));
+        Assert.assertEquals(1, searcher.lookups);
+        //an other limit requires a new lookup
+        cachingSearcher.lookup(NAME, null, Arrays.asList("Berlin"), LANGUAGES, 20, 0);
+        Assert.assertEquals(2, searcher.lookups);
+        //batches of single lookups use cached results
+        Map<List<String>,Collection<? extends Entity>> batch = BatchLookup.lookupEach(cachingSearcher,
+            NAME, null, Arrays.asList(Arrays.asList("Berlin"),Arrays.asList("Paris")), LANGUAGES, 10);
+        Assert.assertEquals(3, searcher.lookups);
+        Assert.assertEquals(results, batch.get(Arrays.asList("Berlin")));
+        Assert.assertTrue(batch.get(Arrays.asList("Paris")).isEmpty());
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(3, cache.getMissCount());
+        Assert.assertEquals(0.4, cache.getHitRate(), 0.0001);
+    }
+    
+    /**
+     * Results of lookups started before an invalidation MUST NOT be cached
+     */
+    @Test
+    public void testInvalidationDuringLookup() throws Exception {
+        final LookupCache cache = new LookupCache();
+        CountingSearcher searcher = new CountingSearcher(){
+            @Override
+            public Collection<? extends Entity> lookup(IRI field, Set<IRI> includeFields,
+                    List<String> search, String[] languages, Integer numResults, Integer offset) {
+                Collection<? extends Entity> results = super.lookup(field, includeFields, 
+                    search, languages, numResults, offset);
+                if(lookups == 1){ //the site is updated while the 1st lookup is processed
+                    cache.invalidate("test");
+                }
+                return results;
+            }
+        };
+        CachingEntitySearcher cachingSearcher = new CachingEntitySearcher(searcher, cache, "test");
+        cachingSearcher.lookup(NAME, null, Arrays.asList("Berlin"), LANGUAGES, 10, 0);
+        Assert.assertEquals(0, cache.size());
+        cachingSearcher.lookup(NAME, null, Arrays.asList("Berlin"), LANGUAGES, 10, 0);
+        Assert.assertEquals(2, searcher.lookups);
+        Assert.assertEquals(1, cache.size());
+        cachingSearcher.lookup(NAME, null, Arrays.asList("Berlin"), LANGUAGES, 10, 0);
+        Assert.assertEquals(2, searcher.lookups);
+        //also clearing the cache changes the generation
+        long generation = cache.getGeneration();
+        cache.clear();
+        Assert.assertFalse(cache.put("test", NAME, null, Arrays.asList("Berlin"), LANGUAGES, 10, 0,
+            Collections.<Entity>emptyList(), generation));
+        Assert.assertEquals(0, cache.size());
+    }
+    
+    @Test
+    public void testVersionInvalidation() throws Exception {
+        LookupCache cache = new LookupCache();
+        List<String> search = Collections.singletonList("berlin");
+        Assert.assertTrue(cache.updateVersion("test", 1L));
+        cache.put("test", NAME, null, search, LANGUAGES, 10, 0, Collections.<Entity>emptyList());
+        cache.put("other", NAME, null, search, LANGUAGES, 10, 0, Collections.<Entity>emptyList());
+        Assert.assertFalse(cache.updateVersion("test", 1L));
+        Assert.assertNotNull(cache.get("test", NAME, null, search, LANGUAGES, 10, 0));
+        Assert.assertTrue(cache.updateVersion("test", 2L));
+        Assert.assertNull(cache.get("test", NAME, null, search, LANGUAGES, 10, 0));
+        Assert.assertNotNull(cache.get("other", NAME, null, search, LANGUAGES, 10, 0));
+        Assert.assertEquals(1, cache.getInvalidationCount());
+    }
+    
+    @Test
+    public void testEviction() throws Exception {
+        LookupCache cache = new LookupCache(2, -1);
+        for(String token : new String[]{"a","b","c"}){
+            cache.put("test", NAME, null, Collections.singletonList(token), LANGUAGES, 10, 0, 
+                Collections.<Entity>emptyList());
+        }
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(1, cache.getEvictionCount());
+        Assert.assertNull(cache.get("test", NAME, null, Collections.singletonList("a"), LANGUAGES, 10, 0));
+        Assert.assertNotNull(cache.get("test", NAME, null, Collections.singletonList("c"), LANGUAGES, 10, 0));
+    }
+}
@@ -0,0 +1,93 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.engines.entitylinking.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.RDFTerm;
+import org.apache.stanbol.enhancer.engines.entitylinking.BatchEntitySearcher;
+import org.apache.stanbol.enhancer.engines.entitylinking.Entity;
+import org.apache.stanbol.enhancer.engines.entitylinking.EntitySearcher;
+import org.apache.stanbol.enhancer.engines.entitylinking.EntitySearcherException;
+
+/**
+ * {@link BatchEntitySearcher} that resolves batches by single lookups on the
+ * wrapped {@link EntitySearcher} and counts the number of batch lookups.
+ */
+public class TestBatchSearcherImpl implements BatchEntitySearcher {
+
+    private final EntitySearcher searcher;
+    private final AtomicInteger batchLookups = new AtomicInteger();
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    public TestBatchSearcherImpl(EntitySearcher searcher) {
+        this.searcher = searcher;
+    }
+    /**
+     * The number of batch lookups
+     */
+    public int getBatchLookups() {
+        return batchLookups.get();
+    }
+    /**
+     * The number of single lookups (excluding lookups of batches)
+     */
+    public int getLookups() {
+        return lookups.get();
+    }
+
+    @Override
+    public Map<List<String>,Collection<? extends Entity>> lookup(IRI field, Set<IRI> selectedFields,
+            Collection<List<String>> searches, String[] languages, Integer limit)
+                    throws EntitySearcherException {
+        batchLookups.incrementAndGet();
+        return BatchLookup.lookupEach(searcher, field, selectedFields, searches, languages, limit);
+    }
+
+    @Override
+    public Collection<? extends Entity> lookup(IRI field, Set<IRI> selectedFields,
+            List<String> search, String[] languages, Integer limit, Integer offset)
+                    throws EntitySearcherException {
+        lookups.incrementAndGet();
+        return searcher.lookup(field, selectedFields, search, languages, limit, offset);
+    }
+
+    @Override
+    public Entity get(IRI id, Set<IRI> selectedFields, String...languages) throws EntitySearcherException {
+        return searcher.get(id, selectedFields, languages);
+    }
+
+    @Override
+    public boolean supportsOfflineMode() {
+        return searcher.supportsOfflineMode();
+    }
+
+    @Override
+    public Integer getLimit() {
+        return searcher.getLimit();
+    }
+
+    @Override
+    public Map<IRI,Collection<RDFTerm>> getOriginInformation() {
+        return searcher.getOriginInformation();
+    }
+}
@@ -24,10 +24,14 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.MultiFields;
+import org.apache.lucene.util.Bits;
 import org.apache.solr.core.SolrCore;
 import org.apache.solr.search.SolrIndexSearcher;
 import org.apache.solr.util.RefCounted;
+import org.apache.stanbol.enhancer.engines.lucenefstlinking.IndexSegments.DeltaBits;
 import org.opensextant.solrtexttagger.TaggerFstCorpus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,7 +39,12 @@ import org.slf4j.LoggerFactory;
 /**
  * Runtime creation of FST corpora is done as {@link Callable}. This allows
  * users to decide by the configuration of the {@link ExecutorService} to
- * control how Corpora are build (e.g. how many can be built at a time.
+ * control how Corpora are build (e.g. how many can be built at a time.<p>
+ * If a base corpus is parsed and {@link IndexConfiguration#isIncrementalUpdates()}
+ * is enabled this task tries to only build a delta corpus for the Documents
+ * added to the index since the base corpus was built. The base corpus is
+ * returned in this case. If this is not possible the corpus is completely
+ * rebuilt.
  * @author Rupert Westenthaler
  *
  */
@@ -45,13 +54,27 @@ public class CorpusCreationTask implements Callable<TaggerFstCorpus>{
     
     private final CorpusInfo fstInfo;
     private final IndexConfiguration indexConfig;
+    /**
+     * The current corpus or <code>null</code> if none
+     */
+    private final TaggerFstCorpus base;
     
     public CorpusCreationTask(IndexConfiguration indexConfig, CorpusInfo fstInfo){
+        this(indexConfig, fstInfo, null);
+    }
+    /**
+     * @param indexConfig the index configuration
+     * @param fstInfo the corpus info
+     * @param base the current corpus or <code>null</code> if none. Only used
+     * if {@link IndexConfiguration#isIncrementalUpdates()}
+     */
+    public CorpusCreationTask(IndexConfiguration indexConfig, CorpusInfo fstInfo, TaggerFstCorpus base){
         if(indexConfig == null || fstInfo == null){
             throw new IllegalArgumentException("Pared parameters MUST NOT be NULL!");
         }
         this.indexConfig = indexConfig;
         this.fstInfo = fstInfo;
+        this.base = indexConfig.isIncrementalUpdates() ? base : null;
     }
     
     @Override
@@ -74,17 +97,30 @@ public class CorpusCreationTask implements Callable<TaggerFstCorpus>{
             //we do get the AtomicReader, because TaggerFstCorpus will need it
             //anyways. This prevents to create another SlowCompositeReaderWrapper.
             final IndexReader reader = searcher.getAtomicReader();
+            final DirectoryReader dirReader = searcher.getIndexReader();
+            if(base != null){
+                TaggerFstCorpus delta = buildDelta(reader, dirReader);
+                if(delta != null){
+                    if(indexConfig.isActive()){
+                        fstInfo.setDelta(base, delta);
+                    } else { //index configuration no longer active ... ignore the built FST
+                        log.warn("Index Config for "+ fstInfo + "was deactivated while building "
+                                + "delta FST. Built FST will be ignored.");
+                    }
+                    return base;
+                } //else full rebuild required
+            }
             log.info(" ... build FST corpus for {}",fstInfo);
             corpus = AccessController.doPrivileged(new PrivilegedExceptionAction<TaggerFstCorpus>() {
                 public TaggerFstCorpus run() throws IOException {
-                    return new TaggerFstCorpus(reader, searcher.getIndexReader().getVersion(),
+                    return new TaggerFstCorpus(reader, dirReader.getVersion(),
                         null, fstInfo.indexedField, fstInfo.storedField, fstInfo.analyzer,
                         fstInfo.partialMatches,1,100);
                 }
             });
             if(indexConfig.isActive()){
                 //set the created corpus to the FST Info
-                fstInfo.setCorpus(corpus);
+                fstInfo.setCorpus(corpus, IndexSegments.create(dirReader));
             } else { //index configuration no longer active ... ignore the built FST
                 log.warn("Index Config for "+ fstInfo + "was deactivated while building FST. "
                         + "Built FST will be ignored.");
@@ -103,6 +139,52 @@ public class CorpusCreationTask implements Callable<TaggerFstCorpus>{
         }
     }
     
+    /**
+     * Builds the delta corpus for the {@link #base} corpus
+     * @param reader the atomic reader used to build the corpus
+     * @param dirReader the directory reader (used to check segments)
+     * @return the delta corpus or <code>null</code> if the corpus needs
+     * to be completely rebuilt
+     */
+    private TaggerFstCorpus buildDelta(final IndexReader reader, final DirectoryReader dirReader) {
+        IndexSegments segments = fstInfo.getSegments(base);
+        if(segments == null){
+            log.info(" ... segments of {} unknown (full rebuild)", fstInfo);
+            return null;
+        }
+        int deltaStart = segments.getDeltaStart(dirReader);
+        int maxDoc = dirReader.maxDoc();
+        if(deltaStart < 0){
+            log.info(" ... segments of {} where merged (full rebuild)", fstInfo);
+            return null;
+        }
+        if(maxDoc - deltaStart > segments.maxDoc * IndexConfiguration.MAX_DELTA_RATIO){
+            log.info(" ... delta of {} contains {} of {} documents (full rebuild)",
+                new Object[]{fstInfo, maxDoc - deltaStart, segments.maxDoc});
+            return null;
+        }
+        log.info(" ... build delta FST corpus for {} (documents {} to {})",
+            new Object[]{fstInfo, deltaStart, maxDoc});
+        final Bits deltaDocs = new DeltaBits(MultiFields.getLiveDocs(reader), deltaStart, maxDoc);
+        try {
+            return AccessController.doPrivileged(new PrivilegedExceptionAction<TaggerFstCorpus>() {
+                public TaggerFstCorpus run() throws IOException {
+                    return new TaggerFstCorpus(reader, dirReader.getVersion(),
+                        deltaDocs, fstInfo.indexedField, fstInfo.storedField, fstInfo.analyzer,
+                        fstInfo.partialMatches,1,100);
+                }
+            });
+        } catch (PrivilegedActionException pae) {
+            log.warn("Unable to build delta FST corpus for " + fstInfo 
+                + " (full rebuild)", pae.getException());
+            return null;
+        } catch (RuntimeException e) {
+            log.warn("Unable to build delta FST corpus for " + fstInfo 
+                + " (full rebuild)", e);
+            return null;
+        }
+    }
+    
     @Override
     public String toString() {
         return new StringBuilder("Task: building ").append(fstInfo)
@@ -82,10 +82,32 @@ public class CorpusInfo {
     public final Analyzer analyzer;
     
     public final Analyzer taggingAnalyzer;
+    /**
+     * If <code>true</code> the corpus is kept in memory by using a hard 
+     * reference (see {@link IndexConfiguration#PIN_CORPORA})
+     */
+    public final boolean pinned;
     
     protected final ReadWriteLock corpusLock = new ReentrantReadWriteLock();
     
     protected Reference<TaggerFstCorpus> taggerCorpusRef;
+    /**
+     * The corpus if {@link #pinned}. Replacing the value of this volatile
+     * field atomically swaps the corpus without blocking 
+     * {@link TaggingSession}s that are still using the previous version.
+     */
+    private volatile TaggerFstCorpus pinnedCorpus;
+    /**
+     * The segments of the Solr index the current corpus was built from or
+     * <code>null</code> if not known (e.g. for corpora loaded from the 
+     * {@link #fst} file).
+     */
+    private volatile IndexSegments corpusSegments;
+    /**
+     * The delta corpus for the current corpus (see 
+     * {@link IndexConfiguration#INCREMENTAL_UPDATES})
+     */
+    private volatile Delta delta;
     
     private Future<TaggerFstCorpus> enqueuedCorpus;
     /**
@@ -111,7 +133,20 @@ public class CorpusInfo {
      * @param allowCreation
      */
     protected CorpusInfo(String language, String indexField, String storeField, FieldType fieldType, File fst, boolean allowCreation){
+        this(language, indexField, storeField, fieldType, fst, allowCreation, false);
+    }
+    /** 
+     * @param language
+     * @param indexField
+     * @param analyzer
+     * @param fst
+     * @param allowCreation
+     * @param pinned if the corpus is kept in memory (see 
+     * {@link IndexConfiguration#PIN_CORPORA})
+     */
+    protected CorpusInfo(String language, String indexField, String storeField, FieldType fieldType, File fst, boolean allowCreation, boolean pinned){
         this.language = language;
+        this.pinned = pinned;
         this.indexedField = indexField;
         this.storedField = storeField;
         this.fst = fst;
@@ -149,14 +184,29 @@ public class CorpusInfo {
      * Allows to explicitly set the corpus after runtime creation has finished.
      * The corpus will be linked by using a {@link WeakReference} to allow the
      * GC to free the memory it consumes. If this happens the corpus will be
-     * loaded from the {@link #fst} file.
+     * loaded from the {@link #fst} file. If {@link #pinned} the parsed corpus
+     * replaces the current one.
      * @param enqueued the version of the corpus
      * @param corpus the corpus
      */
     protected final void setCorpus(final TaggerFstCorpus corpus) {
+        setCorpus(corpus, null);
+    }
+    /**
+     * Allows to explicitly set the corpus after runtime creation has finished.
+     * See {@link #setCorpus(TaggerFstCorpus)} for details.
+     * @param corpus the corpus
+     * @param segments the segments of the index the corpus was built from.
+     * Required to build delta corpora for this corpus. 
+     */
+    protected final void setCorpus(final TaggerFstCorpus corpus, IndexSegments segments) {
         corpusLock.writeLock().lock();
         try {
             enqueuedCorpus = null; //clear the future ref
+            if(corpus != null){ //a new base corpus invalidates the delta
+                corpusSegments = segments;
+                delta = null;
+            }
             if(taggerCorpusRef != null){
                 taggerCorpusRef.clear();
                 taggerCorpusRef = null;
@@ -165,6 +215,12 @@ public class CorpusInfo {
                 //reset any error
                 this.errorMessage = null; 
                 this.creationError = false;
+            }
+            if(pinned){ 
+                if(corpus != null){ //swap the corpus
+                    pinnedCorpus = corpus;
+                } //else keep using the current version on errors
+            } else if(corpus != null){
                 //we set the corpus as a weak reference. This allows the
                 //GC to free the corpus earlier.
                 //This is done, because here the corpus was just built and not
@@ -211,7 +267,7 @@ public class CorpusInfo {
                             taggerCorpusRef = new SoftReference<TaggerFstCorpus>(corpus);
                         }
                     } finally {
-                        corpusLock.writeLock().lock();
+                        corpusLock.writeLock().unlock();
                     }
                 } else { //Runtime exception
                     throw RuntimeException.class.cast(e);
@@ -222,6 +278,12 @@ public class CorpusInfo {
 
     public TaggerFstCorpus getCorpus() {
         TaggerFstCorpus corpus;
+        if(pinned){ //pinned corpora are accessed without locking
+            corpus = pinnedCorpus;
+            if(corpus != null){
+                return corpus;
+            }
+        }
         corpusLock.readLock().lock();
         try {
             corpus = taggerCorpusRef == null ? null : taggerCorpusRef.get();
@@ -242,7 +304,8 @@ public class CorpusInfo {
             log.info(" ... load FST corpus {}",fst);
             corpusLock.writeLock().lock();
             try { //STANBOL-1177: load FST models in AccessController.doPrivileged(..)
-                corpus = taggerCorpusRef == null ? null : taggerCorpusRef.get();
+                corpus = pinned ? pinnedCorpus : 
+                    taggerCorpusRef == null ? null : taggerCorpusRef.get();
                 if(corpus == null){ //corpus not loaded while waiting for the write lock
                     corpus = AccessController.doPrivileged(new PrivilegedExceptionAction<TaggerFstCorpus>() {
                         public TaggerFstCorpus run() throws IOException {
@@ -271,7 +334,11 @@ public class CorpusInfo {
                     });
                     if(corpus != null){
                         fstFileError = false;
-                        taggerCorpusRef = new SoftReference<TaggerFstCorpus>(corpus);
+                        if(pinned){
+                            pinnedCorpus = corpus;
+                        } else {
+                            taggerCorpusRef = new SoftReference<TaggerFstCorpus>(corpus);
+                        }
                     } //else not loaded from file
                 } //else corpus was loaded while waiting for the write lock
             } catch (PrivilegedActionException pae) {
@@ -291,6 +358,42 @@ public class CorpusInfo {
         }
         return corpus;
     }
+    /**
+     * Getter for the segments of the index the parsed corpus was built from
+     * @param corpus the corpus
+     * @return the segments or <code>null</code> if not known
+     */
+    public IndexSegments getSegments(TaggerFstCorpus corpus){
+        IndexSegments segments = corpusSegments;
+        return segments != null && corpus != null && 
+                segments.version == corpus.getIndexVersion() ? segments : null;
+    }
+    /**
+     * Sets the delta corpus for the parsed base corpus. Also clears the
+     * {@link #getEnqueued()} state.
+     * @param base the base corpus
+     * @param deltaCorpus the delta corpus
+     */
+    protected void setDelta(TaggerFstCorpus base, TaggerFstCorpus deltaCorpus){
+        corpusLock.writeLock().lock();
+        try {
+            enqueuedCorpus = null; //clear the future ref
+            delta = new Delta(base.getIndexVersion(), deltaCorpus);
+        } finally {
+            corpusLock.writeLock().unlock();
+        }
+    }
+    /**
+     * Getter for the delta corpus of the parsed base corpus
+     * @param base the base corpus
+     * @return the delta corpus or <code>null</code> if none is available for
+     * the parsed base corpus.
+     */
+    public TaggerFstCorpus getDelta(TaggerFstCorpus base){
+        Delta delta = this.delta;
+        return delta != null && base != null &&
+                delta.baseVersion == base.getIndexVersion() ? delta.corpus : null;
+    }
     /**
      * Called after the curpus was enqueued for rebuilding
      */
@@ -330,10 +433,25 @@ public class CorpusInfo {
         sb.append(" | file: ").append(fst.getName())
             .append("(exists: ").append(fst.isFile()).append(')')
             .append(" | runtime creation: ").append(allowCreation)
+            .append(" | pinned: ").append(pinned)
             .append("]");
         return sb.toString();
     }
     
+    /**
+     * A delta corpus together with the version of its base corpus
+     */
+    private static class Delta {
+        
+        final long baseVersion;
+        final TaggerFstCorpus corpus;
+        
+        Delta(long baseVersion, TaggerFstCorpus corpus){
+            this.baseVersion = baseVersion;
+            this.corpus = corpus;
+        }
+    }
+    
     @Override
     public int hashCode() {
         return indexedField.hashCode();
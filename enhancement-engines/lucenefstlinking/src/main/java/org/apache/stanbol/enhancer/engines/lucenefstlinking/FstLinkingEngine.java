@@ -27,17 +27,26 @@ import static org.apache.stanbol.enhancer.servicesapi.rdf.Properties.RDF_TYPE;
 import static org.apache.stanbol.enhancer.servicesapi.rdf.TechnicalClasses.ENHANCER_TEXTANNOTATION;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.NavigableMap;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.clerezza.commons.rdf.Language;
 import org.apache.clerezza.commons.rdf.Literal;
@@ -62,6 +71,7 @@ import org.apache.stanbol.enhancer.engines.entitylinking.impl.Suggestion;
 import org.apache.stanbol.enhancer.engines.lucenefstlinking.TaggingSession.Corpus;
 import org.apache.stanbol.enhancer.nlp.model.AnalysedText;
 import org.apache.stanbol.enhancer.nlp.model.AnalysedTextUtils;
+import org.apache.stanbol.enhancer.nlp.model.Sentence;
 import org.apache.stanbol.enhancer.nlp.ner.NerTag;
 import org.apache.stanbol.enhancer.nlp.utils.NlpEngineHelper;
 import org.apache.stanbol.enhancer.servicesapi.ContentItem;
@@ -74,6 +84,7 @@ import org.apache.stanbol.enhancer.servicesapi.rdf.NamespaceEnum;
 import org.apache.stanbol.enhancer.servicesapi.rdf.Properties;
 import org.opensextant.solrtexttagger.TagClusterReducer;
 import org.opensextant.solrtexttagger.Tagger;
+import org.opensextant.solrtexttagger.TaggerFstCorpus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -112,21 +123,89 @@ public class FstLinkingEngine implements EnhancementEngine, ServiceProperties {
      */
     protected final Map<String,Set<String>> neTypeMappings;
 
-    private IndexConfiguration indexConfig;
+    /**
+     * The configurations of the indexes used for tagging. Results of
+     * several indexes are merged as if the Entities would be stored in 
+     * a single index.
+     */
+    private final List<IndexConfiguration> indexConfigs;
+    /**
+     * Used to tag sections and corpora in parallel or <code>null</code> to
+     * tag sequentially
+     */
+    private final ExecutorService taggingService;
+    /**
+     * The minimum size of sections (in chars) tagged in parallel or 
+     * <code>0</code> to tag the whole content at once
+     */
+    private final int sectionSize;
 
     public FstLinkingEngine(String name, LinkingModeEnum linkingMode, 
             IndexConfiguration indexConfig,
             TextProcessingConfig tpConfig, EntityLinkerConfig elConfig,
             Map<String,Set<String>> neTypeMappings) {
+        this(name, linkingMode, indexConfig, tpConfig, elConfig, neTypeMappings, null, 0);
+    }
+    /**
+     * @param name the name of the engine
+     * @param linkingMode the linking mode
+     * @param indexConfig the index configuration
+     * @param tpConfig the text processing configuration
+     * @param elConfig the entity linking configuration
+     * @param neTypeMappings the Named Entity type mappings (required for 
+     * {@link LinkingModeEnum#NER})
+     * @param taggingService used to tag the different corpora (and sections)
+     * in parallel or <code>null</code> to tag sequentially
+     * @param sectionSize the minimum number of chars of sentence aligned 
+     * sections of the content that are tagged in parallel or <code>0</code>
+     * to tag the content as a whole. Only used if a <code>taggingService</code>
+     * is present.
+     */
+    public FstLinkingEngine(String name, LinkingModeEnum linkingMode, 
+            IndexConfiguration indexConfig,
+            TextProcessingConfig tpConfig, EntityLinkerConfig elConfig,
+            Map<String,Set<String>> neTypeMappings, 
+            ExecutorService taggingService, int sectionSize) {
+        this(name, linkingMode, indexConfig == null ? null : 
+            Collections.singletonList(indexConfig), tpConfig, elConfig, 
+            neTypeMappings, taggingService, sectionSize);
+    }
+    /**
+     * Creates an engine that tags against several indexes (e.g. one per 
+     * vocabulary). All indexes are tagged within the same request (in 
+     * parallel if a <code>taggingService</code> is present) and overlapping
+     * Tags of the different indexes are reduced as if all Entities would be
+     * stored in a single index.
+     * @param name the name of the engine
+     * @param linkingMode the linking mode
+     * @param indexConfigs the configurations of the indexes
+     * @param tpConfig the text processing configuration
+     * @param elConfig the entity linking configuration
+     * @param neTypeMappings the Named Entity type mappings (required for 
+     * {@link LinkingModeEnum#NER})
+     * @param taggingService used to tag the different indexes, corpora and 
+     * sections in parallel or <code>null</code> to tag sequentially
+     * @param sectionSize the minimum number of chars of sentence aligned 
+     * sections of the content that are tagged in parallel or <code>0</code>
+     * to tag the content as a whole. Only used if a <code>taggingService</code>
+     * is present.
+     */
+    public FstLinkingEngine(String name, LinkingModeEnum linkingMode, 
+            List<IndexConfiguration> indexConfigs,
+            TextProcessingConfig tpConfig, EntityLinkerConfig elConfig,
+            Map<String,Set<String>> neTypeMappings, 
+            ExecutorService taggingService, int sectionSize) {
         if (StringUtils.isBlank(name)) {
             throw new IllegalArgumentException("The parsed name MUST NOT be NULL nor blank!");
         }
         this.name = name;
-        if (indexConfig == null) {
-            throw new IllegalArgumentException("The parsed IndexConfiguration MUST NOT be NULL!");
+        if (indexConfigs == null || indexConfigs.isEmpty() || indexConfigs.contains(null)) {
+            throw new IllegalArgumentException("The parsed IndexConfigurations MUST NOT be "
+                + "NULL, empty nor contain a NULL element!");
         }
         this.linkingMode = linkingMode == null ? LinkingModeEnum.values()[0] : linkingMode;
-        this.indexConfig = indexConfig;
+        this.indexConfigs = Collections.unmodifiableList(
+            new ArrayList<IndexConfiguration>(indexConfigs));
         if (tpConfig == null) {
             throw new IllegalArgumentException("The parsed Text Processing configuration MUST NOT be NULL");
         }
@@ -140,6 +219,8 @@ public class FstLinkingEngine implements EnhancementEngine, ServiceProperties {
                     + "if the LinkingMode is NER!");
         }
         this.neTypeMappings = neTypeMappings;
+        this.taggingService = taggingService;
+        this.sectionSize = taggingService == null || sectionSize < 0 ? 0 : sectionSize;
     }
 
     @Override
@@ -157,7 +238,7 @@ public class FstLinkingEngine implements EnhancementEngine, ServiceProperties {
         log.trace("canEnhancer {}", ci.getUri());
         String language = getLanguage(this, ci, false);
         //(1) check if the language is enabled by the config
-        if (language == null || !indexConfig.getFstConfig().isLanguage(language)) {
+        if (language == null || !isLanguage(language)) {
             log.debug("Engine {} ignores ContentItem {} becuase language {} is not condigured.",
                 new Object[] {getName(), ci.getUri(), language});
             return CANNOT_ENHANCE;
@@ -201,6 +282,18 @@ public class FstLinkingEngine implements EnhancementEngine, ServiceProperties {
         }
     }
 
+    /**
+     * Checks if the parsed language is configured for any of the indexes
+     */
+    private boolean isLanguage(String language){
+        for(IndexConfiguration indexConfig : indexConfigs){
+            if(indexConfig.getFstConfig().isLanguage(language)){
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public void computeEnhancements(ContentItem ci) throws EngineException {
         AnalysedText at;
@@ -234,61 +327,66 @@ public class FstLinkingEngine implements EnhancementEngine, ServiceProperties {
                     ci.getUri().getUnicodeString(), language, StringUtils.abbreviate(content, 100)});
         }
         // TODO: we need to do the same for the the default matching language
-        TaggingSession session;
-        try {
-            session = TaggingSession.createSession(indexConfig, language);
-        } catch (CorpusException e) {
-            throw new EngineException(this, ci, e);
-        }
-        if(!session.hasCorpus()){
-            //no corpus available for processing the request
-            return;
-        }
+        //create one session per index with a corpus for the language
+        List<TaggingSession> sessions = new ArrayList<TaggingSession>(indexConfigs.size());
         long taggingStart = System.currentTimeMillis();
         final NavigableMap<int[],Tag> tags = new TreeMap<int[],Tag>(Tag.SPAN_COMPARATOR);
         try {
-            //process the language of the document
-            Corpus corpus = null;
-            if(session.getLanguageCorpus() != null){
-                corpus = session.getLanguageCorpus();
-                long t = System.currentTimeMillis();
-                int d = tag(content, at, session,corpus,tags);
-                log.info(" - {}: fst: {}ms (callback: {}ms)", new Object[]{
-                        corpus.getIndexedField(), System.currentTimeMillis()-t, d
-                });
-            }
-            if(session.getDefaultCorpus() != null){
-                if(corpus == null){
-                    corpus = session.getDefaultCorpus();
-                }
-                long t = System.currentTimeMillis();
-                int d = tag(content, at, session, session.getDefaultCorpus(),tags);
-                log.info(" - {}: fst: {}ms (callback: {}ms)",new Object[]{
-                        session.getDefaultCorpus().getIndexedField(), 
-                        System.currentTimeMillis()-t, d});
+            for(IndexConfiguration indexConfig : indexConfigs){
+                TaggingSession session;
+                try {
+                    session = TaggingSession.createSession(indexConfig, language);
+                } catch (CorpusException e) {
+                    throw new EngineException(this, ci, e);
+                }
+                if(session.hasCorpus()){
+                    sessions.add(session);
+                } else {
+                    session.close();
+                }
             }
-            long taggingEnd = System.currentTimeMillis();
-            if(corpus == null){
+            if(sessions.isEmpty()){
+                //no corpus available for processing the request
+                return;
+            }
+            //process the language of the document and the default language
+            //of all indexes
+            List<int[]> sections = getSections(content, at);
+            List<TaggingTask> taggingTasks = new ArrayList<TaggingTask>();
+            addTaggingTasks(taggingTasks, content, at, sessions, true, sections);
+            addTaggingTasks(taggingTasks, content, at, sessions, false, sections);
+            if(taggingTasks.isEmpty()){
                 throw new EngineException(this,ci,"No FST corpus found to process contentItem "
-                    + "language '"+session.getLanguage()+"'!",null);
-            } else {
-                if(session.getLanguageCorpus() != null && session.getDefaultCorpus() != null){
-                    log.info(" - sum fst: {} ms", taggingEnd - taggingStart);
-                }
+                    + "language '"+language+"'!",null);
             }
-            int matches = match(content, tags.values(), session.entityMentionTypes);
-            log.debug(" - loaded {} ({} loaded, {} cached, {} appended) Matches in {} ms", 
-                    new Object[]{matches, session.getSessionDocLoaded(),
-                        session.getSessionDocCached(), session.getSessionDocAppended(),
-                        System.currentTimeMillis()-taggingEnd});
-            if(log.isDebugEnabled() && session.getDocumentCache() != null){
-                log.debug("EntityCache Statistics: {}", 
-                    session.getDocumentCache().printStatistics());
+            //NOTE: types of Named Entities are collected in the first session
+            NavigableMap<int[],Set<String>> entityMentionTypes = 
+                    sessions.get(0).entityMentionTypes;
+            int d = tag(taggingTasks, entityMentionTypes, tags);
+            long taggingEnd = System.currentTimeMillis();
+            log.info(" - fst: {}ms (callback: {}ms, indexes: {}, tasks: {}, sections: {})", 
+                new Object[]{taggingEnd - taggingStart, d, sessions.size(), 
+                    taggingTasks.size(), sections.size()});
+            int matches = match(content, tags.values(), entityMentionTypes);
+            if(log.isDebugEnabled()){
+                log.debug(" - loaded {} Matches in {} ms", matches, 
+                    System.currentTimeMillis()-taggingEnd);
+                for(TaggingSession session : sessions){
+                    log.debug("   {} loaded, {} cached, {} appended from {}", new Object[]{
+                            session.getSessionDocLoaded(), session.getSessionDocCached(), 
+                            session.getSessionDocAppended(), session.getSearcher().getName()});
+                    if(session.getDocumentCache() != null){
+                        log.debug("EntityCache Statistics: {}", 
+                            session.getDocumentCache().printStatistics());
+                    }
+                }
             }
         } catch (IOException e) {
             throw new EngineException(this,ci,e);
         } finally {
-            session.close();
+            for(TaggingSession session : sessions){
+                session.close();
+            }
         }
         if(log.isTraceEnabled()){
             log.trace("Tagged Entities:");
@@ -499,38 +597,65 @@ public class FstLinkingEngine implements EnhancementEngine, ServiceProperties {
      * @param at the AnalyzedText. not required if {@link LinkingModeEnum#PLAIN}
      * @param session the tagging session of the text
      * @param corpus the corpus o the session to tag the content with
+     * @param fst the FST of the corpus (the {@link Corpus#getFst() base} or
+     * the {@link Corpus#getDeltaFst() delta}) used to tag the content
+     * @param section the start/end of the section of the content to tag
+     * @param reduceOverlapping if overlapping Tags are reduced by the Tagger.
+     * If <code>false</code> overlapping Tags need to be reduced after merging
+     * the results (see {@link #reduceOverlapping(NavigableMap)})
      * @param tags the Tags map used to store the tagging results
+     * @param entityMentionTypes used to collect types of Named Entities in
+     * the {@link LinkingModeEnum#NER} mode
      * @return the time in milliseconds spent in the tag callback.
      * @throws IOException on any error while accessing the {@link SolrCore}
      */
     private int tag(final String content, final AnalysedText at, final TaggingSession session, 
-            final Corpus corpus, final Map<int[],Tag> tags) throws IOException{
+            final Corpus corpus, final TaggerFstCorpus fst, int[] section, 
+            final boolean reduceOverlapping, final Map<int[],Tag> tags,
+            NavigableMap<int[],Set<String>> entityMentionTypes) throws IOException{
         final OpenBitSet matchDocIdsBS = new OpenBitSet(session.getSearcher().maxDoc());
-        TokenStream baseTokenStream = corpus.getTaggingAnalyzer().tokenStream("", 
-            new CharSequenceReader(content));
+        TokenStream baseTokenStream;
+        if(section[0] == 0 && section[1] == content.length()){
+            baseTokenStream = corpus.getTaggingAnalyzer().tokenStream("", 
+                new CharSequenceReader(content));
+        } else { //tag a section of the content
+            baseTokenStream = new SectionTokenFilter(corpus.getTaggingAnalyzer().tokenStream("", 
+                new CharSequenceReader(content.subSequence(section[0], section[1]))), section[0]);
+        }
         final TokenStream tokenStream;
         final TagClusterReducer reducer;
+        //with a delta corpus or several indexes overlapping Tags found by 
+        //the different FSTs need to be reduced together. In this case the
+        //reducer of the pass does only filter Tags and the longest dominant
+        //right reduction is done after merging the results
+        //(see #reduceOverlapping(..))
+        final Map<int[],int[]> matchableSpans;
         log.debug(" ... set up TokenStream and TagClusterReducer for linking mode {}", linkingMode);
         switch (linkingMode) {
             case PLAIN: //will link all tokens and search longest dominant right
                 tokenStream = baseTokenStream;
-                reducer = TagClusterReducer.LONGEST_DOMINANT_RIGHT;
+                reducer = reduceOverlapping ? TagClusterReducer.LONGEST_DOMINANT_RIGHT :
+                    TagClusterReducer.ALL;
+                matchableSpans = null;
                 break;
             case NER:
                 //this uses the NamedEntityTokenFilter as tokenStream and a
                 //combination with the longest dominant right as reducer 
                 NamedEntityTokenFilter neTokenFilter = new NamedEntityTokenFilter(
                     baseTokenStream, at, session.getLanguage(), neTypeMappings.keySet(),
-                    session.entityMentionTypes);
+                    entityMentionTypes);
                 tokenStream = neTokenFilter;
-                reducer = new ChainedTagClusterReducer(neTokenFilter,
-                    TagClusterReducer.LONGEST_DOMINANT_RIGHT);
+                reducer = new ChainedTagClusterReducer(neTokenFilter, reduceOverlapping ? 
+                    TagClusterReducer.LONGEST_DOMINANT_RIGHT : TagClusterReducer.ALL);
+                matchableSpans = null;
                 break;
             case LINKABLE_TOKEN:
                 //this uses the LinkableTokenFilter as tokenStream
+                matchableSpans = reduceOverlapping ? null : 
+                    new TreeMap<int[],int[]>(Tag.SPAN_COMPARATOR);
                 LinkableTokenFilter linkableTokenFilter = new LinkableTokenFilter(baseTokenStream, 
                     at, session.getLanguage(), tpConfig.getConfiguration(session.getLanguage()),
-                    elConfig.getMinChunkMatchScore(), elConfig.getMinFoundTokens());
+                    elConfig.getMinChunkMatchScore(), elConfig.getMinFoundTokens(), matchableSpans);
                 //NOTE that the  LinkableTokenFilter implements longest dominant right
                 // based on the matchable span of tags (instead of the whole span).
                 reducer = new ChainedTagClusterReducer(
@@ -546,7 +671,7 @@ public class FstLinkingEngine implements EnhancementEngine, ServiceProperties {
         
         //Now process the document
         final long[] time = new long[]{0};
-        new Tagger(corpus.getFst(), tokenStream, reducer,session.isSkipAltTokens()) {
+        new Tagger(fst, tokenStream, reducer,session.isSkipAltTokens()) {
             
             @Override
             protected void tagCallback(int startOffset, int endOffset, long docIdsKey) {
@@ -554,18 +679,23 @@ public class FstLinkingEngine implements EnhancementEngine, ServiceProperties {
                 if(log.isTraceEnabled()){
                     log.trace(" > tagCallback for {}", content.subSequence(startOffset, endOffset));
                 }
-                int[] span = new int[]{startOffset,endOffset};
-                Tag tag = tags.get(span);
-                if(tag == null){
-                    tag = new Tag(span);
-                    tags.put(span, tag);
-                }
                 // below caches, and also flags matchDocIdsBS
                 Set<Match> matches = createMatches(docIdsKey);
                 if(log.isTraceEnabled()){
                     log.trace("  - {} matches", matches.size());
                 }
-                tag.addIds(matches);
+                if(!matches.isEmpty()){ //empty if all Documents where deleted
+                    int[] span = new int[]{startOffset,endOffset};
+                    Tag tag = tags.get(span);
+                    if(tag == null){
+                        tag = new Tag(span);
+                        if(matchableSpans != null){
+                            tag.setMatchableSpan(matchableSpans.get(span));
+                        }
+                        tags.put(span, tag);
+                    }
+                    tag.addIds(matches);
+                }
                 long dif = System.nanoTime()-start;
                 time[0] = time[0]+dif;
             }
@@ -586,6 +716,9 @@ public class FstLinkingEngine implements EnhancementEngine, ServiceProperties {
                 Set<Match> matches = new HashSet<Match>(docIds.length);
                 for (int i = docIds.offset; i < docIds.offset + docIds.length; i++) {
                     int docId = docIds.ints[i];
+                    if(!corpus.isLive(docId)){
+                        continue; //deleted since the base corpus was built
+                    }
                     matchDocIdsBS.set(docId);// also, flip docid in bitset
                     matches.add(session.createMatch(docId));// translates here
                 }
@@ -595,6 +728,286 @@ public class FstLinkingEngine implements EnhancementEngine, ServiceProperties {
         }.process();
         return (int)(time[0]/1000000);
     }
+    /**
+     * Splits the content in sentence aligned sections with at least 
+     * {@link #sectionSize} chars.
+     * @param content the content
+     * @param at the analysed text or <code>null</code> if not available
+     * @return the sections. A single section over the whole content if
+     * sections are deactivated, the content is shorter as the 
+     * {@link #sectionSize} or no sentences are available.
+     */
+    private List<int[]> getSections(String content, AnalysedText at){
+        List<int[]> sections = new ArrayList<int[]>();
+        if(sectionSize > 0 && at != null && content.length() > sectionSize){
+            Iterator<Sentence> sentences = at.getSentences();
+            int start = 0;
+            while(sentences.hasNext()){
+                int end = sentences.next().getEnd();
+                if(end - start >= sectionSize){
+                    sections.add(new int[]{start, end});
+                    start = end;
+                }
+            }
+            if(start < content.length()){
+                sections.add(new int[]{start, content.length()});
+            }
+        } else {
+            sections.add(new int[]{0, content.length()});
+        }
+        return sections;
+    }
+    /**
+     * Adds the {@link TaggingTask}s for all sections and the FST(s) of the
+     * language (or default) corpora of the parsed sessions. If there are
+     * several such corpora (one per index) or a corpus with a delta, the
+     * Tags of all those FSTs are merged before overlapping Tags are reduced.
+     * @param tasks the list to add the tasks
+     * @param content the content
+     * @param at the analysed text or <code>null</code> if not available
+     * @param sessions the tagging sessions (one for every index)
+     * @param language <code>true</code> to add tasks for the 
+     * {@link TaggingSession#getLanguageCorpus() language corpora}, 
+     * <code>false</code> for the {@link TaggingSession#getDefaultCorpus() 
+     * default corpora}
+     * @param sections the sections of the content
+     */
+    private void addTaggingTasks(List<TaggingTask> tasks, String content, AnalysedText at,
+            List<TaggingSession> sessions, boolean language, List<int[]> sections){
+        Map<TaggingSession,Corpus> corpora = new IdentityHashMap<TaggingSession,Corpus>();
+        boolean delta = false;
+        for(TaggingSession session : sessions){
+            Corpus corpus = language ? session.getLanguageCorpus() : session.getDefaultCorpus();
+            if(corpus != null){
+                corpora.put(session, corpus);
+                delta = delta || corpus.getDeltaFst() != null;
+            }
+        }
+        //the group used to merge Tags before reducing them or null if the
+        //Tagger can reduce overlapping Tags
+        Object group = delta || corpora.size() > 1 ? Boolean.valueOf(language) : null;
+        for(TaggingSession session : sessions){
+            Corpus corpus = corpora.get(session);
+            if(corpus == null){
+                continue;
+            }
+            for(int[] section : sections){
+                tasks.add(new TaggingTask(content, at, session, corpus, corpus.getFst(), 
+                    section, group));
+                if(corpus.getDeltaFst() != null){
+                    tasks.add(new TaggingTask(content, at, session, corpus, corpus.getDeltaFst(), 
+                        section, group));
+                }
+            }
+        }
+    }
+    /**
+     * Executes the parsed tagging tasks (in parallel if a {@link #taggingService}
+     * is available) and merges the results with the parsed tags and 
+     * entity mention types.
+     * @param tasks the tagging tasks
+     * @param entityMentionTypes the map used to store the merged types of
+     * Named Entities (only used by {@link LinkingModeEnum#NER})
+     * @param tags the tags map used to store the merged tagging results
+     * @return the time in milliseconds spent in the tag callbacks
+     * @throws IOException on any error while accessing the {@link SolrCore}
+     */
+    private int tag(List<TaggingTask> tasks, Map<int[],Set<String>> entityMentionTypes, 
+            Map<int[],Tag> tags) throws IOException {
+        int time = 0;
+        if(taggingService == null || tasks.size() < 2){
+            for(TaggingTask task : tasks){
+                time = time + task.call();
+            }
+        } else {
+            List<Future<Integer>> results;
+            try {
+                results = taggingService.invokeAll(tasks);
+                for(Future<Integer> result : results){
+                    time = time + result.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); //recover interrupted state
+                throw new InterruptedIOException("Interrupted while tagging");
+            } catch (ExecutionException e) {
+                if(e.getCause() instanceof IOException){
+                    throw (IOException)e.getCause();
+                } else if(e.getCause() instanceof RuntimeException){
+                    throw (RuntimeException)e.getCause();
+                } else {
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        }
+        //merge the results of the tasks. Tags of tasks with a group (corpora
+        //with a delta or of several indexes) are first merged per group so
+        //that overlapping Tags of the different FSTs can be reduced
+        Map<Object,NavigableMap<int[],Tag>> groupTags = 
+                new HashMap<Object,NavigableMap<int[],Tag>>();
+        for(TaggingTask task : tasks){
+            if(task.group != null){
+                NavigableMap<int[],Tag> corpusTags = groupTags.get(task.group);
+                if(corpusTags == null){
+                    corpusTags = new TreeMap<int[],Tag>(Tag.SPAN_COMPARATOR);
+                    groupTags.put(task.group, corpusTags);
+                }
+                mergeTags(task.tags.values(), corpusTags);
+            } else {
+                mergeTags(task.tags.values(), tags);
+            }
+            for(Entry<int[],Set<String>> entry : task.entityMentionTypes.entrySet()){
+                Set<String> types = entityMentionTypes.get(entry.getKey());
+                if(types == null){
+                    entityMentionTypes.put(entry.getKey(), entry.getValue());
+                } else {
+                    types.addAll(entry.getValue());
+                }
+            }
+        }
+        for(NavigableMap<int[],Tag> corpusTags : groupTags.values()){
+            reduceOverlapping(corpusTags);
+            mergeTags(corpusTags.values(), tags);
+        }
+        return time;
+    }
+    /**
+     * Merges the parsed Tags with the Tags in the parsed map
+     * @param toMerge the Tags to merge
+     * @param tags the target map
+     */
+    private static void mergeTags(Collection<Tag> toMerge, Map<int[],Tag> tags){
+        for(Tag toMergeTag : toMerge){
+            Tag tag = tags.get(toMergeTag.span);
+            if(tag == null){
+                tags.put(toMergeTag.span, toMergeTag);
+            } else {
+                tag.addIds(toMergeTag.getMatches());
+            }
+        }
+    }
+    /**
+     * Reduces overlapping Tags by using the same longest dominant right 
+     * strategy as <code>TagClusterReducer#LONGEST_DOMINANT_RIGHT</code>, but
+     * based on the {@link Tag#getMatchableSpan() matchable spans} of the Tags.
+     * <p>
+     * The Tagger can only reduce Tags found with a single FST. This is used
+     * to reduce the Tags found by the base and the delta FST of a corpus
+     * and the Tags found in different indexes after merging them. Tags are only reduced after Documents deleted since
+     * the base FST was built are removed. So Tags that only refer deleted 
+     * Documents can not hide shorter Tags.
+     * @param tags the tags to reduce
+     */
+    static void reduceOverlapping(NavigableMap<int[],Tag> tags){
+        //sort by the matchable span
+        List<Tag> sorted = new ArrayList<Tag>(tags.values());
+        Collections.sort(sorted, new Comparator<Tag>() {
+            @Override
+            public int compare(Tag a, Tag b) {
+                return Tag.SPAN_COMPARATOR.compare(a.getMatchableSpan(), b.getMatchableSpan());
+            }
+        });
+        //process clusters of overlapping Tags
+        List<Tag> cluster = new ArrayList<Tag>();
+        int clusterEnd = -1;
+        for(Tag tag : sorted){
+            int[] mSpan = tag.getMatchableSpan();
+            if(mSpan[0] >= clusterEnd){
+                reduceCluster(cluster, tags);
+                cluster.clear();
+            }
+            cluster.add(tag);
+            clusterEnd = Math.max(clusterEnd, mSpan[1]);
+        }
+        reduceCluster(cluster, tags);
+    }
+    /**
+     * Longest dominant right reduction of a cluster of overlapping Tags
+     * @param cluster the Tags of the cluster
+     * @param tags the map to remove reduced Tags from
+     */
+    private static void reduceCluster(List<Tag> cluster, NavigableMap<int[],Tag> tags){
+        if(cluster.size() < 2){
+            return; //nothing to reduce
+        }
+        Set<Tag> marked = new HashSet<Tag>();
+        while(true){
+            // --Find longest not already marked
+            Tag longest = null;
+            int longestMCharLen = -1;
+            for(Tag t : cluster){
+                int[] mSpan = t.getMatchableSpan();
+                int mCharLen = mSpan[1] - mSpan[0];
+                if(!marked.contains(t) && (longest == null || mCharLen >= longestMCharLen)){
+                    longest = t;
+                    longestMCharLen = mCharLen;
+                }
+            }
+            if(longest == null) break;
+            // --Mark longest (so we return it eventually)
+            marked.add(longest);
+            int[] longestMSpan = longest.getMatchableSpan();
+            // --Remove tags overlapping this longest
+            for(Iterator<Tag> it = cluster.iterator(); it.hasNext();){
+                Tag t = it.next();
+                if(marked.contains(t)){
+                    continue;
+                }
+                int[] mSpan = t.getMatchableSpan();
+                boolean overlaps = mSpan[0] < longestMSpan[0] ? 
+                        mSpan[1] > longestMSpan[0] : mSpan[0] < longestMSpan[1];
+                if(overlaps){
+                    it.remove();
+                    tags.remove(t.span);
+                }
+            }
+        }
+    }
+    /**
+     * Tags a section of the content with a FST. Results are collected in
+     * task local maps so that several tasks can be executed in parallel.
+     */
+    private class TaggingTask implements Callable<Integer> {
+        
+        private final String content;
+        private final AnalysedText at;
+        private final TaggingSession session;
+        private final Corpus corpus;
+        private final TaggerFstCorpus fst;
+        private final int[] section;
+        /**
+         * The group used to merge Tags before reducing overlapping ones or
+         * <code>null</code> if the Tagger reduces overlapping Tags
+         */
+        final Object group;
+        
+        final NavigableMap<int[],Tag> tags = new TreeMap<int[],Tag>(Tag.SPAN_COMPARATOR);
+        final NavigableMap<int[],Set<String>> entityMentionTypes = 
+                new TreeMap<int[],Set<String>>(Tag.SPAN_COMPARATOR);
+        
+        TaggingTask(String content, AnalysedText at, TaggingSession session, 
+                Corpus corpus, TaggerFstCorpus fst, int[] section, Object group){
+            this.content = content;
+            this.at = at;
+            this.session = session;
+            this.corpus = corpus;
+            this.fst = fst;
+            this.section = section;
+            this.group = group;
+        }
+        
+        @Override
+        public Integer call() throws IOException {
+            long t = System.currentTimeMillis();
+            int d = tag(content, at, session, corpus, fst, section, group == null, 
+                tags, entityMentionTypes);
+            if(log.isDebugEnabled()){
+                log.debug(" - {} [{},{}]: fst: {}ms (callback: {}ms)", new Object[]{
+                        corpus.getIndexedField(), section[0], section[1], 
+                        System.currentTimeMillis()-t, d});
+            }
+            return d;
+        }
+    }
     /**
      * Adapts the scores of Matches with the same {@link Match#getScore() score}
      * but different {@link Match#getRanking() entity rankings} in a way that
@@ -736,8 +1149,8 @@ public class FstLinkingEngine implements EnhancementEngine, ServiceProperties {
                 //add the relation to the fise:TextAnnotation (the tag)
                 metadata.add(new TripleImpl(entityAnnotation, Properties.DC_RELATION, textAnnotation));
                 //write origin information
-                if(indexConfig.getOrigin() != null){
-                    metadata.add(new TripleImpl(entityAnnotation, FISE_ORIGIN, indexConfig.getOrigin()));
+                if(match.getOrigin() != null){
+                    metadata.add(new TripleImpl(entityAnnotation, FISE_ORIGIN, match.getOrigin()));
                 }
                 //TODO: add origin information of the EntiySearcher
 //                for(Entry<IRI,Collection<RDFTerm>> originInfo : entitySearcher.getOriginInformation().entrySet()){
@@ -35,6 +35,7 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -42,6 +43,7 @@ import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
@@ -74,6 +76,7 @@ import org.apache.stanbol.commons.solr.IndexReference;
 import org.apache.stanbol.commons.solr.RegisteredSolrServerTracker;
 import org.apache.stanbol.enhancer.engines.entitylinking.config.EntityLinkerConfig;
 import org.apache.stanbol.enhancer.engines.entitylinking.config.TextProcessingConfig;
+import org.apache.stanbol.enhancer.engines.lucenefstlinking.cache.EncodedEntityCacheManager;
 import org.apache.stanbol.enhancer.engines.lucenefstlinking.cache.EntityCacheManager;
 import org.apache.stanbol.enhancer.engines.lucenefstlinking.cache.FastLRUCacheManager;
 import org.apache.stanbol.enhancer.nlp.ner.NerTag;
@@ -109,6 +112,7 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 @org.apache.felix.scr.annotations.Properties(value={
     @Property(name=PROPERTY_NAME), //the name of the engine
     @Property(name=FstLinkingEngineComponent.SOLR_CORE),
+    @Property(name=FstLinkingEngineComponent.ADDITIONAL_SOLR_CORES, cardinality=Integer.MAX_VALUE),
     @Property(name=IndexConfiguration.FIELD_ENCODING, options={
         @PropertyOption(
             value='%'+IndexConfiguration.FIELD_ENCODING+".option.none",
@@ -144,6 +148,16 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
         intValue=FstLinkingEngineComponent.DEFAULT_FST_THREAD_POOL_SIZE),
     @Property(name=FstLinkingEngineComponent.ENTITY_CACHE_SIZE, 
         intValue=FstLinkingEngineComponent.DEFAULT_ENTITY_CACHE_SIZE),
+    @Property(name=FstLinkingEngineComponent.ENTITY_CACHE_MEMORY, 
+        intValue=FstLinkingEngineComponent.DEFAULT_ENTITY_CACHE_MEMORY),
+    @Property(name=IndexConfiguration.PIN_CORPORA, 
+        boolValue=IndexConfiguration.DEFAULT_PIN_CORPORA),
+    @Property(name=IndexConfiguration.INCREMENTAL_UPDATES, 
+        boolValue=IndexConfiguration.DEFAULT_INCREMENTAL_UPDATES),
+    @Property(name=FstLinkingEngineComponent.TAGGING_THREAD_POOL_SIZE, 
+        intValue=FstLinkingEngineComponent.DEFAULT_TAGGING_THREAD_POOL_SIZE),
+    @Property(name=FstLinkingEngineComponent.SECTION_SIZE, 
+        intValue=FstLinkingEngineComponent.DEFAULT_SECTION_SIZE),
     @Property(name=SUGGESTIONS, intValue=DEFAULT_SUGGESTIONS),
     @Property(name=INCLUDE_SIMILAR_SCORE, boolValue=DEFAULT_INCLUDE_SIMILAR_SCORE),
     @Property(name=CASE_SENSITIVE,boolValue=DEFAULT_CASE_SENSITIVE_MATCHING_STATE),
@@ -172,6 +186,15 @@ public class FstLinkingEngineComponent {
      * as well as the analyzer chains of the fields used for the linking
      */
     public static final String SOLR_CORE = "enhancer.engines.linking.lucenefst.solrcore";
+    /**
+     * Additional {@link SolrCore}s (e.g. one per vocabulary) tagged by the
+     * same engine. Values use the same syntax as the {@link #SOLR_CORE}.
+     * All cores are expected to use the same {@link IndexConfiguration#FIELD_ENCODING}
+     * and {@link IndexConfiguration#FST_CONFIG}. Tags found in the different
+     * cores are merged as if all Entities would be stored in a single core.
+     * The engine is only registered if all configured cores are available.
+     */
+    public static final String ADDITIONAL_SOLR_CORES = "enhancer.engines.linking.lucenefst.additionalSolrCores";
     
     /**
      * The origin information for all Entities provided by the configured SolrCore and
@@ -223,6 +246,40 @@ public class FstLinkingEngineComponent {
      * The default size of the Entity Cache is set to 65k entities.
      */
     public static final int DEFAULT_ENTITY_CACHE_SIZE = 65536;
+    /**
+     * Allows to bound the EntityCache by memory (in MByte) instead of the
+     * number of entities. If &gt; 0 entity data are stored in a compact byte
+     * encoded form (see {@link EncodedEntityCacheManager}) and data of
+     * entities in unchanged segments of the Solr index are kept over index
+     * updates. In this case {@link #ENTITY_CACHE_SIZE} is ignored.
+     */
+    public static final String ENTITY_CACHE_MEMORY = "enhancer.engines.linking.lucenefst.entityCacheMemory";
+    /**
+     * By default the EntityCache is bounded by the number of entities
+     */
+    public static final int DEFAULT_ENTITY_CACHE_MEMORY = 0;
+    /**
+     * The number of threads used to tag a document. If &gt; 0 the language 
+     * and default corpora (as well as delta corpora and sections of the
+     * document, see {@link #SECTION_SIZE}) are tagged in parallel. 
+     * Otherwise tagging is done sequentially in the enhancement thread. 
+     */
+    public static final String TAGGING_THREAD_POOL_SIZE = "enhancer.engines.linking.lucenefst.taggingThreadPoolSize";
+    /**
+     * By default tagging is done sequentially
+     */
+    public static final int DEFAULT_TAGGING_THREAD_POOL_SIZE = 0;
+    /**
+     * The minimum number of chars of the sentence aligned sections long 
+     * documents are split into. Sections are tagged in parallel. Requires 
+     * {@link #TAGGING_THREAD_POOL_SIZE} &gt; 0 and sentence annotations in 
+     * the AnalyzedText. Values &lt;= 0 deactivate the splitting.
+     */
+    public static final String SECTION_SIZE = "enhancer.engines.linking.lucenefst.sectionSize";
+    /**
+     * By default documents are not split into sections
+     */
+    public static final int DEFAULT_SECTION_SIZE = 0;
 
     /**
      * Changed default for the {@link EntityLinkerConfig#MIN_FOUND_TOKENS} property.
@@ -298,6 +355,10 @@ public class FstLinkingEngineComponent {
      * events provided by the {@link #solrServerTracker}
      */
     private SolrCore solrCore;
+    /**
+     * The additional SolrCores configured by {@link #ADDITIONAL_SOLR_CORES}
+     */
+    private List<AdditionalCore> additionalCores = Collections.emptyList();
 
     /**
      * Holds the OSGI service registration for the {@link FstLinkingEngine}
@@ -319,6 +380,16 @@ public class FstLinkingEngineComponent {
      * @see #DEFAULT_FST_THREAD_POOL_SIZE
      */
     private ExecutorService fstCreatorService;
+    /**
+     * Thread pool used for parallel tagging or <code>null</code> if
+     * tagging is done sequentially.
+     * @see #TAGGING_THREAD_POOL_SIZE
+     */
+    private ExecutorService taggingService;
+    /**
+     * @see #SECTION_SIZE
+     */
+    private int sectionSize;
 
     /**
      * The field name in the configured Solr index holding type information for
@@ -340,10 +411,24 @@ public class FstLinkingEngineComponent {
     private IndexConfiguration indexConfig;
 
     private Boolean skipAltTokensConfig;
+    /**
+     * If FST corpora are pinned in memory (see {@link IndexConfiguration#PIN_CORPORA})
+     */
+    private boolean pinCorpora;
+    /**
+     * If FST corpora are incrementally updated (see 
+     * {@link IndexConfiguration#INCREMENTAL_UPDATES})
+     */
+    private boolean incrementalUpdates;
     /**
      * The size of the EntityCache ( <code>0</code> ... means deactivated)
      */
     private int entityCacheSize;
+    /**
+     * The memory of the EntityCache in MByte (<code>0</code> ... means 
+     * bounded by {@link #entityCacheSize})
+     */
+    private int entityCacheMemory;
 
     private Map<String,Set<String>> nerTypeMappings;
     
@@ -449,6 +534,29 @@ public class FstLinkingEngineComponent {
         } else {
             indexReference = IndexReference.parse(value.toString());
         }
+        value = properties.get(ADDITIONAL_SOLR_CORES);
+        if(value instanceof String[]){ //support array
+            value = Arrays.asList((String[])value);
+        } else if(value instanceof String) { //single value
+            value = Collections.singleton(value);
+        }
+        additionalCores = new ArrayList<AdditionalCore>();
+        if(value instanceof Collection<?>){
+            //IndexReference does not implement equals: use server:index as key
+            Set<String> indexRefs = new HashSet<String>();
+            indexRefs.add(indexReference.getServer() + ':' + indexReference.getIndex());
+            for(Object o : (Collection<?>)value){
+                if(o != null && !StringUtils.isBlank(o.toString())){
+                    IndexReference indexRef = IndexReference.parse(o.toString().trim());
+                    if(!indexRefs.add(indexRef.getServer() + ':' + indexRef.getIndex())){
+                        throw new ConfigurationException(ADDITIONAL_SOLR_CORES, "The SolrCore '"
+                            + o + "' is configured multiple times!");
+                    }
+                    log.info(" - additional SolrCore: {}", o);
+                    additionalCores.add(new AdditionalCore(indexRef));
+                }
+            }
+        }
         value = properties.get(IndexConfiguration.FIELD_ENCODING);
         if(value == null){
             throw new ConfigurationException(IndexConfiguration.FIELD_ENCODING, "Missing required configuration of the Solr Field Encoding");
@@ -467,6 +575,22 @@ public class FstLinkingEngineComponent {
         } else if(value != null){
             skipAltTokensConfig = Boolean.valueOf(value.toString());
         } // else no config -> will use the default
+        value = properties.get(IndexConfiguration.PIN_CORPORA);
+        if(value instanceof Boolean){
+            pinCorpora = ((Boolean)value).booleanValue();
+        } else if(value != null){
+            pinCorpora = Boolean.parseBoolean(value.toString());
+        } else {
+            pinCorpora = IndexConfiguration.DEFAULT_PIN_CORPORA;
+        }
+        value = properties.get(IndexConfiguration.INCREMENTAL_UPDATES);
+        if(value instanceof Boolean){
+            incrementalUpdates = ((Boolean)value).booleanValue();
+        } else if(value != null){
+            incrementalUpdates = Boolean.parseBoolean(value.toString());
+        } else {
+            incrementalUpdates = IndexConfiguration.DEFAULT_INCREMENTAL_UPDATES;
+        }
         
         //(4) parse Origin information
         value = properties.get(ORIGIN);
@@ -515,6 +639,13 @@ public class FstLinkingEngineComponent {
             throw new ConfigurationException(IndexConfiguration.FST_FOLDER, "Values MUST BE of type String"
                 + "(found: "+value.getClass().getName()+")!");
         }
+        if(fstFolder != null && !additionalCores.isEmpty() && !fstFolder.contains("${solr-data-dir}")
+                && !fstFolder.contains("${solr-index-dir}") && !fstFolder.contains("${solr-core-name}")){
+            //FST files of the different cores would override each other
+            throw new ConfigurationException(IndexConfiguration.FST_FOLDER, "The FST folder "
+                + "MUST BE specific to the SolrCore (use '${solr-data-dir}', '${solr-index-dir}' "
+                + "or '${solr-core-name}') if "+ADDITIONAL_SOLR_CORES+" are configured!");
+        }
         
         //(6) Create the ThreadPool used for the runtime creation of FST models
         value = properties.get(FST_THREAD_POOL_SIZE);
@@ -556,6 +687,50 @@ public class FstLinkingEngineComponent {
         }
         fstCreatorService = Executors.newFixedThreadPool(tpSize,tfBuilder.build());
         
+        //(6b) Create the ThreadPool used for parallel tagging
+        value = properties.get(TAGGING_THREAD_POOL_SIZE);
+        int taggingTpSize;
+        if(value instanceof Number){
+            taggingTpSize = ((Number)value).intValue();
+        } else if(value != null){
+            try {
+                taggingTpSize = Integer.parseInt(value.toString());
+            } catch (NumberFormatException e) {
+                throw new ConfigurationException(TAGGING_THREAD_POOL_SIZE, 
+                    "Unable to parse the integer tagging thread pool size from the "
+                    + "configured "+value.getClass().getSimpleName()+" '" 
+                    + value+"'!",e);
+            }
+        } else {
+            taggingTpSize = DEFAULT_TAGGING_THREAD_POOL_SIZE;
+        }
+        if(taggingService != null){ //shutdown the previous thread pool
+            taggingService.shutdown();
+            taggingService = null;
+        }
+        if(taggingTpSize > 0){
+            ThreadFactoryBuilder taggingTfBuilder = new ThreadFactoryBuilder();
+            taggingTfBuilder.setDaemon(true);
+            taggingTfBuilder.setNameFormat(engineName+"-FstTagging-thread-%d");
+            taggingService = Executors.newFixedThreadPool(taggingTpSize,taggingTfBuilder.build());
+            log.info(" ... parallel tagging enabled (threads: {})", taggingTpSize);
+        }
+        value = properties.get(SECTION_SIZE);
+        if(value instanceof Number){
+            sectionSize = ((Number)value).intValue();
+        } else if(value != null){
+            try {
+                sectionSize = Integer.parseInt(value.toString());
+            } catch (NumberFormatException e) {
+                throw new ConfigurationException(SECTION_SIZE, 
+                    "Unable to parse the integer section size from the "
+                    + "configured "+value.getClass().getSimpleName()+" '" 
+                    + value+"'!",e);
+            }
+        } else {
+            sectionSize = DEFAULT_SECTION_SIZE;
+        }
+        
         //(7) Parse the EntityCache config
         int entityCacheSize;
         value = properties.get(ENTITY_CACHE_SIZE);
@@ -580,6 +755,24 @@ public class FstLinkingEngineComponent {
             this.entityCacheSize = entityCacheSize < 0 ? DEFAULT_ENTITY_CACHE_SIZE : entityCacheSize;
         	log.info(" ... EntityCache enabled (size: {})",this.entityCacheSize);
         }
+        value = properties.get(ENTITY_CACHE_MEMORY);
+        if(value instanceof Number){
+            entityCacheMemory = ((Number)value).intValue();
+        } else if (value != null){
+            try {
+                entityCacheMemory = Integer.parseInt(value.toString());
+            } catch (NumberFormatException e) {
+                throw new ConfigurationException(ENTITY_CACHE_MEMORY, 
+                    "Unable to parse the integer EntityCache memory from the "
+                    + "configured "+value.getClass().getSimpleName()+" '" 
+                    + value+"'!",e);
+            }
+        } else {
+            entityCacheMemory = DEFAULT_ENTITY_CACHE_MEMORY;
+        }
+        if(entityCacheSize != 0 && entityCacheMemory > 0){
+            log.info(" ... EntityCache bounded by memory (size: {}MB)",entityCacheMemory);
+        }
         
         //(8) parse the Entity type field
         value = properties.get(IndexConfiguration.SOLR_TYPE_FIELD);
@@ -711,6 +904,16 @@ public class FstLinkingEngineComponent {
                     + "opening SolrServiceTracker ... waiting for further service"
                     + "Events", e);
         }
+        //(12) start tracking the additional SolrCores
+        for(AdditionalCore additionalCore : additionalCores){
+            try {
+                additionalCore.open();
+            } catch (InvalidSyntaxException e) {
+                throw new ConfigurationException(ADDITIONAL_SOLR_CORES, "parsed SolrCore name '"
+                    + additionalCore.indexReference.getIndex()+"' is invalid (expected: "
+                    + "'[{server-name}:]{indexname}'");
+            }
+        }
     }
     
     /**
@@ -739,6 +942,8 @@ public class FstLinkingEngineComponent {
         final ServiceRegistration<?> oldEngineRegistration = this.engineRegistration;
         final SolrCore oldSolrCore = this.solrCore;
         final IndexConfiguration oldIndexConfig = this.indexConfig;
+        final List<SolrCore> oldAdditionalSolrCores = new ArrayList<SolrCore>();
+        final List<IndexConfiguration> oldAdditionalIndexConfigs = new ArrayList<IndexConfiguration>();
         SolrCore core;
         IndexConfiguration indexConfig; // the indexConfig build by this call
         synchronized (this) { //init one after the other in case of multiple calls
@@ -747,11 +952,21 @@ public class FstLinkingEngineComponent {
                 this.engineRegistration = null;
                 this.indexConfig = null;
                 this.solrCore = null;
+                for(AdditionalCore additionalCore : additionalCores){
+                    if(additionalCore.solrCore != null){
+                        oldAdditionalSolrCores.add(additionalCore.solrCore);
+                    }
+                    if(additionalCore.indexConfig != null){
+                        oldAdditionalIndexConfigs.add(additionalCore.indexConfig);
+                    }
+                    additionalCore.solrCore = null;
+                    additionalCore.indexConfig = null;
+                }
                 //now we can update the engines configuration
                 if(bundleContext == null){ //already deactivated
                     return; //NOTE: unregistering is done in finally block
                 }
-                core = getSolrCore(server);
+                core = getSolrCore(indexReference, server);
                 if(core == null){ //no SolrCore
                     log.info("   - SolrCore {} present", oldSolrCore == null ?
                     		"not yet" : "no longer");
@@ -760,69 +975,44 @@ public class FstLinkingEngineComponent {
                     log.info("    - solrCore (name: {} | indexDir: {}", 
                         core.getName(), core.getIndexDir());
                 }
-                //File fstDir = new File(dataDir,"fst");
-                //now collect the FST configuration
-                indexConfig = new IndexConfiguration(fstConfig, core, fieldEncoding, entityLinkerConfig.getDefaultLanguage());
-                indexConfig.setTypeField(solrTypeField);
-                indexConfig.setRankingField(solrRankingField);
-                //set fields parsed in the activate method
-                indexConfig.setExecutorService(fstCreatorService);
-                indexConfig.setRedirectField(null);//TODO add support
-                indexConfig.setOrigin(origin);
-                //NOTE: the FST cofnig is processed even if the SolrCore has not changed
-                //      because their might be config changes and/or new FST files in the
-                //      FST directory of the SolrCore.
-                indexConfig.setFstDirectory(getFstDirectory(core, fstFolder));
-                //set the DocumentCacheFactory
-                if(entityCacheSize > 0){
-                    indexConfig.setEntityCacheManager(new FastLRUCacheManager(entityCacheSize));
-                } //else no entityCache is used
-                if(skipAltTokensConfig != null){
-                    indexConfig.setSkipAltTokens(skipAltTokensConfig);
-                }
-                //activate the index configuration
-                try {
-                    //this will init the FST directory if necessary so we might run
-                    //into IOExceptions
-                    indexConfig.activate(); 
-                } catch (IOException e) {
-                    throw new RuntimeException("Unable to activate Index for FST Linking Engine '"
-                        + engineName +"' (solrCore: "+ core.getName() + ", instanceDir: "
-                        + core.getCoreDescriptor().getInstanceDir() +")!", e);
-                }
-                if(log.isInfoEnabled()){ //log the initialised languages
-                    Set<String> langSet = new HashSet<String>(indexConfig.getCorpusLanguages());
-                    if(langSet.remove(null)){ //replace the null for the default language
-                        langSet.add(""); //with an empty string
-                    }
-                    String[] langArray = langSet.toArray(new String[langSet.size()]);
-                    Arrays.sort(langArray,String.CASE_INSENSITIVE_ORDER);
-                    log.info(" ... initialised FST corpora for languages {}",
-                        Arrays.toString(langArray));
-                }
-                //check if we need to create some FST files
-                for(CorpusInfo fstInfo : indexConfig.getCorpora()){
-                    //check if the fst does not exist and the fstInfo allows creation
-                    if(!fstInfo.fst.exists() && fstInfo.allowCreation){
-                        //create a task on the FST corpus creation service
-                        fstInfo.corpusLock.writeLock().lock();
-                        try {
-                            Future<TaggerFstCorpus> enqueued = fstCreatorService.submit(new CorpusCreationTask(indexConfig, fstInfo));
-                            fstInfo.enqueued(enqueued);
-                        } finally {
-                            fstInfo.corpusLock.writeLock().unlock();
+                //the engine requires all additional SolrCores
+                List<SolrCore> additionalSolrCores = new ArrayList<SolrCore>(additionalCores.size());
+                for(AdditionalCore additionalCore : additionalCores){
+                    SolrCore additionalSolrCore = getSolrCore(additionalCore.indexReference, 
+                        additionalCore.server);
+                    if(additionalSolrCore == null){
+                        log.info("   - additional SolrCore {} not present", 
+                            additionalCore.indexReference.getIndex());
+                        core.close(); //decrease the reference counts
+                        for(SolrCore additional : additionalSolrCores){
+                            additional.close();
                         }
+                        return; //NOTE: unregistering is done in finally block
                     }
+                    log.info("    - additional solrCore (name: {} | indexDir: {}", 
+                        additionalSolrCore.getName(), additionalSolrCore.getIndexDir());
+                    additionalSolrCores.add(additionalSolrCore);
                 }
-                
+                indexConfig = createIndexConfig(indexReference, core);
+                List<IndexConfiguration> indexConfigs = new ArrayList<IndexConfiguration>(
+                        additionalCores.size() + 1);
+                indexConfigs.add(indexConfig);
                 //set the newly configured instances to the fields
                 this.indexConfig = indexConfig;
                 this.solrServerReference = reference;
                 this.solrCore = core;
+                for(int i = 0; i < additionalCores.size(); i++){
+                    AdditionalCore additionalCore = additionalCores.get(i);
+                    additionalCore.solrCore = additionalSolrCores.get(i);
+                    additionalCore.indexConfig = createIndexConfig(
+                        additionalCore.indexReference, additionalCore.solrCore);
+                    indexConfigs.add(additionalCore.indexConfig);
+                }
                 //create the new FST linking engine instance
                 FstLinkingEngine engine = new FstLinkingEngine(engineName, 
-                    linkingMode, indexConfig,
-                    textProcessingConfig, entityLinkerConfig, nerTypeMappings);
+                    linkingMode, indexConfigs,
+                    textProcessingConfig, entityLinkerConfig, nerTypeMappings,
+                    taggingService, sectionSize);
                 //register it as a service
                 String[] services = new String [] {
                         EnhancementEngine.class.getName(),
@@ -834,22 +1024,107 @@ public class FstLinkingEngineComponent {
                 //engine registration is unregistered and the currently used
                 //SolrCore is unregistered!
                 unregisterEngine(oldEngineRegistration, oldIndexConfig, oldSolrCore);
+                for(int i = 0; i < oldAdditionalSolrCores.size(); i++){
+                    unregisterEngine(null, oldAdditionalIndexConfigs.size() > i ? 
+                            oldAdditionalIndexConfigs.get(i) : null, oldAdditionalSolrCores.get(i));
+                }
             }
         }
 
         
+    }
+    /**
+     * Creates and activates the {@link IndexConfiguration} for the parsed
+     * SolrCore. This also enqueues the creation of missing FST corpora.
+     * @param indexRef the reference of the SolrCore
+     * @param core the SolrCore
+     * @return the activated index configuration
+     */
+    private IndexConfiguration createIndexConfig(IndexReference indexRef, SolrCore core) {
+        //File fstDir = new File(dataDir,"fst");
+        //now collect the FST configuration
+        IndexConfiguration indexConfig = new IndexConfiguration(fstConfig, core, fieldEncoding, entityLinkerConfig.getDefaultLanguage());
+        indexConfig.setTypeField(solrTypeField);
+        indexConfig.setRankingField(solrRankingField);
+        //set fields parsed in the activate method
+        indexConfig.setExecutorService(fstCreatorService);
+        indexConfig.setRedirectField(null);//TODO add support
+        indexConfig.setOrigin(origin);
+        //NOTE: the FST cofnig is processed even if the SolrCore has not changed
+        //      because their might be config changes and/or new FST files in the
+        //      FST directory of the SolrCore.
+        indexConfig.setFstDirectory(getFstDirectory(indexRef, core, fstFolder));
+        //set the DocumentCacheFactory
+        if(entityCacheSize > 0 && entityCacheMemory > 0){
+            indexConfig.setEntityCacheManager(new EncodedEntityCacheManager(
+                entityCacheMemory * 1024L * 1024L));
+        } else if(entityCacheSize > 0){
+            indexConfig.setEntityCacheManager(new FastLRUCacheManager(entityCacheSize));
+        } //else no entityCache is used
+        if(skipAltTokensConfig != null){
+            indexConfig.setSkipAltTokens(skipAltTokensConfig);
+        }
+        indexConfig.setPinCorpora(pinCorpora);
+        indexConfig.setIncrementalUpdates(incrementalUpdates);
+        //activate the index configuration
+        try {
+            //this will init the FST directory if necessary so we might run
+            //into IOExceptions
+            indexConfig.activate(); 
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to activate Index for FST Linking Engine '"
+                + engineName +"' (solrCore: "+ core.getName() + ", instanceDir: "
+                + core.getCoreDescriptor().getInstanceDir() +")!", e);
+        }
+        if(log.isInfoEnabled()){ //log the initialised languages
+            Set<String> langSet = new HashSet<String>(indexConfig.getCorpusLanguages());
+            if(langSet.remove(null)){ //replace the null for the default language
+                langSet.add(""); //with an empty string
+            }
+            String[] langArray = langSet.toArray(new String[langSet.size()]);
+            Arrays.sort(langArray,String.CASE_INSENSITIVE_ORDER);
+            log.info(" ... initialised FST corpora of {} for languages {}",
+                core.getName(), Arrays.toString(langArray));
+        }
+        //check if we need to create some FST files
+        for(CorpusInfo fstInfo : indexConfig.getCorpora()){
+            //check if the fst does not exist and the fstInfo allows creation
+            if(!fstInfo.fst.exists() && fstInfo.allowCreation){
+                //create a task on the FST corpus creation service
+                fstInfo.corpusLock.writeLock().lock();
+                try {
+                    Future<TaggerFstCorpus> enqueued = fstCreatorService.submit(new CorpusCreationTask(indexConfig, fstInfo));
+                    fstInfo.enqueued(enqueued);
+                } finally {
+                    fstInfo.corpusLock.writeLock().unlock();
+                }
+            } else if(fstInfo.pinned && fstInfo.fst.isFile()){
+                //pre-warm pinned corpora so that the first request
+                //does not need to wait for loading the FST file
+                final CorpusInfo corpusInfo = fstInfo;
+                fstCreatorService.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        log.debug(" ... pre-warm {}", corpusInfo);
+                        corpusInfo.getCorpus();
+                    }
+                });
+            }
+        }
+        return indexConfig;
     }
     /**
      * Resolves the directory to store the FST models based on the configured
      * {@link IndexConfiguration#FST_FOLDER}. Also considering the name of the SolrServer and
      * SolrCore
+     * @param indexRef
      * @param core
      * @param fstFolderConfig
      * @return
      */
-    private File getFstDirectory(SolrCore core, String fstFolderConfig) {
+    private File getFstDirectory(IndexReference indexRef, SolrCore core, String fstFolderConfig) {
         StrSubstitutor substitutor = new StrSubstitutor(new SolrCoreStrLookup(
-            indexReference, core, bundleContext));
+            indexRef, core, bundleContext));
         substitutor.setEnableSubstitutionInVariables(true);
         String folderStr = substitutor.replace(fstFolderConfig);
         if(folderStr.indexOf("${") > 0){
@@ -914,13 +1189,14 @@ public class FstLinkingEngineComponent {
     /**
      * Internal helper to get th SolrCore from the tracked SolrServer. This
      * assumes that tracked SolrServers are of type {@link EmbeddedSolrServer}.
+     * @param indexReference the reference to the SolrCore
      * @param server the SolrServer
      * @return the SolrCore or <code>null</code> if <code>null</code> is parsed
      * as server.
      * @throws IllegalStateException if the parsed {@link SolrServer} is not an
      * {@link EmbeddedSolrServer} or it does not contain the configured SolrCore 
      */
-    private SolrCore getSolrCore(SolrServer server) {
+    private SolrCore getSolrCore(IndexReference indexReference, SolrServer server) {
         SolrCore core;
         if(server != null){
             if(server instanceof EmbeddedSolrServer){
@@ -963,6 +1239,9 @@ public class FstLinkingEngineComponent {
             solrServerTracker.close();
             solrServerTracker = null;
         }
+        for(AdditionalCore additionalCore : additionalCores){
+            additionalCore.close();
+        }
         if(fstCreatorService != null){
             //we MUST NOT call shutdownNow(), because this would close
             //low level Solr FileChannels.
@@ -970,13 +1249,20 @@ public class FstLinkingEngineComponent {
             //do not set NULL, as we want to warn users an re-activation if old
             //threads are still running.
         }
+        if(taggingService != null){
+            taggingService.shutdown();
+            taggingService = null;
+        }
         indexReference = null;
         engineMetadata = null;
         textProcessingConfig = null;
         entityLinkerConfig = null;
         entityCacheSize = -1;
+        entityCacheMemory = DEFAULT_ENTITY_CACHE_MEMORY;
         bundleContext = null;
         skipAltTokensConfig = null;
+        pinCorpora = IndexConfiguration.DEFAULT_PIN_CORPORA;
+        incrementalUpdates = IndexConfiguration.DEFAULT_INCREMENTAL_UPDATES;
         
         //NOTE: just to be sure that all the engine is unregistered and to
         //      100% make sure that there are no refs to unregistered SolrCores!
@@ -1006,10 +1292,105 @@ public class FstLinkingEngineComponent {
         if(unregisterFailier){
             unregisterEngine(this.engineRegistration,this.indexConfig,this.solrCore);
         }
+        for(AdditionalCore additionalCore : additionalCores){
+            if(additionalCore.solrCore != null || additionalCore.indexConfig != null){
+                log.warn("Additional SolrCore {} was not closed! Will explicitly perform "
+                    + "required clean-up, but please report this as a Bug for the Lucene "
+                    + "FST Linking Engine!", additionalCore.indexReference.getIndex());
+                unregisterEngine(null, additionalCore.indexConfig, additionalCore.solrCore);
+            }
+        }
+        additionalCores = Collections.emptyList();
         this.engineRegistration = null;
         this.indexConfig = null;
         this.solrCore = null;
     }
+    /**
+     * Tracks an additional SolrCore configured by {@link #ADDITIONAL_SOLR_CORES}
+     * and updates the engine registration on changes.
+     */
+    private class AdditionalCore {
+        
+        final IndexReference indexReference;
+        private RegisteredSolrServerTracker tracker;
+        /**
+         * The tracked SolrServer or <code>null</code> if not available
+         */
+        volatile SolrServer server;
+        private volatile ServiceReference reference;
+        /**
+         * The SolrCore used by the registered engine
+         */
+        SolrCore solrCore;
+        /**
+         * The IndexConfiguration used by the registered engine
+         */
+        IndexConfiguration indexConfig;
+        
+        AdditionalCore(IndexReference indexReference){
+            this.indexReference = indexReference;
+        }
+        
+        void open() throws InvalidSyntaxException {
+            tracker = new RegisteredSolrServerTracker(bundleContext, indexReference, null){
+                
+                @Override
+                public void removedService(ServiceReference reference, Object service) {
+                    log.info(" ... additional SolrCore for {} was removed!", reference);
+                    if(reference.equals(AdditionalCore.this.reference)){
+                        ServiceReference other = getServiceReference();
+                        AdditionalCore.this.reference = other;
+                        server = other == null ? null : getService(other);
+                        updateEngineRegistration();
+                    }
+                    super.removedService(reference, service);
+                }
+                
+                @Override
+                public void modifiedService(ServiceReference reference, Object service) {
+                    log.info(" ... additional SolrCore for {} was updated!", reference);
+                    updateEngineRegistration();
+                    super.modifiedService(reference, service);
+                }
+                
+                @Override
+                public SolrServer addingService(ServiceReference reference) {
+                    SolrServer added = super.addingService(reference);
+                    AdditionalCore.this.reference = reference;
+                    server = added;
+                    updateEngineRegistration();
+                    return added;
+                }
+            };
+            try {
+                tracker.open();
+            } catch(RuntimeException e){
+                //see STANBOL-1416
+                log.debug("Error while processing existing SolrCore Service during "
+                        + "opening SolrServiceTracker ... waiting for further service"
+                        + "Events", e);
+            }
+        }
+        /**
+         * Updates the engine registration with the currently tracked
+         * {@link FstLinkingEngineComponent#SOLR_CORE}
+         */
+        private void updateEngineRegistration(){
+            RegisteredSolrServerTracker solrServerTracker = 
+                    FstLinkingEngineComponent.this.solrServerTracker;
+            FstLinkingEngineComponent.this.updateEngineRegistration(solrServerTracker == null ?
+                    null : solrServerTracker.getServiceReference(), null);
+        }
+        
+        void close(){
+            if(tracker != null){
+                tracker.close();
+                tracker = null;
+            }
+            server = null;
+            reference = null;
+        }
+    }
     
     /**
      * {@link StrSubstitutor} {@link StrLookup} implementation used for
@@ -135,6 +135,15 @@ public class IndexConfiguration {
      * tokens should cause an {@link UnsupportedTokenException}.
      */
     private boolean skipAltTokens;
+    /**
+     * If FST corpora are kept in memory (see {@link #PIN_CORPORA})
+     */
+    private boolean pinCorpora = DEFAULT_PIN_CORPORA;
+    /**
+     * If changes of the Solr index are applied by delta corpora (see
+     * {@link #INCREMENTAL_UPDATES})
+     */
+    private boolean incrementalUpdates = DEFAULT_INCREMENTAL_UPDATES;
 
     /**
      * The default language
@@ -160,6 +169,41 @@ public class IndexConfiguration {
      */
     public static final String SKIP_ALT_TOKENS = "enhancer.engines.linking.lucenefst.skipAltTokens";
     
+    /**
+     * If enabled FST corpora are loaded on activation and are kept in memory
+     * for the lifetime of the engine. Otherwise the GC is allowed to free 
+     * FST corpora (they are loaded again from the FST file on the next
+     * request). When enabled, corpora rebuilt because of changes in the Solr
+     * index replace the previous version as soon as they are available. 
+     * Until then {@link TaggingSession}s continue to use the previous version
+     * without waiting for the new one.
+     */
+    public static final String PIN_CORPORA = "enhancer.engines.linking.lucenefst.pinCorpora";
+    /**
+     * By default FST corpora are not pinned
+     */
+    public static final boolean DEFAULT_PIN_CORPORA = false;
+    /**
+     * If enabled changes of the Solr index do not trigger a full rebuild of
+     * outdated FST corpora. Instead a (typically much smaller) delta corpus
+     * is built for the labels of Documents added or updated since the base
+     * corpus was built. Lucene Documents deleted in the meantime are filtered
+     * at tagging time. A full rebuild (compaction) is only done if Solr merged
+     * segments of the base corpus or if the delta grows bigger than
+     * {@link #MAX_DELTA_RATIO} of the base corpus.
+     */
+    public static final String INCREMENTAL_UPDATES = "enhancer.engines.linking.lucenefst.incrementalUpdates";
+    /**
+     * By default incremental updates are disabled
+     */
+    public static final boolean DEFAULT_INCREMENTAL_UPDATES = false;
+    /**
+     * The maximum number of Lucene Documents of a delta corpus relative to the
+     * number of Documents of the base corpus. If exceeded the corpus is 
+     * completely rebuilt.
+     */
+    public static final float MAX_DELTA_RATIO = 0.1f;
+    
     /**
      * Property used to configure the FieldName encoding of the SolrIndex. This
      * is mainly needed for label fields of different languages (e.g. by using 
@@ -681,7 +725,7 @@ public class IndexConfiguration {
                                                 !fstInfo.storedField.equals(storeFieldName)){ //store field compatible
                                             CorpusInfo newFstInfo = new CorpusInfo(language, 
                                                 fieldInfo.name, storeFieldName,  
-                                                fieldType, fstFile, runtimeGeneration);
+                                                fieldType, fstFile, runtimeGeneration, pinCorpora);
                                             log.debug(" ... {} {} ", fstInfo == null ? "create" : "update", newFstInfo);
                                             addCorpusInfo(newFstInfo);
                                             corpusInfosCopy.put(language, newFstInfo);
@@ -766,7 +810,7 @@ public class IndexConfiguration {
                                         !langFstInfo.storedField.equals(encodedLangStoreField)){ //store field compatible
                                     CorpusInfo newLangFstInfo = new CorpusInfo(language, 
                                         encodedLangIndexField,encodedLangStoreField,
-                                        fieldType, langFstFile, langAllowCreation);
+                                        fieldType, langFstFile, langAllowCreation, pinCorpora);
                                     log.debug("   ... {} {} for explicitly configured language", 
                                         langFstInfo == null ? "create" : "update", newLangFstInfo);
                                     addCorpusInfo(newLangFstInfo);
@@ -835,5 +879,34 @@ public class IndexConfiguration {
         this.skipAltTokens = skipAltTokens;
         
     }
+    /**
+     * If FST corpora are kept in memory
+     * @return the {@link #PIN_CORPORA} state
+     */
+    public boolean isPinCorpora() {
+        return pinCorpora;
+    }
+    /**
+     * Setter for the {@link #PIN_CORPORA} state. Needs to be called before
+     * {@link #activate()}
+     * @param pinCorpora the state
+     */
+    public void setPinCorpora(boolean pinCorpora) {
+        this.pinCorpora = pinCorpora;
+    }
+    /**
+     * If changes in the Solr index are applied by building delta corpora
+     * @return the {@link #INCREMENTAL_UPDATES} state
+     */
+    public boolean isIncrementalUpdates() {
+        return incrementalUpdates;
+    }
+    /**
+     * Setter for the {@link #INCREMENTAL_UPDATES} state
+     * @param incrementalUpdates the state
+     */
+    public void setIncrementalUpdates(boolean incrementalUpdates) {
+        this.incrementalUpdates = incrementalUpdates;
+    }
 
 }
@@ -0,0 +1,177 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.engines.lucenefstlinking;
+
+import java.util.List;
+
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.SegmentReader;
+import org.apache.lucene.util.Bits;
+import org.opensextant.solrtexttagger.TaggerFstCorpus;
+
+/**
+ * Describes the Lucene segments of the Solr index a {@link TaggerFstCorpus}
+ * was built from.<p>
+ * Lucene segments are immutable and added/updated Documents are written to
+ * new segments. As long as all segments of a base corpus are still present
+ * (in the same order) the Lucene document ids of the base corpus are still
+ * valid and labels of added/updated Documents can be indexed by a delta
+ * corpus that only covers the new segments (see 
+ * {@link IndexConfiguration#INCREMENTAL_UPDATES}).<p>
+ * Instances are also used as version objects for the 
+ * {@link org.apache.stanbol.enhancer.engines.lucenefstlinking.cache.EntityCacheManager}.
+ * Because of that {@link #equals(Object)} and {@link #hashCode()} are based
+ * on the {@link #version} only.
+ */
+public final class IndexSegments {
+
+    /**
+     * The version of the index
+     */
+    public final long version;
+    /**
+     * The maxDoc of the index
+     */
+    public final int maxDoc;
+    
+    private final String[] names;
+    private final int[] maxDocs;
+    
+    private IndexSegments(long version, String[] names, int[] maxDocs, int maxDoc){
+        this.version = version;
+        this.names = names;
+        this.maxDocs = maxDocs;
+        this.maxDoc = maxDoc;
+    }
+    /**
+     * Creates the segment information for the parsed reader
+     * @param reader the reader
+     * @return the segment information or <code>null</code> if the reader
+     * contains leaves that are not {@link SegmentReader}s
+     */
+    public static IndexSegments create(DirectoryReader reader){
+        List<AtomicReaderContext> leaves = reader.leaves();
+        String[] names = new String[leaves.size()];
+        int[] maxDocs = new int[leaves.size()];
+        for(int i = 0; i < names.length; i++){
+            AtomicReaderContext leave = leaves.get(i);
+            if(leave.reader() instanceof SegmentReader){
+                names[i] = ((SegmentReader)leave.reader()).getSegmentName();
+                maxDocs[i] = leave.reader().maxDoc();
+            } else {
+                return null; //unknown reader type
+            }
+        }
+        return new IndexSegments(reader.getVersion(), names, maxDocs, reader.maxDoc());
+    }
+    /**
+     * Getter for the first Lucene document id of segments added to the parsed
+     * reader since the version described by this instance.
+     * @param reader the current version of the index
+     * @return the first Lucene document id of added segments (<code>maxDoc</code>
+     * if no segment was added) or <code>-1</code> if any of the segments
+     * described by this instance is no longer present (e.g. because it was
+     * merged).
+     */
+    public int getDeltaStart(DirectoryReader reader){
+        List<AtomicReaderContext> leaves = reader.leaves();
+        if(leaves.size() < names.length){
+            return -1;
+        }
+        for(int i = 0; i < names.length; i++){
+            AtomicReaderContext leave = leaves.get(i);
+            if(!(leave.reader() instanceof SegmentReader) ||
+                    !names[i].equals(((SegmentReader)leave.reader()).getSegmentName()) ||
+                    maxDocs[i] != leave.reader().maxDoc()){
+                return -1;
+            }
+        }
+        return maxDoc;
+    }
+    
+    /**
+     * Getter for the number of Lucene documents that refer to the same 
+     * Documents in the index described by this and the parsed instance.
+     * This is the case for all leading segments present in both versions
+     * of the index.
+     * @param other the other version of the index
+     * @return the number of leading Lucene document ids that are valid for
+     * both versions of the index.
+     */
+    public int getCommonDocs(IndexSegments other){
+        int common = 0;
+        for(int i = 0; i < names.length && i < other.names.length; i++){
+            if(names[i].equals(other.names[i]) && maxDocs[i] == other.maxDocs[i]){
+                common = common + maxDocs[i];
+            } else {
+                break;
+            }
+        }
+        return common;
+    }
+    
+    /**
+     * {@link Bits} implementation that only accepts live Documents with an id
+     * equals or greater as the parsed start.
+     */
+    static class DeltaBits implements Bits {
+        
+        private final Bits liveDocs;
+        private final int start;
+        private final int length;
+
+        /**
+         * @param liveDocs the live documents or <code>null</code> if the index
+         * has no deletions
+         * @param start the first document id accepted
+         * @param length the maxDoc of the index
+         */
+        DeltaBits(Bits liveDocs, int start, int length){
+            this.liveDocs = liveDocs;
+            this.start = start;
+            this.length = length;
+        }
+        
+        @Override
+        public boolean get(int index) {
+            return index >= start && (liveDocs == null || liveDocs.get(index));
+        }
+        
+        @Override
+        public int length() {
+            return length;
+        }
+    }
+    
+    @Override
+    public int hashCode() {
+        return (int)(version ^ (version >>> 32));
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof IndexSegments && ((IndexSegments)obj).version == version;
+    }
+    
+    @Override
+    public String toString() {
+        return new StringBuilder("IndexSegments[version: ").append(version)
+                .append(" | segments: ").append(names.length)
+                .append(" | maxDoc: ").append(maxDoc).append(']').toString();
+    }
+}
@@ -170,9 +170,33 @@ public final class LinkableTokenFilter extends TokenFilter implements TagCluster
      * considered. Only used within processable chunks
      */
     private int minFoundTokens;
+    /**
+     * If not <code>null</code> overlapping Tags are not reduced by this filter
+     * and the matchable spans of the remaining Tags are collected in this map
+     * instead.
+     */
+    private final Map<int[],int[]> matchableSpans;
     
     protected LinkableTokenFilter(TokenStream input, AnalysedText at, 
             String lang, LanguageProcessingConfig lpc, double minChunkMatchScore, int minFoundTokens) {
+        this(input, at, lang, lpc, minChunkMatchScore, minFoundTokens, null);
+    }
+    /**
+     * @param input the input token stream
+     * @param at the analysed text
+     * @param lang the language
+     * @param lpc the language processing configuration
+     * @param minChunkMatchScore the minimum chunk match score
+     * @param minFoundTokens the minimum number of found tokens
+     * @param matchableSpans if not <code>null</code> overlapping Tags are not
+     * reduced (phase two of {@link #reduce(TagLL[])}). Instead the matchable
+     * spans of all remaining Tags are added to this map (key: span of the Tag,
+     * value: matchable span). This allows the caller to reduce overlapping
+     * Tags of several tagging passes at once.
+     */
+    protected LinkableTokenFilter(TokenStream input, AnalysedText at, 
+            String lang, LanguageProcessingConfig lpc, double minChunkMatchScore, int minFoundTokens,
+            Map<int[],int[]> matchableSpans) {
         super(input);
         //STANBOL-1177: add attributes in doPrivileged to avoid 
         //AccessControlException: access denied ("java.lang.RuntimePermission" "getClassLoader")
@@ -195,6 +219,7 @@ public final class LinkableTokenFilter extends TokenFilter implements TagCluster
                 UNICASE_SCRIPT_LANUAGES.contains(lang);
         this.minChunkMatchScore = minChunkMatchScore;
         this.minFoundTokens = minFoundTokens;
+        this.matchableSpans = matchableSpans;
     }
 
     @Override
@@ -493,6 +518,13 @@ public final class LinkableTokenFilter extends TokenFilter implements TagCluster
                 }
             }
         }
+        if(matchableSpans != null){ //overlapping Tags are reduced by the caller
+            for(TagLL tag = head[0]; tag != null; tag = tag.getNextTag()) {
+                matchableSpans.put(new int[]{tag.getStartOffset(), tag.getEndOffset()},
+                    matchableTagSpan.get(tag));
+            }
+            return;
+        }
         //(2) reduce Tags base on longest dominant right based on the matchable
         //    spans
         //NOTE: This is the same code as TagClusterReducer#LONGEST_DOMINANT_RIGHT
@@ -24,6 +24,7 @@ import java.util.Map;
 
 import org.apache.clerezza.commons.rdf.Literal;
 import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.RDFTerm;
 import org.apache.stanbol.enhancer.engines.entitylinking.impl.Suggestion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,6 +55,10 @@ public class Match {
     public final int id;
     
     private FieldLoader fieldLoader;
+    /**
+     * The origin of the index providing the Entity or <code>null</code>
+     */
+    private final RDFTerm origin;
     
     private Map<FieldType,Object> values;
     private boolean error = false;
@@ -65,8 +70,20 @@ public class Match {
     private double score;
 
     Match(int id, FieldLoader fieldLoader){
+        this(id, fieldLoader, null);
+    }
+    /**
+     * @param id the Lucene document id
+     * @param fieldLoader the loader for the fields. Lucene document ids are
+     * only unique within an index. So Matches are only equal if they do also
+     * use the same field loader.
+     * @param origin the {@link IndexConfiguration#getOrigin() origin} of
+     * the index or <code>null</code> if none
+     */
+    Match(int id, FieldLoader fieldLoader, RDFTerm origin){
         this.id = id;
         this.fieldLoader = fieldLoader;
+        this.origin = origin;
     }
 
     public String getUri() {
@@ -143,9 +160,18 @@ public class Match {
         return id;
     }
     
+    /**
+     * The origin of the index providing this Match
+     * @return the origin or <code>null</code> if none
+     */
+    public RDFTerm getOrigin() {
+        return origin;
+    }
+    
     @Override
     public boolean equals(Object o) {
-        return o instanceof Match && id == ((Match)o).id;
+        return o instanceof Match && id == ((Match)o).id && 
+                fieldLoader == ((Match)o).fieldLoader;
     }
     
     @Override
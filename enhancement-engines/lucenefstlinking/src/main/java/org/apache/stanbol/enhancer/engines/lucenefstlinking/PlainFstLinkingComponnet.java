@@ -61,6 +61,7 @@ import org.osgi.service.component.ComponentContext;
 @Properties(value={
         @Property(name=PROPERTY_NAME), //the name of the engine
         @Property(name=FstLinkingEngineComponent.SOLR_CORE),
+        @Property(name=FstLinkingEngineComponent.ADDITIONAL_SOLR_CORES, cardinality=Integer.MAX_VALUE),
         @Property(name=IndexConfiguration.FIELD_ENCODING, options={
             @PropertyOption(
                 value='%'+IndexConfiguration.FIELD_ENCODING+".option.none",
@@ -96,6 +97,16 @@ import org.osgi.service.component.ComponentContext;
             intValue=FstLinkingEngineComponent.DEFAULT_FST_THREAD_POOL_SIZE),
         @Property(name=FstLinkingEngineComponent.ENTITY_CACHE_SIZE, 
             intValue=FstLinkingEngineComponent.DEFAULT_ENTITY_CACHE_SIZE),
+        @Property(name=FstLinkingEngineComponent.ENTITY_CACHE_MEMORY, 
+            intValue=FstLinkingEngineComponent.DEFAULT_ENTITY_CACHE_MEMORY),
+        @Property(name=IndexConfiguration.PIN_CORPORA, 
+            boolValue=IndexConfiguration.DEFAULT_PIN_CORPORA),
+        @Property(name=IndexConfiguration.INCREMENTAL_UPDATES, 
+            boolValue=IndexConfiguration.DEFAULT_INCREMENTAL_UPDATES),
+        @Property(name=FstLinkingEngineComponent.TAGGING_THREAD_POOL_SIZE, 
+            intValue=FstLinkingEngineComponent.DEFAULT_TAGGING_THREAD_POOL_SIZE),
+        @Property(name=FstLinkingEngineComponent.SECTION_SIZE, 
+            intValue=FstLinkingEngineComponent.DEFAULT_SECTION_SIZE),
         @Property(name=SUGGESTIONS, intValue=DEFAULT_SUGGESTIONS),
         @Property(name=INCLUDE_SIMILAR_SCORE, boolValue=DEFAULT_INCLUDE_SIMILAR_SCORE),
         @Property(name=CASE_SENSITIVE,boolValue=DEFAULT_CASE_SENSITIVE_MATCHING_STATE),
@@ -0,0 +1,64 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.engines.lucenefstlinking;
+
+import java.io.IOException;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+
+/**
+ * Used if a section of the content is tagged. Shifts the offsets of the
+ * tokens by the start of the section so that following {@link TokenFilter}s
+ * and the {@link org.opensextant.solrtexttagger.Tagger} see offsets relative
+ * to the whole content.
+ */
+final class SectionTokenFilter extends TokenFilter {
+
+    private final OffsetAttribute offset;
+    private final int sectionStart;
+
+    /**
+     * @param input the token stream over the section
+     * @param sectionStart the start of the section within the content
+     */
+    SectionTokenFilter(TokenStream input, int sectionStart) {
+        super(input);
+        //STANBOL-1177: add attributes in doPrivileged to avoid 
+        //AccessControlException: access denied ("java.lang.RuntimePermission" "getClassLoader")
+        offset = AccessController.doPrivileged(new PrivilegedAction<OffsetAttribute>() {
+            @Override public OffsetAttribute run() {
+                return addAttribute(OffsetAttribute.class);
+            }});
+        this.sectionStart = sectionStart;
+    }
+
+    @Override
+    public boolean incrementToken() throws IOException {
+        if(input.incrementToken()){
+            offset.setOffset(offset.startOffset() + sectionStart, 
+                offset.endOffset() + sectionStart);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+}
@@ -45,6 +45,11 @@ class Tag {
      * the start index within the {@link AnalysedText}
      */
     final int[] span;
+    /**
+     * The span of the matchable tokens (see {@link LinkableTokenFilter}) or
+     * <code>null</code> if the same as the {@link #span}
+     */
+    private int[] matchableSpan;
     /**
      * Matching documents
      */
@@ -71,6 +76,22 @@ class Tag {
     public Set<Match> getMatches(){
         return ids == null ? Collections.EMPTY_SET : ids;
     }
+    /**
+     * Setter for the span of the matchable tokens of this Tag
+     * @param matchableSpan the matchable span or <code>null</code> if the
+     * same as the span of the Tag
+     */
+    void setMatchableSpan(int[] matchableSpan) {
+        this.matchableSpan = matchableSpan;
+    }
+    /**
+     * Getter for the span of the matchable tokens of this Tag. Used to
+     * reduce overlapping Tags.
+     * @return the matchable span or the span of the Tag if not set
+     */
+    int[] getMatchableSpan() {
+        return matchableSpan == null ? span : matchableSpan;
+    }
     public int getStart() {
         return span[0];
     }
@@ -46,8 +46,10 @@ import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.MultiFields;
 import org.apache.solr.schema.SchemaField;
 import org.apache.solr.search.SolrIndexSearcher;
+import org.apache.lucene.util.Bits;
 import org.apache.solr.util.RefCounted;
 import org.apache.stanbol.enhancer.engines.lucenefstlinking.Match.FieldLoader;
 import org.apache.stanbol.enhancer.engines.lucenefstlinking.Match.FieldType;
@@ -159,8 +161,7 @@ public class TaggingSession implements Closeable {
 
         //obtain the language specific fields for the session
         if(langCorpusInfo != null){
-            this.langCorpus = new Corpus(langCorpusInfo,
-                obtainFstCorpus(indexVersion,langCorpusInfo));
+            this.langCorpus = createCorpus(langCorpusInfo, indexReader);
             this.labelField = langCorpusInfo.storedField;
             solrDocfields.add(labelField);
             this.labelLang = langCorpusInfo.language == null || 
@@ -171,8 +172,7 @@ public class TaggingSession implements Closeable {
             this.labelLang = null; 
         }
         if(defaultCorpusInfo != null && !defaultCorpusInfo.equals(langCorpusInfo)){
-            this.defaultCorpus = new Corpus(defaultCorpusInfo,
-                obtainFstCorpus(indexVersion,defaultCorpusInfo));
+            this.defaultCorpus = createCorpus(defaultCorpusInfo, indexReader);
             this.defaultLabelField = defaultCorpusInfo.storedField;
             solrDocfields.add(defaultLabelField);
             this.defaultLabelLang = defaultCorpusInfo.language == null || 
@@ -210,7 +210,11 @@ public class TaggingSession implements Closeable {
             this.rankingField = null;
         }
         if(config.getEntityCacheManager() != null){
-            documentCacheRef = config.getEntityCacheManager().getCache(indexVersion);
+            //IndexSegments allow cache managers to keep documents of unchanged
+            //segments (NOTE: equals is based on the index version)
+            IndexSegments segments = IndexSegments.create(indexReader);
+            documentCacheRef = config.getEntityCacheManager().getCache(
+                segments != null ? segments : indexVersion);
         }
 //        uniqueKeyCache = null; //no longer used.
 //        uniqueKeyCache = new ValueSourceAccessor(searcher, idSchemaField.getType()
@@ -218,13 +222,34 @@ public class TaggingSession implements Closeable {
         fieldLoader = new FieldLoaderImpl(searcher.getIndexReader());
 
     }
+    /**
+     * Creates the {@link Corpus} for the parsed {@link CorpusInfo}. Uses the
+     * delta corpus if one is available for the version of the index used by
+     * this session. 
+     * @param fstInfo the corpus info
+     * @param indexReader the index reader of this session
+     * @return the corpus
+     * @throws CorpusException if the requested corpus is currently not available
+     */
+    private Corpus createCorpus(CorpusInfo fstInfo, DirectoryReader indexReader) throws CorpusException {
+        TaggerFstCorpus fstCorpus = obtainFstCorpus(indexVersion, fstInfo);
+        TaggerFstCorpus delta = fstInfo.getDelta(fstCorpus);
+        if(delta != null && delta.getIndexVersion() == indexVersion.longValue()){
+            log.debug(" - use delta corpus for {}", fstInfo);
+            //with a delta corpus we need to filter Documents deleted since
+            //the base corpus was built
+            return new Corpus(fstInfo, fstCorpus, delta, MultiFields.getLiveDocs(indexReader));
+        } else {
+            return new Corpus(fstInfo, fstCorpus, null, null);
+        }
+    }
     /**
      * Used to instantiate {@link Match}es 
      * @param docId the Lucene document Id as returned by the FST corpus
      * @return the Match instance
      */
     public Match createMatch(int docId){
-        return new Match(docId,fieldLoader);
+        return new Match(docId,fieldLoader,config.getOrigin());
     }
     
     public void close(){
@@ -358,7 +383,7 @@ public class TaggingSession implements Closeable {
             if(enqueuedCorpus == null && //not enqueued
                     fstInfo.allowCreation){ 
                 log.debug(" - enqueue creation of {}", fstInfo);
-                enqueuedCorpus = enqueue(fstInfo);
+                enqueuedCorpus = enqueue(fstInfo, null);
             }
             if(enqueuedCorpus == null){
                 throw new CorpusException("Unable to abtain Fst Corpus for " + fstInfo
@@ -366,7 +391,11 @@ public class TaggingSession implements Closeable {
             }
         } else { //fstCorpus != null
             //check if the current FST corpus is up to date with the Solr index
-            if(indexVersion != null && indexVersion.longValue() != fstCorpus.getIndexVersion()){
+            //NOTE: with incremental updates the delta defines the version
+            TaggerFstCorpus delta = fstInfo.getDelta(fstCorpus);
+            long corpusVersion = delta == null ? fstCorpus.getIndexVersion() : 
+                delta.getIndexVersion();
+            if(indexVersion != null && indexVersion.longValue() != corpusVersion){
                 log.debug(" - FST corpus for language '{}' is outdated", fstInfo.language);
                 fstInfo.corpusLock.readLock().lock();
                 try {
@@ -377,7 +406,7 @@ public class TaggingSession implements Closeable {
                 if(enqueuedCorpus == null && //not already enqueued
                         fstInfo.allowCreation && config.getExecutorService() != null){
                     log.debug(" - enqueue creation of {}", fstInfo);
-                    enqueuedCorpus = enqueue(fstInfo);
+                    enqueuedCorpus = enqueue(fstInfo, fstCorpus);
                 } else {
                     log.warn("Unable to update outdated FST corpus for language '{}' "
                             + "because runtimeCreation is {} and ExecutorServic "
@@ -391,6 +420,13 @@ public class TaggingSession implements Closeable {
                 log.debug("FST corpus for language '{}' is up to date", fstInfo.language);
             }
         }
+        if(enqueuedCorpus != null && fstCorpus != null && fstInfo.pinned &&
+                !enqueuedCorpus.isDone()){
+            //pinned corpora are swapped as soon as the new version is built.
+            //Until then we do not wait and use the previous version 
+            log.debug(" - use previous version of {} while building the new one", fstInfo);
+            return fstCorpus;
+        }
         //TODO: maybe make this configurable
         int waitTime = fstCorpus == null ? 30 : 10; 
         if(enqueuedCorpus != null){ //we needed to build a new corpus
@@ -424,9 +460,11 @@ public class TaggingSession implements Closeable {
     }
     /**
      * @param fstInfo
+     * @param base the current corpus used as base for incremental updates
+     * or <code>null</code> if none
      * @return
      */
-    private Future<TaggerFstCorpus> enqueue(CorpusInfo fstInfo) {
+    private Future<TaggerFstCorpus> enqueue(CorpusInfo fstInfo, TaggerFstCorpus base) {
         Future<TaggerFstCorpus> enqueuedCorpus;
         fstInfo.corpusLock.writeLock().lock();
         try {
@@ -434,7 +472,7 @@ public class TaggingSession implements Closeable {
             if(enqueuedCorpus == null){
                 //enqueue for re-creation
                 enqueuedCorpus = config.getExecutorService().submit(
-                    new CorpusCreationTask(config, fstInfo));
+                    new CorpusCreationTask(config, fstInfo, base));
                 fstInfo.enqueued(enqueuedCorpus);;
             }
         } finally {
@@ -528,9 +566,10 @@ public class TaggingSession implements Closeable {
                             doc.add(new StringField(LOADED_FIELDS_FIELD_NAME, 
                                 loadedField, Store.NO));
                         }
-                        //NOTE: no need to update the cache, as we have updated the
-                        //cached value.
-                        //cache.cache(ID, doc);
+                        //NOTE: EntityCache implementations might not return
+                        //      the cached instance (e.g. the EncodedEntityCache)
+                        //      so we need to update the cache.
+                        cache.cache(ID, doc);
                         docAppended++;
                     } else {
                         docCached++;
@@ -618,10 +657,14 @@ public class TaggingSession implements Closeable {
         
         private CorpusInfo corpusInfo;
         private TaggerFstCorpus fst;
+        private TaggerFstCorpus delta;
+        private Bits liveDocs;
 
-        Corpus(CorpusInfo corpusInfo, TaggerFstCorpus fst){
+        Corpus(CorpusInfo corpusInfo, TaggerFstCorpus fst, TaggerFstCorpus delta, Bits liveDocs){
             this.corpusInfo = corpusInfo;
             this.fst = fst;
+            this.delta = delta;
+            this.liveDocs = liveDocs;
         }
         
         public String getLanugage(){
@@ -638,6 +681,24 @@ public class TaggingSession implements Closeable {
         public TaggerFstCorpus getFst(){
             return fst;
         }
+        /**
+         * The delta corpus holding labels of Documents added since the
+         * {@link #getFst()} was built.
+         * @return the delta corpus or <code>null</code> if none
+         */
+        public TaggerFstCorpus getDeltaFst(){
+            return delta;
+        }
+        /**
+         * If the Lucene Document with the parsed id is still present in the
+         * index. Only relevant if a {@link #getDeltaFst()} is present as the
+         * base corpus might still refer Documents deleted in the meantime.
+         * @param docId the Lucene document id
+         * @return the state
+         */
+        public boolean isLive(int docId){
+            return liveDocs == null || liveDocs.get(docId);
+        }
 
         public String getIndexedField() {
             return corpusInfo.indexedField;
@@ -0,0 +1,312 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.engines.lucenefstlinking.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.util.BytesRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link EntityCache} implementation that stores the fields of cached 
+ * {@link Document}s in a compact byte encoded form. The size of the cache is
+ * bounded by the number of bytes of encoded Documents. If exceeded the least
+ * recently used Documents are evicted.<p>
+ * As {@link #get(Integer)} decodes the cached bytes it returns a new 
+ * {@link Document} instance on every call. Changes to returned Documents
+ * need to be explicitly {@link #cache(Integer, Document) cached}.
+ */
+public class EncodedEntityCache implements EntityCache {
+    
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    
+    private static final byte TYPE_STRING = 0;
+    private static final byte TYPE_INT = 1;
+    private static final byte TYPE_LONG = 2;
+    private static final byte TYPE_FLOAT = 3;
+    private static final byte TYPE_DOUBLE = 4;
+    private static final byte TYPE_BINARY = 5;
+
+    private final Object version;
+    private final long maxBytes;
+    /**
+     * LRU map (access order) with the encoded Documents
+     */
+    private final LinkedHashMap<Integer,byte[]> cache = new LinkedHashMap<Integer,byte[]>(1024, 0.75f, true);
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private boolean closed;
+    
+    /**
+     * Creates a new empty cache
+     * @param version the version
+     * @param maxBytes the maximum number of bytes of cached Documents
+     */
+    public EncodedEntityCache(Object version, long maxBytes) {
+        log.debug("> create {} for version {} (maxBytes: {})", 
+            new Object[]{getClass().getSimpleName(), version, maxBytes});
+        this.version = version;
+        this.maxBytes = maxBytes;
+    }
+    
+    @Override
+    public Object getVersion() {
+        return version;
+    }
+    
+    @Override
+    public Document get(Integer docId) {
+        byte[] data;
+        synchronized (cache) {
+            data = closed ? null : cache.get(docId);
+            if(data == null){
+                misses++;
+                return null;
+            } else {
+                hits++;
+            }
+        }
+        try {
+            return decode(data);
+        } catch (IOException e) { //from a ByteArrayInputStream ... should never happen
+            throw new IllegalStateException("Unable to decode cached Document " + docId, e);
+        }
+    }
+    
+    @Override
+    public void cache(Integer docId, Document doc) {
+        byte[] data;
+        try {
+            data = encode(doc);
+        } catch (IOException e) { //from a ByteArrayOutputStream ... should never happen
+            throw new IllegalStateException("Unable to encode Document " + docId, e);
+        }
+        put(docId, data);
+    }
+    
+    private void put(Integer docId, byte[] data){
+        synchronized (cache) {
+            if(closed){
+                return;
+            }
+            byte[] old = cache.put(docId, data);
+            bytes = bytes + data.length - (old == null ? 0 : old.length);
+            //evict least recently used documents
+            Iterator<byte[]> it = cache.values().iterator();
+            while(bytes > maxBytes && it.hasNext()){
+                bytes = bytes - it.next().length;
+                it.remove();
+                evictions++;
+            }
+        }
+    }
+    /**
+     * Copies all Documents with a Lucene document id lower than the parsed
+     * value to the parsed cache. Used to transfer Documents of unchanged
+     * segments to the cache of a new version of the index.
+     * @param target the target cache
+     * @param maxDocId the exclusive maximum Lucene document id
+     * @return the number of transferred Documents
+     */
+    int transfer(EncodedEntityCache target, int maxDocId){
+        int count = 0;
+        synchronized (cache) {
+            //iterate in LRU order to keep the order in the target
+            for(Entry<Integer,byte[]> entry : cache.entrySet()){
+                if(entry.getKey().intValue() < maxDocId){
+                    //encoded documents are immutable and can be shared
+                    target.put(entry.getKey(), entry.getValue());
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+    
+    @Override
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+    
+    @Override
+    public String printStatistics() {
+        synchronized (cache) {
+            long lookups = hits + misses;
+            return new StringBuilder("EntityCache[version: ").append(version)
+                    .append(" | size: ").append(cache.size())
+                    .append(" | bytes: ").append(bytes).append('/').append(maxBytes)
+                    .append(" | hits: ").append(hits)
+                    .append(" | misses: ").append(misses)
+                    .append(" | hitratio: ").append(lookups > 0 ? 
+                            String.format("%.2f", (double)hits/lookups) : "-")
+                    .append(" | evictions: ").append(evictions).append(']').toString();
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return printStatistics();
+    }
+    
+    void close(){
+        synchronized (cache) {
+            log.debug(" ... close EntityCache for version {} (size: {})", version, cache.size());
+            closed = true;
+            cache.clear();
+            bytes = 0;
+        }
+    }
+    
+    /**
+     * Encodes the stored fields of the parsed Document
+     * @param doc the document
+     * @return the encoded document
+     * @throws IOException
+     */
+    static byte[] encode(Document doc) throws IOException {
+        List<IndexableField> fields = doc.getFields();
+        ByteArrayOutputStream bout = new ByteArrayOutputStream(32 * (fields.size()+1));
+        DataOutputStream out = new DataOutputStream(bout);
+        out.writeInt(fields.size());
+        for(IndexableField field : fields){
+            out.writeUTF(field.name());
+            Number num = field.numericValue();
+            if(num instanceof Integer){
+                out.writeByte(TYPE_INT);
+                out.writeInt(num.intValue());
+            } else if(num instanceof Long){
+                out.writeByte(TYPE_LONG);
+                out.writeLong(num.longValue());
+            } else if(num instanceof Float){
+                out.writeByte(TYPE_FLOAT);
+                out.writeFloat(num.floatValue());
+            } else if(num instanceof Double){
+                out.writeByte(TYPE_DOUBLE);
+                out.writeDouble(num.doubleValue());
+            } else if(field.stringValue() != null){
+                out.writeByte(TYPE_STRING);
+                //NOTE: labels might exceed the 64k limit of writeUTF
+                byte[] value = field.stringValue().getBytes("UTF-8");
+                out.writeInt(value.length);
+                out.write(value);
+            } else {
+                BytesRef value = field.binaryValue();
+                out.writeByte(TYPE_BINARY);
+                if(value == null){
+                    out.writeInt(0);
+                } else {
+                    out.writeInt(value.length);
+                    out.write(value.bytes, value.offset, value.length);
+                }
+            }
+        }
+        out.flush();
+        return bout.toByteArray();
+    }
+    /**
+     * Decodes a Document encoded by {@link #encode(Document)}
+     * @param data the encoded data
+     * @return the decoded Document
+     * @throws IOException
+     */
+    static Document decode(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        Document doc = new Document();
+        int size = in.readInt();
+        for(int i = 0; i < size; i++){
+            String name = in.readUTF();
+            byte type = in.readByte();
+            switch (type) {
+                case TYPE_INT:
+                    doc.add(new StoredField(name, in.readInt()));
+                    break;
+                case TYPE_LONG:
+                    doc.add(new StoredField(name, in.readLong()));
+                    break;
+                case TYPE_FLOAT:
+                    doc.add(new StoredField(name, in.readFloat()));
+                    break;
+                case TYPE_DOUBLE:
+                    doc.add(new StoredField(name, in.readDouble()));
+                    break;
+                case TYPE_STRING:
+                    byte[] value = new byte[in.readInt()];
+                    in.readFully(value);
+                    doc.add(new StoredField(name, new String(value, "UTF-8")));
+                    break;
+                case TYPE_BINARY:
+                    byte[] binary = new byte[in.readInt()];
+                    in.readFully(binary);
+                    doc.add(new StoredField(name, binary));
+                    break;
+                default:
+                    throw new IOException("Unknown field type " + type + " of field "
+                        + name + "!");
+            }
+        }
+        return doc;
+    }
+    
+    /**
+     * @return the number of bytes of the encoded Documents in this cache
+     */
+    public long getBytes() {
+        synchronized (cache) {
+            return bytes;
+        }
+    }
+    /**
+     * @return the hits of this cache
+     */
+    public long getHits() {
+        synchronized (cache) {
+            return hits;
+        }
+    }
+    /**
+     * @return the misses of this cache
+     */
+    public long getMisses() {
+        synchronized (cache) {
+            return misses;
+        }
+    }
+    /**
+     * @return the number of evicted Documents
+     */
+    public long getEvictions() {
+        synchronized (cache) {
+            return evictions;
+        }
+    }
+}
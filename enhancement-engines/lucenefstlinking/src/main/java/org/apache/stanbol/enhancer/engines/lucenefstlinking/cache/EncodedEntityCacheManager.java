@@ -0,0 +1,135 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.engines.lucenefstlinking.cache;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.solr.util.RefCounted;
+import org.apache.stanbol.enhancer.engines.lucenefstlinking.IndexSegments;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implementation of the {@link EntityCacheManager} based on the 
+ * {@link EncodedEntityCache}. The size of the cache is bounded by the number
+ * of bytes of the cached Documents.<p>
+ * If {@link IndexSegments} are used as version objects cached Documents of
+ * segments that are unchanged in the new version of the index are 
+ * transferred to the {@link EntityCache} of the new version.
+ */
+public class EncodedEntityCacheManager implements EntityCacheManager {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    
+    RefCounted<EntityCache> current;
+    private final long maxBytes;
+    private ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    /**
+     * Creates a cache manager instance with the parsed maximum size in bytes
+     * @param maxBytes the maximum number of bytes of cached Documents
+     */
+    public EncodedEntityCacheManager(long maxBytes){
+        if(maxBytes <= 0){
+            throw new IllegalArgumentException("The maximum size of the cache MUST BE > 0"
+                + " (parsed: " + maxBytes + ")!");
+        }
+        log.debug("> create {} (maxBytes: {})", getClass().getSimpleName(), maxBytes);
+        this.maxBytes = maxBytes;
+    }
+    
+    @Override
+    public RefCounted<EntityCache> getCache(Object version) {
+        lock.readLock().lock();
+        try {
+            if(current != null && current.get().getVersion().equals(version)){
+                current.incref(); //this increase is for the holder of the returned instance
+                return current;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        //still here ... looks like we need to build a new one
+        lock.writeLock().lock();
+        try {
+            //check again ... an other thread might have already built the cache
+            //for the requested version
+            if(current == null || !current.get().getVersion().equals(version)){
+                log.debug(" > create EntityCache for version {}", version);
+                EncodedEntityCache cache = new EncodedEntityCache(version, maxBytes);
+                if(current != null){
+                    EncodedEntityCache old = (EncodedEntityCache)current.get();
+                    //transfer Documents of unchanged segments
+                    if(old.getVersion() instanceof IndexSegments && 
+                            version instanceof IndexSegments){
+                        int commonDocs = ((IndexSegments)old.getVersion()).getCommonDocs(
+                            (IndexSegments)version);
+                        int transferred = old.transfer(cache, commonDocs);
+                        log.debug(" ... transferred {} of {} Documents from version {}",
+                            new Object[]{transferred, old.size(), old.getVersion()});
+                    }
+                    log.debug(" > invalidate EntityCache for version {}", old.getVersion());
+                    //remove the reference to the old instance. This will allow to
+                    //destroy the old cache as soon as it is no longer used
+                    current.decref();
+                    current = null;
+                }
+                current = new RefCountedImpl(cache);
+                //add a reference to the new cache by this class. This will be removed
+                //as soon as the instance is outdated
+                current.incref();
+            }
+            current.incref(); //this increase is for the holder of the returned instance
+            return current;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if(current != null){
+                current.decref();
+                current = null;
+            }
+        } finally{ 
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * {@link RefCounted} implementation that closes the {@link EncodedEntityCache}
+     * when {@link #close()} is called by the super implementation.
+     */
+    protected static class RefCountedImpl extends RefCounted<EntityCache>{
+        
+        public RefCountedImpl(EncodedEntityCache resource) {
+            super(resource);
+        }
+
+        /**
+         * closes the {@link EncodedEntityCache}
+         */
+        protected void close(){
+            ((EncodedEntityCache)get()).close();
+        }
+
+    }
+}
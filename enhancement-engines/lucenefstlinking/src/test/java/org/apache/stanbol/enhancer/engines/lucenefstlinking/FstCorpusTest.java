@@ -0,0 +1,561 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.engines.lucenefstlinking;
+
+import static org.apache.stanbol.enhancer.engines.entitylinking.config.TextProcessingConfig.PROCESSED_LANGUAGES;
+import static org.apache.stanbol.enhancer.engines.entitylinking.config.TextProcessingConfig.PROCESS_ONLY_PROPER_NOUNS_STATE;
+import static org.apache.stanbol.enhancer.servicesapi.rdf.Properties.DC_LANGUAGE;
+import static org.apache.stanbol.enhancer.servicesapi.rdf.Properties.DC_RELATION;
+import static org.apache.stanbol.enhancer.servicesapi.rdf.Properties.ENHANCER_END;
+import static org.apache.stanbol.enhancer.servicesapi.rdf.Properties.ENHANCER_ENTITY_REFERENCE;
+import static org.apache.stanbol.enhancer.servicesapi.rdf.Properties.ENHANCER_START;
+import static org.apache.stanbol.enhancer.servicesapi.rdf.Properties.RDF_TYPE;
+import static org.apache.stanbol.enhancer.servicesapi.rdf.TechnicalClasses.ENHANCER_ENTITYANNOTATION;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.Triple;
+import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
+import org.apache.clerezza.rdf.core.LiteralFactory;
+import org.apache.commons.io.FileUtils;
+import org.apache.solr.client.solrj.SolrServer;
+import org.apache.solr.client.solrj.embedded.EmbeddedSolrServer;
+import org.apache.solr.core.SolrCore;
+import org.apache.stanbol.commons.solr.IndexReference;
+import org.apache.stanbol.commons.solr.managed.ManagedSolrServer;
+import org.apache.stanbol.commons.solr.managed.standalone.StandaloneEmbeddedSolrServerProvider;
+import org.apache.stanbol.enhancer.contentitem.inmemory.InMemoryContentItemFactory;
+import org.apache.stanbol.enhancer.engines.entitylinking.config.EntityLinkerConfig;
+import org.apache.stanbol.enhancer.engines.entitylinking.config.TextProcessingConfig;
+import org.apache.stanbol.enhancer.engines.lucenefstlinking.TaggingSession.Corpus;
+import org.apache.stanbol.enhancer.nlp.json.AnalyzedTextParser;
+import org.apache.stanbol.enhancer.nlp.model.AnalysedText;
+import org.apache.stanbol.enhancer.nlp.model.AnalysedTextFactory;
+import org.apache.stanbol.enhancer.nlp.utils.LanguageConfiguration;
+import org.apache.stanbol.enhancer.servicesapi.ContentItem;
+import org.apache.stanbol.enhancer.servicesapi.ContentItemFactory;
+import org.apache.stanbol.enhancer.servicesapi.EngineException;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementEngine;
+import org.apache.stanbol.enhancer.servicesapi.helper.EnhancementEngineHelper;
+import org.apache.stanbol.enhancer.servicesapi.impl.StreamSource;
+import org.apache.stanbol.enhancer.servicesapi.impl.StringSource;
+import org.apache.stanbol.entityhub.servicesapi.defaults.NamespaceEnum;
+import org.apache.stanbol.entityhub.servicesapi.model.Representation;
+import org.apache.stanbol.entityhub.yard.solr.impl.SolrYard;
+import org.apache.stanbol.entityhub.yard.solr.impl.SolrYardConfig;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opensextant.solrtexttagger.TaggerFstCorpus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tests the creation and update of FST corpora for a small SolrCore that is
+ * initialised with the default SolrYard configuration and filled by the
+ * tests. Other than the {@link FstLinkingEngineTest} this does not require
+ * any external test data.
+ */
+public class FstCorpusTest {
+
+    private final static Logger log = LoggerFactory.getLogger(FstCorpusTest.class);
+
+    public static final String TEST_YARD_ID = "fstcorpus";
+    public static final String TEST_SOLR_CORE_NAME = "fstcorpus";
+    /**
+     * The second index used to test tagging against multiple indexes
+     */
+    public static final String TEST_VOCAB_YARD_ID = "fstcorpusvocab";
+    public static final String TEST_VOCAB_SOLR_CORE_NAME = "fstcorpusvocab";
+    protected static final String TEST_INDEX_REL_PATH = File.separatorChar + "target" + File.separatorChar
+                                                        + ManagedSolrServer.DEFAULT_SOLR_DATA_DIR;
+    protected static final String TEST_FST_REL_PATH = "target" + File.separatorChar + "fstcorpus";
+
+    protected static final String ENTITY_NS = "http://www.example.org/entity/";
+
+    protected static final String RDFS_LABEL = NamespaceEnum.rdfs + "label";
+
+    public static final String TEST_TEXT_FILE = "merkel.txt";
+    public static final String TEST_TEXT_NLP_FILE = "merkel_nlp.json";
+    /**
+     * The time we wait for a rebuild of an FST corpus
+     */
+    private static final long FST_CREATION_WAIT_TIME = 30; //seconds
+    /**
+     * The time a {@link TaggingSession} waits for an outdated corpus to be
+     * rebuilt if the corpus is not pinned.
+     */
+    private static final long SESSION_WAIT_TIME = 10000; //ms
+
+    private static final LiteralFactory lf = LiteralFactory.getInstance();
+
+    protected static SolrServer server;
+    protected static SolrYard yard;
+    protected static SolrCore core;
+    protected static SolrServer vocabServer;
+    protected static SolrYard vocabYard;
+    protected static SolrCore vocabCore;
+
+    private ContentItemFactory cif = InMemoryContentItemFactory.getInstance();
+    private AnalysedTextFactory atf = AnalysedTextFactory.getDefaultInstance();
+
+    private static int configCount = 0;
+
+    private ExecutorService fstCreatorService;
+    private IndexConfiguration indexConfig;
+    private IndexConfiguration vocabIndexConfig;
+
+    @BeforeClass
+    public static void setup() throws Exception {
+        String prefix = System.getProperty("basedir") == null ? "." : "${basedir}";
+        String solrServerDir = prefix + TEST_INDEX_REL_PATH;
+        log.info("Test Solr Server Directory: {}", solrServerDir);
+        System.setProperty(ManagedSolrServer.MANAGED_SOLR_DIR_PROPERTY, solrServerDir);
+        SolrYardConfig config = createYardConfig(TEST_YARD_ID, TEST_SOLR_CORE_NAME);
+        IndexReference solrIndexRef = IndexReference.parse(config.getSolrServerLocation());
+        server = StandaloneEmbeddedSolrServerProvider.getInstance().getSolrServer(
+            solrIndexRef, config.getIndexConfigurationName());
+        Assert.assertNotNull("Unable to initialise SolrServer for testing",server);
+        core = ((EmbeddedSolrServer)server).getCoreContainer().getCore(
+            solrIndexRef.getIndex());
+        Assert.assertNotNull("Unable to get SolrCore '" + config.getIndexConfigurationName()
+            + "' from SolrServer "+server, core);
+        yard = new SolrYard(server,config,null);
+        //the second index
+        config = createYardConfig(TEST_VOCAB_YARD_ID, TEST_VOCAB_SOLR_CORE_NAME);
+        solrIndexRef = IndexReference.parse(config.getSolrServerLocation());
+        vocabServer = StandaloneEmbeddedSolrServerProvider.getInstance().getSolrServer(
+            solrIndexRef, config.getIndexConfigurationName());
+        Assert.assertNotNull("Unable to initialise SolrServer for testing",vocabServer);
+        vocabCore = ((EmbeddedSolrServer)vocabServer).getCoreContainer().getCore(
+            solrIndexRef.getIndex());
+        Assert.assertNotNull("Unable to get SolrCore '" + config.getIndexConfigurationName()
+            + "' from SolrServer "+vocabServer, vocabCore);
+        vocabYard = new SolrYard(vocabServer,config,null);
+    }
+
+    private static SolrYardConfig createYardConfig(String yardId, String coreName) {
+        SolrYardConfig config = new SolrYardConfig(yardId, coreName);
+        config.setAllowInitialisation(true); //init with the default configuration
+        config.setImmediateCommit(true); //tests need to see changes immediately
+        config.setName("FST corpus test data");
+        config.setDescription("Data used for the FstCorpusTest");
+        return config;
+    }
+
+    @AfterClass
+    public static void cleanup() throws Exception {
+        if(yard != null){
+            yard.close();
+        }
+        yard = null;
+        if(vocabYard != null){
+            vocabYard.close();
+        }
+        vocabYard = null;
+    }
+
+    @Before
+    public void initTest() throws Exception {
+        yard.removeAll(); //start every test with an empty index
+        server.optimize(); //and without segments of previous tests
+        vocabYard.removeAll();
+        vocabServer.optimize();
+        fstCreatorService = Executors.newFixedThreadPool(1);
+    }
+
+    @After
+    public void cleanupTest() {
+        if(indexConfig != null){
+            indexConfig.deactivate();
+            indexConfig = null;
+        }
+        if(vocabIndexConfig != null){
+            vocabIndexConfig.deactivate();
+            vocabIndexConfig = null;
+        }
+        fstCreatorService.shutdownNow();
+    }
+
+    /**
+     * Creates and activates the {@link IndexConfiguration} for the English
+     * labels of the test index. Needs to be called after the first Entity
+     * was added as otherwise no {@link CorpusInfo} is created.
+     * @param pinCorpora the {@link IndexConfiguration#PIN_CORPORA} state
+     * @param incrementalUpdates the {@link IndexConfiguration#INCREMENTAL_UPDATES} state
+     * @return the activated index configuration
+     */
+    protected IndexConfiguration createIndexConfig(boolean pinCorpora, 
+            boolean incrementalUpdates) throws IOException {
+        indexConfig = createIndexConfig(core, pinCorpora, incrementalUpdates);
+        return indexConfig;
+    }
+    
+    private IndexConfiguration createIndexConfig(SolrCore core, boolean pinCorpora, 
+            boolean incrementalUpdates) throws IOException {
+        LanguageConfiguration langConf = new LanguageConfiguration("not.used",
+            new String[]{"en;field=rdfs:label;generate=true"});
+        IndexConfiguration indexConfig = new IndexConfiguration(langConf, core, 
+            FieldEncodingEnum.SolrYard,"");
+        indexConfig.setExecutorService(fstCreatorService);
+        //use a new FST folder for every configuration so that corpora are
+        //never loaded from FST files created by other tests
+        File fstDir = new File(TEST_FST_REL_PATH, String.valueOf(configCount++));
+        FileUtils.deleteDirectory(fstDir);
+        indexConfig.setFstDirectory(fstDir);
+        indexConfig.setPinCorpora(pinCorpora);
+        indexConfig.setIncrementalUpdates(incrementalUpdates);
+        indexConfig.activate();
+        return indexConfig;
+    }
+    /**
+     * Creates an Entity with the parsed English labels
+     * @param id the id of the Entity
+     * @param labels the labels
+     * @return the Entity
+     */
+    protected static Representation createEntity(String id, String...labels) {
+        Representation rep = yard.getValueFactory().createRepresentation(id);
+        for(String label : labels){
+            rep.addNaturalText(RDFS_LABEL, label, "en");
+        }
+        return rep;
+    }
+    /**
+     * Adds (or replaces) an Entity with the parsed English labels
+     * @param id the id of the Entity
+     * @param labels the labels
+     */
+    protected static void storeEntity(String id, String...labels) throws Exception {
+        yard.store(createEntity(id, labels));
+    }
+    /**
+     * Enhances the parsed English text with the parsed engine
+     * @param engine the engine
+     * @param text the text
+     * @return the linked Entities (sorted) by the <code>[start,end]</code> of
+     * the linked text (see {@link #getLinkedEntities(Graph)})
+     */
+    protected Map<String,List<String>> link(FstLinkingEngine engine, String text) throws EngineException, IOException {
+        ContentItem ci = cif.createContentItem(new StringSource(text));
+        ci.getMetadata().add(new TripleImpl(ci.getUri(), DC_LANGUAGE, 
+            lf.createTypedLiteral("en")));
+        return link(engine, ci);
+    }
+    /**
+     * Enhances the {@link #TEST_TEXT_FILE} with the NLP results of the
+     * {@link #TEST_TEXT_NLP_FILE} with the parsed engine
+     * @param engine the engine
+     * @return the linked Entities (sorted) by the <code>[start,end]</code> of
+     * the linked text (see {@link #getLinkedEntities(Graph)})
+     */
+    protected Map<String,List<String>> linkTestText(FstLinkingEngine engine) throws EngineException, IOException {
+        InputStream is = FstCorpusTest.class.getClassLoader().getResourceAsStream(TEST_TEXT_FILE);
+        Assert.assertNotNull("Unable to load '"+TEST_TEXT_FILE+"' via classpath",is);
+        ContentItem ci = cif.createContentItem(new StreamSource(is,"text/plain"));
+        AnalysedText at = atf.createAnalysedText(ci, ci.getBlob());
+        is.close();
+        is = FstCorpusTest.class.getClassLoader().getResourceAsStream(TEST_TEXT_NLP_FILE);
+        Assert.assertNotNull("Unable to load '"+TEST_TEXT_NLP_FILE+"' via classpath",is);
+        AnalyzedTextParser.getDefaultInstance().parse(is, Charset.forName("UTF-8"), at);
+        is.close();
+        ci.getMetadata().add(new TripleImpl(ci.getUri(), DC_LANGUAGE, 
+            lf.createTypedLiteral("en")));
+        return link(engine, ci);
+    }
+    
+    private Map<String,List<String>> link(FstLinkingEngine engine, ContentItem ci) throws EngineException {
+        assertEquals(EnhancementEngine.ENHANCE_ASYNC, engine.canEnhance(ci));
+        engine.computeEnhancements(ci);
+        return getLinkedEntities(ci.getMetadata());
+    }
+    /**
+     * Collects the Entities suggested for the text annotations in the parsed
+     * metadata.
+     * @param metadata the enhancement results
+     * @return the URIs of the suggested Entities (sorted) by the 
+     * <code>[start,end]</code> of the text annotation
+     */
+    protected static Map<String,List<String>> getLinkedEntities(Graph metadata){
+        Map<String,List<String>> linked = new TreeMap<String,List<String>>();
+        Iterator<Triple> it = metadata.filter(null, RDF_TYPE, ENHANCER_ENTITYANNOTATION);
+        while(it.hasNext()){
+            BlankNodeOrIRI entityAnnotation = it.next().getSubject();
+            IRI textAnnotation = EnhancementEngineHelper.getReference(metadata, 
+                entityAnnotation, DC_RELATION);
+            assertNotNull(textAnnotation);
+            String span = Arrays.toString(new Integer[]{
+                    EnhancementEngineHelper.get(metadata, textAnnotation, 
+                        ENHANCER_START, Integer.class, lf),
+                    EnhancementEngineHelper.get(metadata, textAnnotation, 
+                        ENHANCER_END, Integer.class, lf)});
+            List<String> entities = linked.get(span);
+            if(entities == null){
+                entities = new ArrayList<String>();
+                linked.put(span, entities);
+            }
+            entities.add(EnhancementEngineHelper.getReference(metadata, 
+                entityAnnotation, ENHANCER_ENTITY_REFERENCE).getUnicodeString());
+        }
+        for(List<String> entities : linked.values()){
+            Collections.sort(entities);
+        }
+        return linked;
+    }
+
+    /**
+     * Builds the corpus for the parsed corpus info
+     */
+    protected TaggerFstCorpus buildCorpus(CorpusInfo corpusInfo) {
+        return buildCorpus(indexConfig, corpusInfo);
+    }
+    
+    protected static TaggerFstCorpus buildCorpus(IndexConfiguration indexConfig, CorpusInfo corpusInfo) {
+        return new CorpusCreationTask(indexConfig, corpusInfo).call();
+    }
+
+    @Test
+    public void testPinnedCorpusServedWhileRebuilding() throws Exception {
+        storeEntity(ENTITY_NS + "Angela_Merkel", "Angela Merkel");
+        createIndexConfig(true, false);
+        CorpusInfo corpusInfo = indexConfig.getCorpus("en");
+        assertNotNull(corpusInfo);
+        assertTrue(corpusInfo.pinned);
+        TaggerFstCorpus corpus = buildCorpus(corpusInfo);
+        assertNotNull(corpus);
+        TaggingSession session = TaggingSession.createSession(indexConfig, "en");
+        try {
+            assertSame(corpus, session.getLanguageCorpus().getFst());
+        } finally {
+            session.close();
+        }
+        //block the FST creation thread so that the rebuild can not complete
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        fstCreatorService.submit(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                started.countDown();
+                release.await();
+                return null;
+            }
+        });
+        assertTrue(started.await(FST_CREATION_WAIT_TIME, TimeUnit.SECONDS));
+        //changing the index makes the current corpus outdated
+        storeEntity(ENTITY_NS + "Germany", "Germany");
+        Future<TaggerFstCorpus> rebuild;
+        long start = System.currentTimeMillis();
+        session = TaggingSession.createSession(indexConfig, "en");
+        try {
+            //the session does not wait and uses the current corpus
+            assertSame(corpus, session.getLanguageCorpus().getFst());
+            assertTrue(session.getIndexVersion().longValue() != corpus.getIndexVersion());
+            rebuild = corpusInfo.getEnqueued();
+            assertNotNull("rebuild of the outdated corpus not enqueued", rebuild);
+            assertFalse(rebuild.isDone());
+        } finally {
+            session.close();
+        }
+        long duration = System.currentTimeMillis() - start;
+        assertTrue("TaggingSession waited " + duration + "ms for the rebuild of a pinned corpus",
+            duration < SESSION_WAIT_TIME/2);
+        //complete the rebuild and check that the new corpus replaces the old one
+        release.countDown();
+        TaggerFstCorpus rebuilt = rebuild.get(FST_CREATION_WAIT_TIME, TimeUnit.SECONDS);
+        assertNotNull(rebuilt);
+        assertNotSame(corpus, rebuilt);
+        session = TaggingSession.createSession(indexConfig, "en");
+        try {
+            assertSame(rebuilt, session.getLanguageCorpus().getFst());
+            assertEquals(session.getIndexVersion().longValue(), rebuilt.getIndexVersion());
+        } finally {
+            session.close();
+        }
+    }
+
+    @Test
+    public void testDeltaCorpusLinksOnlyLiveDocuments() throws Exception {
+        List<Representation> entities = new ArrayList<Representation>();
+        entities.add(createEntity(ENTITY_NS + "Angela_Merkel", "Chancellor Merkel"));
+        entities.add(createEntity(ENTITY_NS + "Merkel", "Merkel"));
+        entities.add(createEntity(ENTITY_NS + "Germany", "Germany"));
+        //some more entities so that the update is small enough for a delta
+        for(int i = 0; i < 20; i++){
+            entities.add(createEntity(ENTITY_NS + "Entity_" + i, "Entity " + i));
+        }
+        yard.store(entities);
+        createIndexConfig(false, true);
+        CorpusInfo corpusInfo = indexConfig.getCorpus("en");
+        assertNotNull(corpusInfo);
+        TaggerFstCorpus base = buildCorpus(corpusInfo);
+        assertNotNull(base);
+        //update a single entity. This deletes the Lucene Document indexed
+        //by the base corpus and adds a new one
+        storeEntity(ENTITY_NS + "Angela_Merkel", "Angela Merkel");
+        //the first session waits for the delta corpus
+        TaggingSession session = TaggingSession.createSession(indexConfig, "en");
+        try {
+            Corpus corpus = session.getLanguageCorpus();
+            assertSame(base, corpus.getFst());
+            assertNotNull("No delta corpus created for the update", corpus.getDeltaFst());
+            assertEquals(session.getIndexVersion().longValue(), 
+                corpus.getDeltaFst().getIndexVersion());
+        } finally {
+            session.close();
+        }
+        FstLinkingEngine engine = new FstLinkingEngine("delta-linking", LinkingModeEnum.PLAIN, 
+            indexConfig, new TextProcessingConfig(), new EntityLinkerConfig(), null);
+        Map<String,List<String>> linked = link(engine,
+            "Chancellor Merkel said that Angela Merkel lives in Germany.");
+        log.info("linked: {}", linked);
+        Map<String,List<String>> expected = new TreeMap<String,List<String>>();
+        //'Chancellor Merkel' is only a label of the deleted Document, so it 
+        //must neither be linked nor hide 'Merkel'
+        expected.put("[11, 17]", Arrays.asList(ENTITY_NS + "Merkel"));
+        //'Angela Merkel' of the delta corpus is linked once (only the live 
+        //Document) and reduces the overlapping 'Merkel' of the base corpus
+        expected.put("[28, 41]", Arrays.asList(ENTITY_NS + "Angela_Merkel"));
+        expected.put("[51, 58]", Arrays.asList(ENTITY_NS + "Germany"));
+        assertEquals(expected, linked);
+    }
+
+    @Test
+    public void testParallelTagging() throws Exception {
+        List<Representation> entities = new ArrayList<Representation>();
+        entities.add(createEntity(ENTITY_NS + "Angela_Merkel", "Angela Merkel"));
+        entities.add(createEntity(ENTITY_NS + "Merkel", "Merkel"));
+        entities.add(createEntity(ENTITY_NS + "Chancellor", "Chancellor"));
+        entities.add(createEntity(ENTITY_NS + "Germany", "Germany"));
+        entities.add(createEntity(ENTITY_NS + "Greece", "Greece", "Greeks"));
+        entities.add(createEntity(ENTITY_NS + "Election", "Election"));
+        entities.add(createEntity(ENTITY_NS + "Policy", "Policy", "European Policy"));
+        entities.add(createEntity(ENTITY_NS + "Party", "Party"));
+        for(int i = 0; i < 20; i++){
+            entities.add(createEntity(ENTITY_NS + "Entity_" + i, "Entity " + i));
+        }
+        yard.store(entities);
+        createIndexConfig(false, true);
+        assertNotNull(buildCorpus(indexConfig.getCorpus("en")));
+        //add an Entity so that tagging also uses a delta corpus
+        storeEntity(ENTITY_NS + "SPD", "SPD", "Social Democratic Party");
+        TaggingSession session = TaggingSession.createSession(indexConfig, "en");
+        try {
+            assertNotNull(session.getLanguageCorpus().getDeltaFst());
+        } finally {
+            session.close();
+        }
+        Dictionary<String,Object> dict = new Hashtable<String,Object>();
+        dict.put(PROCESSED_LANGUAGES, Arrays.asList("en;lmmtip;uc=LINK;prob=0.75;pprob=0.75"));
+        dict.put(PROCESS_ONLY_PROPER_NOUNS_STATE, false);
+        TextProcessingConfig tpc = TextProcessingConfig.createInstance(dict);
+        EntityLinkerConfig elc = new EntityLinkerConfig();
+        elc.setMinFoundTokens(2);
+        ExecutorService singleThread = Executors.newFixedThreadPool(1);
+        ExecutorService multiThread = Executors.newFixedThreadPool(4);
+        try {
+            for(LinkingModeEnum mode : new LinkingModeEnum[]{
+                    LinkingModeEnum.PLAIN, LinkingModeEnum.LINKABLE_TOKEN}){
+                //tag the whole content sequentially
+                Map<String,List<String>> expected = linkTestText(new FstLinkingEngine(
+                    "sequential", mode, indexConfig, tpc, elc, null));
+                log.info("{} linked: {}", mode, expected);
+                assertTrue(expected.containsValue(Arrays.asList(ENTITY_NS + "Angela_Merkel")));
+                assertTrue(expected.containsValue(Arrays.asList(ENTITY_NS + "SPD")));
+                //tag sentence aligned sections (the test text has 3 sentences)
+                //with one and with several threads
+                assertEquals(mode + " linking results of single threaded tagging",
+                    expected, linkTestText(new FstLinkingEngine("single-thread", 
+                        mode, indexConfig, tpc, elc, null, singleThread, 50)));
+                assertEquals(mode + " linking results of multi threaded tagging",
+                    expected, linkTestText(new FstLinkingEngine("multi-thread", 
+                        mode, indexConfig, tpc, elc, null, multiThread, 50)));
+            }
+        } finally {
+            singleThread.shutdown();
+            multiThread.shutdown();
+        }
+    }
+
+    @Test
+    public void testMultipleIndexes() throws Exception {
+        //store the Entities one after the other so that the Lucene document
+        //ids of 'Germany' and 'Germany_Country' are the same in both indexes
+        storeEntity(ENTITY_NS + "Germany", "Germany");
+        storeEntity(ENTITY_NS + "Angela_Merkel", "Angela Merkel");
+        vocabYard.store(createEntity(ENTITY_NS + "Germany_Country", "Germany"));
+        vocabYard.store(createEntity(ENTITY_NS + "Chancellor_Merkel", "Chancellor Merkel"));
+        vocabYard.store(createEntity(ENTITY_NS + "Merkel", "Merkel"));
+        createIndexConfig(false, false);
+        vocabIndexConfig = createIndexConfig(vocabCore, false, false);
+        assertNotNull(buildCorpus(indexConfig.getCorpus("en")));
+        assertNotNull(buildCorpus(vocabIndexConfig, vocabIndexConfig.getCorpus("en")));
+        List<IndexConfiguration> indexConfigs = Arrays.asList(indexConfig, vocabIndexConfig);
+        String text = "Chancellor Merkel said that Angela Merkel lives in Germany.";
+        Map<String,List<String>> expected = new TreeMap<String,List<String>>();
+        //'Merkel' of the second index is reduced by the longer Tags of both
+        //indexes
+        expected.put("[0, 17]", Arrays.asList(ENTITY_NS + "Chancellor_Merkel"));
+        expected.put("[28, 41]", Arrays.asList(ENTITY_NS + "Angela_Merkel"));
+        //Matches with the same Lucene document id in different indexes
+        expected.put("[51, 58]", Arrays.asList(ENTITY_NS + "Germany", 
+            ENTITY_NS + "Germany_Country"));
+        ExecutorService multiThread = Executors.newFixedThreadPool(4);
+        try {
+            Map<String,List<String>> linked = link(new FstLinkingEngine("multi-index", 
+                LinkingModeEnum.PLAIN, indexConfigs, new TextProcessingConfig(), 
+                new EntityLinkerConfig(), null, null, 0), text);
+            log.info("linked: {}", linked);
+            assertEquals(expected, linked);
+            assertEquals(expected, link(new FstLinkingEngine("multi-index-parallel", 
+                LinkingModeEnum.PLAIN, indexConfigs, new TextProcessingConfig(), 
+                new EntityLinkerConfig(), null, multiThread, 0), text));
+        } finally {
+            multiThread.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,229 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.engines.lucenefstlinking.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.TieredMergePolicy;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.Version;
+import org.apache.solr.util.RefCounted;
+import org.apache.stanbol.enhancer.engines.lucenefstlinking.IndexSegments;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link EncodedEntityCache} and the
+ * {@link EncodedEntityCacheManager}
+ */
+public class EncodedEntityCacheTest {
+
+    private static final String ID_FIELD = "uri";
+    private static final String LABEL_FIELD = "@en/rdfs:label/";
+
+    @Test
+    public void testEncodingRoundTrip() throws IOException {
+        Document doc = new Document();
+        doc.add(new StringField(ID_FIELD, "http://www.example.org/entity/Paris", Store.YES));
+        doc.add(new StoredField(LABEL_FIELD, "Paris"));
+        doc.add(new StoredField(LABEL_FIELD, "Ville Lumière 巴黎"));
+        doc.add(new StoredField("int", 42));
+        doc.add(new StoredField("long", Long.MAX_VALUE));
+        doc.add(new StoredField("float", 1.5f));
+        doc.add(new StoredField("double", Math.PI));
+        doc.add(new StoredField("binary", new byte[]{0,1,2,(byte)255}));
+        //labels might exceed the 64k limit of DataOutput#writeUTF
+        StringBuilder longLabel = new StringBuilder();
+        while(longLabel.length() < 70000){
+            longLabel.append("long label äöü ");
+        }
+        doc.add(new StoredField(LABEL_FIELD, longLabel.toString()));
+
+        EncodedEntityCache cache = new EncodedEntityCache("v1", 1024*1024);
+        cache.cache(1, doc);
+        assertEquals(1, cache.size());
+        assertEquals(EncodedEntityCache.encode(doc).length, cache.getBytes());
+        Document decoded = cache.get(1);
+        assertNotNull(decoded);
+        assertNotSame(doc, decoded); //the cache returns decoded copies
+        assertNotSame(decoded, cache.get(1));
+        assertEquals(2, cache.getHits());
+        List<IndexableField> expected = doc.getFields();
+        List<IndexableField> actual = decoded.getFields();
+        assertEquals(expected.size(), actual.size());
+        for(int i = 0; i < expected.size(); i++){
+            IndexableField e = expected.get(i);
+            IndexableField a = actual.get(i);
+            assertEquals(e.name(), a.name());
+            assertEquals(e.numericValue(), a.numericValue());
+            assertEquals(e.stringValue(), a.stringValue());
+            BytesRef eb = e.binaryValue();
+            BytesRef ab = a.binaryValue();
+            if(eb == null){
+                assertNull(ab);
+            } else {
+                assertEquals(eb, ab);
+            }
+        }
+        assertArrayEquals(doc.getValues(LABEL_FIELD), decoded.getValues(LABEL_FIELD));
+        assertNull(cache.get(2));
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testByteBoundEviction() throws IOException {
+        int docBytes = EncodedEntityCache.encode(createDocument(0)).length;
+        //all test documents have the same encoded size
+        assertEquals(docBytes, EncodedEntityCache.encode(createDocument(9)).length);
+        EncodedEntityCache cache = new EncodedEntityCache("v1", 3 * docBytes);
+        cache.cache(0, createDocument(0));
+        cache.cache(1, createDocument(1));
+        cache.cache(2, createDocument(2));
+        assertEquals(3, cache.size());
+        assertEquals(3 * docBytes, cache.getBytes());
+        assertEquals(0, cache.getEvictions());
+        //access 0 so that 1 is the least recently used document
+        assertNotNull(cache.get(0));
+        cache.cache(3, createDocument(3));
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNull(cache.get(1));
+        assertNotNull(cache.get(0));
+        assertNotNull(cache.get(2));
+        assertNotNull(cache.get(3));
+        //replacing a document must not change the number of bytes
+        cache.cache(3, createDocument(3));
+        assertEquals(3, cache.size());
+        assertEquals(3 * docBytes, cache.getBytes());
+        //a document larger as the bound evicts all documents
+        Document large = createDocument(4);
+        large.add(new StoredField(LABEL_FIELD, new String(new char[3 * docBytes]).replace('\0', 'x')));
+        cache.cache(4, large);
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getBytes());
+    }
+
+    @Test
+    public void testTransferAcrossIndexVersions() throws IOException {
+        Directory dir = new RAMDirectory();
+        IndexWriterConfig iwc = new IndexWriterConfig(Version.LUCENE_44, new KeywordAnalyzer());
+        iwc.setMergePolicy(NoMergePolicy.NO_COMPOUND_FILES); //keep segments
+        IndexWriter writer = new IndexWriter(dir, iwc);
+        for(int i = 0; i < 3; i++){
+            writer.addDocument(createDocument(i));
+        }
+        writer.commit();
+        IndexSegments v1 = createSegments(dir);
+
+        EncodedEntityCacheManager manager = new EncodedEntityCacheManager(1024*1024);
+        RefCounted<EntityCache> ref1 = manager.getCache(v1);
+        EncodedEntityCache cache1 = (EncodedEntityCache)ref1.get();
+        for(int i = 0; i < 3; i++){
+            cache1.cache(i, createDocument(i));
+        }
+        //the same version returns the same cache
+        RefCounted<EntityCache> ref = manager.getCache(createSegments(dir));
+        assertSame(cache1, ref.get());
+        ref.decref();
+
+        //adding documents adds a new segment. Documents of the existing
+        //segment need to be transferred
+        writer.addDocument(createDocument(3));
+        writer.addDocument(createDocument(4));
+        writer.commit();
+        IndexSegments v2 = createSegments(dir);
+        assertEquals(3, v1.getCommonDocs(v2));
+        RefCounted<EntityCache> ref2 = manager.getCache(v2);
+        EncodedEntityCache cache2 = (EncodedEntityCache)ref2.get();
+        assertNotSame(cache1, cache2);
+        assertEquals(v2, cache2.getVersion());
+        assertEquals(3, cache2.size());
+        assertEquals(cache1.getBytes(), cache2.getBytes());
+        for(int i = 0; i < 3; i++){
+            Document doc = cache2.get(i);
+            assertNotNull(doc);
+            assertEquals(createDocument(i).get(ID_FIELD), doc.get(ID_FIELD));
+        }
+        //the old cache is still usable until released
+        assertEquals(3, cache1.size());
+        ref1.decref();
+        assertEquals(0, cache1.size()); //closed after the last reference is released
+        cache2.cache(3, createDocument(3));
+        writer.close();
+
+        //merging segments changes the Lucene document ids. No documents
+        //can be transferred
+        iwc = new IndexWriterConfig(Version.LUCENE_44, new KeywordAnalyzer());
+        iwc.setMergePolicy(new TieredMergePolicy());
+        writer = new IndexWriter(dir, iwc);
+        writer.forceMerge(1);
+        writer.commit();
+        writer.close();
+        IndexSegments v3 = createSegments(dir);
+        assertEquals(0, v2.getCommonDocs(v3));
+        RefCounted<EntityCache> ref3 = manager.getCache(v3);
+        assertEquals(0, ref3.get().size());
+        ref2.decref();
+
+        //other version objects do not support transfer
+        EncodedEntityCache cache3 = (EncodedEntityCache)ref3.get();
+        cache3.cache(0, createDocument(0));
+        RefCounted<EntityCache> ref4 = manager.getCache(Long.valueOf(4));
+        assertEquals(0, ref4.get().size());
+        ref3.decref();
+        ref4.decref();
+        manager.close();
+        dir.close();
+    }
+
+    private static IndexSegments createSegments(Directory dir) throws IOException {
+        DirectoryReader reader = DirectoryReader.open(dir);
+        try {
+            IndexSegments segments = IndexSegments.create(reader);
+            assertNotNull(segments);
+            return segments;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static Document createDocument(int i){
+        Document doc = new Document();
+        doc.add(new StringField(ID_FIELD, "http://www.example.org/entity/Entity_" + i, Store.YES));
+        doc.add(new StoredField(LABEL_FIELD, "Entity " + i));
+        return doc;
+    }
+}
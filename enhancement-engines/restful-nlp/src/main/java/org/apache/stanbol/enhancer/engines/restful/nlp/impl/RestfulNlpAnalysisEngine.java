@@ -91,6 +91,8 @@ import org.apache.http.params.CoreProtocolPNames;
 import org.apache.http.protocol.ExecutionContext;
 import org.apache.http.protocol.HttpContext;
 import org.apache.http.util.EntityUtils;
+import org.apache.stanbol.enhancer.nlp.json.AnalyzedTextBinaryParser;
+import org.apache.stanbol.enhancer.nlp.json.AnalyzedTextBinarySerializer;
 import org.apache.stanbol.enhancer.nlp.json.AnalyzedTextParser;
 import org.apache.stanbol.enhancer.nlp.model.AnalysedText;
 import org.apache.stanbol.enhancer.nlp.model.AnalysedTextFactory;
@@ -141,6 +143,12 @@ import org.slf4j.LoggerFactory;
 public class RestfulNlpAnalysisEngine extends AbstractEnhancementEngine<IOException,RuntimeException> implements ServiceProperties {
 
     private static final Charset UTF8 = Charset.forName("UTF-8");
+    /**
+     * The Accept header used for analysis requests. Services that support
+     * the binary AnalyzedText format will use it, others will return JSON
+     */
+    private static final String ACCEPT_ANALYSED_TEXT = AnalyzedTextBinarySerializer.MEDIA_TYPE
+            + ", " + ContentType.APPLICATION_JSON.getMimeType() + ";q=0.9";
     
     /**
      * The URI for the remote analyses service
@@ -231,6 +239,13 @@ public class RestfulNlpAnalysisEngine extends AbstractEnhancementEngine<IOExcept
      */
     @Reference
     private AnalyzedTextParser analyzedTextParser;
+    /**
+     * Used to parse {@link AnalysedText} instances from responses of the
+     * RESTful analysis service that support the binary format
+     * ({@link AnalyzedTextBinarySerializer#MEDIA_TYPE}).
+     */
+    @Reference
+    private AnalyzedTextBinaryParser analyzedTextBinaryParser;
 
     private boolean writeTextAnnotations;
 
@@ -302,6 +317,8 @@ public class RestfulNlpAnalysisEngine extends AbstractEnhancementEngine<IOExcept
         final String language = getLanguage(this, ci, true);
         final HttpPost request = new HttpPost(analysisServiceUrl);
         request.addHeader(HttpHeaders.CONTENT_LANGUAGE, language);
+        //prefer the binary format but also accept JSON
+        request.addHeader(HttpHeaders.ACCEPT, ACCEPT_ANALYSED_TEXT);
         request.setEntity(new InputStreamEntity(
             blob.getStream(), blob.getContentLength(),
             ContentType.create(blob.getMimeType(), 
@@ -474,6 +491,11 @@ public class RestfulNlpAnalysisEngine extends AbstractEnhancementEngine<IOExcept
             InputStream in = null;
             try {
                 in = entity.getContent();
+                ContentType contentType = ContentType.get(entity);
+                if(contentType != null && AnalyzedTextBinarySerializer.MEDIA_TYPE.equalsIgnoreCase(
+                        contentType.getMimeType())){
+                    return analyzedTextBinaryParser.parse(in, at);
+                }
                 Charset charset = entity.getContentEncoding() != null ? 
                         Charset.forName(entity.getContentEncoding().getValue()) : UTF8;
                 return analyzedTextParser.parse(in, charset, at);
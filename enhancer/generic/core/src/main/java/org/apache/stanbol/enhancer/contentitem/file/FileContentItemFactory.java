@@ -18,6 +18,7 @@ package org.apache.stanbol.enhancer.contentitem.file;
 
 import static org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper.DEFAULT_CONTENT_ITEM_PREFIX;
 import static org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper.SHA1;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper.UTF8;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -39,12 +40,13 @@ import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Properties;
 import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Service;
-import org.apache.stanbol.commons.indexedgraph.IndexedGraph;
+import org.apache.stanbol.commons.indexedgraph.StripedIndexedGraph;
 import org.apache.stanbol.enhancer.servicesapi.Blob;
 import org.apache.stanbol.enhancer.servicesapi.ContentItem;
 import org.apache.stanbol.enhancer.servicesapi.ContentItemFactory;
 import org.apache.stanbol.enhancer.servicesapi.ContentSink;
 import org.apache.stanbol.enhancer.servicesapi.ContentSource;
+import org.apache.stanbol.enhancer.servicesapi.TextBlob;
 import org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper;
 import org.apache.stanbol.enhancer.servicesapi.impl.AbstractContentItemFactory;
 import org.apache.stanbol.enhancer.servicesapi.impl.ContentItemImpl;
@@ -57,7 +59,13 @@ import org.slf4j.LoggerFactory;
 /**
  * ContentItemFactory that stores the parsed content in Files. This Factory
  * should be preferred to the InMemoryContentItemFactory in cases where content
- * is parsed to the Enhancer that can not be kept in Memory.
+ * is parsed to the Enhancer that can not be kept in Memory.<p>
+ * If {@link #PARAM_MEMORY_MAPPED} is enabled the temp files are read by
+ * using memory mapped {@link java.nio.MappedByteBuffer}s and the decoded
+ * text of Blobs is cached. This avoids multiple engines of a chain to copy
+ * and decode the content over and over again. Both {@link FileBlob} and
+ * {@link WriteableFileBlob} implement {@link TextBlob} so that
+ * {@link ContentItemHelper#getText(Blob)} can use the cached text.
  * @author Rupert Westenthaler
  *
  */
@@ -65,6 +73,7 @@ import org.slf4j.LoggerFactory;
 @Service(value=ContentItemFactory.class)
 @Properties(value={
     @Property(name=FileContentItemFactory.PARAM_BASE_DIR,value=""),
+    @Property(name=FileContentItemFactory.PARAM_MEMORY_MAPPED,boolValue=false),
     @Property(name=Constants.SERVICE_RANKING, intValue=50)
 })
 public class FileContentItemFactory extends AbstractContentItemFactory implements ContentItemFactory {
@@ -75,6 +84,11 @@ public class FileContentItemFactory extends AbstractContentItemFactory implement
     public static final String DEFAULT_BINARY_MIMETYPE = "application/octet-stream";
 
     public static final String PARAM_BASE_DIR = "stanbol.enhancer.contentitem.file.baseDir";
+    /**
+     * If enabled the content of Blobs is read by using memory mapped files
+     * and the decoded text is cached (default: <code>false</code>)
+     */
+    public static final String PARAM_MEMORY_MAPPED = "stanbol.enhancer.contentitem.file.memoryMapped";
     
     private static FileContentItemFactory instance;
     
@@ -82,6 +96,10 @@ public class FileContentItemFactory extends AbstractContentItemFactory implement
      * Base directory used to create temp files
      */
     private File baseDir;
+    /**
+     * If temp files are read by using memory mapped files
+     */
+    private boolean memoryMapped;
     
     /**
      * Getter for the singleton instance of this factory. Within an OSGI 
@@ -102,7 +120,20 @@ public class FileContentItemFactory extends AbstractContentItemFactory implement
         super(false); //dereference all data on construction
     }
     public FileContentItemFactory(File baseDir) throws IOException {
+        this(baseDir, false);
+    }
+    /**
+     * Creates a FileContentItemFactory
+     * @param baseDir the directory used for temp files or <code>null</code>
+     * to use the system default temporary file directory
+     * @param memoryMapped if temp files are read by using memory mapped
+     * files and the decoded text of Blobs is cached
+     * @throws IOException if the parsed directory does not exist and can 
+     * not be created
+     */
+    public FileContentItemFactory(File baseDir, boolean memoryMapped) throws IOException {
         this();
+        this.memoryMapped = memoryMapped;
         if(baseDir != null){
             this.baseDir = baseDir;
             initBaseDir();
@@ -111,6 +142,13 @@ public class FileContentItemFactory extends AbstractContentItemFactory implement
     
     @Activate
     protected void activate(ComponentContext ctx) throws ConfigurationException {
+        Object mapped = ctx.getProperties().get(PARAM_MEMORY_MAPPED);
+        if(mapped instanceof Boolean){
+            memoryMapped = ((Boolean)mapped).booleanValue();
+        } else {
+            memoryMapped = mapped != null && Boolean.parseBoolean(mapped.toString());
+        }
+        log.debug("{} memory mapped: {}", getClass().getSimpleName(), memoryMapped);
         Object value = ctx.getProperties().get(PARAM_BASE_DIR);
         if(value != null && !value.toString().isEmpty()){
             String home = ctx.getBundleContext().getProperty("sling.home");
@@ -156,6 +194,14 @@ public class FileContentItemFactory extends AbstractContentItemFactory implement
     @Deactivate
     protected void deactivate(ComponentContext ctx){
         baseDir = null;
+        memoryMapped = false;
+    }
+    /**
+     * If temp files are read by using memory mapped files
+     * @return the memory mapped state
+     */
+    public boolean isMemoryMapped() {
+        return memoryMapped;
     }
         
     @Override
@@ -219,15 +265,17 @@ public class FileContentItemFactory extends AbstractContentItemFactory implement
         
     }
     
-    public class WriteableFileBlob implements Blob {
+    public class WriteableFileBlob implements TextBlob {
         
         private final File file;
+        private final MappedFileContent mapped;
         private final OutputStream out;
         private String mimeType;
         private Map<String,String> parameters;
 
         protected WriteableFileBlob(String mediaType){
             this.file = createTempFile("blob");
+            this.mapped = memoryMapped ? new MappedFileContent(file) : null;
             try {
                 this.out = new FileOutputStream(file);
             } catch (FileNotFoundException e) {
@@ -259,6 +307,9 @@ public class FileContentItemFactory extends AbstractContentItemFactory implement
 
         @Override
         public InputStream getStream() {
+            if(mapped != null){
+                return mapped.getStream();
+            }
             try {
                 return new FileInputStream(file);
             } catch (FileNotFoundException e) {
@@ -266,6 +317,11 @@ public class FileContentItemFactory extends AbstractContentItemFactory implement
                         + file.getAbsolutePath()+"' no longer present!",e);
             }
         }
+        
+        @Override
+        public String getText() throws IOException {
+            return readText(this, mapped);
+        }
 
         @Override
         public Map<String,String> getParameter() {
@@ -292,9 +348,10 @@ public class FileContentItemFactory extends AbstractContentItemFactory implement
      * @author Rupert Westenthaler
      *
      */
-    public class FileBlob implements Blob {
+    public class FileBlob implements TextBlob {
 
         private final File file;
+        private final MappedFileContent mapped;
         /**
          * This implementation generates the sha1 while copying the data
          * in the constructor to the file to avoid reading the data twice if a
@@ -330,6 +387,7 @@ public class FileContentItemFactory extends AbstractContentItemFactory implement
                 this.mimeType = parameters.remove(null);
             }
             this.parameters = Collections.unmodifiableMap(parameters);
+            this.mapped = memoryMapped ? new MappedFileContent(file) : null;
         }
         /**
          * The tmp file representing this Blob
@@ -355,6 +413,9 @@ public class FileContentItemFactory extends AbstractContentItemFactory implement
 
         @Override
         public InputStream getStream() {
+            if(mapped != null){
+                return mapped.getStream();
+            }
             try {
                 return new FileInputStream(file);
             } catch (FileNotFoundException e) {
@@ -362,6 +423,11 @@ public class FileContentItemFactory extends AbstractContentItemFactory implement
                         + file.getAbsolutePath()+"' no longer present!",e);
             }
         }
+        
+        @Override
+        public String getText() throws IOException {
+            return readText(this, mapped);
+        }
 
         @Override
         public Map<String,String> getParameter() {
@@ -378,6 +444,29 @@ public class FileContentItemFactory extends AbstractContentItemFactory implement
             file.delete();
         }
     }
+    /**
+     * Reads the text of a {@link FileBlob} or {@link WriteableFileBlob}
+     * @param blob the blob
+     * @param mapped the memory mapped content or <code>null</code> if not
+     * memory mapped
+     * @return the text
+     * @throws IOException on any error while reading the text
+     */
+    private static String readText(Blob blob, MappedFileContent mapped) throws IOException {
+        String charset = blob.getParameter().get("charset");
+        if(charset == null){
+            charset = UTF8;
+        }
+        if(mapped != null){
+            return mapped.getText(charset);
+        }
+        InputStream in = blob.getStream();
+        try {
+            return IOUtils.toString(in, charset);
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
     /**
      * Utility that returns the ID for a FileContentItem based on
      * {@link FileBlob#getSha1()}.<p>
@@ -410,11 +499,11 @@ public class FileContentItemFactory extends AbstractContentItemFactory implement
         
         public FileContentItem(IRI id, Blob blob,Graph metadata) {
             super(id == null ? getDefaultUri(blob, DEFAULT_CONTENT_ITEM_PREFIX) : id, blob,
-                    metadata == null ? new IndexedGraph() : metadata);
+                    metadata == null ? new StripedIndexedGraph() : metadata);
         }
         public FileContentItem(String prefix, Blob blob,Graph metadata) {
             super(getDefaultUri(blob, prefix), blob,
-                metadata == null ? new IndexedGraph() : metadata);
+                metadata == null ? new StripedIndexedGraph() : metadata);
         }
 
         
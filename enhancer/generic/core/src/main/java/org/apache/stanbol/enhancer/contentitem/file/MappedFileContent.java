@@ -0,0 +1,212 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.contentitem.file;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.InvalidMarkException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Provides read access to the content of a temp file via a read-only
+ * {@link MappedByteBuffer}. All {@link InputStream}s returned by
+ * {@link #getStream()} share the same mapped region, so reading the content
+ * multiple times does not copy the data to the heap. In addition the text
+ * decoded by {@link #getText(String)} is cached (softly referenced) so that
+ * multiple engines of a chain can share the same decoded text.<p>
+ * If the length of the file changes (e.g. because more data are written to
+ * a {@link FileContentItemFactory.WriteableFileBlob}) the file is re-mapped
+ * and the cached text is discarded. Files with zero length and files
+ * that are bigger as {@link Integer#MAX_VALUE} are not mapped but read
+ * by using a {@link FileInputStream}.
+ */
+final class MappedFileContent {
+
+    private final File file;
+    
+    private Mapping mapping;
+    
+    MappedFileContent(File file) {
+        if(file == null){
+            throw new IllegalArgumentException("The parsed File MUST NOT be NULL!");
+        }
+        this.file = file;
+    }
+    /**
+     * Getter for a stream over the content of the file
+     * @return the stream
+     * @throws IllegalStateException if the file is no longer present
+     */
+    InputStream getStream() {
+        try {
+            Mapping mapping = getMapping();
+            if(mapping == null){
+                return new FileInputStream(file);
+            } else {
+                return new ByteBufferInputStream(mapping.buffer.duplicate());
+            }
+        } catch (FileNotFoundException e) {
+            throw new IllegalStateException("temporary file '"
+                + file.getAbsolutePath()+"' no longer present!",e);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to map temporary file '"
+                + file.getAbsolutePath()+"'!",e);
+        }
+    }
+    /**
+     * Getter for the text of the file
+     * @param charset the charset used to decode the text
+     * @return the text
+     * @throws IOException on any error while reading or mapping the file
+     */
+    String getText(String charset) throws IOException {
+        Mapping mapping = getMapping();
+        if(mapping == null){ //not mapped
+            InputStream in = getStream();
+            try {
+                return IOUtils.toString(in, charset);
+            } finally {
+                IOUtils.closeQuietly(in);
+            }
+        }
+        synchronized (mapping) {
+            String text = mapping.text == null ? null : mapping.text.get();
+            if(text == null || !charset.equals(mapping.charset)){
+                //behave like InputStreamReader and replace malformed input
+                text = Charset.forName(charset).newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                        .decode(mapping.buffer.duplicate()).toString();
+                mapping.text = new SoftReference<String>(text);
+                mapping.charset = charset;
+            }
+            return text;
+        }
+    }
+    
+    /**
+     * Getter for the current mapping of the file. Re-maps the file if its
+     * length has changed.
+     * @return the mapping or <code>null</code> if the file can not be mapped
+     * @throws IOException on any error while mapping the file
+     */
+    private synchronized Mapping getMapping() throws IOException {
+        long length = file.length();
+        if(length <= 0 || length > Integer.MAX_VALUE){
+            mapping = null;
+        } else if(mapping == null || mapping.length != length){
+            RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                FileChannel channel = raf.getChannel();
+                //the mapping stays valid after the channel is closed
+                mapping = new Mapping(channel.map(MapMode.READ_ONLY, 0, length), length);
+            } finally {
+                raf.close();
+            }
+        }
+        return mapping;
+    }
+    
+    private static final class Mapping {
+        
+        final MappedByteBuffer buffer;
+        final long length;
+        SoftReference<String> text;
+        String charset;
+        
+        Mapping(MappedByteBuffer buffer, long length){
+            this.buffer = buffer;
+            this.length = length;
+        }
+    }
+    /**
+     * {@link InputStream} over a {@link ByteBuffer}. The parsed buffer MUST
+     * NOT be shared with other streams (use {@link ByteBuffer#duplicate()}).
+     */
+    static class ByteBufferInputStream extends InputStream {
+        
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if(len == 0){
+                return 0;
+            }
+            if(!buffer.hasRemaining()){
+                return -1;
+            }
+            len = Math.min(len, buffer.remaining());
+            buffer.get(b, off, len);
+            return len;
+        }
+        
+        @Override
+        public long skip(long n) throws IOException {
+            if(n <= 0){
+                return 0;
+            }
+            int skip = (int)Math.min(n, buffer.remaining());
+            buffer.position(buffer.position()+skip);
+            return skip;
+        }
+        
+        @Override
+        public int available() throws IOException {
+            return buffer.remaining();
+        }
+        
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+        
+        @Override
+        public synchronized void mark(int readlimit) {
+            buffer.mark();
+        }
+        
+        @Override
+        public synchronized void reset() throws IOException {
+            try {
+                buffer.reset();
+            } catch (InvalidMarkException e) {
+                throw new IOException("Stream not marked");
+            }
+        }
+    }
+}
@@ -19,8 +19,7 @@ package org.apache.stanbol.enhancer.contentitem.inmemory;
 
 import org.apache.clerezza.commons.rdf.Graph;
 import org.apache.clerezza.commons.rdf.IRI;
-import org.apache.clerezza.commons.rdf.impl.utils.simple.SimpleGraph;
-import org.apache.stanbol.commons.indexedgraph.IndexedGraph;
+import org.apache.stanbol.commons.indexedgraph.StripedIndexedGraph;
 import org.apache.stanbol.enhancer.servicesapi.Blob;
 import org.apache.stanbol.enhancer.servicesapi.ContentItemFactory;
 import org.apache.stanbol.enhancer.servicesapi.ContentSource;
@@ -33,7 +32,8 @@ import org.apache.stanbol.enhancer.servicesapi.impl.StringSource;
 /**
  * ContentItem implementation that holds a complete copy of the data in
  * memory. Internally it uses {@link InMemoryBlob} to store the content and
- * an {@link SimpleGraph} for the metadata.
+ * a {@link StripedIndexedGraph} for the metadata. This allows engines executed
+ * in parallel to add triples to the metadata without blocking each other.
  * <p>
  * This implementation can be used independently of any store implementation and
  * is suitable for stateless processing.
@@ -119,7 +119,7 @@ public class InMemoryContentItem extends ContentItemImpl {
     }
     protected InMemoryContentItem(IRI uri, Blob blob, Graph metadata) {
         super(uri == null ? ContentItemHelper.makeDefaultUrn(blob): uri,blob,
-                metadata == null ? new IndexedGraph() : metadata);
+                metadata == null ? new StripedIndexedGraph() : metadata);
     }
 
     /**
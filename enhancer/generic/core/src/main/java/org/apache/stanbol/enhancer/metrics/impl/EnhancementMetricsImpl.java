@@ -0,0 +1,189 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.metrics.impl;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.felix.scr.annotations.Activate;
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.Service;
+import org.apache.stanbol.enhancer.servicesapi.metrics.EnhancementMetrics;
+import org.apache.stanbol.enhancer.servicesapi.metrics.ExecutionStatistics;
+import org.osgi.service.component.ComponentContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Default implementation of the {@link EnhancementMetrics} service. If enabled
+ * the metrics of every engine and chain are also registered as MBean with the
+ * platform {@link MBeanServer} using the names
+ * <code>org.apache.stanbol.enhancer:type=EngineMetrics,name={engine}</code>
+ * and <code>org.apache.stanbol.enhancer:type=ChainMetrics,name={chain}</code>.
+ */
+@Component(immediate=true,metatype=true)
+@Service(value=EnhancementMetrics.class)
+@Property(name=EnhancementMetricsImpl.JMX_ENABLED,boolValue=EnhancementMetricsImpl.DEFAULT_JMX_ENABLED)
+public class EnhancementMetricsImpl implements EnhancementMetrics {
+
+    private final Logger log = LoggerFactory.getLogger(EnhancementMetricsImpl.class);
+    
+    /**
+     * If the metrics are registered as MBeans with the platform MBeanServer
+     */
+    public static final String JMX_ENABLED = "stanbol.enhancer.metrics.jmx";
+    
+    public static final boolean DEFAULT_JMX_ENABLED = true;
+    
+    public static final String JMX_DOMAIN = "org.apache.stanbol.enhancer";
+    
+    private static final String ENGINE_TYPE = "EngineMetrics";
+    private static final String CHAIN_TYPE = "ChainMetrics";
+    
+    private final ConcurrentMap<String,ExecutionMetrics> engineMetrics = 
+            new ConcurrentHashMap<String,ExecutionMetrics>();
+    private final ConcurrentMap<String,ExecutionMetrics> chainMetrics = 
+            new ConcurrentHashMap<String,ExecutionMetrics>();
+    /**
+     * The MBeanServer or <code>null</code> if JMX is disabled
+     */
+    private volatile MBeanServer mBeanServer;
+    
+    @Activate
+    protected void activate(ComponentContext ctx){
+        log.info("activate {}",getClass().getName());
+        Object value = ctx.getProperties().get(JMX_ENABLED);
+        boolean jmx = value instanceof Boolean ? (Boolean)value : 
+            value == null ? DEFAULT_JMX_ENABLED : Boolean.parseBoolean(value.toString());
+        if(jmx){
+            mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        }
+    }
+    
+    @Deactivate
+    protected void deactivate(ComponentContext ctx){
+        log.info("deactivate {}",getClass().getName());
+        MBeanServer server = mBeanServer;
+        mBeanServer = null;
+        if(server != null){
+            unregister(server, ENGINE_TYPE, engineMetrics);
+            unregister(server, CHAIN_TYPE, chainMetrics);
+        }
+        engineMetrics.clear();
+        chainMetrics.clear();
+    }
+    
+    @Override
+    public void recordEngineExecution(String engineName, long queueTime, long executionTime, boolean failed) {
+        getMetrics(ENGINE_TYPE, engineMetrics, engineName).record(queueTime, executionTime, failed);
+    }
+
+    @Override
+    public void recordEngineRejected(String engineName) {
+        getMetrics(ENGINE_TYPE, engineMetrics, engineName).recordRejected();
+    }
+
+    @Override
+    public void recordChainExecution(String chainName, long queueTime, long executionTime, boolean failed) {
+        getMetrics(CHAIN_TYPE, chainMetrics, chainName).record(queueTime, executionTime, failed);
+    }
+
+    @Override
+    public void recordChainRejected(String chainName) {
+        getMetrics(CHAIN_TYPE, chainMetrics, chainName).recordRejected();
+    }
+
+    @Override
+    public Map<String,ExecutionStatistics> getEngineStatistics() {
+        return getStatistics(engineMetrics);
+    }
+
+    @Override
+    public Map<String,ExecutionStatistics> getChainStatistics() {
+        return getStatistics(chainMetrics);
+    }
+
+    @Override
+    public void reset() {
+        for(ExecutionMetrics metrics : engineMetrics.values()){
+            metrics.reset();
+        }
+        for(ExecutionMetrics metrics : chainMetrics.values()){
+            metrics.reset();
+        }
+    }
+    
+    private Map<String,ExecutionStatistics> getStatistics(Map<String,ExecutionMetrics> metricsMap){
+        Map<String,ExecutionStatistics> statistics = new TreeMap<String,ExecutionStatistics>();
+        for(Entry<String,ExecutionMetrics> entry : metricsMap.entrySet()){
+            statistics.put(entry.getKey(), entry.getValue().getStatistics());
+        }
+        return Collections.unmodifiableMap(statistics);
+    }
+    
+    private ExecutionMetrics getMetrics(String type, ConcurrentMap<String,ExecutionMetrics> metricsMap, String name){
+        if(name == null){
+            throw new IllegalArgumentException("The parsed name MUST NOT be NULL!");
+        }
+        ExecutionMetrics metrics = metricsMap.get(name);
+        if(metrics == null){
+            metrics = new ExecutionMetrics(name);
+            ExecutionMetrics current = metricsMap.putIfAbsent(name, metrics);
+            if(current != null){
+                metrics = current;
+            } else {
+                MBeanServer server = mBeanServer;
+                if(server != null){
+                    try {
+                        server.registerMBean(metrics, getObjectName(type, name));
+                    } catch (JMException e) {
+                        log.warn("Unable to register MBean for " + type + " '" + name + "'!", e);
+                    }
+                }
+            }
+        }
+        return metrics;
+    }
+    
+    private void unregister(MBeanServer server, String type, Map<String,ExecutionMetrics> metricsMap){
+        for(String name : metricsMap.keySet()){
+            try {
+                ObjectName objectName = getObjectName(type, name);
+                if(server.isRegistered(objectName)){
+                    server.unregisterMBean(objectName);
+                }
+            } catch (JMException e) {
+                log.warn("Unable to unregister MBean for " + type + " '" + name + "'!", e);
+            }
+        }
+    }
+
+    private static ObjectName getObjectName(String type, String name) throws JMException {
+        return new ObjectName(JMX_DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+    }
+}
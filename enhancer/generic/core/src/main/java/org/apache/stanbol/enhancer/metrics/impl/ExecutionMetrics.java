@@ -0,0 +1,158 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.metrics.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.stanbol.enhancer.servicesapi.metrics.ExecutionStatistics;
+
+/**
+ * Records the metrics of a single engine or chain
+ */
+public class ExecutionMetrics implements ExecutionMetricsMBean {
+
+    private static final double NANOS_PER_MILLI = 1000000d;
+    
+    private final String name;
+    private volatile long since;
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram queueTime = new LatencyHistogram();
+    
+    public ExecutionMetrics(String name){
+        if(name == null){
+            throw new IllegalArgumentException("The parsed name MUST NOT be NULL!");
+        }
+        this.name = name;
+        this.since = System.currentTimeMillis();
+    }
+    /**
+     * Records an execution
+     * @param queueTime the time (ns) the execution was waiting
+     * @param executionTime the time (ns) of the execution
+     * @param failed if the execution failed
+     */
+    public void record(long queueTime, long executionTime, boolean failed){
+        latency.record(executionTime);
+        this.queueTime.record(queueTime);
+        if(failed){
+            errors.incrementAndGet();
+        }
+    }
+    /**
+     * Records a rejected execution
+     */
+    public void recordRejected(){
+        rejected.incrementAndGet();
+    }
+    /**
+     * Creates a snapshot of the current statistics
+     * @return the statistics
+     */
+    public ExecutionStatistics getStatistics(){
+        return new ExecutionStatistics(name, since, System.currentTimeMillis(),
+            latency.getCount(), errors.get(), rejected.get(), 
+            latency.getSummary(), queueTime.getSummary());
+    }
+    
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.get();
+    }
+
+    @Override
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    @Override
+    public double getErrorRate() {
+        long count = latency.getCount();
+        return count > 0 ? errors.get() / (double)count : 0d;
+    }
+
+    @Override
+    public double getThroughput() {
+        long duration = System.currentTimeMillis() - since;
+        return duration > 0 ? latency.getCount() * 1000d / duration : 0d;
+    }
+
+    @Override
+    public double getLatencyMean() {
+        return latency.getMean() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getLatencyMedian() {
+        return latency.getPercentile(50) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getLatency90thPercentile() {
+        return latency.getPercentile(90) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getLatency99thPercentile() {
+        return latency.getPercentile(99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getLatency999thPercentile() {
+        return latency.getPercentile(99.9) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getLatencyMax() {
+        return latency.getMax() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getQueueTimeMean() {
+        return queueTime.getMean() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getQueueTime99thPercentile() {
+        return queueTime.getPercentile(99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getQueueTimeMax() {
+        return queueTime.getMax() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        queueTime.reset();
+        errors.set(0);
+        rejected.set(0);
+        since = System.currentTimeMillis();
+    }
+}
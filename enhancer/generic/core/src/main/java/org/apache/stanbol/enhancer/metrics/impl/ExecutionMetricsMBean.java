@@ -0,0 +1,58 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.metrics.impl;
+
+/**
+ * JMX interface for the metrics of a single engine or chain. All times
+ * are in milliseconds.
+ */
+public interface ExecutionMetricsMBean {
+
+    String getName();
+    
+    long getCount();
+    
+    long getErrors();
+    
+    long getRejected();
+    
+    double getErrorRate();
+    /**
+     * @return executions per second since the last reset
+     */
+    double getThroughput();
+    
+    double getLatencyMean();
+    
+    double getLatencyMedian();
+    
+    double getLatency90thPercentile();
+    
+    double getLatency99thPercentile();
+    
+    double getLatency999thPercentile();
+    
+    double getLatencyMax();
+    
+    double getQueueTimeMean();
+    
+    double getQueueTime99thPercentile();
+    
+    double getQueueTimeMax();
+    
+    void reset();
+}
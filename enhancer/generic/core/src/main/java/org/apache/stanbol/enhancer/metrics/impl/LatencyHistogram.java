@@ -0,0 +1,170 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.metrics.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.stanbol.enhancer.servicesapi.metrics.ExecutionStatistics.Latency;
+
+/**
+ * Thread safe histogram for latency values using log-linear buckets (similar
+ * to HdrHistogram). Values <code>&lt; 128</code> are recorded exactly, larger
+ * values are recorded with 64 sub-buckets per power of two. This results in
+ * a maximum relative error of about 1.6% for reported percentiles while
+ * using a fixed amount of memory independent of the number of recorded 
+ * values.<p>
+ * Recording values is lock free. Snapshots taken while values are recorded
+ * might be slightly inconsistent.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /**
+     * Values smaller than this are recorded exactly
+     */
+    private static final int LINEAR_BUCKETS = SUB_BUCKETS << 1;
+    private static final int NUM_BUCKETS = LINEAR_BUCKETS + 
+            (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(NUM_BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong();
+    
+    /**
+     * Records a value. Negative values are recorded as <code>0</code>
+     * @param value the value
+     */
+    public void record(long value){
+        if(value < 0){
+            value = 0;
+        }
+        counts.incrementAndGet(getIndex(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        long current = max.get();
+        while(value > current && !max.compareAndSet(current, value)){
+            current = max.get();
+        }
+        current = min.get();
+        while(value < current && !min.compareAndSet(current, value)){
+            current = min.get();
+        }
+    }
+    /**
+     * Getter for the number of recorded values
+     * @return the number of recorded values
+     */
+    public long getCount(){
+        return count.get();
+    }
+    
+    public double getMean(){
+        long num = count.get();
+        return num > 0 ? sum.get() / (double)num : 0d;
+    }
+    
+    public long getMax(){
+        return max.get();
+    }
+    
+    public long getMin(){
+        long value = min.get();
+        return value == Long.MAX_VALUE ? 0 : value;
+    }
+    /**
+     * Getter for the value at the parsed percentile
+     * @param percentile the percentile <code>[0..100]</code>
+     * @return the (highest equivalent) value at the parsed percentile or
+     * <code>0</code> if no value was recorded.
+     */
+    public long getPercentile(double percentile){
+        if(percentile < 0 || percentile > 100){
+            throw new IllegalArgumentException("The parsed percentile MUST BE in the range [0..100]!");
+        }
+        long[] snapshot = new long[NUM_BUCKETS];
+        long total = 0;
+        for(int i = 0; i < NUM_BUCKETS; i++){
+            snapshot[i] = counts.get(i);
+            total = total + snapshot[i];
+        }
+        return getPercentile(snapshot, total, percentile);
+    }
+    
+    private long getPercentile(long[] snapshot, long total, double percentile){
+        if(total <= 0){
+            return 0;
+        }
+        long rank = Math.max(1, (long)Math.ceil(total * percentile / 100d));
+        long cumulative = 0;
+        for(int i = 0; i < snapshot.length; i++){
+            cumulative = cumulative + snapshot[i];
+            if(cumulative >= rank){
+                return Math.min(getHighestEquivalentValue(i), max.get());
+            }
+        }
+        return max.get();
+    }
+    /**
+     * Creates a {@link Latency} summary of this histogram
+     * @return the summary
+     */
+    public Latency getSummary(){
+        long[] snapshot = new long[NUM_BUCKETS];
+        long total = 0;
+        for(int i = 0; i < NUM_BUCKETS; i++){
+            snapshot[i] = counts.get(i);
+            total = total + snapshot[i];
+        }
+        return new Latency(total, getMin(), getMax(), getMean(), 
+            getPercentile(snapshot, total, 50), getPercentile(snapshot, total, 90), 
+            getPercentile(snapshot, total, 99), getPercentile(snapshot, total, 99.9));
+    }
+    /**
+     * Resets this histogram
+     */
+    public void reset(){
+        for(int i = 0; i < NUM_BUCKETS; i++){
+            counts.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        min.set(Long.MAX_VALUE);
+        max.set(0);
+    }
+    
+    static int getIndex(long value){
+        if(value < LINEAR_BUCKETS){
+            return (int)value;
+        }
+        int exp = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int)(value >>> exp) - SUB_BUCKETS;
+        return LINEAR_BUCKETS + (exp - 1) * SUB_BUCKETS + subBucket;
+    }
+    
+    static long getHighestEquivalentValue(int index){
+        if(index < LINEAR_BUCKETS){
+            return index;
+        }
+        int exp = (index - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+        long subBucket = (index - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << exp) - 1;
+    }
+}
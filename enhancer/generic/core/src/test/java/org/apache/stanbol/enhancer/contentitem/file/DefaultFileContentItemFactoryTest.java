@@ -16,8 +16,15 @@
 */
 package org.apache.stanbol.enhancer.contentitem.file;
 
+import java.io.IOException;
+
+import org.apache.stanbol.commons.indexedgraph.StripedIndexedGraph;
+import org.apache.stanbol.enhancer.servicesapi.ContentItem;
 import org.apache.stanbol.enhancer.servicesapi.ContentItemFactory;
+import org.apache.stanbol.enhancer.servicesapi.impl.StringSource;
 import org.apache.stanbol.enhancer.test.ContentItemFactoryTest;
+import org.junit.Assert;
+import org.junit.Test;
 
 public class DefaultFileContentItemFactoryTest extends ContentItemFactoryTest {
 
@@ -25,5 +32,14 @@ public class DefaultFileContentItemFactoryTest extends ContentItemFactoryTest {
     protected ContentItemFactory createContentItemFactory() {
         return FileContentItemFactory.getInstance();
     }
+    /**
+     * Engines executed in parallel write to the metadata. So a lock striped
+     * graph is used if no metadata are parsed.
+     */
+    @Test
+    public void testStripedMetadata() throws IOException {
+        ContentItem ci = createContentItemFactory().createContentItem(new StringSource("test"));
+        Assert.assertTrue(ci.getMetadata() instanceof StripedIndexedGraph);
+    }
 
 }
@@ -0,0 +1,80 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.contentitem.file;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.stanbol.enhancer.servicesapi.Blob;
+import org.apache.stanbol.enhancer.servicesapi.ContentSink;
+import org.apache.stanbol.enhancer.servicesapi.ContentSource;
+import org.apache.stanbol.enhancer.servicesapi.TextBlob;
+import org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper;
+import org.apache.stanbol.enhancer.servicesapi.impl.StringSource;
+import org.apache.stanbol.enhancer.test.BlobTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MappedFileBlobTest extends BlobTest {
+
+    private static FileContentItemFactory factory;
+
+    private static FileContentItemFactory getFactory() throws IOException {
+        if(factory == null){
+            factory = new FileContentItemFactory(null, true);
+        }
+        return factory;
+    }
+    
+    @Override
+    protected Blob createBlob(ContentSource cs) throws IOException {
+        return getFactory().createBlob(cs);
+    }
+    
+    /**
+     * Tests that the decoded text is shared
+     */
+    @Test
+    public void testSharedText() throws IOException {
+        String text = "Dies ist ein Test für memory mapped Blobs";
+        Blob blob = createBlob(new StringSource(text));
+        Assert.assertTrue(blob instanceof TextBlob);
+        String first = ContentItemHelper.getText(blob);
+        Assert.assertEquals(text, first);
+        Assert.assertSame(first, ContentItemHelper.getText(blob));
+        Assert.assertEquals(text, IOUtils.toString(blob.getStream(), "UTF-8"));
+    }
+    /**
+     * Tests that content written to a {@link ContentSink} after the blob was
+     * read is visible to later readers
+     */
+    @Test
+    public void testWriteableBlob() throws IOException {
+        ContentSink sink = getFactory().createContentSink("text/plain; charset=UTF-8");
+        OutputStream out = sink.getOutputStream();
+        out.write("first".getBytes("UTF-8"));
+        out.flush();
+        Blob blob = sink.getBlob();
+        Assert.assertEquals("first", ContentItemHelper.getText(blob));
+        out.write(" second".getBytes("UTF-8"));
+        out.close();
+        Assert.assertEquals("first second", ContentItemHelper.getText(blob));
+        Assert.assertEquals("first second", IOUtils.toString(blob.getStream(), "UTF-8"));
+    }
+
+}
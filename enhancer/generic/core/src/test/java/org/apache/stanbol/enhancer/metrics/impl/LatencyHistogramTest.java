@@ -0,0 +1,65 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.metrics.impl;
+
+import org.apache.stanbol.enhancer.servicesapi.metrics.ExecutionStatistics.Latency;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBuckets(){
+        long[] values = new long[]{0, 1, 127, 128, 129, 1000, 123456789L, Long.MAX_VALUE / 2};
+        for(long value : values){
+            int index = LatencyHistogram.getIndex(value);
+            long highest = LatencyHistogram.getHighestEquivalentValue(index);
+            Assert.assertTrue(highest >= value);
+            //max relative error of 1/64
+            Assert.assertTrue((highest - value) <= value / 64);
+            if(index > 0){
+                Assert.assertTrue(LatencyHistogram.getHighestEquivalentValue(index - 1) < value);
+            }
+        }
+    }
+
+    @Test
+    public void testPercentiles(){
+        LatencyHistogram histogram = new LatencyHistogram();
+        for(int i = 1; i <= 1000; i++){
+            histogram.record(i * 1000000L); //1..1000ms
+        }
+        Assert.assertEquals(1000, histogram.getCount());
+        Assert.assertEquals(1000000L, histogram.getMin());
+        Assert.assertEquals(1000000000L, histogram.getMax());
+        Assert.assertEquals(500500000d, histogram.getMean(), 0.1d);
+        assertApprox(500000000L, histogram.getPercentile(50));
+        assertApprox(990000000L, histogram.getPercentile(99));
+        Latency summary = histogram.getSummary();
+        Assert.assertEquals(1000, summary.getCount());
+        assertApprox(900000000L, summary.get90thPercentile());
+        assertApprox(999000000L, summary.get999thPercentile());
+        histogram.reset();
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getPercentile(99));
+    }
+    
+    private static void assertApprox(long expected, long actual){
+        Assert.assertTrue("expected " + expected + " but was " + actual,
+            Math.abs(expected - actual) <= expected / 64);
+    }
+}
@@ -0,0 +1,247 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.nlp.json;
+
+import static org.apache.stanbol.enhancer.nlp.json.BinaryFormat.*;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.ConfigurationPolicy;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.Service;
+import org.apache.stanbol.enhancer.nlp.json.valuetype.ValueTypeParser;
+import org.apache.stanbol.enhancer.nlp.json.valuetype.ValueTypeParserRegistry;
+import org.apache.stanbol.enhancer.nlp.model.AnalysedText;
+import org.apache.stanbol.enhancer.nlp.model.AnalysedTextFactory;
+import org.apache.stanbol.enhancer.nlp.model.Span;
+import org.apache.stanbol.enhancer.nlp.model.SpanTypeEnum;
+import org.apache.stanbol.enhancer.nlp.model.annotation.Value;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Parses {@link AnalysedText} data serialized by the 
+ * {@link AnalyzedTextBinarySerializer}. The data are streamed directly
+ * into the parsed {@link AnalysedText} instance. Annotation values are 
+ * parsed once per distinct value by using the {@link ValueTypeParser}s 
+ * also used by the {@link AnalyzedTextParser}. Therefore spans with the
+ * same annotation value (e.g. the same PosTag) will share the same instance.
+ */
+@Component(immediate=true,policy=ConfigurationPolicy.IGNORE)
+@Service(value=AnalyzedTextBinaryParser.class)
+public class AnalyzedTextBinaryParser {
+    
+    private final Logger log = LoggerFactory.getLogger(AnalyzedTextBinaryParser.class);
+    
+    private final static Charset UTF8 = Charset.forName("UTF-8");
+    
+    private static final SpanTypeEnum[] SPAN_TYPES = SpanTypeEnum.values();
+    
+    private static AnalyzedTextBinaryParser defaultInstance;
+    
+    protected ObjectMapper mapper = new ObjectMapper();    
+    /**
+     * Can be used when running outside of OSGI to obtain the default (singleton)
+     * instance.
+     * @return
+     */
+    public static final AnalyzedTextBinaryParser getDefaultInstance(){
+        if(defaultInstance == null){
+            defaultInstance = new AnalyzedTextBinaryParser(
+                ValueTypeParserRegistry.getInstance());
+        }
+        return defaultInstance;
+    }
+    
+    /**
+     * Default constructor used by OSGI
+     */
+    public AnalyzedTextBinaryParser() {}
+    
+    /**
+     * Constructs a new Parser instance for the parsed {@link ValueTypeParserRegistry}
+     * instance. Usages outside an OSGI environment should prefer to use the
+     * {@link #getDefaultInstance()} instance to obtain the singleton instance.
+     * @param vtpr
+     */
+    public AnalyzedTextBinaryParser(ValueTypeParserRegistry vtpr){
+        if(vtpr == null){
+            throw new IllegalArgumentException("The parsed ValueTypeParserRegistry MUST NOT be NULL!");
+        }
+        this.valueTypeParserRegistry = vtpr;
+    }
+    
+    @Reference
+    protected ValueTypeParserRegistry valueTypeParserRegistry;
+    
+    /**
+     * Parses {@link AnalysedText} {@link Span}s including annotations from the 
+     * {@link InputStream}. The {@link AnalysedText} instance that is going to
+     * be enriched with the parsed data needs to be parsed. In the simplest case
+     * the caller can create an empty instance by using a 
+     * {@link AnalysedTextFactory}.
+     * @param in The stream to read the data from
+     * @param at The {@link AnalysedText} instance used to add the data to
+     * @return the parsed {@link AnalysedText} instance enriched with the
+     * information parsed from the Stream
+     * @throws IOException on any Error while reading or parsing the data
+     * from the Stream
+     */
+    public AnalysedText parse(InputStream in, AnalysedText at) throws IOException {
+        if(in == null){
+            throw new IllegalArgumentException("The parsed InputStream MUST NOT be NULL!");
+        }
+        if(at == null){
+            throw new IllegalArgumentException("The parsed AnalysedText MUST NOT be NULL!");
+        }
+        in = new BufferedInputStream(in, 8192);
+        byte[] magic = new byte[MAGIC.length];
+        readFully(in, magic);
+        if(!Arrays.equals(MAGIC, magic)){
+            throw new IOException("The parsed data are not a binary serialized AnalyzedText!");
+        }
+        int version = readByte(in);
+        if(version != VERSION){
+            throw new IOException("Unsupported version "+version+" of the binary "
+                + "AnalyzedText format (supported: "+VERSION+")!");
+        }
+        List<String> strings = new ArrayList<String>();
+        List<Object> values = new ArrayList<Object>();
+        int prevStart = 0;
+        boolean first = true;
+        int record;
+        while((record = readByte(in)) != RECORD_END){
+            switch (record) {
+                case RECORD_STRING:
+                    strings.add(new String(readBytes(in), UTF8));
+                    break;
+                case RECORD_VALUE:
+                    String className = getEntry(strings, readVarInt(in));
+                    values.add(parseValue(className, readBytes(in), at));
+                    break;
+                case RECORD_SPAN:
+                    int typeIdx = readByte(in);
+                    if(typeIdx >= SPAN_TYPES.length){
+                        throw new IOException("Unknown SpanType ordinal "+typeIdx+"!");
+                    }
+                    int start = prevStart + unZigZag(readVarInt(in));
+                    int end = start + readVarInt(in);
+                    prevStart = start;
+                    Span span;
+                    if(first){
+                        span = at;
+                        if(SPAN_TYPES[typeIdx] != SpanTypeEnum.Text || start != 0){
+                            throw new IOException("The first span MUST BE the AnalyzedText "
+                                + "span with the SpanType 'Text' and the start position '0'!");
+                        }
+                        if(at.getEnd() != end){
+                            throw new IOException("The size of the local text '"+at.getEnd()+"' does not "
+                                + "match the span of the parsed AnalyzedText [0,"+end+"]!");
+                        }
+                        first = false;
+                    } else {
+                        span = createSpan(at, SPAN_TYPES[typeIdx], start, end);
+                    }
+                    int count = readVarInt(in);
+                    for(int i = 0; i < count; i++){
+                        String key = getEntry(strings, readVarInt(in));
+                        Object value = getEntry(values, readVarInt(in));
+                        boolean hasProb = readByte(in) == PROB_PRESENT;
+                        double prob = hasProb ? readDouble(in) : Value.UNKNOWN_PROBABILITY;
+                        if(span != null && value != null){
+                            span.addValue(key, Value.value(value, prob));
+                        }
+                    }
+                    break;
+                default:
+                    throw new IOException("Unknown record type "+record+"!");
+            }
+        }
+        return at;
+    }
+
+    private static <T> T getEntry(List<T> table, int index) throws IOException {
+        if(index < 0 || index >= table.size()){
+            throw new IOException("Reference "+index+" to an undefined entry (defined: "
+                    + table.size()+")!");
+        }
+        return table.get(index);
+    }
+    
+    private Span createSpan(AnalysedText at, SpanTypeEnum type, int start, int end){
+        switch (type) {
+            case Sentence:
+                return at.addSentence(start, end);
+            case Chunk:
+                return at.addChunk(start, end);
+            case Token:
+                return at.addToken(start, end);
+            default:
+                log.warn("Unsupported SpanTypeEnum  '{}' [{},{}] (ignored)!", 
+                    new Object[]{type, start, end});
+                return null;
+        }
+    }
+    /**
+     * Parses an annotation value
+     * @return the value or <code>null</code> if the value could not be parsed
+     */
+    private Object parseValue(String className, byte[] json, AnalysedText at) throws IOException {
+        Class<?> clazz;
+        try {
+            clazz = AnalyzedTextBinaryParser.class.getClassLoader().loadClass(className);
+        } catch (ClassNotFoundException e) {
+            log.warn("Unable to parse value because the class "+className
+                + " can not be resolved (ignored)",e);
+            return null;
+        }
+        JsonNode node = mapper.readTree(json);
+        if(!node.isObject()){
+            log.warn("Unable to parse value of class {} because it is no JSON object "
+                + "(ignored, json: {})",className, node);
+            return null;
+        }
+        ObjectNode jValue = (ObjectNode)node;
+        ValueTypeParser<?> parser = valueTypeParserRegistry.getParser(clazz);
+        if(parser != null){
+            return parser.parse(jValue, at);
+        }
+        JsonNode valueNode = jValue.path("value");
+        if(valueNode.isMissingNode()){
+            log.warn("Unable to parse value of class {} because the field 'value' "
+                + "is not present (ignored, json: {})", className, jValue);
+            return null;
+        }
+        try {
+            return mapper.treeToValue(valueNode, clazz);
+        } catch (IOException e) {
+            log.warn("Unable to parse value because the value can not be converted "
+                + "to the class "+ className + "(ignored, json: "+jValue+")",e);
+            return null;
+        }
+    }
+}
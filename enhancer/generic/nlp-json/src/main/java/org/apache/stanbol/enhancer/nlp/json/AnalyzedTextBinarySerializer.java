@@ -0,0 +1,235 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.nlp.json;
+
+import static org.apache.stanbol.enhancer.nlp.json.BinaryFormat.*;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.ConfigurationPolicy;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.Service;
+import org.apache.stanbol.enhancer.nlp.json.valuetype.ValueTypeSerializer;
+import org.apache.stanbol.enhancer.nlp.json.valuetype.ValueTypeSerializerRegistry;
+import org.apache.stanbol.enhancer.nlp.model.AnalysedText;
+import org.apache.stanbol.enhancer.nlp.model.Span;
+import org.apache.stanbol.enhancer.nlp.model.SpanTypeEnum;
+import org.apache.stanbol.enhancer.nlp.model.annotation.Value;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serializes an AnalysedText instance by using the compact binary format
+ * described by {@link BinaryFormat}. Annotation values are converted by the
+ * same {@link ValueTypeSerializer}s as used by the 
+ * {@link AnalyzedTextSerializer}, but every distinct value is only 
+ * serialized once.
+ */
+@Component(immediate=true,policy=ConfigurationPolicy.IGNORE)
+@Service(value=AnalyzedTextBinarySerializer.class)
+public class AnalyzedTextBinarySerializer {
+    
+    private final Logger log = LoggerFactory.getLogger(AnalyzedTextBinarySerializer.class);
+
+    /**
+     * The media type used for the binary serialization of AnalysedText
+     */
+    public static final String MEDIA_TYPE = "application/x-stanbol-analyzedtext";
+    
+    private final static Charset UTF8 = Charset.forName("UTF-8");
+    
+    private static AnalyzedTextBinarySerializer defaultInstance;
+    
+    protected ObjectMapper mapper = new ObjectMapper();
+    /**
+     * Can be used when running outside of OSGI to obtain the default (singelton)
+     * instance.
+     * @return
+     */
+    public static final AnalyzedTextBinarySerializer getDefaultInstance(){
+        if(defaultInstance == null){
+            defaultInstance = new AnalyzedTextBinarySerializer(ValueTypeSerializerRegistry.getInstance());
+        }
+        return defaultInstance;
+    }
+    
+    /**
+     * Default constructor used by OSGI
+     */
+    public AnalyzedTextBinarySerializer() {}
+    
+    /**
+     * Constructs a new Serializer instance for the parsed {@link ValueTypeSerializerRegistry}
+     * instance. Usages outside an OSGI environment should prefer to use the
+     * {@link #getDefaultInstance()} instance to obtain the singleton instance.
+     * @param vtsr
+     */
+    public AnalyzedTextBinarySerializer(ValueTypeSerializerRegistry vtsr){
+        if(vtsr == null){
+            throw new IllegalArgumentException("The parsed ValueTypeSerializerRegistry MUST NOT be NULL!");
+        }
+        this.valueTypeSerializerRegistry = vtsr;
+    }
+    
+    @Reference
+    protected ValueTypeSerializerRegistry valueTypeSerializerRegistry;
+
+    /**
+     * Serializes the parsed {@link AnalysedText} to the {@link OutputStream}.
+     * The parsed stream is flushed but not closed.
+     * @param at the {@link AnalysedText} to serialize
+     * @param out the {@link OutputStream} 
+     */
+    public void serialize(AnalysedText at, OutputStream out) throws IOException {
+        if(at == null){
+            throw new IllegalArgumentException("The parsed AnalysedText MUST NOT be NULL!");
+        }
+        if(out == null){
+            throw new IllegalArgumentException("The parsed OutputStream MUST NOT be NULL");
+        }
+        new Writer(new BufferedOutputStream(out, 8192)).write(at);
+    }
+
+    /**
+     * Holds the string and value tables for a single serialization
+     */
+    private class Writer {
+        
+        private final OutputStream out;
+        private final Map<String,Integer> strings = new HashMap<String,Integer>();
+        private final Map<Object,Integer> valueIds = new IdentityHashMap<Object,Integer>();
+        private final Map<String,Integer> valueContents = new HashMap<String,Integer>();
+        private int prevStart = 0;
+        
+        Writer(OutputStream out){
+            this.out = out;
+        }
+        
+        void write(AnalysedText at) throws IOException {
+            out.write(MAGIC);
+            out.write(VERSION);
+            writeSpan(at);
+            for(Iterator<Span> it = at.getEnclosed(EnumSet.allOf(SpanTypeEnum.class));it.hasNext();){
+                writeSpan(it.next());
+            }
+            out.write(RECORD_END);
+            out.flush();
+        }
+        
+        private void writeSpan(Span span) throws IOException {
+            log.trace("write {}",span);
+            //first collect the annotations (and define keys and values)
+            int count = 0;
+            int[] keys = null;
+            Value<?>[] values = null;
+            int[] valueIdx = null;
+            for(String key : span.getKeys()){
+                List<Value<?>> keyValues = span.getValues(key);
+                if(keyValues.isEmpty()){
+                    continue;
+                }
+                int keyIdx = getString(key);
+                int required = count + keyValues.size();
+                if(keys == null || keys.length < required){
+                    keys = keys == null ? new int[Math.max(4, required)] : 
+                        Arrays.copyOf(keys, Math.max(keys.length*2, required));
+                    values = values == null ? new Value<?>[keys.length] : 
+                        Arrays.copyOf(values, keys.length);
+                    valueIdx = valueIdx == null ? new int[keys.length] : 
+                        Arrays.copyOf(valueIdx, keys.length);
+                }
+                for(Value<?> value : keyValues){
+                    keys[count] = keyIdx;
+                    values[count] = value;
+                    valueIdx[count] = getValue(value.value());
+                    count++;
+                }
+            }
+            out.write(RECORD_SPAN);
+            out.write(span.getType().ordinal());
+            writeVarInt(out, zigZag(span.getStart() - prevStart));
+            writeVarInt(out, span.getEnd() - span.getStart());
+            prevStart = span.getStart();
+            writeVarInt(out, count);
+            for(int i = 0; i < count; i++){
+                writeVarInt(out, keys[i]);
+                writeVarInt(out, valueIdx[i]);
+                if(values[i].probability() == Value.UNKNOWN_PROBABILITY){
+                    out.write(PROB_UNKNOWN);
+                } else {
+                    out.write(PROB_PRESENT);
+                    writeDouble(out, values[i].probability());
+                }
+            }
+        }
+        
+        private int getString(String string) throws IOException {
+            Integer idx = strings.get(string);
+            if(idx == null){
+                idx = strings.size();
+                strings.put(string, idx);
+                out.write(RECORD_STRING);
+                writeBytes(out, string.getBytes(UTF8));
+            }
+            return idx;
+        }
+        
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        private int getValue(Object value) throws IOException {
+            Integer idx = valueIds.get(value);
+            if(idx != null){
+                return idx;
+            }
+            Class<?> valueType = value.getClass();
+            int classIdx = getString(valueType.getName());
+            ObjectNode jValue;
+            ValueTypeSerializer vts = valueTypeSerializerRegistry.getSerializer(valueType);
+            if(vts != null){
+                jValue = vts.serialize(mapper,value);
+            } else { //use the default binding and the "value" field
+                jValue = mapper.createObjectNode();
+                jValue.put("value", mapper.valueToTree(value));
+            }
+            byte[] json = mapper.writeValueAsBytes(jValue);
+            String content = new StringBuilder().append(classIdx).append(':')
+                    .append(new String(json, UTF8)).toString();
+            idx = valueContents.get(content);
+            if(idx == null){
+                idx = valueContents.size();
+                valueContents.put(content, idx);
+                out.write(RECORD_VALUE);
+                writeVarInt(out, classIdx);
+                writeBytes(out, json);
+            }
+            valueIds.put(value, idx);
+            return idx;
+        }
+    }
+}
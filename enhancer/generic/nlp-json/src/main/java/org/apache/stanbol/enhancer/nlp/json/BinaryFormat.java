@@ -0,0 +1,169 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.nlp.json;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Constants and utilities for the binary serialization format of
+ * {@link org.apache.stanbol.enhancer.nlp.model.AnalysedText} used by
+ * {@link AnalyzedTextBinarySerializer} and {@link AnalyzedTextBinaryParser}.
+ * <p>
+ * The format starts with the {@link #MAGIC} bytes followed by the
+ * {@link #VERSION}. After that a sequence of records follows. Each record
+ * starts with a single byte defining its type:<ul>
+ * <li> {@link #RECORD_STRING}: defines the next entry in the string table
+ * (annotation keys and class names) as <code>varint length, UTF-8 bytes</code>
+ * <li> {@link #RECORD_VALUE}: defines the next entry in the value table as
+ * <code>varint classIndex, varint length, UTF-8 JSON</code>. The JSON is
+ * created by the {@link org.apache.stanbol.enhancer.nlp.json.valuetype.ValueTypeSerializer}
+ * registered for the class. Values used by several spans (e.g. the tags of
+ * a TagSet) are only defined once.
+ * <li> {@link #RECORD_SPAN}: a span as <code>type ordinal, varint start
+ * (zig-zag encoded delta to the start of the previous span), varint length,
+ * varint annotationCount</code> followed by <code>varint keyIndex, varint
+ * valueIndex, probability flag [, 8 byte double]</code> for each annotation.
+ * The first span MUST BE the {@link org.apache.stanbol.enhancer.nlp.model.SpanTypeEnum#Text}
+ * span.
+ * <li> {@link #RECORD_END}: the end of the data
+ * </ul>
+ * Strings and values are defined before the first span that uses them so 
+ * that both serializer and parser can work in a streaming fashion.
+ */
+final class BinaryFormat {
+
+    private BinaryFormat(){}
+    
+    static final byte[] MAGIC = new byte[]{'S','N','L','P'};
+    
+    static final int VERSION = 1;
+    
+    static final int RECORD_END = 0;
+    static final int RECORD_STRING = 1;
+    static final int RECORD_VALUE = 2;
+    static final int RECORD_SPAN = 3;
+    
+    static final int PROB_UNKNOWN = 0;
+    static final int PROB_PRESENT = 1;
+    /**
+     * The maximum length of a single byte array (e.g. an UTF-8 encoded
+     * string) accepted by {@link #readBytes(InputStream)}
+     */
+    static final int MAX_BYTES_LENGTH = 64 * 1024 * 1024;
+    /**
+     * Lengths above this value are read in chunks of this size so that
+     * truncated or corrupted data fail before large buffers are allocated
+     */
+    private static final int READ_CHUNK_SIZE = 64 * 1024;
+    
+    static void writeVarInt(OutputStream out, int value) throws IOException {
+        while((value & ~0x7F) != 0){
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+    
+    static int readVarInt(InputStream in) throws IOException {
+        int value = 0;
+        for(int shift = 0; shift < 32; shift += 7){
+            int b = readByte(in);
+            value |= (b & 0x7F) << shift;
+            if((b & 0x80) == 0){
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+    
+    static int zigZag(int value){
+        return (value << 1) ^ (value >> 31);
+    }
+    
+    static int unZigZag(int value){
+        return (value >>> 1) ^ -(value & 1);
+    }
+    
+    static void writeBytes(OutputStream out, byte[] data) throws IOException {
+        writeVarInt(out, data.length);
+        out.write(data);
+    }
+    
+    static byte[] readBytes(InputStream in) throws IOException {
+        int length = readVarInt(in);
+        if(length < 0 || length > MAX_BYTES_LENGTH){
+            throw new IOException("Illegal length "+length+" (max: "
+                + MAX_BYTES_LENGTH+")");
+        }
+        if(length <= READ_CHUNK_SIZE){
+            byte[] data = new byte[length];
+            readFully(in, data);
+            return data;
+        }
+        //the length is not trusted: grow the buffer only with the data read
+        ByteArrayOutputStream out = new ByteArrayOutputStream(READ_CHUNK_SIZE);
+        byte[] chunk = new byte[READ_CHUNK_SIZE];
+        int remaining = length;
+        while(remaining > 0){
+            int read = in.read(chunk, 0, Math.min(remaining, chunk.length));
+            if(read < 0){
+                throw new EOFException("Unexpected end of the binary AnalyzedText data");
+            }
+            out.write(chunk, 0, read);
+            remaining -= read;
+        }
+        return out.toByteArray();
+    }
+    
+    static void writeDouble(OutputStream out, double value) throws IOException {
+        long bits = Double.doubleToLongBits(value);
+        for(int shift = 56; shift >= 0; shift -= 8){
+            out.write((int)(bits >>> shift) & 0xFF);
+        }
+    }
+    
+    static double readDouble(InputStream in) throws IOException {
+        long bits = 0;
+        for(int i = 0; i < 8; i++){
+            bits = (bits << 8) | readByte(in);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+    
+    static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if(b < 0){
+            throw new EOFException("Unexpected end of the binary AnalyzedText data");
+        }
+        return b;
+    }
+    
+    static void readFully(InputStream in, byte[] data) throws IOException {
+        int off = 0;
+        while(off < data.length){
+            int read = in.read(data, off, data.length - off);
+            if(read < 0){
+                throw new EOFException("Unexpected end of the binary AnalyzedText data");
+            }
+            off += read;
+        }
+    }
+}
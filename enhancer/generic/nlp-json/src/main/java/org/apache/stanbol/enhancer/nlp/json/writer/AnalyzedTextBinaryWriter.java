@@ -0,0 +1,129 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.nlp.json.writer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import javax.servlet.ServletContext;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+
+import org.apache.stanbol.enhancer.nlp.json.AnalyzedTextBinarySerializer;
+import org.apache.stanbol.enhancer.nlp.model.AnalysedText;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceReference;
+
+/**
+ * JAX-RS {@link MessageBodyWriter} for {@link AnalysedText} that uses the
+ * binary format of the {@link AnalyzedTextBinarySerializer}. Clients request
+ * this format by using {@link AnalyzedTextBinarySerializer#MEDIA_TYPE} in the
+ * <code>Accept</code> header.<p>
+ * This class is not an OSGI component. The {@link AnalyzedTextBinarySerializer}
+ * can be parsed to the constructor. Otherwise it is lazily looked up via the
+ * {@link ServletContext} and falls back to the
+ * {@link AnalyzedTextBinarySerializer#getDefaultInstance() default instance}.
+ */
+@Provider
+@Produces(value=AnalyzedTextBinarySerializer.MEDIA_TYPE)
+public class AnalyzedTextBinaryWriter implements MessageBodyWriter<AnalysedText> {
+
+    @Context
+    protected ServletContext servletContext;
+    /**
+     * The serializer (lazy initialised if not parsed to the constructor)
+     */
+    private volatile AnalyzedTextBinarySerializer serializer;
+    
+    /**
+     * Default constructor used by JAX-RS. The serializer is lazily
+     * initialised on the first request.
+     */
+    public AnalyzedTextBinaryWriter(){
+        this(null);
+    }
+    /**
+     * Creates a writer for the parsed serializer
+     * @param serializer the serializer or <code>null</code> to lazily
+     * initialise it on the first request
+     */
+    public AnalyzedTextBinaryWriter(AnalyzedTextBinarySerializer serializer){
+        this.serializer = serializer;
+    }
+    
+    /**
+     * Getter for the {@link AnalyzedTextBinarySerializer}.
+     * @return the {@link AnalyzedTextBinarySerializer} instance
+     * @see AnalyzedTextWriter#getSerializer()
+     */
+    protected final AnalyzedTextBinarySerializer getSerializer(){
+        if(serializer == null){
+            synchronized (this) {
+                if(serializer != null){ //check again because of concurrency
+                    return serializer;
+                }
+                if(servletContext != null){
+                    //(1) try to init directly get the service via the servlet context
+                    Object s = servletContext.getAttribute(AnalyzedTextBinarySerializer.class.getName());
+                    if(s instanceof AnalyzedTextBinarySerializer){
+                        serializer = (AnalyzedTextBinarySerializer)s;
+                        return serializer;
+                    }
+                    //(2) try to init via BundleContext available in the servlet context
+                    Object bc = servletContext.getAttribute(BundleContext.class.getName());
+                    if(bc instanceof BundleContext){
+                        ServiceReference reference = ((BundleContext)bc).getServiceReference(
+                            AnalyzedTextBinarySerializer.class.getName());
+                        if(reference != null){
+                            serializer = (AnalyzedTextBinarySerializer)((BundleContext)bc).getService(reference);
+                            return serializer;
+                        }
+                    }
+                }
+                //(3) get the default instance
+                serializer = AnalyzedTextBinarySerializer.getDefaultInstance();
+            }
+        }
+        return serializer;
+    }
+    
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return AnalysedText.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public long getSize(AnalysedText t, Class<?> type, Type genericType, Annotation[] annotations,
+            MediaType mediaType) {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(AnalysedText at, Class<?> type, Type genericType, Annotation[] annotations,
+            MediaType mediaType, MultivaluedMap<String,Object> httpHeaders, OutputStream entityStream)
+            throws IOException, WebApplicationException {
+        getSerializer().serialize(at, entityStream);
+    }
+
+}
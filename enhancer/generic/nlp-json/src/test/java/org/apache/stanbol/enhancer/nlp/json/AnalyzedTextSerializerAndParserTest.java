@@ -195,8 +195,64 @@ public class AnalyzedTextSerializerAndParserTest {
         AnalyzedTextParser parser = AnalyzedTextParser.getDefaultInstance();
         AnalysedText parsedAt = parser.parse(new ByteArrayInputStream(data), null, 
             atFactory.createAnalysedText(textBlob.getValue()));
-        Assert.assertEquals(analysedTextWithData, parsedAt);
-        Iterator<Span> origSpanIt = analysedTextWithData.getEnclosed(EnumSet.allOf(SpanTypeEnum.class));
+        assertEquals(analysedTextWithData, parsedAt);
+    }
+    
+    @Test
+    public void testBinarySerialization() throws IOException {
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        AnalyzedTextBinarySerializer serializer = AnalyzedTextBinarySerializer.getDefaultInstance();
+        serializer.serialize(analysedTextWithData, bout);
+        byte[] data = bout.toByteArray();
+        ByteArrayOutputStream jsonOut = new ByteArrayOutputStream();
+        AnalyzedTextSerializer.getDefaultInstance().serialize(analysedTextWithData, jsonOut, null);
+        log.info("binary: {} bytes, json: {} bytes", data.length, jsonOut.size());
+        Assert.assertTrue(data.length < jsonOut.size());
+        //deserialize
+        AnalyzedTextBinaryParser parser = AnalyzedTextBinaryParser.getDefaultInstance();
+        AnalysedText parsedAt = parser.parse(new ByteArrayInputStream(data), 
+            atFactory.createAnalysedText(textBlob.getValue()));
+        assertEquals(analysedTextWithData, parsedAt);
+    }
+    
+    @Test(expected=IOException.class)
+    public void testBinaryParseInvalid() throws IOException {
+        AnalyzedTextBinaryParser.getDefaultInstance().parse(new ByteArrayInputStream(
+            "{\"spans\" : []}".getBytes("UTF-8")), createAnalysedText());
+    }
+    
+    /**
+     * Truncated data with a (valid) length of a large string must fail
+     * with an {@link IOException} and not allocate the announced length.
+     */
+    @Test(expected=IOException.class)
+    public void testBinaryParseTruncated() throws IOException {
+        AnalyzedTextBinaryParser.getDefaultInstance().parse(new ByteArrayInputStream(
+            createBinaryHeader(BinaryFormat.MAX_BYTES_LENGTH)), createAnalysedText());
+    }
+    
+    @Test(expected=IOException.class)
+    public void testBinaryParseIllegalLength() throws IOException {
+        AnalyzedTextBinaryParser.getDefaultInstance().parse(new ByteArrayInputStream(
+            createBinaryHeader(Integer.MAX_VALUE)), createAnalysedText());
+    }
+    /**
+     * Creates the header of a binary AnalyzedText followed by a string
+     * record with the parsed length and only a few bytes of data
+     */
+    private static byte[] createBinaryHeader(int stringLength) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(BinaryFormat.MAGIC);
+        out.write(BinaryFormat.VERSION);
+        out.write(BinaryFormat.RECORD_STRING);
+        BinaryFormat.writeVarInt(out, stringLength);
+        out.write("truncated".getBytes("UTF-8"));
+        return out.toByteArray();
+    }
+    
+    private void assertEquals(AnalysedText expected, AnalysedText parsedAt) {
+        Assert.assertEquals(expected, parsedAt);
+        Iterator<Span> origSpanIt = expected.getEnclosed(EnumSet.allOf(SpanTypeEnum.class));
         Iterator<Span> parsedSpanIt = parsedAt.getEnclosed(EnumSet.allOf(SpanTypeEnum.class));
         while(origSpanIt.hasNext() && parsedSpanIt.hasNext()){
             Span orig = origSpanIt.next();
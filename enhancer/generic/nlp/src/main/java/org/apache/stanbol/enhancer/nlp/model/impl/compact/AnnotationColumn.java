@@ -0,0 +1,132 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.nlp.model.impl.compact;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.stanbol.enhancer.nlp.model.annotation.Value;
+
+/**
+ * Stores the values of a single annotation key for all spans of an
+ * {@link CompactAnalysedText}. Single values are stored as an index into a
+ * dictionary of the annotated objects (e.g. the {@link org.apache.stanbol.enhancer.nlp.pos.PosTag}s
+ * of a TagSet) plus the probability in primitive arrays indexed by the id
+ * of the span. Spans with multiple values are kept in a separate map.<p>
+ * The dictionary uses object identity, so that equal but mutable values
+ * are never merged.<p>
+ * The {@link #get(int)} and {@link #set(int, Object)} methods use the same
+ * representation as {@link org.apache.stanbol.enhancer.nlp.model.impl.AnnotatedImpl}:
+ * <code>null</code> for no value, a {@link Value} for a single value and a
+ * <code>Value[]</code> sorted by {@link Value#PROBABILITY_COMPARATOR} for
+ * multiple values.<p>
+ * This class is not thread safe.
+ */
+final class AnnotationColumn {
+
+    private static final int NONE = 0;
+    private static final int MULTI = -1;
+    
+    /**
+     * <code>0</code> for no value, <code>-1</code> for multiple values or
+     * the index within the {@link #dictionary} + 1
+     */
+    private int[] values = new int[0];
+    private double[] probabilities = new double[0];
+    
+    private final List<Object> dictionary = new ArrayList<Object>();
+    private final Map<Object,Integer> dictionaryIndex = new IdentityHashMap<Object,Integer>();
+    
+    private Map<Integer,Value<?>[]> multiValues;
+    
+    /**
+     * Getter for the value(s) of the span with the parsed id
+     * @return <code>null</code>, a {@link Value} or a <code>Value[]</code>
+     */
+    Object get(int id){
+        if(id >= values.length){
+            return null;
+        }
+        int idx = values[id];
+        if(idx == NONE){
+            return null;
+        } else if(idx == MULTI){
+            return multiValues.get(id);
+        } else {
+            return new Value<Object>(dictionary.get(idx-1), probabilities[id]);
+        }
+    }
+    /**
+     * If the span with the parsed id has a value
+     */
+    boolean contains(int id){
+        return id < values.length && values[id] != NONE;
+    }
+    /**
+     * Setter for the value(s) of the span with the parsed id
+     * @param value <code>null</code> to remove, a {@link Value} or a
+     * <code>Value[]</code> (MUST NOT be modified afterwards)
+     */
+    void set(int id, Object value){
+        if(value == null){
+            if(id < values.length){
+                if(values[id] == MULTI){
+                    multiValues.remove(id);
+                }
+                values[id] = NONE;
+            }
+            return;
+        }
+        ensureCapacity(id+1);
+        if(values[id] == MULTI && !(value instanceof Value<?>[])){
+            multiValues.remove(id);
+        }
+        if(value instanceof Value<?>){
+            Value<?> v = (Value<?>)value;
+            values[id] = getDictionaryIndex(v.value()) + 1;
+            probabilities[id] = v.probability();
+        } else {
+            if(multiValues == null){
+                multiValues = new HashMap<Integer,Value<?>[]>();
+            }
+            multiValues.put(id, (Value<?>[])value);
+            values[id] = MULTI;
+        }
+    }
+    
+    private int getDictionaryIndex(Object value){
+        Integer idx = dictionaryIndex.get(value);
+        if(idx == null){
+            idx = dictionary.size();
+            dictionary.add(value);
+            dictionaryIndex.put(value, idx);
+        }
+        return idx;
+    }
+    
+    private void ensureCapacity(int capacity){
+        if(capacity > values.length){
+            int length = Math.max(capacity, values.length + (values.length >> 1));
+            values = Arrays.copyOf(values, length);
+            probabilities = Arrays.copyOf(probabilities, length);
+        }
+    }
+}
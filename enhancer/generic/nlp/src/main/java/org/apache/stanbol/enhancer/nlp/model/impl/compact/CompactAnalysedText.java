@@ -0,0 +1,192 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.nlp.model.impl.compact;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.stanbol.enhancer.nlp.model.AnalysedText;
+import org.apache.stanbol.enhancer.nlp.model.Chunk;
+import org.apache.stanbol.enhancer.nlp.model.Sentence;
+import org.apache.stanbol.enhancer.nlp.model.Span;
+import org.apache.stanbol.enhancer.nlp.model.SpanTypeEnum;
+import org.apache.stanbol.enhancer.servicesapi.Blob;
+
+/**
+ * {@link AnalysedText} implementation that stores spans and annotations in
+ * columns of primitive arrays instead of one object (plus an annotation map)
+ * per span. {@link Span} instances returned by this implementation are
+ * light weight views that are created on demand.<p>
+ * Compared to {@link org.apache.stanbol.enhancer.nlp.model.impl.AnalysedTextImpl}
+ * this reduces the number of long living objects for a document with
+ * <code>n</code> tokens from <code>O(n)</code> to <code>O(1)</code> (plus
+ * the annotated values that are not shared - e.g. by a TagSet).
+ */
+public class CompactAnalysedText extends CompactSection implements AnalysedText {
+
+    private final Blob blob;
+    
+    private final String text;
+    
+    final SpanIndex index;
+    
+    private final Map<String,AnnotationColumn> annotations = new HashMap<String,AnnotationColumn>();
+    
+    public CompactAnalysedText(Blob blob, String text) {
+        this(blob, text, new SpanIndex(text.length()/5)); //~ number of tokens
+    }
+    
+    private CompactAnalysedText(Blob blob, String text, SpanIndex index) {
+        super(null, index.create(SpanTypeEnum.Text, 0, text.length()));
+        this.blob = blob;
+        this.text = text;
+        this.index = index;
+    }
+    
+    @Override
+    public CompactAnalysedText getContext() {
+        return this;
+    }
+    
+    @Override
+    public SpanTypeEnum getType() {
+        return SpanTypeEnum.Text;
+    }
+    
+    @Override
+    public int getStart() {
+        return 0;
+    }
+    
+    @Override
+    public int getEnd() {
+        return text.length();
+    }
+    
+    @Override
+    public String getSpan() {
+        return text;
+    }
+    
+    @Override
+    public Sentence addSentence(int start, int end) {
+        return (Sentence)createSpan(register(SpanTypeEnum.Sentence, this, start, end));
+    }
+    
+    @Override
+    public Chunk addChunk(int start, int end) {
+        return (Chunk)createSpan(register(SpanTypeEnum.Chunk, this, start, end));
+    }
+    
+    @Override
+    public Iterator<Sentence> getSentences() {
+        return iterator(Sentence.class, SENTENCE_MASK);
+    }
+    
+    @Override
+    public Iterator<Chunk> getChunks() {
+        return iterator(Chunk.class, CHUNK_MASK);
+    }
+    
+    @Override
+    public CharSequence getText() {
+        return text;
+    }
+    
+    @Override
+    public Blob getBlob() {
+        return blob;
+    }
+    /**
+     * Registers a span relative to the parsed one
+     * @return the id of the registered (or already existing) span
+     * @throws IllegalArgumentException if the span is invalid or exceeds 
+     * the span it is relative to.
+     */
+    int register(SpanTypeEnum type, Span relativeTo, int start, int end){
+        int offset = relativeTo.getStart();
+        int absStart = offset + start;
+        int absEnd = offset + end;
+        if(absStart < 0 || absEnd < absStart){
+            throw new IllegalArgumentException("Illegal span ["+start+','+end+']');
+        }
+        if(relativeTo.getEnd() < absEnd){
+            throw new IllegalArgumentException("Illegal span ["+start+','+end
+                + "] for "+type+" relative to "+relativeTo+" : Span of the "
+                + " contained Token MUST NOT extend the others!");
+        }
+        return index.add(type, absStart, absEnd);
+    }
+    /**
+     * Creates the {@link Span} instance for the parsed id
+     */
+    CompactSpan createSpan(int id){
+        switch (index.getType(id)) {
+            case Token:
+                return new CompactToken(this, id);
+            case Chunk:
+                return new CompactChunk(this, id);
+            case Sentence:
+                return new CompactSentence(this, id);
+            case Text:
+                return this;
+            default:
+                throw new IllegalStateException("Unsupported SpanType "+index.getType(id));
+        }
+    }
+    
+    Object getAnnotation(String key, int id){
+        AnnotationColumn column = annotations.get(key);
+        return column == null ? null : column.get(id);
+    }
+    
+    void setAnnotation(String key, int id, Object value){
+        AnnotationColumn column = annotations.get(key);
+        if(column == null){
+            if(value == null){
+                return;
+            }
+            column = new AnnotationColumn();
+            annotations.put(key, column);
+        }
+        column.set(id, value);
+    }
+    
+    Set<String> getKeys(int id){
+        Set<String> keys = null;
+        for(Entry<String,AnnotationColumn> entry : annotations.entrySet()){
+            if(entry.getValue().contains(id)){
+                if(keys == null){
+                    keys = new HashSet<String>();
+                }
+                keys.add(entry.getKey());
+            }
+        }
+        return keys == null ? Collections.<String>emptySet() : keys;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s: [%d, %d] (%d spans)", getType(), getStart(),
+            getEnd(), index.size());
+    }
+}
@@ -0,0 +1,189 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.nlp.model.impl.compact;
+
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.apache.stanbol.enhancer.nlp.model.AnalysedText;
+import org.apache.stanbol.enhancer.nlp.model.Chunk;
+import org.apache.stanbol.enhancer.nlp.model.Section;
+import org.apache.stanbol.enhancer.nlp.model.Sentence;
+import org.apache.stanbol.enhancer.nlp.model.Span;
+import org.apache.stanbol.enhancer.nlp.model.SpanTypeEnum;
+import org.apache.stanbol.enhancer.nlp.model.Token;
+
+/**
+ * A {@link CompactSpan} that contains other spans
+ */
+public abstract class CompactSection extends CompactSpan implements Section {
+
+    protected static final int TOKEN_MASK = typeMask(SpanTypeEnum.Token);
+    protected static final int CHUNK_MASK = typeMask(SpanTypeEnum.Chunk);
+    protected static final int SENTENCE_MASK = typeMask(SpanTypeEnum.Sentence);
+    
+    protected CompactSection(CompactAnalysedText context, int id) {
+        super(context, id);
+    }
+
+    @Override
+    public Iterator<Span> getEnclosed(Set<SpanTypeEnum> types) {
+        return iterator(Span.class, getStart(), getEnd(), getType().ordinal(), 
+            getEnd(), typeMask(types));
+    }
+    
+    @Override
+    public Iterator<Span> getEnclosed(Set<SpanTypeEnum> types, int startOffset, int endOffset) {
+        int start = getStart();
+        int end = getEnd();
+        if(startOffset >= (end - start)){ //start is outside the span
+            return Collections.<Span>emptySet().iterator();
+        }
+        int startIdx = startOffset < 0 ? start : (start + startOffset);
+        int endIdx = start + endOffset;
+        if(endIdx <= startIdx) {
+            return Collections.<Span>emptySet().iterator();
+        } else if(endIdx > end){
+            endIdx = end;
+        }
+        //same as SectionImpl: the lower bound is a Text span over the section
+        return iterator(Span.class, startIdx, endIdx, SpanTypeEnum.Text.ordinal(),
+            endIdx, typeMask(types));
+    }
+    
+    /**
+     * Adds a Token <b>relative</b> to the current Span.
+     * @see org.apache.stanbol.enhancer.nlp.model.impl.SectionImpl#addToken(int, int)
+     */
+    @Override
+    public Token addToken(int start, int end) {
+        return (Token)context.createSpan(context.register(SpanTypeEnum.Token, this, start, end));
+    }
+    
+    @Override
+    public Iterator<Token> getTokens() {
+        return iterator(Token.class, TOKEN_MASK);
+    }
+    
+    /**
+     * Iterator over the enclosed spans of the parsed types
+     * @param clazz the type of the returned spans
+     * @param mask the types (see {@link #typeMask(Set)})
+     */
+    protected <T extends Span> Iterator<T> iterator(Class<T> clazz, int mask){
+        return iterator(clazz, getStart(), getEnd(), getType().ordinal(), getEnd(), mask);
+    }
+    
+    /**
+     * Iterator that does not throw {@link ConcurrentModificationException} but
+     * considers modifications to the underlying index by searching the next
+     * span based on the last returned one after any modification.<p>
+     * This allows to add new {@link Span}s to the {@link Section} while
+     * iterating (e.g. add {@link Token}s and/or {@link Chunk}s while iterating
+     * over the {@link Sentence}s of an {@link AnalysedText})
+     * @param clazz the type of the returned spans
+     * @param start the start of the lower bound span (exclusive)
+     * @param end the end of the lower bound span (exclusive)
+     * @param type the type of the lower bound span (exclusive)
+     * @param endPos the end position. Only Spans that start before this 
+     * position are returned
+     * @param mask the types of the returned spans
+     * @return the iterator
+     */
+    protected <T extends Span> Iterator<T> iterator(final Class<T> clazz,
+            final int start, final int end, final int type,final int endPos, final int mask){
+        final SpanIndex index = context.index;
+        return new Iterator<T>() {
+            
+            private int lastStart = start;
+            private int lastEnd = end;
+            private int lastType = type;
+            
+            private int pos = -1;
+            private int modCount = index.modCount() - 1; //force init
+            private boolean init = false;
+            private boolean removed = true;
+            
+            @Override
+            public boolean hasNext() {
+                return getNext() >= 0;
+            }
+            
+            private int getNext(){
+                if(modCount != index.modCount()){
+                    pos = index.higher(lastStart, lastEnd, lastType);
+                    modCount = index.modCount();
+                }
+                for(int size = index.size(); pos < size; pos++){
+                    int id = index.idAt(pos);
+                    if(index.getStart(id) >= endPos){
+                        return -1;
+                    }
+                    if((mask & (1 << index.getTypeIndex(id))) != 0){
+                        return pos;
+                    }
+                }
+                return -1;
+            }
+            
+            @Override
+            public T next() {
+                int next = getNext();
+                if(next < 0){
+                    throw new NoSuchElementException();
+                }
+                int id = index.idAt(next);
+                lastStart = index.getStart(id);
+                lastEnd = index.getEnd(id);
+                lastType = index.getTypeIndex(id);
+                pos++;
+                init = true;
+                removed = false;
+                return clazz.cast(context.createSpan(id));
+            }
+            
+            @Override
+            public void remove() {
+                if(removed){
+                    throw new IllegalStateException(!init ?
+                        "remove can not be called before the first call to next" :
+                        "the current Span was already removed!");
+                }
+                int current = index.find(lastStart, lastEnd, lastType);
+                if(current >= 0){
+                    index.removeAt(current);
+                }
+                removed = true;
+            }
+        };
+    }
+    
+    protected static int typeMask(SpanTypeEnum type){
+        return 1 << type.ordinal();
+    }
+    
+    protected static int typeMask(Set<SpanTypeEnum> types){
+        int mask = 0;
+        for(SpanTypeEnum type : types){
+            mask |= typeMask(type);
+        }
+        return mask;
+    }
+}
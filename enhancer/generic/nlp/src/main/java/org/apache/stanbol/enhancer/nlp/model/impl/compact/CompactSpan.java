@@ -0,0 +1,251 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.nlp.model.impl.compact;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.stanbol.enhancer.nlp.model.Span;
+import org.apache.stanbol.enhancer.nlp.model.SpanTypeEnum;
+import org.apache.stanbol.enhancer.nlp.model.annotation.Annotation;
+import org.apache.stanbol.enhancer.nlp.model.annotation.Value;
+
+/**
+ * Light weight {@link Span} implementation that only holds the id of the
+ * span and a reference to the {@link CompactAnalysedText}. All data
+ * (offsets, type and annotations) are stored by the AnalysedText. Instances
+ * are created on demand and are equal to each other if they have the same
+ * type, start and end.
+ */
+public abstract class CompactSpan implements Span {
+
+    protected final CompactAnalysedText context;
+    
+    protected final int id;
+    
+    /**
+     * @param context the context or <code>null</code> if the created 
+     * instance is the {@link CompactAnalysedText} itself.
+     * @param id the id of the span
+     */
+    protected CompactSpan(CompactAnalysedText context, int id) {
+        this.context = context == null ? (CompactAnalysedText)this : context;
+        this.id = id;
+    }
+    
+    @Override
+    public SpanTypeEnum getType() {
+        return context.index.getType(id);
+    }
+    
+    @Override
+    public int getStart() {
+        return context.index.getStart(id);
+    }
+    
+    @Override
+    public int getEnd() {
+        return context.index.getEnd(id);
+    }
+    
+    @Override
+    public CompactAnalysedText getContext() {
+        return context;
+    }
+    
+    @Override
+    public String getSpan() {
+        return context.getText().subSequence(getStart(), getEnd()).toString();
+    }
+    
+    @Override
+    public Set<String> getKeys() {
+        return context.getKeys(id);
+    }
+    
+    @Override
+    public Value<?> getValue(String key) {
+        return first(context.getAnnotation(key, id));
+    }
+    
+    @SuppressWarnings("unchecked")
+    @Override
+    public <V> Value<V> getAnnotation(Annotation<V> annotation) {
+        return (Value<V>)first(context.getAnnotation(annotation.getKey(), id));
+    }
+    
+    @Override
+    public List<Value<?>> getValues(String key) {
+        return all(context.getAnnotation(key, id));
+    }
+    
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    @Override
+    public <V> List<Value<V>> getAnnotations(Annotation<V> annotation) {
+        return (List)all(context.getAnnotation(annotation.getKey(), id));
+    }
+    
+    @Override
+    public <V> void addAnnotation(Annotation<V> annotation, Value<V> value) {
+        addValue(annotation.getKey(), value);
+    }
+    
+    @Override
+    public <V> void setAnnotation(Annotation<V> annotation, Value<V> value) {
+        setValue(annotation.getKey(), value);
+    }
+    
+    @Override
+    public void addValue(String key, Value<?> value) {
+        if(value != null){
+            addValuesInternal(key, Collections.singletonList(value));
+        }
+    }
+    
+    @Override
+    public void setValue(String key, Value<?> value) {
+        context.setAnnotation(key, id, value);
+    }
+    
+    @Override
+    public <V> void addAnnotations(Annotation<V> annotation, List<Value<V>> values) {
+        addValuesInternal(annotation.getKey(), values);
+    }
+    
+    @Override
+    public <V> void setAnnotations(Annotation<V> annotation, List<Value<V>> values) {
+        setValuesInternal(annotation.getKey(), values);
+    }
+    
+    @Override
+    public void addValues(String key, List<Value<?>> values) {
+        addValuesInternal(key, values);
+    }
+    
+    @Override
+    public void setValues(String key, List<Value<?>> values) {
+        setValuesInternal(key, values);
+    }
+    /**
+     * Just here because of Java generics combined with Collections ...
+     */
+    private void addValuesInternal(String key, List<?> values){
+        if(values == null || values.isEmpty()){
+            return;
+        }
+        Object current = context.getAnnotation(key, id);
+        if(current == null){
+            setValuesInternal(key, values);
+            return;
+        }
+        Value<?>[] newValues;
+        int length;
+        if(current instanceof Value<?>){
+            newValues = new Value<?>[values.size()+1];
+            newValues[0] = (Value<?>)current;
+            length = 1;
+        } else { //an Array
+            length = ((Value<?>[])current).length;
+            newValues = new Value<?>[values.size()+length];
+            System.arraycopy(current, 0, newValues, 0, length);
+        }
+        for(Object value : values){
+            newValues[length] = (Value<?>)value;
+            length++;
+        }
+        Arrays.sort(newValues,Value.PROBABILITY_COMPARATOR);
+        context.setAnnotation(key, id, newValues);
+    }
+    /**
+     * Just here because of Java generics combined with Collections ...
+     */
+    private void setValuesInternal(String key, List<?> values){
+        if(values == null || values.isEmpty()){
+            context.setAnnotation(key, id, null);
+        } else if(values.size() == 1){
+            context.setAnnotation(key, id, values.get(0));
+        } else {
+            //we need to copy, because users might change the parsed List!
+            Value<?>[] copy = values.toArray(new Value<?>[values.size()]);
+            Arrays.sort(copy,Value.PROBABILITY_COMPARATOR);
+            context.setAnnotation(key, id, copy);
+        }
+    }
+    
+    private static Value<?> first(Object value){
+        if(value instanceof Value<?>){
+            return (Value<?>)value;
+        } else if(value != null){
+            return ((Value<?>[])value)[0];
+        } else {
+            return null;
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static List<Value<?>> all(Object value){
+        if(value instanceof Value<?>){
+            List<?> singleton = Collections.singletonList((Value<?>)value);
+            return (List<Value<?>>)singleton;
+        } else if(value != null){
+            return Collections.unmodifiableList(Arrays.asList((Value<?>[])value));
+        } else {
+            return Collections.emptyList();
+        }
+    }
+    
+    @Override
+    public int hashCode() {
+        //same as SpanImpl
+        return 31 * (31 + getStart()) + getEnd();
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if(obj == this){
+            return true;
+        }
+        if(!(obj instanceof CompactSpan)){
+            return false;
+        }
+        CompactSpan o = (CompactSpan)obj;
+        return (o.context == context && o.id == id) || (getType() == o.getType() &&
+                getStart() == o.getStart() && getEnd() == o.getEnd());
+    }
+    
+    @Override
+    public int compareTo(Span o) {
+        int start = getStart();
+        if(start != o.getStart()){
+            return start < o.getStart() ? -1 : 1;
+        }
+        int end = getEnd();
+        if(end != o.getEnd()){ //end in DESC order
+            return end < o.getEnd() ? 1 : -1;
+        }
+        int o1 = getType().ordinal();
+        int o2 = o.getType().ordinal();
+        return o1 < o2 ? -1 : o1 == o2 ? 0 : 1;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s: [%d, %d]", getType(), getStart(), getEnd());
+    }
+}
@@ -0,0 +1,197 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.nlp.model.impl.compact;
+
+import java.util.Arrays;
+
+import org.apache.stanbol.enhancer.nlp.model.SpanTypeEnum;
+
+/**
+ * Columnar storage of the spans of an {@link CompactAnalysedText}. The
+ * start/end offsets and the types of spans are stored in primitive arrays
+ * indexed by the (stable) id of the span. In addition an array with the ids
+ * sorted by the natural order of spans (start ASC, end DESC, type ASC - see
+ * {@link org.apache.stanbol.enhancer.nlp.model.impl.SpanImpl#compareTo(org.apache.stanbol.enhancer.nlp.model.Span)})
+ * is maintained. Lookups use binary search over this array.<p>
+ * Ids are never reused. Removing a span only removes it from the sorted
+ * array.<p>
+ * This class is not thread safe.
+ */
+final class SpanIndex {
+
+    private static final SpanTypeEnum[] TYPES = SpanTypeEnum.values();
+    
+    private static final int DEFAULT_CAPACITY = 64;
+    
+    private int[] starts;
+    private int[] ends;
+    private byte[] types;
+    /**
+     * The number of ids
+     */
+    private int size;
+    /**
+     * The ids sorted by the natural order of spans
+     */
+    private int[] order;
+    /**
+     * The number of elements in {@link #order}
+     */
+    private int orderSize;
+    /**
+     * Incremented on every modification of {@link #order}
+     */
+    private int modCount;
+    
+    SpanIndex(int capacity){
+        capacity = Math.max(capacity, DEFAULT_CAPACITY);
+        starts = new int[capacity];
+        ends = new int[capacity];
+        types = new byte[capacity];
+        order = new int[capacity];
+    }
+    /**
+     * Creates a new id for a span that is NOT added to the sorted index.
+     * Used for the {@link SpanTypeEnum#Text} span.
+     */
+    int create(SpanTypeEnum type, int start, int end){
+        ensureIdCapacity(size+1);
+        starts[size] = start;
+        ends[size] = end;
+        types[size] = (byte)type.ordinal();
+        return size++;
+    }
+    /**
+     * Adds a span to the index
+     * @return the id of the added span or the id of an already present
+     * span with the same type, start and end.
+     */
+    int add(SpanTypeEnum type, int start, int end){
+        int typeIdx = type.ordinal();
+        int pos = find(start, end, typeIdx);
+        if(pos >= 0){
+            return order[pos];
+        }
+        pos = -pos-1;
+        int id = create(type, start, end);
+        if(orderSize == order.length){
+            order = Arrays.copyOf(order, grow(order.length));
+        }
+        if(pos < orderSize){
+            System.arraycopy(order, pos, order, pos+1, orderSize-pos);
+        }
+        order[pos] = id;
+        orderSize++;
+        modCount++;
+        return id;
+    }
+    /**
+     * Removes the span at the parsed position of the sorted index
+     */
+    void removeAt(int pos){
+        if(pos < 0 || pos >= orderSize){
+            throw new IndexOutOfBoundsException("position "+pos+" (size: "+orderSize+")");
+        }
+        if(pos < orderSize-1){
+            System.arraycopy(order, pos+1, order, pos, orderSize-pos-1);
+        }
+        orderSize--;
+        modCount++;
+    }
+    /**
+     * Binary search for a span within the sorted index.
+     * @return the position or <code>-(insertion point) - 1</code> if the 
+     * span is not present (see {@link Arrays#binarySearch(int[], int)})
+     */
+    int find(int start, int end, int type){
+        int low = 0;
+        int high = orderSize - 1;
+        while(low <= high){
+            int mid = (low + high) >>> 1;
+            int cmp = compare(order[mid], start, end, type);
+            if(cmp < 0){
+                low = mid + 1;
+            } else if(cmp > 0){
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+    /**
+     * The position of the first span in the sorted index that is greater
+     * as the parsed one.
+     */
+    int higher(int start, int end, int type){
+        int pos = find(start, end, type);
+        return pos >= 0 ? pos + 1 : -pos - 1;
+    }
+    /**
+     * Compares the span with the parsed id with the parsed values
+     */
+    private int compare(int id, int start, int end, int type){
+        if(starts[id] != start){
+            return starts[id] < start ? -1 : 1;
+        }
+        if(ends[id] != end){ //end in DESC order
+            return ends[id] < end ? 1 : -1;
+        }
+        return types[id] < type ? -1 : types[id] == type ? 0 : 1;
+    }
+    
+    int getStart(int id){
+        return starts[id];
+    }
+    int getEnd(int id){
+        return ends[id];
+    }
+    int getTypeIndex(int id){
+        return types[id];
+    }
+    SpanTypeEnum getType(int id){
+        return TYPES[types[id]];
+    }
+    /**
+     * The id of the span at the parsed position of the sorted index
+     */
+    int idAt(int pos){
+        return order[pos];
+    }
+    /**
+     * The number of spans in the sorted index
+     */
+    int size(){
+        return orderSize;
+    }
+    int modCount(){
+        return modCount;
+    }
+    
+    private void ensureIdCapacity(int capacity){
+        if(capacity > starts.length){
+            int length = grow(starts.length);
+            starts = Arrays.copyOf(starts, length);
+            ends = Arrays.copyOf(ends, length);
+            types = Arrays.copyOf(types, length);
+        }
+    }
+    
+    private static int grow(int length){
+        return length + (length >> 1);
+    }
+}
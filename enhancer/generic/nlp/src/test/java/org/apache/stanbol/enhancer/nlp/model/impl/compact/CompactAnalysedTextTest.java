@@ -0,0 +1,196 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.nlp.model.impl.compact;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.stanbol.enhancer.contentitem.inmemory.InMemoryContentItemFactory;
+import org.apache.stanbol.enhancer.nlp.NlpAnnotations;
+import org.apache.stanbol.enhancer.nlp.model.AnalysedText;
+import org.apache.stanbol.enhancer.nlp.model.AnalysedTextFactory;
+import org.apache.stanbol.enhancer.nlp.model.Chunk;
+import org.apache.stanbol.enhancer.nlp.model.Sentence;
+import org.apache.stanbol.enhancer.nlp.model.Span;
+import org.apache.stanbol.enhancer.nlp.model.SpanTypeEnum;
+import org.apache.stanbol.enhancer.nlp.model.Token;
+import org.apache.stanbol.enhancer.nlp.model.annotation.Value;
+import org.apache.stanbol.enhancer.nlp.pos.LexicalCategory;
+import org.apache.stanbol.enhancer.nlp.pos.PosTag;
+import org.apache.stanbol.enhancer.servicesapi.Blob;
+import org.apache.stanbol.enhancer.servicesapi.impl.StringSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests that the {@link CompactAnalysedText} behaves the same as the default
+ * {@link AnalysedText} implementation.
+ */
+public class CompactAnalysedTextTest {
+
+    private static final String TEXT = "The Stanbol enhancer can detect famous " +
+            "cities such as Paris and people such as Bob Marley. With " +
+            "disambiguation it would even be able to detect the Comedian " +
+            "Bob Marley trafeling to Paris in Texas.";
+
+    private static final PosTag NOUN = new PosTag("NN", LexicalCategory.Noun);
+    private static final PosTag PROPER_NOUN = new PosTag("NP", LexicalCategory.Noun);
+    
+    private static final AnalysedTextFactory defaultFactory = AnalysedTextFactory.getDefaultInstance();
+    private static final AnalysedTextFactory compactFactory = new CompactAnalysedTextFactory();
+    
+    private static AnalysedText create(AnalysedTextFactory factory) throws IOException {
+        Blob blob = InMemoryContentItemFactory.getInstance().createBlob(new StringSource(TEXT));
+        return factory.createAnalysedText(blob);
+    }
+    /**
+     * Adds Sentences, Chunks and Tokens in an order that requires inserts in
+     * the middle of the sorted index and adds spans while iterating. 
+     */
+    private static void fill(AnalysedText at){
+        int sentEnd = TEXT.indexOf('.')+1;
+        at.addSentence(sentEnd+1, TEXT.length());
+        at.addSentence(0, sentEnd);
+        Iterator<Sentence> sentences = at.getSentences();
+        while(sentences.hasNext()){
+            Sentence sentence = sentences.next();
+            String text = sentence.getSpan();
+            int start = 0;
+            for(int i = 0; i <= text.length(); i++){
+                if(i == text.length() || text.charAt(i) == ' ' || text.charAt(i) == '.'){
+                    if(i > start){
+                        Token token = sentence.addToken(start, i);
+                        token.addAnnotation(NlpAnnotations.POS_ANNOTATION, 
+                            Value.value(Character.isUpperCase(text.charAt(start)) ? 
+                                    PROPER_NOUN : NOUN, 0.9));
+                    }
+                    start = i + 1;
+                }
+            }
+            int bob = text.indexOf("Bob Marley");
+            sentence.addChunk(bob, bob+"Bob Marley".length());
+        }
+        //duplicates MUST NOT be added
+        at.addChunk(4, 20);
+        at.addChunk(4, 20);
+    }
+    
+    private static List<String> asList(Iterator<? extends Span> it){
+        List<String> spans = new ArrayList<String>();
+        while(it.hasNext()){
+            Span span = it.next();
+            Value<PosTag> pos = span.getAnnotation(NlpAnnotations.POS_ANNOTATION);
+            spans.add(span.getType()+"["+span.getStart()+","+span.getEnd()+"]"
+                    +span.getSpan() + (pos == null ? "" : "|"+pos.value().getTag()));
+        }
+        return spans;
+    }
+    
+    @Test
+    public void testSameSpans() throws IOException {
+        AnalysedText expected = create(defaultFactory);
+        AnalysedText compact = create(compactFactory);
+        Assert.assertTrue(compact instanceof CompactAnalysedText);
+        fill(expected);
+        fill(compact);
+        EnumSet<SpanTypeEnum> all = EnumSet.allOf(SpanTypeEnum.class);
+        Assert.assertEquals(asList(expected.getEnclosed(all)), asList(compact.getEnclosed(all)));
+        Assert.assertEquals(asList(expected.getTokens()), asList(compact.getTokens()));
+        Assert.assertEquals(asList(expected.getChunks()), asList(compact.getChunks()));
+        Iterator<Sentence> expSentences = expected.getSentences();
+        Iterator<Sentence> sentences = compact.getSentences();
+        while(expSentences.hasNext()){
+            Sentence expSentence = expSentences.next();
+            Sentence sentence = sentences.next();
+            Assert.assertEquals(expSentence.getSpan(), sentence.getSpan());
+            Assert.assertEquals(asList(expSentence.getTokens()), asList(sentence.getTokens()));
+            Assert.assertEquals(asList(expSentence.getChunks()), asList(sentence.getChunks()));
+            Assert.assertEquals(asList(expSentence.getEnclosed(all, 5, 40)), 
+                asList(sentence.getEnclosed(all, 5, 40)));
+        }
+        Assert.assertFalse(sentences.hasNext());
+    }
+    
+    @Test
+    public void testSpanEquality() throws IOException {
+        AnalysedText at = create(compactFactory);
+        Sentence sentence = at.addSentence(0, 20);
+        Token token = sentence.addToken(4, 11);
+        Assert.assertEquals(token, at.addToken(4, 11));
+        Assert.assertEquals(token.hashCode(), at.addToken(4, 11).hashCode());
+        Assert.assertFalse(token.equals(at.addChunk(4, 11)));
+        Assert.assertEquals("Stanbol", token.getSpan());
+        Assert.assertEquals(sentence, at.getSentences().next());
+        Assert.assertTrue(sentence.compareTo(token) < 0);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testExceedsRelativeSpan() throws IOException {
+        Sentence sent = create(compactFactory).addSentence(0, 10);
+        sent.addChunk(5, 15); //Invalid
+    }
+    
+    @Test
+    public void testRemove() throws IOException {
+        AnalysedText at = create(compactFactory);
+        fill(at);
+        int tokens = asList(at.getTokens()).size();
+        Iterator<Token> it = at.getTokens();
+        it.next();
+        it.remove();
+        Token second = it.next();
+        Assert.assertEquals(tokens-1, asList(at.getTokens()).size());
+        Assert.assertEquals(second, at.getTokens().next());
+    }
+    
+    @Test
+    public void testAnnotations() throws IOException {
+        AnalysedText at = create(compactFactory);
+        Token token = at.addToken(4, 11);
+        Assert.assertNull(token.getAnnotation(NlpAnnotations.POS_ANNOTATION));
+        Assert.assertTrue(token.getKeys().isEmpty());
+        token.addAnnotation(NlpAnnotations.POS_ANNOTATION, Value.value(NOUN, 0.3));
+        token.addAnnotations(NlpAnnotations.POS_ANNOTATION, Arrays.asList(
+            Value.value(PROPER_NOUN, 0.6)));
+        Assert.assertEquals(PROPER_NOUN, token.getAnnotation(NlpAnnotations.POS_ANNOTATION).value());
+        List<Value<PosTag>> values = token.getAnnotations(NlpAnnotations.POS_ANNOTATION);
+        Assert.assertEquals(2, values.size());
+        Assert.assertEquals(NOUN, values.get(1).value());
+        Assert.assertEquals(0.3, values.get(1).probability(), 0.0d);
+        Assert.assertEquals(1, token.getKeys().size());
+        //other spans are not affected
+        Assert.assertNull(at.addToken(12, 20).getAnnotation(NlpAnnotations.POS_ANNOTATION));
+        Assert.assertNull(at.getAnnotation(NlpAnnotations.POS_ANNOTATION));
+        //a new instance for the same span sees the annotations
+        token = at.addToken(4, 11);
+        token.setAnnotation(NlpAnnotations.POS_ANNOTATION, Value.value(NOUN));
+        Assert.assertEquals(1, token.getAnnotations(NlpAnnotations.POS_ANNOTATION).size());
+        Assert.assertEquals(Value.UNKNOWN_PROBABILITY, 
+            token.getAnnotation(NlpAnnotations.POS_ANNOTATION).probability(), 0.0d);
+        token.setAnnotation(NlpAnnotations.POS_ANNOTATION, null);
+        Assert.assertNull(token.getAnnotation(NlpAnnotations.POS_ANNOTATION));
+        Assert.assertTrue(token.getKeys().isEmpty());
+        //annotations on the AnalysedText itself
+        at.addValue("test", Value.value(5));
+        Assert.assertEquals(5, at.getValue("test").value());
+        Assert.assertNull(token.getValue("test"));
+    }
+}
@@ -0,0 +1,56 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.servicesapi;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Extension of the {@link EnhancementJobManager} interface that supports
+ * the enhancement of {@link ContentItem}s without blocking the calling
+ * thread until the enhancement process has finished.<p>
+ * This allows e.g. RESTful services to release container threads while
+ * the {@link EnhancementEngine}s are processing the content.<p>
+ * Users should check if the {@link EnhancementJobManager} service is an
+ * instance of this interface and fall back to 
+ * {@link #enhanceContent(ContentItem, Chain)} otherwise.
+ */
+public interface AsyncEnhancementJobManager extends EnhancementJobManager {
+
+    /**
+     * Asynchronously processes the parsed {@link ContentItem} by using the 
+     * {@link Chain#getExecutionPlan() execution plan} provided by the
+     * {@link Chain}.<p>
+     * Failures while processing the ContentItem are reported by the returned
+     * {@link Future} - {@link Future#get()} throws an {@link ExecutionException}
+     * with the {@link EnhancementException} as cause - and the parsed
+     * callback.
+     * @param ci the ContentItem to be enhanced
+     * @param chain the enhancement Chain used to process the content item
+     * @param callback the callback notified as soon as the enhancement
+     * process has completed or failed. May be <code>null</code>
+     * @return the future for the enhanced ContentItem. Cancelling the
+     * returned Future is not supported.
+     * @throws EnhancementException if the enhancement process could not be
+     * started (e.g. because the execution plan of the chain is not valid)
+     * @throws IllegalArgumentException if <code>null</code> is parsed as
+     * ContentItem or Chain
+     */
+    Future<ContentItem> enhanceContentAsync(ContentItem ci, Chain chain, 
+            EnhancementJobCallback callback) throws EnhancementException;
+
+}
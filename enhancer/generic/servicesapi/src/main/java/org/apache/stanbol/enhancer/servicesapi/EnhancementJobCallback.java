@@ -0,0 +1,43 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.servicesapi;
+
+/**
+ * Callback used to get notified about the completion of an enhancement
+ * process started by using
+ * {@link AsyncEnhancementJobManager#enhanceContentAsync(ContentItem, Chain, EnhancementJobCallback)}.<p>
+ * Implementations MUST NOT block for a long time, as they are called by
+ * threads of the {@link EnhancementJobManager}. Exactly one of the two
+ * methods is called for every enhancement job.
+ */
+public interface EnhancementJobCallback {
+
+    /**
+     * Called after the parsed {@link ContentItem} was successfully enhanced.
+     * @param ci the enhanced ContentItem
+     */
+    void completed(ContentItem ci);
+    /**
+     * Called if the enhancement of the parsed {@link ContentItem} failed.
+     * @param ci the ContentItem
+     * @param exception the exception. Typically an {@link EnhancementException}
+     * ({@link ChainException} for timeouts) but can also be a
+     * {@link RuntimeException} such as a {@link SecurityException}.
+     */
+    void failed(ContentItem ci, Exception exception);
+
+}
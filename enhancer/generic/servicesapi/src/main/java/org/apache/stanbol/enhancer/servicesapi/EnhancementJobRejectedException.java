@@ -0,0 +1,37 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.servicesapi;
+
+/**
+ * Thrown by {@link EnhancementJobManager} implementations if an enhancement
+ * request can not be accepted because of the current load (e.g. the maximum
+ * number of concurrently processed jobs for a {@link Chain} is reached or
+ * the queue of an {@link EnhancementEngine} is full).<p>
+ * Callers are expected to retry the request later. The RESTful interface of
+ * the Stanbol Enhancer maps this exception to <code>429 Too Many Requests</code>.
+ */
+public class EnhancementJobRejectedException extends ChainException {
+
+    private static final long serialVersionUID = 1L;
+
+    public EnhancementJobRejectedException(String message) {
+        super(message);
+    }
+    public EnhancementJobRejectedException(String message, Throwable cause) {
+        super(message,cause);
+    }
+}
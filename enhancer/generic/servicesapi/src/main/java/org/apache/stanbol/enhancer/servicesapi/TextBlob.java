@@ -0,0 +1,43 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.servicesapi;
+
+import java.io.IOException;
+
+import org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper;
+
+/**
+ * A {@link Blob} that is able to provide the decoded text of its content.
+ * Implementations typically decode the content only once and share the
+ * decoded text between all callers (e.g. all the {@link EnhancementEngine}s
+ * of a {@link Chain} that need to process the plain text of a 
+ * {@link ContentItem}).<p>
+ * Components should not use this interface directly but call
+ * {@link ContentItemHelper#getText(Blob)} as this will use this interface
+ * if available.
+ */
+public interface TextBlob extends Blob {
+
+    /**
+     * Getter for the text of this Blob. Implementations MUST respect the
+     * "charset" {@link #getParameter() parameter} and use "UTF-8" if no
+     * charset is present.
+     * @return the text
+     * @throws IOException on any error while reading or decoding the content
+     */
+    String getText() throws IOException;
+}
@@ -38,6 +38,7 @@ import org.apache.commons.io.IOUtils;
 import org.apache.stanbol.enhancer.servicesapi.Blob;
 import org.apache.stanbol.enhancer.servicesapi.ContentItem;
 import org.apache.stanbol.enhancer.servicesapi.NoSuchPartException;
+import org.apache.stanbol.enhancer.servicesapi.TextBlob;
 
 
 /**
@@ -326,7 +327,10 @@ public final class ContentItemHelper {
     /**
      * Getter for the Text of an {@link Blob}. This method respects the
      * "charset" if present in the {@link Blob#getParameter() parameter} of the
-     * Blob.
+     * Blob.<p>
+     * If the parsed Blob is a {@link TextBlob} the text is retrieved by 
+     * {@link TextBlob#getText()} so that the decoded text can be shared by
+     * multiple callers.
      * @param blob the {@link Blob}. MUST NOT be <code>null</code>.
      * @return the text
      * @throws IOException on any exception while reading from the
@@ -337,6 +341,9 @@ public final class ContentItemHelper {
         if(blob == null){
             throw new IllegalArgumentException("The parsed Blob MUST NOT be NULL!");
         }
+        if(blob instanceof TextBlob){
+            return ((TextBlob)blob).getText();
+        }
         String charset = blob.getParameter().get("charset");
         return IOUtils.toString(blob.getStream(), charset != null ? charset : UTF8);
     }
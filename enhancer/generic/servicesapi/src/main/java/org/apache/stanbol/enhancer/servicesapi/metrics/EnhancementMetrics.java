@@ -0,0 +1,81 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.servicesapi.metrics;
+
+import java.util.Map;
+
+import org.apache.stanbol.enhancer.servicesapi.Chain;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementEngine;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementJobManager;
+
+/**
+ * Service that aggregates latency histograms, throughput counters, error 
+ * rates and queue times of {@link EnhancementEngine} and {@link Chain} 
+ * executions.<p>
+ * {@link EnhancementJobManager} implementations are expected to report
+ * executions to this service if available. All times are parsed in
+ * nano seconds.
+ */
+public interface EnhancementMetrics {
+
+    /**
+     * Records the execution of an {@link EnhancementEngine}
+     * @param engineName the name of the engine
+     * @param queueTime the time the execution was waiting to be processed
+     * @param executionTime the time needed by the engine
+     * @param failed if the execution has failed
+     */
+    void recordEngineExecution(String engineName, long queueTime, long executionTime, boolean failed);
+    /**
+     * Records an execution of an {@link EnhancementEngine} that was rejected
+     * (e.g. because the queue of the engine was full)
+     * @param engineName the name of the engine
+     */
+    void recordEngineRejected(String engineName);
+    /**
+     * Records the execution of a {@link Chain}
+     * @param chainName the name of the chain
+     * @param queueTime the sum of the times the engine executions of the 
+     * chain where waiting to be processed
+     * @param executionTime the time needed to process the chain
+     * @param failed if the execution has failed (including timeouts)
+     */
+    void recordChainExecution(String chainName, long queueTime, long executionTime, boolean failed);
+    /**
+     * Records a request to enhance a content item with a {@link Chain} that
+     * was rejected (e.g. because the maximum number of concurrent jobs was
+     * reached)
+     * @param chainName the name of the chain
+     */
+    void recordChainRejected(String chainName);
+    /**
+     * Getter for the statistics of all {@link EnhancementEngine}s with 
+     * recorded executions.
+     * @return snapshots of the statistics by engine name
+     */
+    Map<String,ExecutionStatistics> getEngineStatistics();
+    /**
+     * Getter for the statistics of all {@link Chain}s with recorded
+     * executions
+     * @return snapshots of the statistics by chain name
+     */
+    Map<String,ExecutionStatistics> getChainStatistics();
+    /**
+     * Resets all recorded statistics
+     */
+    void reset();
+}
@@ -0,0 +1,205 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.servicesapi.metrics;
+
+/**
+ * Immutable snapshot of the statistics recorded by the
+ * {@link EnhancementMetrics} for an engine or a chain.
+ */
+public final class ExecutionStatistics {
+
+    private final String name;
+    private final long since;
+    private final long timestamp;
+    private final long count;
+    private final long errors;
+    private final long rejected;
+    private final Latency latency;
+    private final Latency queueTime;
+    
+    /**
+     * Creates a new snapshot
+     * @param name the name of the engine or chain
+     * @param since the time (ms) the recording of the statistics started
+     * @param timestamp the time (ms) the snapshot was taken
+     * @param count the number of executions
+     * @param errors the number of failed executions
+     * @param rejected the number of rejected executions
+     * @param latency the latency of the executions
+     * @param queueTime the times executions where waiting to be processed
+     */
+    public ExecutionStatistics(String name, long since, long timestamp, long count, long errors, 
+            long rejected, Latency latency, Latency queueTime) {
+        if(name == null){
+            throw new IllegalArgumentException("The parsed name MUST NOT be NULL!");
+        }
+        if(latency == null || queueTime == null){
+            throw new IllegalArgumentException("The parsed latency and queueTime MUST NOT be NULL!");
+        }
+        this.name = name;
+        this.since = since;
+        this.timestamp = timestamp;
+        this.count = count;
+        this.errors = errors;
+        this.rejected = rejected;
+        this.latency = latency;
+        this.queueTime = queueTime;
+    }
+    /**
+     * @return the name of the engine or chain
+     */
+    public String getName() {
+        return name;
+    }
+    /**
+     * @return the time (ms) the recording of the statistics started
+     */
+    public long getSince() {
+        return since;
+    }
+    /**
+     * @return the time (ms) this snapshot was taken
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+    /**
+     * @return the number of executions (including failed ones)
+     */
+    public long getCount() {
+        return count;
+    }
+    /**
+     * @return the number of failed executions
+     */
+    public long getErrors() {
+        return errors;
+    }
+    /**
+     * @return the number of rejected executions
+     */
+    public long getRejected() {
+        return rejected;
+    }
+    /**
+     * @return the ratio of failed executions <code>[0..1]</code>
+     */
+    public double getErrorRate() {
+        return count > 0 ? errors / (double)count : 0d;
+    }
+    /**
+     * @return the average number of executions per second
+     */
+    public double getThroughput() {
+        long duration = timestamp - since;
+        return duration > 0 ? count * 1000d / duration : 0d;
+    }
+    /**
+     * @return the latency of the executions
+     */
+    public Latency getLatency() {
+        return latency;
+    }
+    /**
+     * @return the times executions where waiting to be processed
+     */
+    public Latency getQueueTime() {
+        return queueTime;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s: %d executions (%d errors, %d rejected, %.2f/sec) | latency %s "
+            + "| queue %s", name, count, errors, rejected, getThroughput(), latency, queueTime);
+    }
+    
+    /**
+     * Summary of a latency histogram. All values are in nano seconds.
+     */
+    public static final class Latency {
+        
+        private final long count;
+        private final long min;
+        private final long max;
+        private final double mean;
+        private final long median;
+        private final long p90;
+        private final long p99;
+        private final long p999;
+
+        public Latency(long count, long min, long max, double mean, 
+                long median, long p90, long p99, long p999){
+            this.count = count;
+            this.min = min;
+            this.max = max;
+            this.mean = mean;
+            this.median = median;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.p999 = p999;
+        }
+        /**
+         * @return the number of recorded values
+         */
+        public long getCount() {
+            return count;
+        }
+        
+        public long getMin() {
+            return min;
+        }
+        
+        public long getMax() {
+            return max;
+        }
+        
+        public double getMean() {
+            return mean;
+        }
+        /**
+         * @return the 50th percentile
+         */
+        public long getMedian() {
+            return median;
+        }
+        /**
+         * @return the 90th percentile
+         */
+        public long get90thPercentile() {
+            return p90;
+        }
+        /**
+         * @return the 99th percentile
+         */
+        public long get99thPercentile() {
+            return p99;
+        }
+        /**
+         * @return the 99.9th percentile
+         */
+        public long get999thPercentile() {
+            return p999;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("[mean: %.2fms, p50: %.2fms, p90: %.2fms, p99: %.2fms, "
+                + "p99.9: %.2fms, max: %.2fms]", mean / 1000000d, median / 1000000d,
+                p90 / 1000000d, p99 / 1000000d, p999 / 1000000d, max / 1000000d);
+        }
+    }
+}
@@ -34,6 +34,7 @@ import static org.apache.stanbol.enhancer.servicesapi.rdf.TechnicalClasses.ENHAN
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.io.UnsupportedEncodingException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
@@ -41,6 +42,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLDecoder;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -76,37 +78,75 @@ import org.apache.commons.fileupload.FileUploadException;
 import org.apache.commons.fileupload.RequestContext;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Properties;
 import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.apache.felix.scr.annotations.ReferencePolicy;
 import org.apache.felix.scr.annotations.Service;
 import org.apache.stanbol.commons.indexedgraph.IndexedGraph;
 import org.apache.stanbol.enhancer.servicesapi.Blob;
 import org.apache.stanbol.enhancer.servicesapi.ContentItem;
 import org.apache.stanbol.enhancer.servicesapi.ContentItemFactory;
+import org.apache.stanbol.enhancer.servicesapi.ContentSource;
 import org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper;
 import org.apache.stanbol.enhancer.servicesapi.helper.EnhancementEngineHelper;
+import org.apache.stanbol.enhancer.servicesapi.impl.ByteArraySource;
 import org.apache.stanbol.enhancer.servicesapi.impl.StreamSource;
 import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONException;
 import org.codehaus.jettison.json.JSONObject;
+import org.osgi.service.cm.ConfigurationException;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-@Component
+@Component(metatype=true)
 @Service(Object.class)
-@Property(name = "javax.ws.rs", boolValue = true)
+@Properties(value={
+    @Property(name = "javax.ws.rs", boolValue = true, propertyPrivate=true),
+    @Property(name = ContentItemReader.MAX_MEMORY_PER_REQUEST, 
+        longValue = ContentItemReader.DEFAULT_MAX_MEMORY_PER_REQUEST)
+})
 @Provider
 public class ContentItemReader implements MessageBodyReader<ContentItem> {
     
     
     private static Logger log = LoggerFactory.getLogger(ContentItemReader.class);
+    /**
+     * The maximum number of bytes of parsed content kept in memory for a
+     * single request. Contents exceeding this limit are streamed to 
+     * {@link ContentItem}s and {@link Blob}s created by the file based
+     * {@link ContentItemFactory} (if available).
+     */
+    public static final String MAX_MEMORY_PER_REQUEST = "stanbol.enhancer.jersey.reader.maxMemoryPerRequest";
+    /**
+     * The default maximum memory per request is 1MByte
+     */
+    public static final long DEFAULT_MAX_MEMORY_PER_REQUEST = 1024 * 1024;
+    /**
+     * The size of the chunks used to read contents into memory
+     */
+    private static final int CHUNK_SIZE = 8 * 1024;
+    
     FileUpload fu = new FileUpload();
     @Reference
     private Parser parser;
 
     @Reference
     private ContentItemFactory ciFactory;
+    /**
+     * Used for contents that exceed the {@link #maxMemoryPerRequest}. If not
+     * available all contents are parsed to the {@link #ciFactory}.
+     */
+    @Reference(cardinality=ReferenceCardinality.OPTIONAL_UNARY,
+        policy=ReferencePolicy.DYNAMIC,
+        target="(component.name=org.apache.stanbol.enhancer.contentitem.file.FileContentItemFactory)")
+    private volatile ContentItemFactory fileCiFactory;
+    
+    private long maxMemoryPerRequest = DEFAULT_MAX_MEMORY_PER_REQUEST;
     
     /**
      * Used to read the queryParameter with the ContentItem ID
@@ -132,6 +172,40 @@ public class ContentItemReader implements MessageBodyReader<ContentItem> {
     protected ContentItemFactory getContentItemFactory(){
         return ciFactory;
     }
+    /**
+     * Getter for the {@link ContentItemFactory} used for contents that
+     * exceed the {@link #getMaxMemoryPerRequest() maximum memory per request}
+     * @return the factory or <code>null</code> if not available
+     */
+    protected ContentItemFactory getFileContentItemFactory(){
+        return fileCiFactory;
+    }
+    /**
+     * Getter for the maximum number of bytes of parsed content kept in memory
+     * for a single request.
+     * @return the maximum memory per request
+     */
+    protected long getMaxMemoryPerRequest(){
+        return maxMemoryPerRequest;
+    }
+    
+    @Activate
+    protected void activate(ComponentContext ctx) throws ConfigurationException {
+        Object value = ctx.getProperties().get(MAX_MEMORY_PER_REQUEST);
+        if(value instanceof Number){
+            maxMemoryPerRequest = ((Number)value).longValue();
+        } else if(value != null && !value.toString().trim().isEmpty()){
+            try {
+                maxMemoryPerRequest = Long.parseLong(value.toString().trim());
+            } catch (NumberFormatException e) {
+                throw new ConfigurationException(MAX_MEMORY_PER_REQUEST, 
+                    "Unable to parse the maximum memory per request from '"+value+"'!", e);
+            }
+        } else {
+            maxMemoryPerRequest = DEFAULT_MAX_MEMORY_PER_REQUEST;
+        }
+        log.debug(" ... max memory per request: {}bytes", maxMemoryPerRequest);
+    }
     
     @Override
     public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
@@ -163,6 +237,8 @@ public class ContentItemReader implements MessageBodyReader<ContentItem> {
             entityStream = new ByteArrayInputStream(content);
         }
         Set<String> parsedContentIds = new HashSet<String>();
+        //the number of bytes still available to keep contents in memory
+        long[] memoryBudget = new long[]{getMaxMemoryPerRequest()};
         if(mediaType.isCompatible(MULTIPART)){
             log.debug(" - parse Multipart MIME ContentItem");
             //try to read ContentItem from "multipart/from-data"
@@ -198,7 +274,8 @@ public class ContentItemReader implements MessageBodyReader<ContentItem> {
                                 .build());
                         }
                     } else if(fis.getFieldName().equals("content")){
-                        contentItem = createContentItem(contentItemId, metadata, fis, parsedContentIds);
+                        contentItem = createContentItem(contentItemId, metadata, fis, 
+                            parsedContentIds, memoryBudget);
                     } else if(fis.getFieldName().equals("properties") ||
                             fis.getFieldName().equals(REQUEST_PROPERTIES_URI.getUnicodeString())){
                         //parse the RequestProperties
@@ -282,9 +359,8 @@ public class ContentItemReader implements MessageBodyReader<ContentItem> {
                 throw new WebApplicationException(e, Response.Status.BAD_REQUEST);
             }
         } else { //normal content
-            ContentItemFactory ciFactory = getContentItemFactory();
-            contentItem = ciFactory.createContentItem(contentItemId,
-                new StreamSource(entityStream, mediaType.toString()));
+            contentItem = createContentItem(contentItemId, 
+                readContent(entityStream, mediaType.toString(), memoryBudget), null);
             //add the URI of the main content
             parsedContentIds.add(contentItem.getPartUri(0).getUnicodeString());
         }
@@ -452,16 +528,18 @@ public class ContentItemReader implements MessageBodyReader<ContentItem> {
      * will be directly add as content for the {@link ContentItem} created by
      * this method.
      * @param parsedContentParts used to add the IDs of parsed contentParts 
+     * @param memoryBudget the number of bytes still available to keep
+     * contents of the current request in memory
      * @return the created content item
      * @throws IOException on any error while accessing the contents of the parsed
      * {@link FileItemStream}
      * @throws FileUploadException if the parsed contents are not correctly
      * encoded Multipart MIME
      */
-    private ContentItem createContentItem(IRI id, Graph metadata, FileItemStream content,Set<String> parsedContentParts) throws IOException, FileUploadException {
+    private ContentItem createContentItem(IRI id, Graph metadata, FileItemStream content,
+            Set<String> parsedContentParts, long[] memoryBudget) throws IOException, FileUploadException {
         MediaType partContentType = MediaType.valueOf(content.getContentType());
         ContentItem contentItem = null;
-        ContentItemFactory ciFactory = getContentItemFactory();
         if(MULTIPART.isCompatible(partContentType)){
             log.debug("  - multiple (alternate) ContentParts"); 
             //multiple contentParts are parsed
@@ -473,12 +551,13 @@ public class ContentItemReader implements MessageBodyReader<ContentItem> {
                 if(contentItem == null){
                     log.debug("  - create ContentItem {} for content (type:{})",
                         id,fis.getContentType());
-                    contentItem = ciFactory.createContentItem(id,
-                        new StreamSource(fis.openStream(),fis.getContentType()), 
+                    contentItem = createContentItem(id, 
+                        readContent(fis.openStream(), fis.getContentType(), memoryBudget), 
                         metadata);
                 } else {
                     log.debug("  - create Blob for content (type:{})", fis.getContentType());
-                    Blob blob = ciFactory.createBlob(new StreamSource(fis.openStream(), fis.getContentType()));
+                    ContentSource source = readContent(fis.openStream(), fis.getContentType(), memoryBudget);
+                    Blob blob = getContentItemFactory(source).createBlob(source);
                     IRI contentPartId = null;
                     if(fis.getFieldName() != null && !fis.getFieldName().isEmpty()){
                         contentPartId = new IRI(fis.getFieldName());
@@ -496,8 +575,8 @@ public class ContentItemReader implements MessageBodyReader<ContentItem> {
         } else {
             log.debug("  - create ContentItem {} for content (type:{})",
                 id,content.getContentType());
-            contentItem = ciFactory.createContentItem(id,
-                new StreamSource(content.openStream(),content.getContentType()), 
+            contentItem = createContentItem(id,
+                readContent(content.openStream(), content.getContentType(), memoryBudget), 
                 metadata);
         }
         //add the URI of the main content to the parsed contentParts
@@ -505,6 +584,74 @@ public class ContentItemReader implements MessageBodyReader<ContentItem> {
         return contentItem;
     }
     
+    /**
+     * Creates a {@link ContentItem} by using the {@link ContentItemFactory}
+     * {@link #getContentItemFactory(ContentSource) suitable} for the parsed
+     * content source.
+     */
+    private ContentItem createContentItem(IRI id, ContentSource source, Graph metadata) throws IOException {
+        return getContentItemFactory(source).createContentItem(id, source, metadata);
+    }
+    /**
+     * Getter for the {@link ContentItemFactory} used for the parsed source.
+     * Contents read into memory (a {@link ByteArraySource}) are parsed to the
+     * {@link #getContentItemFactory() default} factory. Streamed contents to 
+     * the {@link #getFileContentItemFactory() file based} one (if available).
+     */
+    private ContentItemFactory getContentItemFactory(ContentSource source){
+        ContentItemFactory fileCiFactory = getFileContentItemFactory();
+        if(fileCiFactory == null || source instanceof ByteArraySource){
+            return getContentItemFactory();
+        } else {
+            return fileCiFactory;
+        }
+    }
+    /**
+     * Reads the parsed stream into memory as long as the parsed memory
+     * budget allows. If the content exceeds the budget (or no file based
+     * {@link ContentItemFactory} is available) the content is streamed.<p>
+     * This ensures that the memory used for contents parsed with a single
+     * request is limited by {@link #getMaxMemoryPerRequest()} and that the
+     * content is never copied to an intermediate byte array as long as a
+     * file based {@link ContentItemFactory} is available.
+     * @param in the stream with the content
+     * @param mediaType the media type of the content
+     * @param memoryBudget the number of bytes still available to keep
+     * contents of the current request in memory. Updated by this method.
+     * @return a {@link ByteArraySource} if the content was read into memory
+     * or a {@link StreamSource} if the content needs to be streamed
+     * @throws IOException on any error while reading from the parsed stream
+     */
+    private ContentSource readContent(InputStream in, String mediaType, long[] memoryBudget) throws IOException {
+        if(getFileContentItemFactory() == null){ //nowhere to spill to
+            return new StreamSource(in, mediaType);
+        }
+        int limit = (int)Math.min(memoryBudget[0], Integer.MAX_VALUE - CHUNK_SIZE);
+        if(limit <= 0){
+            return new StreamSource(in, mediaType);
+        }
+        byte[] buffer = new byte[Math.min(limit + 1, CHUNK_SIZE)];
+        int size = 0;
+        int read;
+        while(size <= limit && (read = in.read(buffer, size, 
+                Math.min(buffer.length - size, limit + 1 - size))) != -1){
+            size = size + read;
+            if(size == buffer.length && size <= limit){ //grow the buffer
+                buffer = Arrays.copyOf(buffer, Math.min(limit + 1, buffer.length * 2));
+            }
+        }
+        if(size <= limit){ //read completely
+            memoryBudget[0] = memoryBudget[0] - size;
+            IOUtils.closeQuietly(in);
+            return new ByteArraySource(size == buffer.length ? buffer : 
+                Arrays.copyOf(buffer, size), mediaType);
+        } else { //limit exceeded -> stream the already read and the remaining data
+            log.debug("  - content (type: {}) exceeds memory limit of {} bytes -> stream",
+                mediaType, limit);
+            return new StreamSource(new SequenceInputStream(
+                new ByteArrayInputStream(buffer, 0, size), in), mediaType);
+        }
+    }
     /**
      * Adapter from the parameter present in an {@link MessageBodyReader} to
      * the {@link RequestContext} as used by the commons.fileupload framework
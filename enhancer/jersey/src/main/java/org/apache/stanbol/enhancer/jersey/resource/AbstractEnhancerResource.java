@@ -67,6 +67,7 @@ import org.apache.stanbol.enhancer.servicesapi.ContentItemFactory;
 import org.apache.stanbol.enhancer.servicesapi.EngineException;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementEngineManager;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementException;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementJobRejectedException;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementJobManager;
 import org.apache.stanbol.enhancer.servicesapi.NoSuchPartException;
 import org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper;
@@ -83,6 +84,17 @@ import org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionMetadata;
  */
 public abstract class AbstractEnhancerResource extends TemplateLayoutConfiguration {
 
+    /**
+     * The status code used for rejected enhancement requests (not defined
+     * by {@link Response.Status} of JAX-RS 2.0)
+     */
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final String RETRY_AFTER = "Retry-After";
+    /**
+     * The value of the Retry-After header for rejected enhancement requests
+     */
+    private static final int RETRY_AFTER_SECONDS = 1;
+
     protected final EnhancementJobManager jobManager;
     protected final EnhancementEngineManager engineManager;
     protected final ChainManager chainManager;
@@ -179,6 +191,21 @@ public abstract class AbstractEnhancerResource extends TemplateLayoutConfigurati
             @QueryParam(value = "omitMetadata") boolean omitMetadata,
             @QueryParam(value = "rdfFormat") String rdfFormat,
             @Context HttpHeaders headers) throws EnhancementException, IOException {
+        Map<String,Object> reqProp = initRequestProperties(ci, inclExecMetadata, mediaTypes, 
+            omitParsed, contentParts, omitMetadata, rdfFormat);
+        enhance(ci,reqProp);
+        return buildResponse(ci, headers);
+    }
+    /**
+     * Initialises the request properties of the parsed ContentItem based on
+     * the parsed request parameters
+     * @return the request properties
+     * @throws WebApplicationException if the parsed rdfFormat is not a
+     * valid media type
+     */
+    private Map<String,Object> initRequestProperties(ContentItem ci, boolean inclExecMetadata,
+            Set<String> mediaTypes, boolean omitParsed, Set<String> contentParts,
+            boolean omitMetadata, String rdfFormat) {
         Map<String,Object> reqProp = ContentItemHelper.initRequestPropertiesContentPart(ci);
         reqProp.put(INCLUDE_EXECUTION_METADATA, inclExecMetadata);
         if(mediaTypes != null && !mediaTypes.isEmpty()){
@@ -210,7 +237,15 @@ public abstract class AbstractEnhancerResource extends TemplateLayoutConfigurati
                     .build());
             }
         }
-        enhance(ci,reqProp);
+        return reqProp;
+    }
+    /**
+     * Builds the response for an enhanced ContentItem
+     * @param ci the enhanced content item
+     * @param headers the request headers
+     * @return the response
+     */
+    private Response buildResponse(ContentItem ci, HttpHeaders headers) {
         ResponseBuilder rb = Response.ok(ci);
         MediaType mediaType = MediaTypeUtil.getAcceptableMediaType(headers, null);
         if (mediaType != null) {
@@ -228,8 +263,33 @@ public abstract class AbstractEnhancerResource extends TemplateLayoutConfigurati
      */
     protected void enhance(ContentItem ci, Map<String,Object> reqProp) throws EnhancementException {
         if (jobManager != null) {
-            jobManager.enhanceContent(ci, getChain());
+            try {
+                jobManager.enhanceContent(ci, getChain());
+            } catch (EnhancementJobRejectedException e) {
+                throw createRejectedException(e);
+            }
         }
+        addExecutionMetadata(ci, reqProp);
+    }
+    /**
+     * Maps an {@link EnhancementJobRejectedException} to a 
+     * <code>429 Too Many Requests</code> response.
+     * @param e the exception
+     * @return the {@link WebApplicationException} to throw
+     */
+    private WebApplicationException createRejectedException(EnhancementJobRejectedException e) {
+        return new WebApplicationException(e, 
+            Response.status(TOO_MANY_REQUESTS)
+            .header(RETRY_AFTER, RETRY_AFTER_SECONDS)
+            .entity(e.getMessage()).build());
+    }
+    /**
+     * Adds the execution metadata to the metadata of the parsed content item
+     * if requested by the parsed request properties
+     * @param ci the enhanced content item
+     * @param reqProp the request properties or <code>null</code> if none
+     */
+    private void addExecutionMetadata(ContentItem ci, Map<String,Object> reqProp) {
         Graph graph = ci.getMetadata();
         Boolean includeExecutionMetadata = RequestPropertiesHelper.isIncludeExecutionMetadata(reqProp);
         if (includeExecutionMetadata != null && includeExecutionMetadata.booleanValue()) {
@@ -241,4 +301,4 @@ public abstract class AbstractEnhancerResource extends TemplateLayoutConfigurati
         }
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,137 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.jersey.resource;
+
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
+
+import java.util.Map;
+
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.apache.felix.scr.annotations.ReferencePolicy;
+import org.apache.felix.scr.annotations.Service;
+import org.apache.stanbol.commons.web.base.resource.BaseStanbolResource;
+import org.apache.stanbol.enhancer.servicesapi.metrics.EnhancementMetrics;
+import org.apache.stanbol.enhancer.servicesapi.metrics.ExecutionStatistics;
+import org.apache.stanbol.enhancer.servicesapi.metrics.ExecutionStatistics.Latency;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+
+/**
+ * Provides the latency histograms, throughput, error rates and queue times
+ * recorded by the {@link EnhancementMetrics} service for all Enhancement
+ * Engines and Chains. All times are in milliseconds.
+ */
+@Component
+@Service(Object.class)
+@Property(name = "javax.ws.rs", boolValue = true)
+@Path("/enhancer/metrics")
+public class EnhancerMetricsResource extends BaseStanbolResource {
+
+    private static final double NANOS_PER_MILLI = 1000000d;
+    
+    @Reference(cardinality=ReferenceCardinality.OPTIONAL_UNARY,
+        policy=ReferencePolicy.DYNAMIC)
+    private volatile EnhancementMetrics metrics;
+    
+    @GET
+    @Produces(APPLICATION_JSON)
+    public Response getMetricsAsJson() {
+        EnhancementMetrics metrics = getMetrics();
+        try {
+            JSONObject json = new JSONObject();
+            json.put("engines", toJson(metrics.getEngineStatistics()));
+            json.put("chains", toJson(metrics.getChainStatistics()));
+            return Response.ok(json.toString(2), APPLICATION_JSON).build();
+        } catch (JSONException e) {
+            throw new WebApplicationException(e, Status.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    @GET
+    @Produces(TEXT_PLAIN)
+    public Response getMetricsAsText() {
+        EnhancementMetrics metrics = getMetrics();
+        StringBuilder sb = new StringBuilder("Enhancement Engines:\n");
+        for(ExecutionStatistics stats : metrics.getEngineStatistics().values()){
+            sb.append("  ").append(stats).append('\n');
+        }
+        sb.append("Enhancement Chains:\n");
+        for(ExecutionStatistics stats : metrics.getChainStatistics().values()){
+            sb.append("  ").append(stats).append('\n');
+        }
+        return Response.ok(sb.toString(), TEXT_PLAIN).build();
+    }
+    /**
+     * Resets all recorded metrics
+     */
+    @DELETE
+    public Response reset() {
+        getMetrics().reset();
+        return Response.noContent().build();
+    }
+    
+    private EnhancementMetrics getMetrics() {
+        EnhancementMetrics metrics = this.metrics;
+        if(metrics == null){
+            throw new WebApplicationException(Response.status(Status.SERVICE_UNAVAILABLE)
+                .entity("The EnhancementMetrics service is currently not available!")
+                .type(TEXT_PLAIN).build());
+        }
+        return metrics;
+    }
+    
+    private static JSONObject toJson(Map<String,ExecutionStatistics> statistics) throws JSONException {
+        JSONObject json = new JSONObject();
+        for(ExecutionStatistics stats : statistics.values()){
+            JSONObject jStats = new JSONObject();
+            jStats.put("count", stats.getCount());
+            jStats.put("errors", stats.getErrors());
+            jStats.put("rejected", stats.getRejected());
+            jStats.put("errorRate", stats.getErrorRate());
+            jStats.put("throughput", stats.getThroughput());
+            jStats.put("since", stats.getSince());
+            jStats.put("latency", toJson(stats.getLatency()));
+            jStats.put("queueTime", toJson(stats.getQueueTime()));
+            json.put(stats.getName(), jStats);
+        }
+        return json;
+    }
+    
+    private static JSONObject toJson(Latency latency) throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("min", latency.getMin() / NANOS_PER_MILLI);
+        json.put("mean", latency.getMean() / NANOS_PER_MILLI);
+        json.put("p50", latency.getMedian() / NANOS_PER_MILLI);
+        json.put("p90", latency.get90thPercentile() / NANOS_PER_MILLI);
+        json.put("p99", latency.get99thPercentile() / NANOS_PER_MILLI);
+        json.put("p999", latency.get999thPercentile() / NANOS_PER_MILLI);
+        json.put("max", latency.getMax() / NANOS_PER_MILLI);
+        return json;
+    }
+}
@@ -60,6 +60,8 @@ import org.apache.clerezza.rdf.core.serializedform.Parser;
 import org.apache.clerezza.rdf.core.serializedform.Serializer;
 import org.apache.clerezza.rdf.ontologies.RDF;
 import org.apache.commons.io.IOUtils;
+import org.apache.stanbol.enhancer.contentitem.file.FileContentItemFactory;
+import org.apache.stanbol.enhancer.contentitem.inmemory.InMemoryBlob;
 import org.apache.stanbol.enhancer.contentitem.inmemory.InMemoryContentItemFactory;
 import org.apache.stanbol.enhancer.jersey.reader.ContentItemReader;
 import org.apache.stanbol.enhancer.jersey.writers.ContentItemWriter;
@@ -243,5 +245,46 @@ public class ContentItemReaderWriterTest {
         assertEquals(1, outputContentPart.size());
         assertEquals(outputContentPart.iterator().next(), "*");
     }
+    /**
+     * Tests that contents exceeding the maximum memory per request are
+     * streamed to the file based ContentItemFactory
+     */
+    @Test
+    public void testReaderMemoryLimit() throws Exception {
+        ContentItemReader spillingReader = new ContentItemReader(){
+            @Override
+            protected Parser getParser() {
+                return Parser.getInstance();
+            }
+            @Override
+            protected ContentItemFactory getContentItemFactory() {
+                return ciFactory;
+            }
+            @Override
+            protected ContentItemFactory getFileContentItemFactory() {
+                return FileContentItemFactory.getInstance();
+            }
+            @Override
+            protected long getMaxMemoryPerRequest() {
+                //the html content is ~90 bytes, the text content part ~45 bytes
+                return 60;
+            }
+        };
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MediaType contentType = serializeContentItem(out);
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        ContentItem ci = spillingReader.readFrom(ContentItem.class, null, null, contentType, null, in);
+        assertEquals(contentItem.getUri(), ci.getUri());
+        //the main content exceeds the limit and is streamed to a file
+        assertTrue(ci.getBlob() instanceof FileContentItemFactory.FileBlob);
+        assertEquals(IOUtils.toString(contentItem.getStream(),"UTF-8"), 
+            IOUtils.toString(ci.getStream(), "UTF-8"));
+        //the text part fits into the memory budget
+        IRI textPart = new IRI("run:text:text");
+        Blob textBlob = ci.getPart(textPart, Blob.class);
+        assertTrue(textBlob instanceof InMemoryBlob);
+        assertEquals(IOUtils.toString(contentItem.getPart(textPart, Blob.class).getStream(),"UTF-8"), 
+            IOUtils.toString(textBlob.getStream(), "UTF-8"));
+    }
 
 }
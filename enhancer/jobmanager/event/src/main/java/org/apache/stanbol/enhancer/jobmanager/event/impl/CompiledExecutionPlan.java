@@ -0,0 +1,360 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.jobmanager.event.impl;
+
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.getDependend;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.getExecutionNodes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.ImmutableGraph;
+import org.apache.stanbol.enhancer.servicesapi.Chain;
+import org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper;
+import org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionPlan;
+
+/**
+ * Immutable, integer indexed representation of an
+ * {@link ExecutionPlan#EXECUTION_PLAN ep:ExecutionPlan}.<p>
+ * The RDF execution plan is parsed once per {@link Chain} and converted to a
+ * DAG where every {@link ExecutionPlan#EXECUTION_NODE ep:ExecutionNode} is
+ * identified by its index. Nodes are sorted by their topological level
+ * (nodes without dependencies have level <code>0</code>) so that iterating
+ * over the indexes follows a valid execution order. Dependencies are
+ * stored as {@link BitSet}s. This allows the {@link EnhancementJob} to
+ * calculate executable nodes without querying the execution plan graph.<p>
+ * Instances are thread safe and can be shared by all {@link EnhancementJob}s
+ * using the same execution plan.
+ */
+public final class CompiledExecutionPlan {
+
+    /**
+     * The execution plan this instance was compiled from
+     */
+    private final Graph executionPlan;
+    /**
+     * The ep:ExecutionPlan node
+     */
+    private final BlankNodeOrIRI executionPlanNode;
+    /**
+     * The ep:ExecutionNodes (index = node index)
+     */
+    private final BlankNodeOrIRI[] nodes;
+    /**
+     * The names of the engines (index = node index)
+     */
+    private final String[] engines;
+    /**
+     * The optional state (index = node index)
+     */
+    private final boolean[] optional;
+    /**
+     * The topological level (index = node index)
+     */
+    private final int[] levels;
+    /**
+     * The indexes of the nodes each node depends on (index = node index).
+     * MUST NOT be modified after construction.
+     */
+    private final BitSet[] dependsOn;
+    /**
+     * Reverse lookup from ep:ExecutionNode to index
+     */
+    private final Map<BlankNodeOrIRI,Integer> nodeIndex;
+
+    private CompiledExecutionPlan(Graph executionPlan, BlankNodeOrIRI executionPlanNode,
+            BlankNodeOrIRI[] nodes, String[] engines, boolean[] optional, int[] levels,
+            BitSet[] dependsOn){
+        this.executionPlan = executionPlan;
+        this.executionPlanNode = executionPlanNode;
+        this.nodes = nodes;
+        this.engines = engines;
+        this.optional = optional;
+        this.levels = levels;
+        this.dependsOn = dependsOn;
+        Map<BlankNodeOrIRI,Integer> nodeIndex = new HashMap<BlankNodeOrIRI,Integer>(nodes.length*2);
+        for(int i=0; i < nodes.length; i++){
+            nodeIndex.put(nodes[i], Integer.valueOf(i));
+        }
+        this.nodeIndex = Collections.unmodifiableMap(nodeIndex);
+    }
+
+    /**
+     * Compiles the execution plan of the parsed chain.
+     * @param executionPlan the execution plan as returned by
+     * {@link Chain#getExecutionPlan()}
+     * @param chainName the name of the chain
+     * @return the compiled execution plan
+     * @throws IllegalArgumentException if the parsed execution plan does not
+     * contain an execution plan for the parsed chain or if it contains a
+     * cycle.
+     */
+    public static CompiledExecutionPlan compile(ImmutableGraph executionPlan, String chainName){
+        if(executionPlan == null){
+            throw new IllegalArgumentException("The parsed execution plan MUST NOT be NULL!");
+        }
+        BlankNodeOrIRI executionPlanNode = ExecutionPlanHelper.getExecutionPlan(executionPlan, chainName);
+        if(executionPlanNode == null){
+            throw new IllegalArgumentException("The parsed ExecutionPlan graph does not "
+                + "contain an ExecutionPlan for a Chain with the name '"+chainName+"'!");
+        }
+        return compile(executionPlan, executionPlanNode);
+    }
+    /**
+     * Compiles the execution plan with the parsed ep:ExecutionPlan node.
+     * @param executionPlan the graph containing the execution plan. This
+     * graph MUST NOT be modified after calling this method.
+     * @param executionPlanNode the ep:ExecutionPlan node
+     * @return the compiled execution plan
+     * @throws IllegalArgumentException if any of the parsed parameters is
+     * <code>null</code>, the execution plan refers to unknown nodes or
+     * contains a cycle.
+     */
+    public static CompiledExecutionPlan compile(Graph executionPlan, BlankNodeOrIRI executionPlanNode){
+        if(executionPlan == null){
+            throw new IllegalArgumentException("The parsed execution plan MUST NOT be NULL!");
+        }
+        if(executionPlanNode == null){
+            throw new IllegalArgumentException("The parsed ep:ExecutionPlan node MUST NOT be NULL!");
+        }
+        final Set<BlankNodeOrIRI> executionNodes = getExecutionNodes(executionPlan, executionPlanNode);
+        final Map<BlankNodeOrIRI,Set<BlankNodeOrIRI>> dependencies =
+                new HashMap<BlankNodeOrIRI,Set<BlankNodeOrIRI>>(executionNodes.size()*2);
+        final Map<BlankNodeOrIRI,String> engineNames = new HashMap<BlankNodeOrIRI,String>(executionNodes.size()*2);
+        for(BlankNodeOrIRI node : executionNodes){
+            Set<BlankNodeOrIRI> depends = getDependend(executionPlan, node);
+            for(BlankNodeOrIRI depend : depends){
+                if(!executionNodes.contains(depend)){
+                    throw new IllegalArgumentException("The ep:ExecutionNode "+node
+                        + " depends on "+depend+" that is not part of the ep:ExecutionPlan "
+                        + executionPlanNode + "!");
+                }
+            }
+            dependencies.put(node, depends);
+            engineNames.put(node, ExecutionPlanHelper.getEngine(executionPlan, node));
+        }
+        //calculate the topological levels
+        final Map<BlankNodeOrIRI,Integer> levelMap = new HashMap<BlankNodeOrIRI,Integer>(executionNodes.size()*2);
+        Set<BlankNodeOrIRI> remaining = new LinkedHashSet<BlankNodeOrIRI>(executionNodes);
+        int level = 0;
+        while(!remaining.isEmpty()){
+            List<BlankNodeOrIRI> current = new ArrayList<BlankNodeOrIRI>();
+            for(BlankNodeOrIRI node : remaining){
+                boolean resolved = true;
+                for(BlankNodeOrIRI depend : dependencies.get(node)){
+                    Integer dependLevel = levelMap.get(depend);
+                    if(dependLevel == null || dependLevel.intValue() >= level){
+                        resolved = false;
+                        break;
+                    }
+                }
+                if(resolved){
+                    current.add(node);
+                }
+            }
+            if(current.isEmpty()){
+                throw new IllegalArgumentException("The ep:ExecutionPlan "+executionPlanNode
+                    + " contains a cycle (unresolved nodes: "+remaining+")!");
+            }
+            for(BlankNodeOrIRI node : current){
+                levelMap.put(node, Integer.valueOf(level));
+                remaining.remove(node);
+            }
+            level++;
+        }
+        //sort the nodes by level and engine name to get stable indexes
+        BlankNodeOrIRI[] nodes = executionNodes.toArray(new BlankNodeOrIRI[executionNodes.size()]);
+        Arrays.sort(nodes, new Comparator<BlankNodeOrIRI>() {
+            @Override
+            public int compare(BlankNodeOrIRI n1, BlankNodeOrIRI n2) {
+                int l1 = levelMap.get(n1).intValue();
+                int l2 = levelMap.get(n2).intValue();
+                if(l1 != l2){
+                    return l1 < l2 ? -1 : 1;
+                }
+                String e1 = engineNames.get(n1);
+                String e2 = engineNames.get(n2);
+                if(e1 == null){
+                    return e2 == null ? 0 : 1;
+                } else if(e2 == null){
+                    return -1;
+                } else {
+                    return e1.compareTo(e2);
+                }
+            }
+        });
+        Map<BlankNodeOrIRI,Integer> index = new HashMap<BlankNodeOrIRI,Integer>(nodes.length*2);
+        for(int i=0; i < nodes.length; i++){
+            index.put(nodes[i], Integer.valueOf(i));
+        }
+        String[] engines = new String[nodes.length];
+        boolean[] optional = new boolean[nodes.length];
+        int[] levels = new int[nodes.length];
+        BitSet[] dependsOn = new BitSet[nodes.length];
+        for(int i=0; i < nodes.length; i++){
+            engines[i] = engineNames.get(nodes[i]);
+            optional[i] = ExecutionPlanHelper.isOptional(executionPlan, nodes[i]);
+            levels[i] = levelMap.get(nodes[i]).intValue();
+            BitSet depends = new BitSet(nodes.length);
+            for(BlankNodeOrIRI depend : dependencies.get(nodes[i])){
+                depends.set(index.get(depend).intValue());
+            }
+            dependsOn[i] = depends;
+        }
+        return new CompiledExecutionPlan(executionPlan, executionPlanNode, nodes,
+            engines, optional, levels, dependsOn);
+    }
+    /**
+     * The execution plan graph this instance was compiled from
+     * @return the execution plan
+     */
+    public Graph getExecutionPlan() {
+        return executionPlan;
+    }
+    /**
+     * The ep:ExecutionPlan node
+     * @return the execution plan node
+     */
+    public BlankNodeOrIRI getExecutionPlanNode() {
+        return executionPlanNode;
+    }
+    /**
+     * The number of ep:ExecutionNodes
+     * @return the number of nodes
+     */
+    public int size(){
+        return nodes.length;
+    }
+    /**
+     * Getter for the index of an ep:ExecutionNode
+     * @param executionNode the ep:ExecutionNode
+     * @return the index or <code>-1</code> if the parsed node is not part of
+     * this execution plan
+     */
+    public int indexOf(BlankNodeOrIRI executionNode){
+        Integer index = nodeIndex.get(executionNode);
+        return index == null ? -1 : index.intValue();
+    }
+    /**
+     * Getter for the ep:ExecutionNode with the parsed index
+     * @param index the index
+     * @return the ep:ExecutionNode
+     * @throws IndexOutOfBoundsException if the parsed index is not valid
+     */
+    public BlankNodeOrIRI getNode(int index){
+        return nodes[index];
+    }
+    /**
+     * Getter for the name of the engine of the node with the parsed index
+     * @param index the index
+     * @return the engine name
+     * @throws IndexOutOfBoundsException if the parsed index is not valid
+     */
+    public String getEngine(int index){
+        return engines[index];
+    }
+    /**
+     * Getter for the optional state of the node with the parsed index
+     * @param index the index
+     * @return the optional state
+     * @throws IndexOutOfBoundsException if the parsed index is not valid
+     */
+    public boolean isOptional(int index){
+        return optional[index];
+    }
+    /**
+     * Getter for the topological level of the node with the parsed index
+     * @param index the index
+     * @return the level. <code>0</code> for nodes without dependencies
+     * @throws IndexOutOfBoundsException if the parsed index is not valid
+     */
+    public int getLevel(int index){
+        return levels[index];
+    }
+    /**
+     * Checks if all nodes the node with the parsed index depends on are
+     * contained in the parsed set of completed nodes.
+     * @param index the index
+     * @param completed the indexes of the completed nodes
+     * @return <code>true</code> if all dependencies are completed
+     */
+    public boolean isResolved(int index, BitSet completed){
+        BitSet depends = dependsOn[index];
+        for(int d = depends.nextSetBit(0); d >= 0; d = depends.nextSetBit(d+1)){
+            if(!completed.get(d)){
+                return false;
+            }
+        }
+        return true;
+    }
+    /**
+     * Calculates the executable nodes. A node is executable if it is neither
+     * completed nor running and all nodes it depends on are completed.
+     * @param completed the indexes of the completed nodes
+     * @param running the indexes of the running nodes
+     * @param executable the bit set the indexes of the executable nodes are
+     * written to. Cleared by this method.
+     */
+    public void getExecutable(BitSet completed, BitSet running, BitSet executable){
+        executable.clear();
+        for(int i = completed.nextClearBit(0); i < nodes.length; i = completed.nextClearBit(i+1)){
+            if(!running.get(i) && isResolved(i, completed)){
+                executable.set(i);
+            }
+        }
+    }
+    /**
+     * Converts the parsed indexes to the according ep:ExecutionNodes
+     * @param indexes the indexes
+     * @return the ep:ExecutionNodes
+     */
+    public Set<BlankNodeOrIRI> getNodes(BitSet indexes){
+        Set<BlankNodeOrIRI> set = new LinkedHashSet<BlankNodeOrIRI>(indexes.cardinality()*2);
+        for(int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i+1)){
+            set.add(nodes[i]);
+        }
+        return set;
+    }
+    /**
+     * Converts the parsed indexes to the names of the according engines
+     * @param indexes the indexes
+     * @return the engine names
+     */
+    public List<String> getEngines(BitSet indexes){
+        List<String> names = new ArrayList<String>(indexes.cardinality());
+        for(int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i+1)){
+            names.add(engines[i]);
+        }
+        return names;
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledExecutionPlan [executionPlan: "+executionPlanNode+" | engines: "
+                + Arrays.toString(engines)+" | levels: "+Arrays.toString(levels)+"]";
+    }
+}
@@ -0,0 +1,429 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.jobmanager.event.impl;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.stanbol.enhancer.jobmanager.event.impl.EventJobManagerImpl.NamedDaemonThreadFactory;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Manages bounded {@link ThreadPoolExecutor}s used to execute 
+ * {@link EnhancementEngine}s. Each engine (identified by its name) gets its
+ * own pool with a fixed number of threads and a bounded queue. This ensures
+ * that slow engines (e.g. engines calling remote services) can not starve
+ * other engines and that the number of waiting executions is limited.<p>
+ * Queued executions are ordered by their priority (higher values first) and
+ * than by the order they where queued. If the queue of an engine is full
+ * an execution is only accepted if it has a higher priority as the lowest
+ * priority execution in the queue. In this case the queued execution is
+ * displaced: instead of executing the engine its displaced callback is
+ * called. Otherwise {@link #execute(String, int, Runnable, Runnable)} throws
+ * a {@link RejectedExecutionException}.<p>
+ * For every engine {@link Statistics} about the time executions are waiting
+ * in the queue and the time needed for the execution are collected.
+ */
+public class EngineExecutors {
+
+    private static final Logger log = LoggerFactory.getLogger(EngineExecutors.class);
+    
+    /**
+     * The time idle threads are kept alive
+     */
+    private static final long KEEP_ALIVE_TIME = 60;
+    
+    private final int defaultThreads;
+    private final int defaultQueueSize;
+    private final Map<String,int[]> engineConfig;
+    
+    private final ConcurrentMap<String,ThreadPoolExecutor> executors = 
+            new ConcurrentHashMap<String,ThreadPoolExecutor>();
+    private final ConcurrentMap<String,Statistics> statistics =
+            new ConcurrentHashMap<String,Statistics>();
+    private volatile boolean closed = false;
+    /**
+     * Used to keep the FIFO order of executions with the same priority
+     */
+    private final AtomicLong sequence = new AtomicLong();
+    
+    /**
+     * Creates the engine executors
+     * @param defaultThreads the number of threads used for engines without 
+     * specific configuration
+     * @param defaultQueueSize the queue size used for engines without
+     * specific configuration
+     * @param engineConfig engine specific configurations. Keys are the 
+     * names of the engines, values are arrays with the <code>[threads, queueSize]</code>.
+     * Values <code>&lt;= 0</code> mean that the default is used.
+     * @throws IllegalArgumentException if the parsed defaultThreads or 
+     * defaultQueueSize are <code>&lt;= 0</code>
+     */
+    public EngineExecutors(int defaultThreads, int defaultQueueSize, Map<String,int[]> engineConfig){
+        if(defaultThreads <= 0){
+            throw new IllegalArgumentException("The parsed number of threads MUST BE > 0!");
+        }
+        if(defaultQueueSize <= 0){
+            throw new IllegalArgumentException("The parsed queue size MUST BE > 0!");
+        }
+        this.defaultThreads = defaultThreads;
+        this.defaultQueueSize = defaultQueueSize;
+        this.engineConfig = engineConfig == null ? Collections.<String,int[]>emptyMap() :
+            new HashMap<String,int[]>(engineConfig);
+    }
+    
+    /**
+     * Executes the parsed task with the default priority <code>0</code> by 
+     * using the pool of the parsed engine. The task can not be displaced by
+     * executions with a higher priority.
+     * @param engineName the name of the engine
+     * @param task the task
+     * @throws RejectedExecutionException if the queue of the engine is full
+     * or this instance was already closed
+     */
+    public void execute(String engineName, Runnable task) throws RejectedExecutionException {
+        execute(engineName, 0, task, null);
+    }
+    /**
+     * Executes the parsed task by using the pool of the parsed engine.
+     * @param engineName the name of the engine
+     * @param priority the priority of the task. Higher values are executed
+     * first
+     * @param task the task
+     * @param displaced called instead of the parsed task if the task gets
+     * displaced from the queue by a task with a higher priority. Called by
+     * a thread of the pool without holding any lock. If <code>null</code> 
+     * the task can not be displaced.
+     * @throws RejectedExecutionException if the queue of the engine is full
+     * (and the task has no higher priority as any queued task) or this 
+     * instance was already closed
+     */
+    public void execute(String engineName, int priority, Runnable task, Runnable displaced) 
+            throws RejectedExecutionException {
+        if(closed){
+            throw new RejectedExecutionException("EngineExecutors are closed!");
+        }
+        Statistics stats = getStats(engineName);
+        try {
+            getExecutor(engineName).execute(new TimedTask(task, displaced, priority, 
+                sequence.incrementAndGet(), stats));
+        } catch (RejectedExecutionException e) {
+            stats.rejected.incrementAndGet();
+            throw e;
+        }
+    }
+    /**
+     * Getter for the statistics of the parsed engine
+     * @param engineName the engine name
+     * @return the statistics or <code>null</code> if the parsed engine was
+     * not yet executed by this instance
+     */
+    public Statistics getStatistics(String engineName){
+        return statistics.get(engineName);
+    }
+    /**
+     * Getter for a read-only view over the statistics of all engines
+     * executed by this instance
+     * @return the statistics by engine name
+     */
+    public Map<String,Statistics> getStatistics(){
+        return Collections.<String,Statistics>unmodifiableMap(statistics);
+    }
+    /**
+     * Shuts down all executors. Already queued executions are still
+     * processed.
+     */
+    public void close(){
+        closed = true;
+        for(ThreadPoolExecutor executor : executors.values()){
+            executor.shutdown();
+        }
+        executors.clear();
+    }
+    
+    private Statistics getStats(String engineName){
+        Statistics stats = statistics.get(engineName);
+        if(stats == null){
+            stats = new Statistics(engineName);
+            Statistics current = statistics.putIfAbsent(engineName, stats);
+            if(current != null){
+                stats = current;
+            }
+        }
+        return stats;
+    }
+    
+    private ThreadPoolExecutor getExecutor(String engineName){
+        ThreadPoolExecutor executor = executors.get(engineName);
+        if(executor == null){
+            int[] config = engineConfig.get(engineName);
+            int threads = config != null && config[0] > 0 ? config[0] : defaultThreads;
+            int queueSize = config != null && config[1] > 0 ? config[1] : defaultQueueSize;
+            executor = new ThreadPoolExecutor(threads, threads, 
+                KEEP_ALIVE_TIME, TimeUnit.SECONDS, 
+                new BoundedPriorityQueue(queueSize), 
+                new NamedDaemonThreadFactory("Enhancement Engine '"+engineName+"'"),
+                new ThreadPoolExecutor.AbortPolicy());
+            executor.allowCoreThreadTimeOut(true);
+            ThreadPoolExecutor current = executors.putIfAbsent(engineName, executor);
+            if(current != null){
+                executor.shutdown();
+                executor = current;
+            } else {
+                log.debug("created Executor for Engine {} (threads: {}, queueSize: {})",
+                    new Object[]{engineName, threads, queueSize});
+            }
+        }
+        return executor;
+    }
+    
+    /**
+     * Wraps a task and records queue wait and execution times. The natural
+     * order is the execution order: displaced tasks first (as they only fail
+     * the execution), than by priority (higher first) and finally by the
+     * sequence number (FIFO).
+     */
+    private static class TimedTask implements Runnable, Comparable<TimedTask> {
+        
+        private final Runnable task;
+        private final Runnable displacedCallback;
+        private final int priority;
+        private final long sequence;
+        private final Statistics stats;
+        private final long queued;
+        /**
+         * Set by the {@link BoundedPriorityQueue} while this task is not part
+         * of the queue.
+         */
+        private volatile boolean displaced;
+
+        TimedTask(Runnable task, Runnable displacedCallback, int priority, long sequence, 
+                Statistics stats){
+            this.task = task;
+            this.displacedCallback = displacedCallback;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.stats = stats;
+            this.queued = System.nanoTime();
+        }
+        
+        @Override
+        public void run() {
+            if(displaced){
+                stats.displaced.incrementAndGet();
+                displacedCallback.run();
+                return;
+            }
+            long start = System.nanoTime();
+            stats.addWaitTime(start - queued);
+            try {
+                task.run();
+            } finally {
+                stats.addExecutionTime(System.nanoTime() - start);
+            }
+        }
+        
+        @Override
+        public int compareTo(TimedTask other) {
+            if(displaced != other.displaced){
+                return displaced ? -1 : 1;
+            }
+            if(priority != other.priority){
+                return priority > other.priority ? -1 : 1;
+            }
+            return sequence < other.sequence ? -1 : sequence == other.sequence ? 0 : 1;
+        }
+    }
+    /**
+     * A {@link PriorityBlockingQueue} for {@link TimedTask}s that is bounded
+     * by the parsed capacity. Displaced tasks are not counted as they are
+     * processed first and only fail the execution.
+     */
+    private static class BoundedPriorityQueue extends PriorityBlockingQueue<Runnable> {
+
+        private static final long serialVersionUID = 1L;
+        
+        private final int capacity;
+        /**
+         * The number of displaced tasks in the queue
+         */
+        private final AtomicInteger displaced = new AtomicInteger();
+
+        BoundedPriorityQueue(int capacity){
+            super(Math.min(capacity, 1024));
+            this.capacity = capacity;
+        }
+        
+        @Override
+        public synchronized boolean offer(Runnable runnable) {
+            //NOTE: offers are synchronised so that the size can only decrease
+            //      between the check and the offer
+            TimedTask task = (TimedTask)runnable;
+            if(size() - displaced.get() < capacity){
+                return super.offer(task);
+            }
+            //the queue is full: search the task with the lowest priority
+            TimedTask lowest = null;
+            for(Object queued : toArray()){
+                TimedTask t = (TimedTask)queued;
+                if(!t.displaced && (lowest == null || t.compareTo(lowest) > 0)){
+                    lowest = t;
+                }
+            }
+            if(lowest == null || lowest.priority >= task.priority || 
+                    lowest.displacedCallback == null){
+                return false; //rejected
+            }
+            if(remove(lowest)){ //else the task was taken in the meantime
+                //re-add as displaced to ensure the queue order
+                lowest.displaced = true;
+                displaced.incrementAndGet();
+                super.offer(lowest);
+            }
+            return super.offer(task);
+        }
+        
+        @Override
+        public Runnable take() throws InterruptedException {
+            return taken(super.take());
+        }
+        
+        @Override
+        public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+            return taken(super.poll(timeout, unit));
+        }
+        
+        @Override
+        public Runnable poll() {
+            return taken(super.poll());
+        }
+        
+        private Runnable taken(Runnable runnable){
+            if(runnable != null && ((TimedTask)runnable).displaced){
+                displaced.decrementAndGet();
+            }
+            return runnable;
+        }
+        
+        @Override
+        public int remainingCapacity() {
+            return Math.max(0, capacity - (size() - displaced.get()));
+        }
+    }
+    
+    /**
+     * Statistics about the executions of an engine. All times are in
+     * nano seconds.
+     */
+    public static final class Statistics {
+        
+        private final String engineName;
+        private final AtomicLong executions = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong displaced = new AtomicLong();
+        private final AtomicLong waitTime = new AtomicLong();
+        private final AtomicLong maxWaitTime = new AtomicLong();
+        private final AtomicLong executionTime = new AtomicLong();
+        private final AtomicLong maxExecutionTime = new AtomicLong();
+
+        private Statistics(String engineName){
+            this.engineName = engineName;
+        }
+        
+        private void addWaitTime(long time){
+            waitTime.addAndGet(time);
+            updateMax(maxWaitTime, time);
+        }
+        
+        private void addExecutionTime(long time){
+            executions.incrementAndGet();
+            executionTime.addAndGet(time);
+            updateMax(maxExecutionTime, time);
+        }
+        
+        private static void updateMax(AtomicLong max, long value){
+            long current = max.get();
+            while(value > current && !max.compareAndSet(current, value)){
+                current = max.get();
+            }
+        }
+        
+        public String getEngineName() {
+            return engineName;
+        }
+        /**
+         * @return the number of completed executions
+         */
+        public long getExecutions() {
+            return executions.get();
+        }
+        /**
+         * @return the number of executions rejected because the queue was full
+         */
+        public long getRejected() {
+            return rejected.get();
+        }
+        /**
+         * @return the number of queued executions displaced by executions
+         * with a higher priority
+         */
+        public long getDisplaced() {
+            return displaced.get();
+        }
+        /**
+         * @return the sum of the times executions where waiting in the queue
+         */
+        public long getWaitTime() {
+            return waitTime.get();
+        }
+        
+        public long getMaxWaitTime() {
+            return maxWaitTime.get();
+        }
+        /**
+         * @return the sum of the execution times
+         */
+        public long getExecutionTime() {
+            return executionTime.get();
+        }
+        
+        public long getMaxExecutionTime() {
+            return maxExecutionTime.get();
+        }
+        
+        @Override
+        public String toString() {
+            long num = executions.get();
+            return String.format("%s: %d executions (%d rejected, %d displaced) | wait avg: %.2fms "
+                + "max: %.2fms | execution avg: %.2fms max: %.2fms", engineName, num, 
+                rejected.get(), displaced.get(),
+                num > 0 ? waitTime.get() / (num * 1000000d) : 0d, maxWaitTime.get() / 1000000d,
+                num > 0 ? executionTime.get() / (num * 1000000d) : 0d, maxExecutionTime.get() / 1000000d);
+        }
+    }
+}
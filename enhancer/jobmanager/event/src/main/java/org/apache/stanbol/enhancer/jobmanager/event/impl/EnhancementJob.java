@@ -26,36 +26,33 @@ import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionMetadataHe
 import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionMetadataHelper.setExecutionCompleted;
 import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionMetadataHelper.setExecutionFaild;
 import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionMetadataHelper.setExecutionInProgress;
-import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.getDependend;
-import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.getEngine;
-import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.isOptional;
 import static org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionMetadata.STATUS;
 import static org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionMetadata.STATUS_IN_PROGRESS;
 import static org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionPlan.CHAIN;
 
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
-import org.apache.clerezza.commons.rdf.ImmutableGraph;
-import org.apache.clerezza.commons.rdf.Graph;
 import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+import org.apache.clerezza.commons.rdf.Graph;
 import org.apache.clerezza.commons.rdf.IRI;
-import org.apache.commons.collections.BidiMap;
-import org.apache.commons.collections.bidimap.DualHashBidiMap;
+import org.apache.clerezza.commons.rdf.ImmutableGraph;
+import org.apache.stanbol.commons.indexedgraph.StripedIndexedGraph;
 import org.apache.stanbol.enhancer.servicesapi.Chain;
 import org.apache.stanbol.enhancer.servicesapi.ContentItem;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementEngine;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementJobManager;
 import org.apache.stanbol.enhancer.servicesapi.NoSuchPartException;
 import org.apache.stanbol.enhancer.servicesapi.helper.ExecutionMetadataHelper;
-import org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper;
 import org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -64,31 +61,56 @@ import org.slf4j.LoggerFactory;
  * Represents the enhancement of a {@link ContentItem} by following the
  * execution plan provided by a {@link Chain} as parsed to an
  * {@link EnhancementJobManager}.<p>
+ * The scheduling state (completed, running and executable nodes) is kept
+ * as {@link BitSet}s over the node indexes of the {@link CompiledExecutionPlan}.
+ * The RDF execution metadata of the single engine executions are only
+ * updated if {@link #isRecordExecutions()} is enabled. The state of the
+ * em:ChainExecution is always written.<p>
+ * By default the state of the job and the execution metadata are guarded by
+ * the {@link ContentItem#getLock() lock of the ContentItem}. If
+ * {@link #isContentItemLock()} is disabled the job uses its own lock and
+ * a thread safe {@link StripedIndexedGraph} for the execution metadata. In
+ * this case updates of the job state do no longer block engines that
+ * read or write the metadata of the ContentItem.<p>
  * TODO: This might become part of the Stanbol Enhancer Services API.
- * 
+ *
  * @author Rupert Westenthaler
  */
 public class EnhancementJob {
 
     /*
      * NOTE on debug level Loggings
-     * 
+     *
      *  ++ ... init some activity
      *  >> ... started some activity (thread has the requested lock)
      *  << ... completed some activity (thread has released the lock)
-     *  
+     *
      *  n: ... no lock
      *  r: ... read lock
      *  w: ... write lock
      */
     private final Logger log = LoggerFactory.getLogger(EnhancementJob.class);
 
+    /**
+     * The lock used for the state of this job. Either the lock of the 
+     * {@link ContentItem} or an own lock (see {@link #contentItemLock})
+     */
+    private final ReadWriteLock lock;
     private final Lock readLock;
     private final Lock writeLock;
+    /**
+     * If the {@link ContentItem#getLock()} is used to guard the state of
+     * this job
+     */
+    private final boolean contentItemLock;
     /**
      * The read only executionPlan
      */
     private final ImmutableGraph executionPlan;
+    /**
+     * The compiled execution plan used for scheduling
+     */
+    private final CompiledExecutionPlan plan;
     /**
      * The read/write able execution metadata. Also accessible via
      * {@link ContentItem#getPart(IRI, Class)} with the URI
@@ -96,10 +118,20 @@ public class EnhancementJob {
      */
     private final Graph executionMetadata;
     /**
-     * Map with the em:Execution nodes of the em:ChainExecution for this
-     * ContentItem. Values are are ep:ExecutionNodes of the ep:ExecutionPlan
+     * If the state of em:Execution nodes is written to the
+     * {@link #executionMetadata}
+     */
+    private final boolean recordExecutions;
+    /**
+     * The em:Execution nodes for this ContentItem. The index is the index of
+     * the ep:ExecutionNode in the {@link #plan}.
      */
-    private final BidiMap executionsMap;
+    private final BlankNodeOrIRI[] executions;
+    /**
+     * Map from em:Execution nodes to the index of the ep:ExecutionNode in
+     * the {@link #plan}
+     */
+    private final Map<BlankNodeOrIRI,Integer> executionIndex;
     /**
      * The em:ChainExecution for this {@link ContentItem}
      */
@@ -118,32 +150,54 @@ public class EnhancementJob {
     private final ContentItem contentItem;
 
     /**
-     * The completed ep:ExecutionPlan nodes. <p>
-     * NOTE: This contains ep:ExecutionNodes and NOT em:Exetution instances!
+     * The indexes of the completed ep:ExecutionPlan nodes.
      */
-    private final Set<BlankNodeOrIRI> completed = new HashSet<BlankNodeOrIRI>();
+    private final BitSet completed;
     /**
-     * Unmodifiable and final set of completed executables. Replaced by a new
-     * instance every time {@link #completed} changes
+     * The indexes of the running ep:ExecutionPlan nodes
      */
-    private Set<BlankNodeOrIRI> completedExec = Collections.emptySet();
+    private final BitSet running;
     /**
-     * The running ep:ExecutionPlan nodes <p>
-     * NOTE: This contains ep:ExecutionNodes and NOT em:Exetution instances!
+     * The indexes of the executable ep:ExecutionPlan nodes. Updated every
+     * time {@link #running} or {@link #completed} changes.
      */
-    private final Set<BlankNodeOrIRI> running = new HashSet<BlankNodeOrIRI>();
+    private final BitSet executable;
     /**
-     * Unmodifiable and final set of running executables. Replaced by a new
-     * instance every time {@link #running} changes.
+     * The {@link System#nanoTime()} executions where marked as running
      */
-    private Set<BlankNodeOrIRI> runningExec = Collections.emptySet();
-
+    private final long[] scheduled;
+    /**
+     * The sum of the times (in nano seconds) executions of this job where 
+     * waiting to be processed after they where marked as running
+     */
+    private final AtomicLong queueTime = new AtomicLong();
+    /**
+     * Lazily created, unmodifiable and final set of completed em:Executions.
+     * Reset to <code>null</code> every time {@link #completed} changes (under the
+     * write lock). Readers compute the set into a local variable while holding
+     * the read lock and publish it through this volatile field.
+     */
+    private volatile Set<BlankNodeOrIRI> completedExec;
+    /**
+     * Lazily created, unmodifiable and final set of running em:Executions.
+     * Reset to <code>null</code> every time {@link #running} changes. Published
+     * the same way as {@link #completedExec}.
+     */
+    private volatile Set<BlankNodeOrIRI> runningExec;
+    /**
+     * Lazily created, unmodifiable and final set of executable em:Executions.
+     * Reset to <code>null</code> every time {@link #executable} changes. Published
+     * the same way as {@link #completedExec}.
+     */
+    private volatile Set<BlankNodeOrIRI> executableExec;
+    /**
+     * If the em:ChainExecution has failed
+     */
+    private boolean failed;
     /**
-     * Unmodifiable and final set of executable em:Execution nodes. 
-     * Replaced by a new instance every time {@link #running} or 
-     * {@link #completed} changes.
+     * The message for the failed em:ChainExecution
      */
-    private Set<BlankNodeOrIRI> executable;
+    private String errorMessage;
     /**
      * Used to store any {@link Exception} parsed with the call to
      * {@link #setFailed(BlankNodeOrIRI, EnhancementEngine, Exception)} causing the
@@ -152,6 +206,11 @@ public class EnhancementJob {
      * @see #getError()
      */
     private Exception error = null;
+    /**
+     * The priority of the executions of this job. Higher values are executed
+     * first. Only used if engines are executed by {@link EngineExecutors}.
+     */
+    private volatile int priority = 0;
     /**
      * Constructor used to create and initialise a new enhancement job. This
      * will create the initial set of ExecutionMetadata and add them as
@@ -163,19 +222,70 @@ public class EnhancementJob {
      * @param isDefaultChain
      */
     public EnhancementJob(ContentItem contentItem, String chainName, ImmutableGraph executionPlan, boolean isDefaultChain) {
-        if (contentItem == null || chainName == null || executionPlan == null) {
+        this(contentItem, chainName, executionPlan, executionPlan == null ? null :
+            CompiledExecutionPlan.compile(executionPlan, chainName), isDefaultChain, true);
+    }
+    /**
+     * Constructor used to create and initialise a new enhancement job based
+     * on an already {@link CompiledExecutionPlan compiled execution plan}.
+     * This will create the initial set of ExecutionMetadata and add them as
+     * ContentPart with the URI {@link ExecutionMetadata#CHAIN_EXECUTION} to the
+     * ContentItem.
+     * @param contentItem the content item
+     * @param chainName the name of the chain
+     * @param executionPlan the execution plan
+     * @param plan the compiled version of the parsed execution plan
+     * @param isDefaultChain if the chain is the default chain
+     * @param recordExecutions if the state of the em:Execution nodes should
+     * be written to the execution metadata
+     */
+    public EnhancementJob(ContentItem contentItem, String chainName, ImmutableGraph executionPlan,
+            CompiledExecutionPlan plan, boolean isDefaultChain, boolean recordExecutions) {
+        this(contentItem, chainName, executionPlan, plan, isDefaultChain, recordExecutions, true);
+    }
+    /**
+     * Constructor used to create and initialise a new enhancement job based
+     * on an already {@link CompiledExecutionPlan compiled execution plan}.
+     * This will create the initial set of ExecutionMetadata and add them as
+     * ContentPart with the URI {@link ExecutionMetadata#CHAIN_EXECUTION} to the
+     * ContentItem.
+     * @param contentItem the content item
+     * @param chainName the name of the chain
+     * @param executionPlan the execution plan
+     * @param plan the compiled version of the parsed execution plan
+     * @param isDefaultChain if the chain is the default chain
+     * @param recordExecutions if the state of the em:Execution nodes should
+     * be written to the execution metadata
+     * @param contentItemLock if the {@link ContentItem#getLock()} is used to
+     * guard the state of this job. If <code>false</code> the job uses its own
+     * lock and a thread safe graph for the execution metadata.
+     */
+    public EnhancementJob(ContentItem contentItem, String chainName, ImmutableGraph executionPlan,
+            CompiledExecutionPlan plan, boolean isDefaultChain, boolean recordExecutions,
+            boolean contentItemLock) {
+        if (contentItem == null || chainName == null || executionPlan == null || plan == null) {
             throw new IllegalArgumentException("The parsed contentItem and executionPlan MUST NOT be NULL");
         }
-        this.readLock = contentItem.getLock().readLock();
-        this.writeLock = contentItem.getLock().writeLock();
+        this.contentItemLock = contentItemLock;
+        if(contentItemLock){
+            this.lock = contentItem.getLock();
+        } else {
+            this.lock = new ReentrantReadWriteLock();
+            initConcurrentExecutionMetadata(contentItem);
+        }
+        this.readLock = lock.readLock();
+        this.writeLock = lock.writeLock();
         executionMetadata = initExecutionMetadataContentPart(contentItem);
         if(executionMetadata.isEmpty()){
-            //if we init from scratch 
-            this.executionsMap = new DualHashBidiMap(initExecutionMetadata(executionMetadata, executionPlan, 
-                contentItem.getUri(), chainName, isDefaultChain));
+            //if we init from scratch
+            Map<BlankNodeOrIRI,BlankNodeOrIRI> executionsMap = initExecutionMetadata(
+                executionMetadata, executionPlan, contentItem.getUri(), chainName, isDefaultChain);
             chainExecutionNode = getChainExecution(executionMetadata, contentItem.getUri());
             executionPlanNode = getExecutionPlanNode(executionMetadata, chainExecutionNode);
             executionMetadata.addAll(executionPlan);
+            this.plan = plan;
+            this.executions = new BlankNodeOrIRI[plan.size()];
+            this.executionIndex = initExecutions(executionsMap);
         } else {
             throw new IllegalArgumentException("Unable to create EnhancementJob for "
                     + "a parsed execution plan if the ContentItem already contains "
@@ -184,6 +294,11 @@ public class EnhancementJob {
         this.contentItem = contentItem;
         this.executionPlan = executionPlan;
         this.chain = chainName;
+        this.recordExecutions = recordExecutions;
+        this.completed = new BitSet(plan.size());
+        this.running = new BitSet(plan.size());
+        this.scheduled = new long[plan.size()];
+        this.executable = new BitSet(plan.size());
         //check the first engines to execute
         checkExecutable();
     }
@@ -191,7 +306,7 @@ public class EnhancementJob {
      * Creates an EnhancemenJob based on already existing execution metadata present
      * for a ContentItem.
      * @param contentItem the ContentItem with an already existing content part
-     * containing an {@link Graph} with all required execution metadata and the 
+     * containing an {@link Graph} with all required execution metadata and the
      * execution plan.
      * @throws IllegalArgumentException if the parsed {@link ContentItem} does
      * not provide the required data to (re)initialise the EnhancementJob.
@@ -201,8 +316,11 @@ public class EnhancementJob {
             throw new IllegalArgumentException("The parsed ContentItem MUST NOT be NULL!");
         }
         this.contentItem = contentItem;
-        this.readLock = contentItem.getLock().readLock();
-        this.writeLock = contentItem.getLock().writeLock();
+        this.contentItemLock = true;
+        this.lock = contentItem.getLock();
+        this.readLock = lock.readLock();
+        this.writeLock = lock.writeLock();
+        this.recordExecutions = true;
         try {
             contentItem.getPart(ExecutionMetadata.CHAIN_EXECUTION, Graph.class);
         } catch (NoSuchPartException e) {
@@ -230,9 +348,16 @@ public class EnhancementJob {
                     "the ep:ExecutionPlan node '" + executionPlanNode+"' as used to " +
                     "enhance  ContentItem '"+contentItem.getUri()+"'!");
         }
+        this.plan = CompiledExecutionPlan.compile(executionPlan, executionPlanNode);
+        this.executions = new BlankNodeOrIRI[plan.size()];
+        this.completed = new BitSet(plan.size());
+        this.running = new BitSet(plan.size());
+        this.scheduled = new long[plan.size()];
+        this.executable = new BitSet(plan.size());
         //the executionPlan is part of the execution metadata
-        Map<BlankNodeOrIRI,BlankNodeOrIRI> executionsMap = initExecutionMetadata(executionMetadata, 
+        Map<BlankNodeOrIRI,BlankNodeOrIRI> executionsMap = initExecutionMetadata(executionMetadata,
             executionPlan, contentItem.getUri(), null, null);
+        this.executionIndex = initExecutions(executionsMap);
         for(Entry<BlankNodeOrIRI,BlankNodeOrIRI> executionEntry : executionsMap.entrySet()){
             IRI status = getReference(executionMetadata, executionEntry.getKey(), STATUS);
             if(status == null){
@@ -246,14 +371,79 @@ public class EnhancementJob {
                 ExecutionMetadataHelper.setExecutionScheduled(executionMetadata, executionEntry.getKey());
             } else if(status.equals(ExecutionMetadata.STATUS_COMPLETED) ||
                     status.equals(ExecutionMetadata.STATUS_FAILED)){
-               completed.add(executionEntry.getValue());
+               completed.set(plan.indexOf(executionEntry.getValue()));
             }
         }
-        this.executionsMap = new DualHashBidiMap(executionsMap);
+        this.failed = isExecutionFailed(executionMetadata, chainExecutionNode);
+        if(failed){
+            this.errorMessage = getString(executionMetadata, chainExecutionNode,
+                ExecutionMetadata.STATUS_MESSAGE);
+        }
         //check the first engines to execute after continuation
         checkExecutable();
     }
-
+    /**
+     * Adds a {@link StripedIndexedGraph} as execution metadata content part
+     * if not yet present. Used if the state of the job is not guarded by
+     * the {@link ContentItem#getLock()} as components reading the execution
+     * metadata will not be synchronised with updates of this job.
+     * @param contentItem the content item
+     */
+    private static void initConcurrentExecutionMetadata(ContentItem contentItem) {
+        contentItem.getLock().writeLock().lock();
+        try {
+            try {
+                contentItem.getPart(ExecutionMetadata.CHAIN_EXECUTION, Graph.class);
+            } catch (NoSuchPartException e) {
+                contentItem.addPart(ExecutionMetadata.CHAIN_EXECUTION, new StripedIndexedGraph());
+            }
+        } finally {
+            contentItem.getLock().writeLock().unlock();
+        }
+    }
+    /**
+     * Initialises the {@link #executions} array based on the parsed map and
+     * returns the reverse lookup map
+     * @param executionsMap map with the em:Execution nodes as key and the
+     * ep:ExecutionNodes as value
+     * @return map with the em:Execution nodes as key and the index as value
+     */
+    private Map<BlankNodeOrIRI,Integer> initExecutions(Map<BlankNodeOrIRI,BlankNodeOrIRI> executionsMap) {
+        Map<BlankNodeOrIRI,Integer> executionIndex = new HashMap<BlankNodeOrIRI,Integer>(
+                executionsMap.size()*2);
+        for(Entry<BlankNodeOrIRI,BlankNodeOrIRI> entry : executionsMap.entrySet()){
+            int index = plan.indexOf(entry.getValue());
+            if(index < 0){
+                throw new IllegalStateException("The ep:ExecutionNode "+entry.getValue()
+                    + " of the em:Execution "+entry.getKey()+" is not part of the "
+                    + "compiled execution plan "+plan+"!");
+            }
+            executions[index] = entry.getKey();
+            executionIndex.put(entry.getKey(), Integer.valueOf(index));
+        }
+        for(int i = 0; i < executions.length; i++){
+            if(executions[i] == null){
+                throw new IllegalStateException("Missing em:Execution for ep:ExecutionNode "
+                    + plan.getNode(i) + " (engine: "+plan.getEngine(i)+")!");
+            }
+        }
+        return Collections.unmodifiableMap(executionIndex);
+    }
+    /**
+     * Getter for the index of the parsed em:Execution within the
+     * {@link CompiledExecutionPlan}
+     * @param execution the em:Execution
+     * @return the index
+     * @throws IllegalArgumentException if the parsed em:Execution is not
+     * part of the execution metadata of this enhancement job
+     */
+    private int getIndex(BlankNodeOrIRI execution){
+        Integer index = executionIndex.get(execution);
+        if(index == null){
+            throw new IllegalArgumentException("Unknown em:Execution instance "+execution);
+        }
+        return index.intValue();
+    }
     /**
      * Getter for the ep:ExecutionNode linked to a em:Execution
      * @return the ep:ExecutionNode instance
@@ -261,38 +451,69 @@ public class EnhancementJob {
      * part of the execution metadata of this enhancement job
      */
     public BlankNodeOrIRI getExecutionNode(BlankNodeOrIRI execution){
-        BlankNodeOrIRI node = (BlankNodeOrIRI)executionsMap.get(execution);
-        if(node == null){
-            throw new IllegalArgumentException("Unknown sp:ExecutionNode instance "+node);
-        }
-        return node;
+        return plan.getNode(getIndex(execution));
     }
     /**
      * Getter for the em:Execution linked to a ep:ExecutionNode
-     * @return the em:Execution instance 
+     * @return the em:Execution instance
      * @throws IllegalArgumentException if the parsed ep:ExecutionNode is not
      * part of the execution plan of this enhancement job
      */
     public BlankNodeOrIRI getExecution(BlankNodeOrIRI executionNode){
-        BlankNodeOrIRI execution = (BlankNodeOrIRI)executionsMap.getKey(executionNode);
-        if(execution == null){
-            throw new IllegalArgumentException("Unknown em:Execution instance "+executionNode);
+        int index = plan.indexOf(executionNode);
+        if(index < 0){
+            throw new IllegalArgumentException("Unknown ep:ExecutionNode instance "+executionNode);
         }
-        return execution;
+        return executions[index];
+    }
+    /**
+     * Getter for the name of the engine of the parsed em:Execution. This
+     * uses the {@link CompiledExecutionPlan} and does not require a lock.
+     * @param execution the em:Execution
+     * @return the name of the engine
+     * @throws IllegalArgumentException if the parsed em:Execution is not
+     * part of the execution metadata of this enhancement job
+     */
+    public String getEngine(BlankNodeOrIRI execution){
+        return plan.getEngine(getIndex(execution));
     }
 
     /**
      * The used execution plan for processing the {@link ContentItem}
-     * 
+     *
      * @return the executionPlan
      */
     public final ImmutableGraph getExecutionPlan() {
         return executionPlan;
     }
+    /**
+     * The compiled execution plan used for scheduling the executions of
+     * this job
+     * @return the compiled execution plan
+     */
+    public final CompiledExecutionPlan getCompiledExecutionPlan() {
+        return plan;
+    }
+    /**
+     * Getter for the priority of the executions of this job
+     * @return the priority (default <code>0</code>)
+     */
+    public int getPriority() {
+        return priority;
+    }
+    /**
+     * Setter for the priority of the executions of this job. Higher values
+     * are executed first and may displace queued executions of jobs with
+     * a lower priority (see {@link EngineExecutors}).
+     * @param priority the priority
+     */
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
 
     /**
      * The ContentItem enhanced by this job.
-     * 
+     *
      * @return
      */
     public final ContentItem getContentItem() {
@@ -306,7 +527,7 @@ public class EnhancementJob {
      * that the a chain with that name is still available nor that calling {@link Chain#getExecutionPlan()}
      * will be equals to the {@link #getExecutionPlan()} used by this enhancement job. This is the reason why
      * this method just returns the name of the chain and not the {@link Chain} instance.
-     * 
+     *
      * @return
      */
     public final String getChainName() {
@@ -315,18 +536,36 @@ public class EnhancementJob {
 
     /**
      * Getter for the lock used to synchronise read/write to this enhancement job. This returns the lock
-     * provided by {@link ContentItem#getLock()}
-     * 
+     * provided by {@link ContentItem#getLock()} if {@link #isContentItemLock()} and otherwise the
+     * own lock of this job.
+     *
      * @return the read/write lock for this enhancement job
      */
     public final ReadWriteLock getLock() {
-        return contentItem.getLock();
+        return lock;
+    }
+    /**
+     * If the {@link ContentItem#getLock()} is used to guard the state of
+     * this job. If <code>false</code> engines that need exclusive access to
+     * the {@link ContentItem} need to use {@link ContentItem#getLock()} as
+     * {@link #getLock()} is the own lock of this job.
+     * @return the content item lock state
+     */
+    public final boolean isContentItemLock() {
+        return contentItemLock;
+    }
+    /**
+     * If the state of the single em:Execution nodes is recorded in the
+     * {@link #getExecutionMetadata() execution metadata}.
+     * @return the record executions state
+     */
+    public final boolean isRecordExecutions() {
+        return recordExecutions;
     }
-
 
     /**
      * Getter for a read only view over the currently running executions.
-     * 
+     *
      * @return the currently running executions.
      */
     public Set<BlankNodeOrIRI> getRunning() {
@@ -334,16 +573,35 @@ public class EnhancementJob {
         readLock.lock();
         try {
             log.trace(">> r: {}","getRunning");
+            Set<BlankNodeOrIRI> runningExec = this.runningExec;
+            if(runningExec == null){
+                runningExec = toExecutions(running);
+                this.runningExec = runningExec;
+            }
             return runningExec;
         } finally {
             log.trace("<< r: {}","getRunning");
             readLock.unlock();
         }
     }
+    /**
+     * Checks if any execution is currently running. Unlike
+     * <code>!{@link #getRunning()}.isEmpty()</code> this does not create
+     * a snapshot of the running executions.
+     * @return <code>true</code> if at least a single execution is running
+     */
+    public boolean hasRunning() {
+        readLock.lock();
+        try {
+            return !running.isEmpty();
+        } finally {
+            readLock.unlock();
+        }
+    }
 
     /**
      * Getter for a read only view over the completed execution.
-     * 
+     *
      * @return the completed execution nodes
      */
     public Set<BlankNodeOrIRI> getCompleted() {
@@ -351,6 +609,11 @@ public class EnhancementJob {
         readLock.lock();
         try {
             log.trace(">> r: {}","getCompleted");
+            Set<BlankNodeOrIRI> completedExec = this.completedExec;
+            if(completedExec == null){
+                completedExec = toExecutions(completed);
+                this.completedExec = completedExec;
+            }
             return completedExec;
         } finally {
             log.trace("<< r: {}","getCompleted");
@@ -362,7 +625,7 @@ public class EnhancementJob {
      * Sets the state of the parsed executionNode to completed. This also validates if the new state
      * confirms to the ExectionPlan (e.g. if all nodes the parsed node depends on are also marked as
      * completed).
-     * 
+     *
      * @param execution
      *            the exection to be marked as running
      * @throws IllegalArgumentException
@@ -375,62 +638,61 @@ public class EnhancementJob {
         if(execution == null) {
             throw new IllegalArgumentException("The parsed em:Execution instance MUST NOT be NULL!");
         }
+        int index = getIndex(execution);
+        log.trace("++ w: {}: {}","setCompleted",plan.getEngine(index));
         writeLock.lock();
-        BlankNodeOrIRI executionNode = getExecutionNode(execution);
-        log.trace("++ w: {}: {}","setCompleted",getEngine(executionPlan, executionNode));
         try {
-            log.trace(">> w: {}: {}","setCompleted",getEngine(executionPlan, executionNode));
-            setNodeCompleted(executionNode);
-            setExecutionCompleted(executionMetadata, execution, null);
+            log.trace(">> w: {}: {}","setCompleted",plan.getEngine(index));
+            setNodeCompleted(index);
+            if(recordExecutions){
+                setExecutionCompleted(executionMetadata, execution, null);
+            }
         } finally {
-            log.trace("<< w: {}: {}","setCompleted",getEngine(executionPlan, executionNode));
+            log.trace("<< w: {}: {}","setCompleted",plan.getEngine(index));
             writeLock.unlock();
         }
     }
     /**
      * Internally used to update the state kept in {@link #completed} and
      * {@link #running} and {@link #executable} after an execution was set to
-     * {@link #setCompleted(BlankNodeOrIRI) completed} or 
+     * {@link #setCompleted(BlankNodeOrIRI) completed} or
      * {@link #setFailed(BlankNodeOrIRI, EnhancementEngine, Exception) failed}.<p>
      * This method expects to be called within an active {@link #writeLock}.
-     * @param executionNode the ep:ExecutionNode linked to the em:Execution that
-     * finished. 
-     */
-    private void setNodeCompleted(BlankNodeOrIRI executionNode) {
-        String engine = getEngine(executionPlan, executionNode);
-        boolean optional = isOptional(executionPlan, executionNode);
-        Set<BlankNodeOrIRI> dependsOn = getDependend(executionPlan, executionNode);
-        if (completed.contains(executionNode)) {
+     * @param index the index of the ep:ExecutionNode linked to the em:Execution
+     * that finished.
+     */
+    private void setNodeCompleted(int index) {
+        if (completed.get(index)) {
             log.warn("Execution of Engine '{}' for ContentItem {} already "
                      + "marked as completed(chain: {}, node: {}, optional {})."
-                     + " -> call ignored", 
-                     new Object[] {engine, contentItem.getUri().getUnicodeString(),
-                                   chain, executionNode, optional});
+                     + " -> call ignored",
+                     new Object[] {plan.getEngine(index), contentItem.getUri().getUnicodeString(),
+                                   chain, plan.getNode(index), plan.isOptional(index)});
             return;
         }
-        if (!completed.containsAll(dependsOn)) {
+        if (!plan.isResolved(index, completed)) {
             // TODO maybe define an own Exception for such cases
             throw new IllegalStateException("Unable to set state of ExectionNode '"
-                    + executionNode+ "' (chain '"+ chain
+                    + plan.getNode(index)+ "' (chain '"+ chain
                     + "' | contentItem '"+ contentItem.getUri()
                     + "') to completed, because some of its depended "
                     + "nodes are not marked completed yet. This indicates an Bug in the "
                     + "implementation of the JobManager used to execute the ExecutionPlan. "
-                    + "(this.dependsOn=" + dependsOn + "| chain.completed " + completed
-                    + " | chain.running " + running + ")!");
+                    + "(chain.completed " + plan.getEngines(completed)
+                    + " | chain.running " + plan.getEngines(running) + ")!");
         }
-        if (running.remove(executionNode)) {
+        if (running.get(index)) {
+            running.clear(index);
+            runningExec = null;
             log.trace(
                 "Execution of '{}' for ContentItem {} completed "
                 + "(chain: {}, node: {}, optional {})",
-                new Object[] {engine, contentItem.getUri().getUnicodeString(), 
-                              chain, executionNode, optional});
-        }
-        completed.add(executionNode);
-        //update the set with the completed and running executables
-        updateCompletedExec();
-        updateRunningExec();
-        // update the executables ... this will also recognise if finished 
+                new Object[] {plan.getEngine(index), contentItem.getUri().getUnicodeString(),
+                              chain, plan.getNode(index), plan.isOptional(index)});
+        }
+        completed.set(index);
+        completedExec = null;
+        // update the executables ... this will also recognise if finished
         checkExecutable();
     }
 
@@ -438,7 +700,7 @@ public class EnhancementJob {
      * Sets the state of the parsed execution to running. This also validates if the new state
      * confirms to the ExectionPlan (e.g. if all nodes the parsed node depends on are already marked as
      * completed).
-     * 
+     *
      * @param execution
      *            the execution to be marked as running
      * @throws IllegalArgumentException
@@ -451,115 +713,132 @@ public class EnhancementJob {
         if(execution == null) {
             throw new IllegalArgumentException("The parsed em:Execution instance MUST NOT be NULL!");
         }
-        BlankNodeOrIRI executionNode = getExecutionNode(execution);
-        String engine = getEngine(executionPlan, executionNode);
-        boolean optional = isOptional(executionPlan, executionNode);
-        Set<BlankNodeOrIRI> dependsOn = getDependend(executionPlan, executionNode);
-        log.trace("++ w: {}: {}","setRunning",ExecutionPlanHelper.getEngine(executionPlan, executionNode));
+        int index = getIndex(execution);
+        log.trace("++ w: {}: {}","setRunning",plan.getEngine(index));
         writeLock.lock();
         try {
-            log.trace(">> w: {}: {}","setRunning",ExecutionPlanHelper.getEngine(executionPlan, executionNode));
-            if (completed.contains(executionNode)) {
-                String message = "Unable to set state of ExectionNode '" + executionNode + "'(chain '"
+            log.trace(">> w: {}: {}","setRunning",plan.getEngine(index));
+            if (completed.get(index)) {
+                String message = "Unable to set state of ExectionNode '" + plan.getNode(index) + "'(chain '"
                                  + chain + "' | contentItem '" + contentItem.getUri()
                                  + "') to running, because"
                                  + "it is already marked as completed. This indicates "
                                  + "an Bug in the implementation of the JobManager "
                                  + "used to execute the ExecutionPlan (chain state: " + "completed "
-                                 + completed + " | running " + running + ")!";
+                                 + plan.getEngines(completed) + " | running " + plan.getEngines(running) + ")!";
                 log.error(message);
                 throw new IllegalStateException(message);
             }
-            if (!completed.containsAll(dependsOn)) {
+            if (!plan.isResolved(index, completed)) {
                 // TODO maybe define an own Exception for such cases
-                String message = "Unable to set state of ExectionNode '" + executionNode + "' (chain '"
+                String message = "Unable to set state of ExectionNode '" + plan.getNode(index) + "' (chain '"
                                  + chain + "' | contentItem '" + contentItem.getUri()
                                  + "') to running, because " + "some of its depended nodes are not marked "
                                  + "completed yet. This indicates an Bug in the "
                                  + "implementation of the JobManager used to execute "
-                                 + "the ExecutionPlan (this.dependsOn=" + dependsOn + "| chain.completed "
-                                 + completed + " | chain.running " + running + ")!";
+                                 + "the ExecutionPlan (chain.completed "
+                                 + plan.getEngines(completed) + " | chain.running "
+                                 + plan.getEngines(running) + ")!";
                 log.error(message);
                 throw new IllegalStateException(message);
             }
-            if (!running.add(executionNode)) {
+            if (running.get(index)) {
                 log.warn("Execution of Engine '{}' for ContentItem {} already "
                          + "marked as running(chain: {}, node: {}, optional {})."
-                         + " -> call ignored", 
-                         new Object[] {engine, contentItem.getUri().getUnicodeString(),
-                                       chain, executionNode, optional});
+                         + " -> call ignored",
+                         new Object[] {plan.getEngine(index), contentItem.getUri().getUnicodeString(),
+                                       chain, plan.getNode(index), plan.isOptional(index)});
                 return;
             } else { //added an engine to running
+                running.set(index);
+                scheduled[index] = System.nanoTime();
+                runningExec = null;
                 log.trace("Started Execution of '{}' for ContentItem {} "
                          + "(chain: {}, node: {}, optional {})",
-                    new Object[] {engine, contentItem.getUri().getUnicodeString(), chain,
-                                  executionNode, optional});
+                    new Object[] {plan.getEngine(index), contentItem.getUri().getUnicodeString(), chain,
+                                  plan.getNode(index), plan.isOptional(index)});
                 //set the status of the execution to be in progress
-                ExecutionMetadataHelper.setExecutionInProgress(executionMetadata, execution);
-                // update the executables ... this will also recognise if finished
-                updateRunningExec();
+                if(recordExecutions){
+                    ExecutionMetadataHelper.setExecutionInProgress(executionMetadata, execution);
+                }
                 //update executables
                 checkExecutable();
             }
         } finally {
-            log.trace("<< w: {}: {}","setRunning",ExecutionPlanHelper.getEngine(executionPlan, executionNode));
+            log.trace("<< w: {}: {}","setRunning",plan.getEngine(index));
             writeLock.unlock();
         }
     }
     /**
-     * updates the {@link #runningExec} based on {@link #running}
+     * Marks the start of the processing of an execution that was previously
+     * {@link #setRunning(BlankNodeOrIRI) set to running}.
+     * @param execution the execution
+     * @return the time in nano seconds the execution was waiting to be
+     * processed (e.g. in the queue of a thread pool)
+     * @throws IllegalArgumentException if <code>null</code> or an unknown
+     * execution is parsed
      */
-    private void updateRunningExec() {
-        Set<BlankNodeOrIRI> runningExec = new HashSet<BlankNodeOrIRI>(running.size());
-        for(BlankNodeOrIRI node : running){
-            runningExec.add(getExecution(node));
+    public long startExecution(BlankNodeOrIRI execution) {
+        if(execution == null) {
+            throw new IllegalArgumentException("The parsed em:Execution instance MUST NOT be NULL!");
+        }
+        int index = getIndex(execution);
+        long scheduledTime;
+        //scheduled is written under the write lock by setRunning(..)
+        readLock.lock();
+        try {
+            scheduledTime = scheduled[index];
+        } finally {
+            readLock.unlock();
         }
-        this.runningExec = Collections.unmodifiableSet(runningExec);
+        long waited = System.nanoTime() - scheduledTime;
+        queueTime.addAndGet(waited);
+        return waited;
     }
     /**
-     * updates the {@link #runningExec} based on {@link #running}
+     * The sum of the times executions of this job where waiting to be
+     * processed.
+     * @return the queue time in nano seconds
+     * @see #startExecution(BlankNodeOrIRI)
      */
-    private void updateCompletedExec() {
-        Set<BlankNodeOrIRI> completedExec = new HashSet<BlankNodeOrIRI>(completed.size());
-        for(BlankNodeOrIRI node : completed){
-            completedExec.add(getExecution(node));
+    public long getQueueTime() {
+        return queueTime.get();
+    }
+    /**
+     * Converts the parsed node indexes to an unmodifiable set of em:Executions
+     * @param indexes the indexes
+     * @return the em:Executions
+     */
+    private Set<BlankNodeOrIRI> toExecutions(BitSet indexes){
+        int size = indexes.cardinality();
+        if(size == 0){
+            return Collections.emptySet();
+        } else if(size == 1){
+            return Collections.singleton(executions[indexes.nextSetBit(0)]);
+        } else {
+            Set<BlankNodeOrIRI> set = new LinkedHashSet<BlankNodeOrIRI>(size*2);
+            for(int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i+1)){
+                set.add(executions[i]);
+            }
+            return Collections.unmodifiableSet(set);
         }
-        this.completedExec = Collections.unmodifiableSet(completedExec);
     }
     /**
      * updated the {@link #executable} and also checks for {@link #finished}<p>
      * Assumed to be called within a write lock!
      */
     private void checkExecutable(){
-        Set<BlankNodeOrIRI> executeableNodes = 
-                ExecutionPlanHelper.getExecutable(executionPlan, completed);
         //a Chain finishes if no engine is running and no more nodes are executable
-        if(!ExecutionMetadata.STATUS_FAILED.equals(
-                getReference(executionMetadata, chainExecutionNode, STATUS))) { 
-            executeableNodes.removeAll(running);
-            if(log.isDebugEnabled()){
-                Collection<String> engines = new ArrayList<String>(executeableNodes.size());
-                for(BlankNodeOrIRI node : executeableNodes){
-                    engines.add(getEngine(executionPlan, node));
-                }
-                log.trace("MARK {} as executeable",engines);
-            }
-            //we need to get the em:Executables for the ep:ExecutionNodes ...
-            if(executeableNodes.isEmpty()){
-                this.executable = Collections.emptySet();
-            } else if( executeableNodes.size() == 1){
-                this.executable = Collections.singleton(getExecution(executeableNodes.iterator().next()));
-            } else {
-                Set<BlankNodeOrIRI> executable = new HashSet<BlankNodeOrIRI>(executeableNodes.size());
-                for(BlankNodeOrIRI exeutableNode : executeableNodes){
-                    executable.add(getExecution(exeutableNode));
-                }
-                this.executable = Collections.unmodifiableSet(executable);
+        if(!failed) {
+            plan.getExecutable(completed, running, executable);
+            if(log.isTraceEnabled()){
+                log.trace("MARK {} as executeable",plan.getEngines(executable));
             }
         } else {
             //do not mark engines as executeable if chain already failed
-            this.executable = Collections.emptySet();
+            executable.clear();
         }
+        executableExec = null;
         if(isFinished() && !isFailed()){
             //mark the execution process as completed
             setExecutionCompleted(executionMetadata, chainExecutionNode, null);
@@ -574,11 +853,17 @@ public class EnhancementJob {
         log.trace("++ r: {}","getExecutable");
         readLock.lock();
         log.trace(">> r: {}","getExecutable");
+        Set<BlankNodeOrIRI> executableExec = null;
         try {
-            return executable;
+            executableExec = this.executableExec;
+            if(executableExec == null){
+                executableExec = toExecutions(executable);
+                this.executableExec = executableExec;
+            }
+            return executableExec;
         } finally {
-            log.trace("<< r: {}:{}","getExecutable",executable);
-            readLock.unlock();  
+            log.trace("<< r: {}:{}","getExecutable",executableExec);
+            readLock.unlock();
         }
     }
     /**
@@ -591,7 +876,7 @@ public class EnhancementJob {
         try {
             log.trace(">> r: {}","isFinished");
             return running.isEmpty() && // wait for running engine (regard if failed or not)
-                    (executable.isEmpty() || isFailed()); //no more engines or already failed
+                    (executable.isEmpty() || failed); //no more engines or already failed
         } finally {
             log.trace("<< r: {}","isFinished");
             readLock.unlock();
@@ -602,16 +887,16 @@ public class EnhancementJob {
         if(execution == null) {
             throw new IllegalArgumentException("The parsed em:Execution instance MUST NOT be NULL!");
         }
-        BlankNodeOrIRI executionNode = getExecutionNode(execution);
-        final boolean optional = isOptional(executionPlan, executionNode);
-        final String engineName = getEngine(executionPlan, executionNode);
-        log.trace("++ w: {}: {}","setFailed",ExecutionPlanHelper.getEngine(executionPlan, executionNode));
+        int index = getIndex(execution);
+        final boolean optional = plan.isOptional(index);
+        final String engineName = plan.getEngine(index);
+        log.trace("++ w: {}: {}","setFailed",engineName);
         writeLock.lock();
         try {
-            log.trace(">> w: {}: {}","setFailed",ExecutionPlanHelper.getEngine(executionPlan, executionNode));
+            log.trace(">> w: {}: {}","setFailed",engineName);
             StringBuilder message = new StringBuilder();
             message.append(String.format("Unable to process ContentItem '%s' with " +
-            		"Enhancement Engine '%s' because the engine ", 
+            		"Enhancement Engine '%s' because the engine ",
             		contentItem.getUri(), engineName));
             if(engine == null){
                 message.append("is currently not active");
@@ -623,21 +908,28 @@ public class EnhancementJob {
                 message.append("(Reason: ").append(exception.getMessage()).append(')');
             }
             message.append('!');
-            setNodeCompleted(executionNode); //update the internal state
+            setNodeCompleted(index); //update the internal state
             //set this execution to failed
-            setExecutionFaild(executionMetadata, execution, message.toString());
+            if(recordExecutions){
+                setExecutionFaild(executionMetadata, execution, message.toString());
+            }
             //if not optional and the chain is not yet failed
-            if(!optional && !isExecutionFailed(executionMetadata, chainExecutionNode)){
+            if(!optional && !failed){
                 //set also the whole chain to faild!
                 String chainMessage = String.format(
                     "Enhancement Chain failed because of required Engine '%s' failed " +
                     "with Message: %s", engineName, message);
                 setExecutionFaild(executionMetadata, chainExecutionNode, chainMessage);
+                failed = true;
+                errorMessage = chainMessage;
+                //no more engines are executable for failed chains
+                executable.clear();
+                executableExec = null;
                 error = exception; //this member stores the exception to allow
                 //re-throwing by the EnhancementJobManager.
             }
         } finally {
-            log.trace("<< w: {}: {}","setFailed",ExecutionPlanHelper.getEngine(executionPlan, executionNode));
+            log.trace("<< w: {}: {}","setFailed",engineName);
             writeLock.unlock();
         }
 
@@ -652,7 +944,7 @@ public class EnhancementJob {
         readLock.lock();
         try {
             log.trace(">> r: {}","isFailed");
-            return isExecutionFailed(executionMetadata, chainExecutionNode);
+            return failed;
         } finally {
             log.trace("<< r: {}","isFailed");
             readLock.unlock();
@@ -661,14 +953,14 @@ public class EnhancementJob {
 // NOTE: use default implementations of hashCode and equals for now as we need
 //       to support the concurrent enhancement of ContentItems with the same
 //       URI. Also two ContentItems with the same URI might still have other
-//       content (as users can manually parse the URI in the request). 
+//       content (as users can manually parse the URI in the request).
 //    @Override
 //    public int hashCode() {
 //        return contentItem.getUri().hashCode();
 //    }
 //    @Override
 //    public boolean equals(Object o) {
-//        return o instanceof EnhancementJob && 
+//        return o instanceof EnhancementJob &&
 //                contentItem.getUri().equals(((EnhancementJob)o).contentItem.getUri());
 //    }
     @Override
@@ -678,7 +970,7 @@ public class EnhancementJob {
 
     /**
      * if {@link #isFailed()} this may contain the {@link Exception} that caused
-     * the enhancement job to fail. 
+     * the enhancement job to fail.
      * @return The Exception or <code>null</code> if no exception is available
      */
     public Exception getError(){
@@ -687,7 +979,35 @@ public class EnhancementJob {
     public String getErrorMessage() {
         readLock.lock();
         try {
-            return getString(executionMetadata, chainExecutionNode, ExecutionMetadata.STATUS_MESSAGE);
+            return errorMessage;
+        } finally {
+            readLock.unlock();
+        }
+    }
+    /**
+     * Getter for a textual representation of the state of all executions.
+     * One line per engine formatted as <code>"  -{engine}: {state}"</code>.
+     * Intended to be used for logging and error messages.
+     * @return the execution states
+     */
+    public String getExecutionStatus() {
+        readLock.lock();
+        try {
+            StringBuilder sb = new StringBuilder();
+            for(int i = 0; i < plan.size(); i++){
+                sb.append("  -").append(plan.getEngine(i)).append(": ");
+                if(completed.get(i)){
+                    sb.append("completed");
+                } else if(running.get(i)){
+                    sb.append("running");
+                } else if(executable.get(i)){
+                    sb.append("executable");
+                } else {
+                    sb.append("scheduled");
+                }
+                sb.append('\n');
+            }
+            return sb.toString();
         } finally {
             readLock.unlock();
         }
@@ -702,7 +1022,7 @@ public class EnhancementJob {
     /**
      * Marks the execution of the enhancement process as started. In other
      * words this sets the status of the 'em:ChainExecution' instance that
-     * 'em:enhances' the {@link ContentItem} to 
+     * 'em:enhances' the {@link ContentItem} to
      * {@link ExecutionMetadata#STATUS_IN_PROGRESS}
      */
     public void startProcessing() {
@@ -712,6 +1032,6 @@ public class EnhancementJob {
         } finally {
             writeLock.unlock();
         }
-        
+
     }
 }
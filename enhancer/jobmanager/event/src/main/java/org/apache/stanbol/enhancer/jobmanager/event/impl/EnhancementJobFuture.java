@@ -0,0 +1,166 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.jobmanager.event.impl;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.stanbol.enhancer.servicesapi.AsyncEnhancementJobManager;
+import org.apache.stanbol.enhancer.servicesapi.Chain;
+import org.apache.stanbol.enhancer.servicesapi.ContentItem;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementJobCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link Future} returned by
+ * {@link AsyncEnhancementJobManager#enhanceContentAsync(ContentItem, Chain, EnhancementJobCallback)}.
+ * The first call to {@link #completed()} or {@link #failed(Exception)}
+ * sets the result. Later calls (e.g. a timeout after the job has already
+ * completed) are ignored.<p>
+ * Cancellation is not supported.
+ */
+final class EnhancementJobFuture implements Future<ContentItem> {
+
+    private static final Logger log = LoggerFactory.getLogger(EnhancementJobFuture.class);
+    
+    private final ContentItem contentItem;
+    private final EnhancementJobCallback callback;
+    private final CountDownLatch done = new CountDownLatch(1);
+    private final AtomicBoolean finished = new AtomicBoolean(false);
+    private volatile Exception exception;
+    /**
+     * Used to cancel the timeout check as soon as the job finishes
+     */
+    private volatile Future<?> timeout;
+    
+    EnhancementJobFuture(ContentItem contentItem, EnhancementJobCallback callback) {
+        this.contentItem = contentItem;
+        this.callback = callback;
+    }
+    /**
+     * Sets the future used to check for timeouts. If this future is already
+     * done the parsed one is cancelled.
+     * @param timeout the timeout check
+     */
+    void setTimeout(Future<?> timeout){
+        this.timeout = timeout;
+        if(isDone() && timeout != null){
+            timeout.cancel(false);
+        }
+    }
+    /**
+     * Marks the enhancement job as successfully completed
+     * @return <code>false</code> if this future was already done
+     */
+    boolean completed(){
+        if(!finished.compareAndSet(false, true)){
+            return false;
+        }
+        done.countDown();
+        cancelTimeout();
+        if(callback != null){
+            try {
+                callback.completed(contentItem);
+            } catch (RuntimeException e) {
+                log.warn("Exception in EnhancementJobCallback#completed(..) for ContentItem "
+                    + contentItem.getUri(), e);
+            }
+        }
+        return true;
+    }
+    /**
+     * Marks the enhancement job as failed
+     * @param exception the exception
+     * @return <code>false</code> if this future was already done
+     */
+    boolean failed(Exception exception){
+        if(!finished.compareAndSet(false, true)){
+            return false;
+        }
+        this.exception = exception;
+        done.countDown();
+        cancelTimeout();
+        if(callback != null){
+            try {
+                callback.failed(contentItem, exception);
+            } catch (RuntimeException e) {
+                log.warn("Exception in EnhancementJobCallback#failed(..) for ContentItem "
+                    + contentItem.getUri(), e);
+            }
+        }
+        return true;
+    }
+
+    private void cancelTimeout() {
+        Future<?> timeout = this.timeout;
+        if(timeout != null){
+            timeout.cancel(false);
+        }
+    }
+    
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return false; //not supported
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return false;
+    }
+
+    @Override
+    public boolean isDone() {
+        return done.getCount() == 0;
+    }
+
+    @Override
+    public ContentItem get() throws InterruptedException, ExecutionException {
+        done.await();
+        return getResult();
+    }
+
+    @Override
+    public ContentItem get(long timeout, TimeUnit unit) throws InterruptedException,
+                                                           ExecutionException,
+                                                           TimeoutException {
+        if(!done.await(timeout, unit)){
+            throw new TimeoutException("Enhancement of ContentItem "+contentItem.getUri()
+                + " not finished after "+timeout+" "+unit);
+        }
+        return getResult();
+    }
+
+    private ContentItem getResult() throws ExecutionException {
+        Exception exception = this.exception;
+        if(exception != null){
+            throw new ExecutionException(exception);
+        } else {
+            return contentItem;
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return "EnhancementJobFuture for ContentItem "+contentItem.getUri()
+                + (isDone() ? (exception == null ? " (completed)" : " (failed)") : "");
+    }
+}
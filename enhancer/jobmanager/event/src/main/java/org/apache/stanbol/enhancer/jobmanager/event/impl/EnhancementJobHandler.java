@@ -19,7 +19,6 @@ package org.apache.stanbol.enhancer.jobmanager.event.impl;
 import static org.apache.stanbol.enhancer.jobmanager.event.Constants.PROPERTY_EXECUTION;
 import static org.apache.stanbol.enhancer.jobmanager.event.Constants.PROPERTY_JOB_MANAGER;
 import static org.apache.stanbol.enhancer.jobmanager.event.Constants.TOPIC_JOB_MANAGER;
-import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.getEngine;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -30,6 +29,7 @@ import java.util.Hashtable;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
@@ -41,11 +41,13 @@ import org.apache.stanbol.enhancer.servicesapi.ContentItem;
 import org.apache.stanbol.enhancer.servicesapi.EngineException;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementEngine;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementEngineManager;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementJobRejectedException;
 import org.apache.stanbol.enhancer.servicesapi.helper.EnhancementEngineHelper;
 import org.apache.stanbol.enhancer.servicesapi.helper.ExecutionMetadataHelper;
 import org.apache.stanbol.enhancer.servicesapi.helper.execution.ChainExecution;
 import org.apache.stanbol.enhancer.servicesapi.helper.execution.Execution;
 import org.apache.stanbol.enhancer.servicesapi.helper.execution.ExecutionMetadata;
+import org.apache.stanbol.enhancer.servicesapi.metrics.EnhancementMetrics;
 import org.osgi.service.event.Event;
 import org.osgi.service.event.EventAdmin;
 import org.osgi.service.event.EventHandler;
@@ -56,6 +58,16 @@ public class EnhancementJobHandler implements EventHandler {
 
     private EnhancementEngineManager engineManager;
     private EventAdmin eventAdmin;
+    /**
+     * If not <code>null</code> engines are executed by using the
+     * {@link EngineExecutors} instead of sending events via the
+     * {@link EventAdmin}.
+     */
+    private final EngineExecutors engineExecutors;
+    /**
+     * Used to record the executions of engines (optional)
+     */
+    private volatile EnhancementMetrics metrics;
 
     /*
      * NOTE on debug level Loggings
@@ -80,6 +92,19 @@ public class EnhancementJobHandler implements EventHandler {
     
     public EnhancementJobHandler(EventAdmin eventAdmin, 
                                  EnhancementEngineManager engineManager) {
+        this(eventAdmin, engineManager, null);
+    }
+    /**
+     * Creates an EnhancementJobHandler that uses the parsed 
+     * {@link EngineExecutors} to execute {@link EnhancementEngine}s.
+     * @param eventAdmin the event admin
+     * @param engineManager the engine manager
+     * @param engineExecutors the engine executors or <code>null</code> to
+     * execute engines by sending events via the {@link EventAdmin}
+     */
+    public EnhancementJobHandler(EventAdmin eventAdmin, 
+                                 EnhancementEngineManager engineManager,
+                                 EngineExecutors engineExecutors) {
         if(eventAdmin == null){
             throw new IllegalArgumentException("The parsed EventAdmin service MUST NOT be NULL!");
         }
@@ -88,6 +113,7 @@ public class EnhancementJobHandler implements EventHandler {
         }
         this.eventAdmin = eventAdmin;
         this.engineManager = engineManager;
+        this.engineExecutors = engineExecutors;
         processingLock.writeLock().lock();
         try {
             processingJobs = new LinkedHashMap<EnhancementJob,EnhancementJobObserver>();
@@ -100,6 +126,14 @@ public class EnhancementJobHandler implements EventHandler {
         observerDaemon.start();
         
     }
+    /**
+     * Setter for the {@link EnhancementMetrics} used to record engine 
+     * executions.
+     * @param metrics the metrics or <code>null</code> to deactivate recording
+     */
+    public void setMetrics(EnhancementMetrics metrics) {
+        this.metrics = metrics;
+    }
     /**
      * Closes this Handler and notifies all components that wait for still
      * running jobs
@@ -108,10 +142,11 @@ public class EnhancementJobHandler implements EventHandler {
         log.info("deactivate {}",getClass().getName());
         processingLock.writeLock().lock();
         try {
-            for(Object o : processingJobs.values()){
+            for(EnhancementJobObserver o : processingJobs.values()){
                 synchronized (o) {
                     o.notifyAll();
                 }
+                o.notifyFinished();
             }
             processingJobs = null;
         } finally {
@@ -140,6 +175,23 @@ public class EnhancementJobHandler implements EventHandler {
      * {@link EnhancementJob#isFinished()} or this instance is deactivated
      */
     public EnhancementJobObserver register(EnhancementJob enhancementJob){
+        return register(enhancementJob, null);
+    }
+    /**
+     * Registers an EnhancementJob and will start the enhancement process.
+     * The parsed callback is called as soon as the job has finished.<p>
+     * NOTE: The callback is called by the thread that completed the last
+     * execution while holding the write lock of the {@link EnhancementJob}
+     * (by default the write lock of the {@link ContentItem}).
+     * Implementations are therefore expected to hand over the work to an
+     * other thread.
+     * @param enhancementJob the enhancement job to register
+     * @param finishedCallback the callback or <code>null</code> if none
+     * @return the observer for the parsed job or <code>null</code> if this
+     * instance was already closed
+     * @see #register(EnhancementJob)
+     */
+    public EnhancementJobObserver register(EnhancementJob enhancementJob, Runnable finishedCallback){
         final boolean init;
         EnhancementJobObserver observer;
         processingLock.writeLock().lock();
@@ -149,7 +201,7 @@ public class EnhancementJobHandler implements EventHandler {
             }
             observer = processingJobs.get(enhancementJob);
             if(observer == null){
-                observer = new EnhancementJobObserver(enhancementJob);
+                observer = new EnhancementJobObserver(enhancementJob, finishedCallback);
                 if(log.isDebugEnabled()){
                     logJobInfo(log, enhancementJob, "Add EnhancementJob:",log.isTraceEnabled());
                 }
@@ -171,11 +223,16 @@ public class EnhancementJobHandler implements EventHandler {
             try {
                 log.trace(">> w: {}","init execution");
                 if(!executeNextNodes(enhancementJob)){
-                    String message = "Unable to start Execution of "+enhancementJob.getContentItem().getUri();
-                    log.warn(message);
-                    logJobInfo(log, enhancementJob, null, true);
-                    log.warn("finishing job ...");
-                    finish(enhancementJob);
+                    if(enhancementJob.isFailed() || enhancementJob.isFinished()){
+                        //e.g. the execution of the first engine was rejected
+                        finish(enhancementJob);
+                    } else {
+                        String message = "Unable to start Execution of "+enhancementJob.getContentItem().getUri();
+                        log.warn(message);
+                        logJobInfo(log, enhancementJob, null, true);
+                        log.warn("finishing job ...");
+                        finish(enhancementJob);
+                    }
                 }
             } finally {
                 log.trace("<< w: {}","init execution");
@@ -193,8 +250,20 @@ public class EnhancementJobHandler implements EventHandler {
             log.warn("Unable to process EnhancementEvent where EnhancementJob " +
             		"{} or Execution node {} is null -> ignore",job,execution);
         }
+        processExecution(job, execution);
+    }
+    /**
+     * Processes the parsed execution of the job and triggers the next
+     * executions (or finishes the job)
+     * @param job the job
+     * @param execution the execution to process
+     */
+    private void processExecution(EnhancementJob job, BlankNodeOrIRI execution) {
+        long queueTime = job.startExecution(execution);
+        long start = System.nanoTime();
+        boolean completed = false;
         try {
-            processEvent(job, execution);
+            completed = processEvent(job, execution);
         } catch (Throwable t) {
             String message = String.format("Unexpected Exception while processing " +
             		"ContentItem %s with EnhancementJobManager: %s",
@@ -203,7 +272,40 @@ public class EnhancementJobHandler implements EventHandler {
            job.setFailed(execution, null, new IllegalStateException(message,t));
            log.error(message,t);
         }
+        EnhancementMetrics metrics = this.metrics;
+        if(metrics != null){
+            metrics.recordEngineExecution(job.getEngine(execution), queueTime, 
+                System.nanoTime() - start, !completed);
+        }
         //(2) trigger the next actions
+        executeNext(job);
+    }
+    /**
+     * Processes an execution of the parsed job that was displaced from the
+     * queue of its engine by an execution with a higher priority. The
+     * execution is marked as failed with an {@link EnhancementJobRejectedException}
+     * and the next executions are triggered (or the job is finished).
+     * @param job the job
+     * @param execution the displaced execution
+     */
+    private void processDisplaced(EnhancementJob job, BlankNodeOrIRI execution) {
+        String engineName = job.getEngine(execution);
+        log.warn("Execution of Engine {} for ContentItem {} displaced by an execution with "
+            + "a higher priority", engineName, job.getContentItem().getUri());
+        EnhancementMetrics metrics = this.metrics;
+        if(metrics != null){
+            metrics.recordEngineRejected(engineName);
+        }
+        job.setFailed(execution, engineManager.getEngine(engineName), 
+            new EnhancementJobRejectedException("Execution of Engine '" + engineName 
+                + "' rejected because it was displaced by an execution with a higher priority"));
+        executeNext(job);
+    }
+    /**
+     * Triggers the next executions of the parsed job or finishes the job
+     * @param job the job
+     */
+    private void executeNext(EnhancementJob job) {
         log.trace("++ w: {}","check for next Executions");
         job.getLock().writeLock().lock();
         log.trace(">> w: {}","check for next Executions");
@@ -211,18 +313,23 @@ public class EnhancementJobHandler implements EventHandler {
             if(job.isFinished()){
                 finish(job);
             } else if(!job.isFailed()){
-                if(!executeNextNodes(job) && job.getRunning().isEmpty()){
-                    log.warn("Unexpected state in the Execution of ContentItem {}:"
-                        + " Job is not finished AND no executions are running AND"
-                        + " no further execution could be started! -> finishing"
-                        + " this job :(");
-                    finish(job);
+                if(!executeNextNodes(job) && !job.hasRunning()){
+                    if(job.isFailed() || job.isFinished()){
+                        //the execution of the remaining engines was rejected
+                        finish(job);
+                    } else {
+                        log.warn("Unexpected state in the Execution of ContentItem {}:"
+                            + " Job is not finished AND no executions are running AND"
+                            + " no further execution could be started! -> finishing"
+                            + " this job :(");
+                        finish(job);
+                    }
                 } //else execution started of other jobs are running
             } else {
                 if(log.isInfoEnabled()){
                     Collection<String> running = new ArrayList<String>(3);
                     for(BlankNodeOrIRI runningNode : job.getRunning()){
-                        running.add(getEngine(job.getExecutionPlan(), job.getExecutionNode(runningNode)));
+                        running.add(job.getEngine(runningNode));
                     }
                     log.info("Job {} failed, but {} still running!",
                         job.getContentItem().getUri(),running);
@@ -236,12 +343,14 @@ public class EnhancementJobHandler implements EventHandler {
     /**
      * @param job
      * @param execution
+     * @return <code>true</code> if the execution was completed or 
+     * <code>false</code> if it has failed
      */
-    private void processEvent(EnhancementJob job, BlankNodeOrIRI execution) {
-        String engineName = getEngine(job.getExecutionPlan(), 
-            job.getExecutionNode(execution));
+    private boolean processEvent(EnhancementJob job, BlankNodeOrIRI execution) {
+        String engineName = job.getEngine(execution);
         //(1) execute the parsed ExecutionNode
         EnhancementEngine engine = engineManager.getEngine(engineName);
+        boolean completed = false;
         if(engine != null){
             //execute the engine
             Exception exception = null;
@@ -257,12 +366,16 @@ public class EnhancementJobHandler implements EventHandler {
             }
             if(engineState == EnhancementEngine.ENHANCE_SYNCHRONOUS){
                 //ensure that this engine exclusively access the content item
+                //NOTE: use the lock of the content item as the job might use
+                //      its own lock
+                Lock contentItemLock = job.getContentItem().getLock().writeLock();
                 log.trace("++ w: {}: {}","start sync execution", engine.getName());
-                job.getLock().writeLock().lock();
+                contentItemLock.lock();
                 log.trace(">> w: {}: {}","start sync execution", engine.getName());
                 try {
                     engine.computeEnhancements(job.getContentItem());
                     job.setCompleted(execution);
+                    completed = true;
                 } catch (EngineException e){
                     log.warn(e.getMessage(),e);
                     job.setFailed(execution, engine, e);
@@ -271,7 +384,7 @@ public class EnhancementJobHandler implements EventHandler {
                     job.setFailed(execution, engine, e);
                 } finally{
                     log.trace("<< w: {}: {}","finished sync execution", engine.getName());
-                    job.getLock().writeLock().unlock();
+                    contentItemLock.unlock();
                 }
             } else if(engineState == EnhancementEngine.ENHANCE_ASYNC){
                 try {
@@ -279,6 +392,7 @@ public class EnhancementJobHandler implements EventHandler {
                     engine.computeEnhancements(job.getContentItem());
                     log.trace("++ n: finished async execution of Engine {}",engine.getName());
                     job.setCompleted(execution);
+                    completed = true;
                 } catch (EngineException e) {
                     log.warn(e.getMessage(),e);
                     job.setFailed(execution, engine, e);
@@ -292,11 +406,13 @@ public class EnhancementJobHandler implements EventHandler {
                 } else { //can not enhance is not an error
                     //it just says this engine can not enhance this content item
                     job.setCompleted(execution);
+                    completed = true;
                 }
             }
         } else { //engine with that name is not available
             job.setFailed(execution, null, null);
         }
+        return completed;
     }
     /**
      * Removes a finished job from {@link #processingJobs} and notifies
@@ -322,6 +438,7 @@ public class EnhancementJobHandler implements EventHandler {
                 //release the semaphore to send signal to the EventJobManager waiting
                 //for the results
                 observer.release();
+                observer.notifyFinished();
             }
         } else {
             log.warn("EnhancementJob for ContentItem {} is not " +
@@ -332,29 +449,67 @@ public class EnhancementJobHandler implements EventHandler {
     /**
      * triggers the execution of the next nodes or if 
      * {@link EnhancementJob#isFinished()} notifies the one who registered 
-     * the {@link EnhancementJob} with this component.
+     * the {@link EnhancementJob} with this component.<p>
+     * If {@link EngineExecutors} are used and the execution of an engine is
+     * rejected (because its queue is full) the execution is marked as failed
+     * with an {@link EnhancementJobRejectedException}. The same happens
+     * for queued executions displaced by executions with a higher
+     * {@link EnhancementJob#getPriority() priority}.
      * @param job the enhancement job to process
      * @return if an Execution event was sent
      */
-    protected boolean executeNextNodes(EnhancementJob job) {
+    protected boolean executeNextNodes(final EnhancementJob job) {
         //getExecutable returns an snapshot so we do not need to lock
         boolean startedExecution = false;
-        for(BlankNodeOrIRI executable : job.getExecutable()){
-            if(log.isTraceEnabled()){
-                log.trace("PREPARE execution of Engine {}",
-                    getEngine(job.getExecutionPlan(), job.getExecutionNode(executable)));
-            }
-            Dictionary<String,Object> properties = new Hashtable<String,Object>();
-            properties.put(PROPERTY_JOB_MANAGER, job);
-            properties.put(PROPERTY_EXECUTION, executable);
-            job.setRunning(executable);
-            if(log.isTraceEnabled()){
-                log.trace("SHEDULE execution of Engine {}",
-                    getEngine(job.getExecutionPlan(), job.getExecutionNode(executable)));
+        boolean rejected;
+        do {
+            rejected = false;
+            for(final BlankNodeOrIRI executable : job.getExecutable()){
+                String engineName = job.getEngine(executable);
+                if(log.isTraceEnabled()){
+                    log.trace("PREPARE execution of Engine {}", engineName);
+                }
+                job.setRunning(executable);
+                if(log.isTraceEnabled()){
+                    log.trace("SHEDULE execution of Engine {}", engineName);
+                }
+                if(engineExecutors == null){
+                    Dictionary<String,Object> properties = new Hashtable<String,Object>();
+                    properties.put(PROPERTY_JOB_MANAGER, job);
+                    properties.put(PROPERTY_EXECUTION, executable);
+                    eventAdmin.postEvent(new Event(TOPIC_JOB_MANAGER,properties));
+                } else {
+                    try {
+                        engineExecutors.execute(engineName, job.getPriority(), new Runnable() {
+                            @Override
+                            public void run() {
+                                processExecution(job, executable);
+                            }
+                        }, new Runnable() {
+                            @Override
+                            public void run() {
+                                processDisplaced(job, executable);
+                            }
+                        });
+                    } catch (RejectedExecutionException e) {
+                        log.warn("Execution of Engine {} for ContentItem {} rejected: {}",
+                            new Object[]{engineName, job.getContentItem().getUri(), e.getMessage()});
+                        EnhancementMetrics metrics = this.metrics;
+                        if(metrics != null){
+                            metrics.recordEngineRejected(engineName);
+                        }
+                        job.setFailed(executable, engineManager.getEngine(engineName), 
+                            new EnhancementJobRejectedException("Execution of Engine '"
+                                + engineName + "' rejected because its queue is full", e));
+                        //optional engines do not fail the job, but may allow
+                        //other engines to be executed
+                        rejected = !job.isFailed();
+                        continue;
+                    }
+                }
+                startedExecution = true;
             }
-            eventAdmin.postEvent(new Event(TOPIC_JOB_MANAGER,properties));
-            startedExecution = true;
-        }
+        } while(rejected);
         return startedExecution;
     }
     /**
@@ -362,10 +517,12 @@ public class EnhancementJobHandler implements EventHandler {
      * Enhancement Engines on DEBUG level
      * @param logger The logger used for logging
      * @param job the job to log. This expects that 
-     * <code>{@link EnhancementJob#isFinished()} == true</code>
+     * <code>{@link EnhancementJob#isFinished()} == true</code>. Nothing is
+     * logged if the job does not {@link EnhancementJob#isRecordExecutions()
+     * record executions}.
      */
     protected static void logExecutionTimes(Logger logger, EnhancementJob job){
-    	if(logger.isInfoEnabled()){
+    	if(logger.isInfoEnabled() && job.isRecordExecutions()){
     		try {
 		    	ExecutionMetadata em = ExecutionMetadata.parseFrom(
 		    			job.getExecutionMetadata(),job.getContentItem().getUri());
@@ -425,16 +582,13 @@ public class EnhancementJobHandler implements EventHandler {
         if(logExecutions){
             log.info("  executions:");
             for(BlankNodeOrIRI completedExec : job.getCompleted()){
-                log.info("    - {} completed",getEngine(job.getExecutionMetadata(), 
-                    job.getExecutionNode(completedExec)));
+                log.info("    - {} completed",job.getEngine(completedExec));
             }
             for(BlankNodeOrIRI runningExec : job.getRunning()){
-                log.info("    - {} running",getEngine(job.getExecutionMetadata(), 
-                    job.getExecutionNode(runningExec)));
+                log.info("    - {} running",job.getEngine(runningExec));
             }
             for(BlankNodeOrIRI executeable : job.getExecutable()){
-                log.info("    - {} executeable",getEngine(job.getExecutionMetadata(), 
-                    job.getExecutionNode(executeable)));
+                log.info("    - {} executeable",job.getEngine(executeable));
             }
         }
         if(job.getErrorMessage() != null){
@@ -449,13 +603,28 @@ public class EnhancementJobHandler implements EventHandler {
         private static final int MIN_WAIT_TIME = 500;
         private final EnhancementJob enhancementJob;
         private final Semaphore semaphore;
+        private final Runnable finishedCallback;
         
-        private EnhancementJobObserver(EnhancementJob job){
+        private EnhancementJobObserver(EnhancementJob job, Runnable finishedCallback){
             if(job == null){
                 throw new IllegalArgumentException("The parsed EnhancementJob MUST NOT be NULL!");
             }
             this.enhancementJob = job;
             this.semaphore = new Semaphore(1);
+            this.finishedCallback = finishedCallback;
+        }
+        /**
+         * Calls the finished callback (if present)
+         */
+        protected void notifyFinished() {
+            if(finishedCallback != null){
+                try {
+                    finishedCallback.run();
+                } catch (RuntimeException e) {
+                    log.warn("Exception while notifying the completion of EnhancementJob "
+                        + enhancementJob + "!", e);
+                }
+            }
         }
 
         protected void acquire() {
@@ -555,6 +724,11 @@ public class EnhancementJobHandler implements EventHandler {
                 } else {
                     log.debug(" -- No active Enhancement Jobs");
                 }
+                if(engineExecutors != null && observerLog.isDebugEnabled()){
+                    for(EngineExecutors.Statistics stats : engineExecutors.getStatistics().values()){
+                        observerLog.debug(" -- {}", stats);
+                    }
+                }
             }
             
         }
@@ -20,11 +20,30 @@ import static org.apache.stanbol.enhancer.jobmanager.event.Constants.TOPIC_JOB_M
 
 import java.io.ByteArrayOutputStream;
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Dictionary;
+import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.clerezza.commons.rdf.ImmutableGraph;
 import org.apache.clerezza.commons.rdf.Triple;
@@ -37,8 +56,11 @@ import org.apache.felix.scr.annotations.Properties;
 import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.apache.felix.scr.annotations.ReferencePolicy;
+import org.apache.felix.scr.annotations.ReferenceStrategy;
 import org.apache.felix.scr.annotations.Service;
 import org.apache.stanbol.enhancer.jobmanager.event.impl.EnhancementJobHandler.EnhancementJobObserver;
+import org.apache.stanbol.enhancer.servicesapi.AsyncEnhancementJobManager;
 import org.apache.stanbol.enhancer.servicesapi.Chain;
 import org.apache.stanbol.enhancer.servicesapi.ChainException;
 import org.apache.stanbol.enhancer.servicesapi.ChainManager;
@@ -46,12 +68,15 @@ import org.apache.stanbol.enhancer.servicesapi.ContentItem;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementEngine;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementEngineManager;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementException;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementJobCallback;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementJobManager;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementJobRejectedException;
+import org.apache.stanbol.enhancer.servicesapi.helper.ConfigUtils;
 import org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper;
-import org.apache.stanbol.enhancer.servicesapi.helper.execution.Execution;
-import org.apache.stanbol.enhancer.servicesapi.helper.execution.ExecutionMetadata;
+import org.apache.stanbol.enhancer.servicesapi.metrics.EnhancementMetrics;
 import org.osgi.framework.Constants;
 import org.osgi.framework.ServiceRegistration;
+import org.osgi.service.cm.ConfigurationException;
 import org.osgi.service.component.ComponentContext;
 import org.osgi.service.event.EventAdmin;
 import org.osgi.service.event.EventHandler;
@@ -59,13 +84,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @Component(immediate=true,metatype=true)
-@Service
+@Service(value={EnhancementJobManager.class, AsyncEnhancementJobManager.class})
 @Properties(value={
     //register with a ranking lower than 0 to allow easy overriding by specific
     @Property(name=Constants.SERVICE_RANKING,intValue=EventJobManagerImpl.DEFAULT_SERVICE_RANKING),
-    @Property(name=EventJobManagerImpl.MAX_ENHANCEMENT_JOB_WAIT_TIME,intValue=EventJobManagerImpl.DEFAULT_MAX_ENHANCEMENT_JOB_WAIT_TIME)
+    @Property(name=EventJobManagerImpl.MAX_ENHANCEMENT_JOB_WAIT_TIME,intValue=EventJobManagerImpl.DEFAULT_MAX_ENHANCEMENT_JOB_WAIT_TIME),
+    @Property(name=EventJobManagerImpl.RECORD_EXECUTION_METADATA,boolValue=EventJobManagerImpl.DEFAULT_RECORD_EXECUTION_METADATA),
+    @Property(name=EventJobManagerImpl.CONTENT_ITEM_LOCK,boolValue=EventJobManagerImpl.DEFAULT_CONTENT_ITEM_LOCK),
+    @Property(name=EventJobManagerImpl.MAX_CHAIN_BACKLOG,intValue=EventJobManagerImpl.DEFAULT_MAX_CHAIN_BACKLOG),
+    @Property(name=EventJobManagerImpl.CHAIN_PRIORITIES,cardinality=Integer.MAX_VALUE,value={}),
+    @Property(name=EventJobManagerImpl.EXECUTOR_ENABLED,boolValue=EventJobManagerImpl.DEFAULT_EXECUTOR_ENABLED),
+    @Property(name=EventJobManagerImpl.EXECUTOR_THREADS,intValue=EventJobManagerImpl.DEFAULT_EXECUTOR_THREADS),
+    @Property(name=EventJobManagerImpl.EXECUTOR_QUEUE_SIZE,intValue=EventJobManagerImpl.DEFAULT_EXECUTOR_QUEUE_SIZE),
+    @Property(name=EventJobManagerImpl.EXECUTOR_ENGINES,cardinality=Integer.MAX_VALUE,value={}),
+    @Property(name=EventJobManagerImpl.CALLBACK_THREADS,intValue=EventJobManagerImpl.DEFAULT_CALLBACK_THREADS),
+    @Property(name=EventJobManagerImpl.CALLBACK_QUEUE_SIZE,intValue=EventJobManagerImpl.DEFAULT_CALLBACK_QUEUE_SIZE)
 })
-public class EventJobManagerImpl implements EnhancementJobManager {
+public class EventJobManagerImpl implements AsyncEnhancementJobManager {
 
     private final Logger log = LoggerFactory.getLogger(EventJobManagerImpl.class);
     /**
@@ -82,6 +117,105 @@ public class EventJobManagerImpl implements EnhancementJobManager {
      * default max wait time is 60sec (similar to the http timeout)
      */
     public static final int DEFAULT_MAX_ENHANCEMENT_JOB_WAIT_TIME = 60 * 1000;
+    /**
+     * If the state of the single engine executions is written to the
+     * ExecutionMetadata content part of enhanced ContentItems. If disabled
+     * only the state of the em:ChainExecution is recorded.
+     */
+    public static final String RECORD_EXECUTION_METADATA = "stanbol.enhancer.jobmanager.event.recordExecutionMetadata";
+    
+    public static final boolean DEFAULT_RECORD_EXECUTION_METADATA = true;
+    /**
+     * If the lock of the ContentItem is used to guard the state of
+     * {@link EnhancementJob}s. If disabled jobs use their own lock and
+     * updates of the execution state do no longer block engines reading or
+     * writing the metadata of the ContentItem. Disabled by default as the
+     * ContentItemFactories use a lock striped graph for the metadata so that
+     * engines executed in parallel do not need the lock of the ContentItem
+     * to add their enhancements.
+     */
+    public static final String CONTENT_ITEM_LOCK = "stanbol.enhancer.jobmanager.event.contentItemLock";
+
+    public static final boolean DEFAULT_CONTENT_ITEM_LOCK = false;
+    /**
+     * The maximum number of {@link EnhancementJob}s processed concurrently
+     * for a single {@link Chain}. Additional requests are rejected with an
+     * {@link EnhancementJobRejectedException}. Values <code>&lt;= 0</code>
+     * deactivate this admission control.
+     */
+    public static final String MAX_CHAIN_BACKLOG = "stanbol.enhancer.jobmanager.event.maxChainBacklog";
+    
+    public static final int DEFAULT_MAX_CHAIN_BACKLOG = 0;
+    /**
+     * Chain specific priorities using the syntax 
+     * <code>{chain-name};priority={n}</code>. If the queue of an
+     * {@link EngineExecutors engine executor} is full, executions of jobs
+     * with a higher priority displace queued executions of jobs with a lower
+     * priority. Jobs of chains without a configured priority use
+     * {@link #DEFAULT_CHAIN_PRIORITY}. Only used if 
+     * {@link #EXECUTOR_ENABLED engine executors} are enabled.
+     */
+    public static final String CHAIN_PRIORITIES = "stanbol.enhancer.jobmanager.event.chainPriorities";
+    /**
+     * The chain specific parameter for the priority
+     */
+    public static final String CHAIN_PRIORITY = "priority";
+    
+    public static final int DEFAULT_CHAIN_PRIORITY = 0;
+    /**
+     * If enabled {@link EnhancementEngine}s are executed by bounded per 
+     * engine thread pools (see {@link EngineExecutors}) instead of sending
+     * events via the {@link EventAdmin}.
+     */
+    public static final String EXECUTOR_ENABLED = "stanbol.enhancer.jobmanager.event.executor.enabled";
+    
+    public static final boolean DEFAULT_EXECUTOR_ENABLED = false;
+    /**
+     * The number of threads used to execute a single {@link EnhancementEngine}
+     */
+    public static final String EXECUTOR_THREADS = "stanbol.enhancer.jobmanager.event.executor.threads";
+    
+    public static final int DEFAULT_EXECUTOR_THREADS = 4;
+    /**
+     * The maximum number of executions of a single {@link EnhancementEngine}
+     * waiting for a free thread. If the queue is full further executions
+     * fail with an {@link EnhancementJobRejectedException}.
+     */
+    public static final String EXECUTOR_QUEUE_SIZE = "stanbol.enhancer.jobmanager.event.executor.queueSize";
+    
+    public static final int DEFAULT_EXECUTOR_QUEUE_SIZE = 100;
+    /**
+     * Engine specific configurations for the number of threads and the
+     * queue size using the syntax <code>{engine-name};threads={n};queue={n}</code>
+     */
+    public static final String EXECUTOR_ENGINES = "stanbol.enhancer.jobmanager.event.executor.engines";
+    /**
+     * The engine specific parameter for the number of threads
+     */
+    public static final String EXECUTOR_ENGINE_THREADS = "threads";
+    /**
+     * The engine specific parameter for the queue size
+     */
+    public static final String EXECUTOR_ENGINE_QUEUE = "queue";
+    /**
+     * The number of threads used to process the results of asynchronous
+     * enhancement jobs and to notify the {@link EnhancementJobCallback}s
+     */
+    public static final String CALLBACK_THREADS = "stanbol.enhancer.jobmanager.event.callback.threads";
+    
+    public static final int DEFAULT_CALLBACK_THREADS = 10;
+    /**
+     * The maximum number of finished asynchronous enhancement jobs waiting
+     * for a free callback thread. If the queue is full the results of 
+     * further jobs are failed with an {@link EnhancementJobRejectedException}.
+     */
+    public static final String CALLBACK_QUEUE_SIZE = "stanbol.enhancer.jobmanager.event.callback.queueSize";
+    
+    public static final int DEFAULT_CALLBACK_QUEUE_SIZE = 1000;
+    /**
+     * The minimum time to wait for the completion of an enhancement job
+     */
+    private static final int MIN_WAIT_TIME = 500;
     
     @Reference
     protected ChainManager chainManager;
@@ -96,11 +230,56 @@ public class EventJobManagerImpl implements EnhancementJobManager {
      */
     @Reference(cardinality=ReferenceCardinality.OPTIONAL_UNARY)
     protected Serializer serializer;
+    /**
+     * If available used to record the executions of engines and chains
+     * (OPTIONAL)
+     */
+    @Reference(cardinality=ReferenceCardinality.OPTIONAL_UNARY,
+        bind="bindMetrics",
+        unbind="unbindMetrics",
+        strategy=ReferenceStrategy.EVENT,
+        policy=ReferencePolicy.DYNAMIC)
+    private volatile EnhancementMetrics metrics;
     
     @SuppressWarnings("rawtypes")
     private ServiceRegistration jobHandlerRegistration;
     private EnhancementJobHandler jobHandler;
     private int maxEnhancementJobWaitTime = DEFAULT_MAX_ENHANCEMENT_JOB_WAIT_TIME;
+    private boolean recordExecutionMetadata = DEFAULT_RECORD_EXECUTION_METADATA;
+    private boolean contentItemLock = DEFAULT_CONTENT_ITEM_LOCK;
+    private int maxChainBacklog = DEFAULT_MAX_CHAIN_BACKLOG;
+    /**
+     * The configured {@link #CHAIN_PRIORITIES} by chain name
+     */
+    private Map<String,Integer> chainPriorities = Collections.emptyMap();
+    /**
+     * The number of {@link EnhancementJob}s currently processed by chain
+     * name. Only used if {@link #maxChainBacklog} <code>&gt; 0</code>
+     */
+    private final ConcurrentMap<String,AtomicInteger> chainBacklog = 
+            new ConcurrentHashMap<String,AtomicInteger>();
+    /**
+     * The executors used for {@link EnhancementEngine}s or <code>null</code>
+     * if engines are executed by using the {@link EventAdmin}
+     */
+    private EngineExecutors engineExecutors;
+    /**
+     * Cache for the {@link CompiledExecutionPlan}s. Keys are the names of the
+     * {@link Chain}s. Entries are reused as long as the
+     * {@link Chain#getExecutionPlan()} has the same revision as the cached
+     * version (see {@link CachedPlan}).
+     */
+    private final Map<String,CachedPlan> compiledPlans = 
+            new ConcurrentHashMap<String,CachedPlan>();
+    /**
+     * Used to process the results of asynchronous enhancement jobs and to
+     * notify the {@link EnhancementJobCallback}s.
+     */
+    private ExecutorService callbackExecutor;
+    /**
+     * Used to check for timeouts of asynchronous enhancement jobs
+     */
+    private ScheduledExecutorService timeoutExecutor;
     
     
     /**
@@ -110,9 +289,49 @@ public class EventJobManagerImpl implements EnhancementJobManager {
      * @param ctx
      */
     @Activate
-    protected void activate(ComponentContext ctx){
+    protected void activate(ComponentContext ctx) throws ConfigurationException {
         log.info("activate {}",getClass().getName());
-        jobHandler = new EnhancementJobHandler(eventAdmin,engineManager);
+        Dictionary<String,Object> config = ctx.getProperties();
+        maxChainBacklog = getIntValue(config, MAX_CHAIN_BACKLOG, DEFAULT_MAX_CHAIN_BACKLOG);
+        chainPriorities = parseChainPriorities(config.get(CHAIN_PRIORITIES));
+        Object executorEnabled = config.get(EXECUTOR_ENABLED);
+        if(executorEnabled instanceof Boolean ? (Boolean)executorEnabled : 
+                executorEnabled != null && Boolean.parseBoolean(executorEnabled.toString())){
+            int threads = getIntValue(config, EXECUTOR_THREADS, DEFAULT_EXECUTOR_THREADS);
+            if(threads <= 0){
+                throw new ConfigurationException(EXECUTOR_THREADS, "The number of threads MUST BE > 0!");
+            }
+            int queueSize = getIntValue(config, EXECUTOR_QUEUE_SIZE, DEFAULT_EXECUTOR_QUEUE_SIZE);
+            if(queueSize <= 0){
+                throw new ConfigurationException(EXECUTOR_QUEUE_SIZE, "The queue size MUST BE > 0!");
+            }
+            engineExecutors = new EngineExecutors(threads, queueSize, 
+                parseEngineExecutorConfig(config.get(EXECUTOR_ENGINES)));
+            log.info(" ... execute engines with bounded Executors (threads: {}, queueSize: {})",
+                threads, queueSize);
+        } else {
+            engineExecutors = null;
+        }
+        int callbackThreads = getIntValue(config, CALLBACK_THREADS, DEFAULT_CALLBACK_THREADS);
+        if(callbackThreads <= 0){
+            throw new ConfigurationException(CALLBACK_THREADS, "The number of threads MUST BE > 0!");
+        }
+        int callbackQueueSize = getIntValue(config, CALLBACK_QUEUE_SIZE, DEFAULT_CALLBACK_QUEUE_SIZE);
+        if(callbackQueueSize <= 0){
+            throw new ConfigurationException(CALLBACK_QUEUE_SIZE, "The queue size MUST BE > 0!");
+        }
+        //bounded pool: results that can not be queued are rejected (AbortPolicy)
+        //and the future is failed with an EnhancementJobRejectedException
+        ThreadPoolExecutor callbackPool = new ThreadPoolExecutor(callbackThreads, callbackThreads,
+            60, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(callbackQueueSize),
+            new NamedDaemonThreadFactory("Event Job Manager Callback"),
+            new ThreadPoolExecutor.AbortPolicy());
+        callbackPool.allowCoreThreadTimeOut(true);
+        callbackExecutor = callbackPool;
+        timeoutExecutor = Executors.newSingleThreadScheduledExecutor(
+            new NamedDaemonThreadFactory("Event Job Manager Timeout"));
+        jobHandler = new EnhancementJobHandler(eventAdmin,engineManager,engineExecutors);
+        jobHandler.setMetrics(metrics);
         Dictionary<String,Object> properties = new Hashtable<String,Object>();
         properties.put(org.osgi.service.event.EventConstants.EVENT_TOPIC, TOPIC_JOB_MANAGER);
         jobHandlerRegistration = ctx.getBundleContext().registerService(
@@ -122,6 +341,22 @@ public class EventJobManagerImpl implements EnhancementJobManager {
         if (maxWaitTime instanceof Integer) {
             this.maxEnhancementJobWaitTime = (Integer) maxWaitTime;
         }
+        Object recordEm = ctx.getProperties().get(RECORD_EXECUTION_METADATA);
+        if(recordEm instanceof Boolean){
+            this.recordExecutionMetadata = (Boolean) recordEm;
+        } else if(recordEm != null){
+            this.recordExecutionMetadata = Boolean.parseBoolean(recordEm.toString());
+        } else {
+            this.recordExecutionMetadata = DEFAULT_RECORD_EXECUTION_METADATA;
+        }
+        Object ciLock = ctx.getProperties().get(CONTENT_ITEM_LOCK);
+        if(ciLock instanceof Boolean){
+            this.contentItemLock = (Boolean) ciLock;
+        } else if(ciLock != null){
+            this.contentItemLock = Boolean.parseBoolean(ciLock.toString());
+        } else {
+            this.contentItemLock = DEFAULT_CONTENT_ITEM_LOCK;
+        }
     }
     /**
      * Unregisters the {@link EnhancementJobHandler}
@@ -138,6 +373,140 @@ public class EventJobManagerImpl implements EnhancementJobManager {
         jobHandler.close();
         jobHandlerRegistration.unregister();
         jobHandlerRegistration = null;
+        compiledPlans.clear();
+        //shutdown (but do not interrupt) so that pending callbacks are still
+        //notified about the deactivation
+        callbackExecutor.shutdown();
+        callbackExecutor = null;
+        timeoutExecutor.shutdownNow();
+        timeoutExecutor = null;
+        if(engineExecutors != null){
+            engineExecutors.close();
+            engineExecutors = null;
+        }
+        chainBacklog.clear();
+    }
+    
+    protected void bindMetrics(EnhancementMetrics metrics){
+        this.metrics = metrics;
+        EnhancementJobHandler jobHandler = this.jobHandler;
+        if(jobHandler != null){
+            jobHandler.setMetrics(metrics);
+        }
+    }
+    
+    protected void unbindMetrics(EnhancementMetrics metrics){
+        if(this.metrics == metrics){
+            this.metrics = null;
+            EnhancementJobHandler jobHandler = this.jobHandler;
+            if(jobHandler != null){
+                jobHandler.setMetrics(null);
+            }
+        }
+    }
+    /**
+     * Parses the {@link #EXECUTOR_ENGINES} configuration
+     * @param value the configured value
+     * @return the engine specific configurations as expected by the
+     * {@link EngineExecutors} constructor
+     * @throws ConfigurationException if the configuration is invalid
+     */
+    private Map<String,int[]> parseEngineExecutorConfig(Object value) throws ConfigurationException {
+        Collection<String> lines = getConfigLines(value);
+        if(lines.isEmpty()){
+            return Collections.emptyMap();
+        }
+        Map<String,int[]> engineConfig = new HashMap<String,int[]>();
+        try {
+            for(Entry<String,Map<String,List<String>>> entry : ConfigUtils.parseConfig(lines).entrySet()){
+                String threads = ConfigUtils.getValue(entry.getValue(), EXECUTOR_ENGINE_THREADS);
+                String queue = ConfigUtils.getValue(entry.getValue(), EXECUTOR_ENGINE_QUEUE);
+                engineConfig.put(entry.getKey(), new int[]{
+                        threads == null ? -1 : Integer.parseInt(threads),
+                        queue == null ? -1 : Integer.parseInt(queue)});
+            }
+        } catch (NumberFormatException e) {
+            throw new ConfigurationException(EXECUTOR_ENGINES, "Unable to parse engine "
+                + "specific Executor configuration " + lines + " (expected syntax: "
+                + "'{engine-name};"+EXECUTOR_ENGINE_THREADS+"={n};"+EXECUTOR_ENGINE_QUEUE+"={n}')", e);
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException(EXECUTOR_ENGINES, "Unable to parse engine "
+                    + "specific Executor configuration " + lines, e);
+        }
+        return engineConfig;
+    }
+    /**
+     * Parses the {@link #CHAIN_PRIORITIES} configuration
+     * @param value the configured value
+     * @return the priorities by chain name
+     * @throws ConfigurationException if the configuration is invalid
+     */
+    private Map<String,Integer> parseChainPriorities(Object value) throws ConfigurationException {
+        Collection<String> lines = getConfigLines(value);
+        if(lines.isEmpty()){
+            return Collections.emptyMap();
+        }
+        Map<String,Integer> priorities = new HashMap<String,Integer>();
+        try {
+            for(Entry<String,Map<String,List<String>>> entry : ConfigUtils.parseConfig(lines).entrySet()){
+                String priority = ConfigUtils.getValue(entry.getValue(), CHAIN_PRIORITY);
+                if(priority == null){
+                    throw new ConfigurationException(CHAIN_PRIORITIES, "Missing '"
+                        + CHAIN_PRIORITY + "' parameter for chain '" + entry.getKey()
+                        + "' (expected syntax: '{chain-name};"+CHAIN_PRIORITY+"={n}')");
+                }
+                priorities.put(entry.getKey(), Integer.valueOf(priority.trim()));
+            }
+        } catch (NumberFormatException e) {
+            throw new ConfigurationException(CHAIN_PRIORITIES, "Unable to parse chain "
+                + "priorities " + lines + " (expected syntax: '{chain-name};"
+                + CHAIN_PRIORITY+"={n}')", e);
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException(CHAIN_PRIORITIES, "Unable to parse chain "
+                    + "priorities " + lines, e);
+        }
+        return priorities;
+    }
+    /**
+     * Converts a configuration value to a collection of lines
+     * @param value the value (<code>String[]</code>, {@link Collection} or
+     * a single value)
+     * @return the lines. An empty collection if <code>null</code>
+     */
+    private static Collection<String> getConfigLines(Object value){
+        Collection<String> lines;
+        if(value instanceof String[]){
+            lines = Arrays.asList((String[])value);
+        } else if(value instanceof Collection<?>){
+            lines = new ArrayList<String>();
+            for(Object line : (Collection<?>)value){
+                if(line != null){
+                    lines.add(line.toString());
+                }
+            }
+        } else if(value != null){
+            lines = Collections.singleton(value.toString());
+        } else {
+            lines = Collections.emptySet();
+        }
+        return lines;
+    }
+    
+    private static int getIntValue(Dictionary<String,Object> config, String key, int defaultValue)
+            throws ConfigurationException {
+        Object value = config.get(key);
+        if(value instanceof Number){
+            return ((Number)value).intValue();
+        } else if(value != null && !value.toString().trim().isEmpty()){
+            try {
+                return Integer.parseInt(value.toString().trim());
+            } catch (NumberFormatException e) {
+                throw new ConfigurationException(key, "Unable to parse integer value from '"
+                    + value + "'!", e);
+            }
+        } else {
+            return defaultValue;
+        }
     }
     
     @Override
@@ -153,6 +522,131 @@ public class EventJobManagerImpl implements EnhancementJobManager {
 
     @Override
     public void enhanceContent(ContentItem ci, Chain chain) throws EnhancementException {
+        long start = System.currentTimeMillis();
+        EnhancementJob job = createJob(ci, chain);
+        BacklogSlot backlog = acquireBacklog(job);
+        boolean completed;
+        try {
+            //start the execution
+            //wait for the results
+            EnhancementJobObserver observer = jobHandler.register(job, backlog);
+            if(observer == null){
+                throw new ChainException("Unable to enhance ContentItem '"+ci.getUri()
+                    + "' because the EnhancementJobManager is no longer active!");
+            }
+            //now wait for the execution to finish for the configured maximum time
+            completed = observer.waitForCompletion(maxEnhancementJobWaitTime);
+        } finally {
+            //NOTE: also release the slot if the job has timed out. Otherwise
+            //      jobs that do not finish would block the chain forever
+            if(backlog != null){
+                backlog.release();
+            }
+        }
+        if(!completed){ //throw timeout exception
+            recordChainExecution(job, start, true);
+            throw createTimeoutException(job, start);
+        }
+        recordChainExecution(job, start, job.isFailed() || !job.isFinished());
+        processResult(job, start);
+    }
+    
+    @Override
+    public Future<ContentItem> enhanceContentAsync(final ContentItem ci, Chain chain, 
+            EnhancementJobCallback callback) throws EnhancementException {
+        final long start = System.currentTimeMillis();
+        final EnhancementJob job = createJob(ci, chain);
+        final BacklogSlot backlog = acquireBacklog(job);
+        final EnhancementJobFuture future = new EnhancementJobFuture(ci, callback);
+        final ExecutorService callbackExecutor = this.callbackExecutor;
+        final ScheduledExecutorService timeoutExecutor = this.timeoutExecutor;
+        EnhancementJobHandler jobHandler = this.jobHandler;
+        if(jobHandler == null || callbackExecutor == null || timeoutExecutor == null){
+            if(backlog != null){
+                backlog.release();
+            }
+            throw new ChainException("Unable to enhance ContentItem '"+ci.getUri()
+                + "' because the EnhancementJobManager is no longer active!");
+        }
+        //processing the results MUST NOT be done by the thread that finished
+        //the job as this one holds the write lock on the ContentItem
+        final Runnable resultProcessor = new Runnable() {
+            @Override
+            public void run() {
+                if(!future.isDone()){ //not yet timed out
+                    recordChainExecution(job, start, job.isFailed() || !job.isFinished());
+                }
+                try {
+                    processResult(job, start);
+                    future.completed();
+                } catch (EnhancementException e) {
+                    future.failed(e);
+                } catch (RuntimeException e) {
+                    future.failed(e);
+                }
+            }
+        };
+        EnhancementJobObserver observer = jobHandler.register(job, new Runnable() {
+            @Override
+            public void run() {
+                if(backlog != null){
+                    backlog.release();
+                }
+                try {
+                    callbackExecutor.execute(resultProcessor);
+                } catch (RejectedExecutionException e) {
+                    if(!callbackExecutor.isShutdown()){ //callback queue is full
+                        recordChainExecution(job, start, true);
+                        future.failed(new EnhancementJobRejectedException("Unable to process the "
+                            + "results for ContentItem '"+ci.getUri()+"' because the callback "
+                            + "queue is full",e));
+                        return;
+                    }
+                    //deactivated in the meantime
+                    future.failed(new ChainException("EnhancementJobManager was deactivated while" +
+                        " enhancing the passed ContentItem "+ci.getUri()+
+                        " (EnhancementJobManager type: "+EventJobManagerImpl.class+")",e));
+                }
+            }
+        });
+        if(observer == null){
+            if(backlog != null){
+                backlog.release();
+            }
+            throw new ChainException("Unable to enhance ContentItem '"+ci.getUri()
+                + "' because the EnhancementJobManager is no longer active!");
+        }
+        if(!future.isDone()){
+            try {
+                future.setTimeout(timeoutExecutor.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        //release the slot of timed out jobs (see enhanceContent)
+                        if(backlog != null){
+                            backlog.release();
+                        }
+                        if(!future.isDone()){
+                            recordChainExecution(job, start, true);
+                            future.failed(createTimeoutException(job, start));
+                        }
+                    }
+                }, Math.max(MIN_WAIT_TIME, maxEnhancementJobWaitTime), TimeUnit.MILLISECONDS));
+            } catch (RejectedExecutionException e) {
+                log.debug("Unable to schedule timeout for Enhancement of ContentItem {} " +
+                        "(EnhancementJobManager was deactivated)",ci.getUri());
+            }
+        }
+        return future;
+    }
+    /**
+     * Creates the {@link EnhancementJob} for the parsed {@link ContentItem}
+     * and {@link Chain}
+     * @param ci the content item
+     * @param chain the chain
+     * @return the enhancement job
+     * @throws ChainException if the execution plan of the chain is not valid
+     */
+    private EnhancementJob createJob(ContentItem ci, Chain chain) throws ChainException {
         if(ci == null) {
             throw new IllegalArgumentException("The parsed contentItem MUST NOT be NULL!");
         }
@@ -160,29 +654,93 @@ public class EventJobManagerImpl implements EnhancementJobManager {
             throw new IllegalArgumentException("Unable to enhance ContentItem '"+ci.getUri()+
                 "' because NULL was passed as enhancement chain");
         }
-        long start = System.currentTimeMillis();
         enhancementJobManagerLog.debug(">> enhance {} with chain {}", ci.getUri(), chain.getName());
         boolean isDefaultChain = chain.equals(chainManager.getDefault());
-        EnhancementJob job = new EnhancementJob(ci, chain.getName(), chain.getExecutionPlan(),isDefaultChain);
-        //start the execution
-        //wait for the results
-        EnhancementJobObserver observer = jobHandler.register(job);
-        //now wait for the execution to finish for the configured maximum time
-        boolean completed = observer.waitForCompletion(maxEnhancementJobWaitTime);
-        if(!completed){ //throw timeout exception
-            StringBuilder sb = new StringBuilder("Status:\n");
-            ExecutionMetadata em = ExecutionMetadata.parseFrom(job.getExecutionMetadata(), ci.getUri());
-            for(Entry<String,Execution> ex : em.getEngineExecutions().entrySet()){
-                sb.append("  -").append(ex.getKey()).append(": ").append(ex.getValue().getStatus()).append('\n');
+        CachedPlan cached = getCompiledExecutionPlan(chain.getName(), chain.getExecutionPlan());
+        //NOTE: use the cached execution plan as the nodes of the compiled plan
+        //      are the ep:ExecutionNodes of the cached graph
+        EnhancementJob job = new EnhancementJob(ci, chain.getName(), cached.executionPlan, cached.plan, 
+            isDefaultChain, recordExecutionMetadata, contentItemLock);
+        Integer priority = chainPriorities.get(chain.getName());
+        job.setPriority(priority == null ? DEFAULT_CHAIN_PRIORITY : priority.intValue());
+        return job;
+    }
+    /**
+     * Admission control: Increments the number of jobs processed for the
+     * chain of the parsed job.
+     * @param job the job
+     * @return the slot that needs to be {@link BacklogSlot#release() released}
+     * as soon as the job is finished or has timed out or <code>null</code> 
+     * if admission control is deactivated
+     * @throws EnhancementJobRejectedException if the {@link #MAX_CHAIN_BACKLOG}
+     * is reached for the chain of the parsed job
+     */
+    private BacklogSlot acquireBacklog(EnhancementJob job) throws EnhancementJobRejectedException {
+        int maxBacklog = this.maxChainBacklog;
+        if(maxBacklog <= 0){
+            return null;
+        }
+        AtomicInteger backlog = chainBacklog.get(job.getChainName());
+        if(backlog == null){
+            backlog = new AtomicInteger();
+            AtomicInteger current = chainBacklog.putIfAbsent(job.getChainName(), backlog);
+            if(current != null){
+                backlog = current;
+            }
+        }
+        if(backlog.incrementAndGet() > maxBacklog){
+            backlog.decrementAndGet();
+            EnhancementMetrics metrics = this.metrics;
+            if(metrics != null){
+                metrics.recordChainRejected(job.getChainName());
             }
-            throw new ChainException("Execution timeout after "
-                    +((System.currentTimeMillis()-start)/1000f)+"sec (timeout:"+(maxEnhancementJobWaitTime/1000)
-                + "sec) for ContentItem "+ci.getUri()+"\n"+sb.toString()
-                + " \n To change the timeout change value of property '"+
-                    MAX_ENHANCEMENT_JOB_WAIT_TIME+"' for the service "+getClass());
+            throw new EnhancementJobRejectedException("Unable to enhance ContentItem '"
+                + job.getContentItem().getUri() + "' because the maximum number of "
+                + maxBacklog + " concurrent jobs for Chain '" + job.getChainName()
+                + "' is reached (configured by property '" + MAX_CHAIN_BACKLOG + "')!");
         }
+        return new BacklogSlot(backlog);
+    }
+    /**
+     * Records the execution of the chain of the parsed job with the
+     * {@link EnhancementMetrics} (if available)
+     * @param job the job
+     * @param start the start time (ms) of the job
+     * @param failed if the job has failed
+     */
+    private void recordChainExecution(EnhancementJob job, long start, boolean failed){
+        EnhancementMetrics metrics = this.metrics;
+        if(metrics != null){
+            metrics.recordChainExecution(job.getChainName(), job.getQueueTime(), 
+                (System.currentTimeMillis() - start) * 1000000L, failed);
+        }
+    }
+    /**
+     * Creates the exception thrown if an {@link EnhancementJob} does not
+     * complete within {@link #maxEnhancementJobWaitTime}
+     * @param job the job
+     * @param start the start time of the job
+     * @return the exception
+     */
+    private ChainException createTimeoutException(EnhancementJob job, long start) {
+        StringBuilder sb = new StringBuilder("Status:\n");
+        sb.append(job.getExecutionStatus());
+        return new ChainException("Execution timeout after "
+                +((System.currentTimeMillis()-start)/1000f)+"sec (timeout:"+(maxEnhancementJobWaitTime/1000)
+            + "sec) for ContentItem "+job.getContentItem().getUri()+"\n"+sb.toString()
+            + " \n To change the timeout change value of property '"+
+                MAX_ENHANCEMENT_JOB_WAIT_TIME+"' for the service "+getClass());
+    }
+    /**
+     * Processes the result of a finished {@link EnhancementJob}.
+     * @param job the job
+     * @param start the start time of the job
+     * @throws EnhancementException if the job has failed or was not finished
+     * (e.g. because this service was deactivated)
+     */
+    private void processResult(EnhancementJob job, long start) throws EnhancementException {
         log.info("Execution of Chain {} {} after {}ms for ContentItem {}",
-            new Object[]{ chain.getName(), job.isFailed() ? "failed" : "finished",
+            new Object[]{ job.getChainName(), job.isFailed() ? "failed" : "finished",
                     System.currentTimeMillis()-start,
                     job.getContentItem().getUri()});
         //NOTE: ExecutionMetadata are not added to the metadata of the ContentItem
@@ -219,6 +777,40 @@ public class EventJobManagerImpl implements EnhancementJobManager {
         	logExecutionMetadata(enhancementJobManagerLog, job, false);
         }
     }
+    /**
+     * Getter for the {@link CompiledExecutionPlan} for the parsed execution
+     * plan. Compiled plans are cached by chain name and reused as long as the
+     * chain returns an execution plan with the same revision. This is the
+     * case if the same instance is returned or if the returned plan is
+     * isomorphic to the cached one (e.g. for chains that re-create their
+     * execution plan for every request).
+     * @param chainName the name of the chain
+     * @param executionPlan the execution plan of the chain
+     * @return the cached plan. {@link CachedPlan#executionPlan} is the graph
+     * used to compile {@link CachedPlan#plan} and might be a different
+     * (isomorphic) instance as the parsed one.
+     * @throws ChainException if the execution plan can not be compiled
+     */
+    protected CachedPlan getCompiledExecutionPlan(String chainName, 
+            ImmutableGraph executionPlan) throws ChainException {
+        if(executionPlan == null){
+            throw new ChainException("The Chain '" + chainName + "' has no ExecutionPlan!");
+        }
+        CachedPlan cached = compiledPlans.get(chainName);
+        if(cached == null || !cached.isRevision(executionPlan)){
+            CompiledExecutionPlan plan;
+            try {
+                plan = CompiledExecutionPlan.compile(executionPlan, chainName);
+            } catch (IllegalArgumentException e) {
+                throw new ChainException("Unable to compile the ExecutionPlan of Chain '"
+                    + chainName + "'!", e);
+            }
+            log.debug("compiled ExecutionPlan for Chain {}: {}", chainName, plan);
+            cached = new CachedPlan(executionPlan, plan);
+            compiledPlans.put(chainName, cached);
+        }
+        return cached;
+    }
     /**
      * Logs the ExecutionMetadata 
      * @param logger the logger to log the execution metadata to
@@ -281,5 +873,86 @@ public class EventJobManagerImpl implements EnhancementJobManager {
         return ExecutionPlanHelper.getActiveEngines(engineManager,ep);
     }
 
+    /**
+     * A slot in the backlog of a chain acquired by an {@link EnhancementJob}.
+     * The slot can be released several times (e.g. on the timeout and when
+     * the job finishes) but only the first call decrements the backlog.
+     * Implements {@link Runnable} so that it can be used as finished callback
+     * for {@link EnhancementJobHandler#register(EnhancementJob, Runnable)}.
+     */
+    private static final class BacklogSlot implements Runnable {
+        
+        private final AtomicInteger backlog;
+        private final AtomicBoolean released = new AtomicBoolean();
+        
+        BacklogSlot(AtomicInteger backlog){
+            this.backlog = backlog;
+        }
+        /**
+         * Releases the slot (if not yet released)
+         */
+        void release(){
+            if(released.compareAndSet(false, true)){
+                backlog.decrementAndGet();
+            }
+        }
+        
+        @Override
+        public void run() {
+            release();
+        }
+    }
+    /**
+     * A {@link CompiledExecutionPlan} together with the execution plan graph
+     * it was compiled from and the revision of this graph. The revision is
+     * the blank node blind {@link ImmutableGraph#hashCode()} of the graph.
+     * As this hash does not consider how blank nodes are connected (e.g. the
+     * direction of an ep:dependsOn) a match is confirmed by an isomorphism
+     * check ({@link ImmutableGraph#equals(Object)}).
+     */
+    protected static final class CachedPlan {
+        
+        final ImmutableGraph executionPlan;
+        final CompiledExecutionPlan plan;
+        private final int size;
+        private final int revision;
+        
+        CachedPlan(ImmutableGraph executionPlan, CompiledExecutionPlan plan){
+            this.executionPlan = executionPlan;
+            this.plan = plan;
+            this.size = executionPlan.size();
+            this.revision = executionPlan.hashCode();
+        }
+        /**
+         * If the parsed execution plan has the same revision as the cached one
+         * @param executionPlan the execution plan
+         * @return if the {@link #plan} can be used for the parsed execution plan
+         */
+        boolean isRevision(ImmutableGraph executionPlan){
+            return this.executionPlan == executionPlan || (
+                    size == executionPlan.size() &&
+                    revision == executionPlan.hashCode() &&
+                    this.executionPlan.equals(executionPlan));
+        }
+    }
+
+    /**
+     * Creates daemon threads with the parsed name prefix
+     */
+    static class NamedDaemonThreadFactory implements ThreadFactory {
+        
+        private final String name;
+        private final AtomicInteger count = new AtomicInteger();
+        
+        NamedDaemonThreadFactory(String name){
+            this.name = name;
+        }
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, name + " " + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
 
 }
@@ -0,0 +1,143 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.jobmanager.event.impl;
+
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.createExecutionPlan;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.writeExecutionNode;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.ImmutableGraph;
+import org.apache.stanbol.commons.indexedgraph.IndexedGraph;
+import org.apache.stanbol.enhancer.jobmanager.event.impl.EventJobManagerImpl.CachedPlan;
+import org.apache.stanbol.enhancer.servicesapi.ChainException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompiledExecutionPlanTest {
+
+    private static final String CHAIN = "test";
+
+    /**
+     * Creates the execution plan <code>langdetect -> (ner, pos) -> linking</code>
+     */
+    private static CompiledExecutionPlan createPlan(){
+        Graph ep = new IndexedGraph();
+        BlankNodeOrIRI epNode = createExecutionPlan(ep, CHAIN, null);
+        BlankNodeOrIRI langdetect = writeExecutionNode(ep, epNode, "langdetect", false, null, null);
+        BlankNodeOrIRI ner = writeExecutionNode(ep, epNode, "ner", false,
+            Collections.singleton(langdetect), null);
+        BlankNodeOrIRI pos = writeExecutionNode(ep, epNode, "pos", true,
+            Collections.singleton(langdetect), null);
+        writeExecutionNode(ep, epNode, "linking", false,
+            new HashSet<BlankNodeOrIRI>(Arrays.asList(ner, pos)), null);
+        return CompiledExecutionPlan.compile(ep.getImmutableGraph(), CHAIN);
+    }
+
+    @Test
+    public void testLevels(){
+        CompiledExecutionPlan plan = createPlan();
+        Assert.assertEquals(4, plan.size());
+        Assert.assertEquals("langdetect", plan.getEngine(0));
+        Assert.assertEquals(0, plan.getLevel(0));
+        Assert.assertEquals("ner", plan.getEngine(1));
+        Assert.assertEquals(1, plan.getLevel(1));
+        Assert.assertEquals("pos", plan.getEngine(2));
+        Assert.assertEquals(1, plan.getLevel(2));
+        Assert.assertTrue(plan.isOptional(2));
+        Assert.assertFalse(plan.isOptional(1));
+        Assert.assertEquals("linking", plan.getEngine(3));
+        Assert.assertEquals(2, plan.getLevel(3));
+        for(int i = 0; i < plan.size(); i++){
+            Assert.assertEquals(i, plan.indexOf(plan.getNode(i)));
+        }
+    }
+
+    @Test
+    public void testExecutable(){
+        CompiledExecutionPlan plan = createPlan();
+        BitSet completed = new BitSet();
+        BitSet running = new BitSet();
+        BitSet executable = new BitSet();
+        plan.getExecutable(completed, running, executable);
+        Assert.assertEquals(Arrays.asList("langdetect"), plan.getEngines(executable));
+        running.set(0);
+        plan.getExecutable(completed, running, executable);
+        Assert.assertTrue(executable.isEmpty());
+        running.clear(0);
+        completed.set(0);
+        plan.getExecutable(completed, running, executable);
+        Assert.assertEquals(Arrays.asList("ner", "pos"), plan.getEngines(executable));
+        completed.set(1);
+        running.set(2);
+        plan.getExecutable(completed, running, executable);
+        Assert.assertTrue(executable.isEmpty());
+        Assert.assertFalse(plan.isResolved(3, completed));
+        running.clear(2);
+        completed.set(2);
+        plan.getExecutable(completed, running, executable);
+        Assert.assertEquals(Arrays.asList("linking"), plan.getEngines(executable));
+        completed.set(3);
+        plan.getExecutable(completed, running, executable);
+        Assert.assertTrue(executable.isEmpty());
+    }
+
+    /**
+     * Creates the execution plan <code>first -> second</code>
+     */
+    private static ImmutableGraph createSequence(String first, String second){
+        Graph ep = new IndexedGraph();
+        BlankNodeOrIRI epNode = createExecutionPlan(ep, CHAIN, null);
+        BlankNodeOrIRI firstNode = writeExecutionNode(ep, epNode, first, false, null, null);
+        writeExecutionNode(ep, epNode, second, false, Collections.singleton(firstNode), null);
+        return ep.getImmutableGraph();
+    }
+
+    @Test
+    public void testPlanCacheRevision() throws ChainException {
+        EventJobManagerImpl jobManager = new EventJobManagerImpl();
+        ImmutableGraph ep = createSequence("langdetect", "ner");
+        CachedPlan cached = jobManager.getCompiledExecutionPlan(CHAIN, ep);
+        Assert.assertSame(ep, cached.executionPlan);
+        Assert.assertSame(cached, jobManager.getCompiledExecutionPlan(CHAIN, ep));
+        //a re-created (isomorphic) execution plan has the same revision
+        ImmutableGraph recreated = createSequence("langdetect", "ner");
+        Assert.assertNotSame(ep, recreated);
+        Assert.assertSame(cached, jobManager.getCompiledExecutionPlan(CHAIN, recreated));
+        //a changed dependency results in the same blank node blind hash code
+        //but MUST NOT hit the cache
+        ImmutableGraph reversed = createSequence("ner", "langdetect");
+        Assert.assertEquals(ep.hashCode(), reversed.hashCode());
+        CachedPlan updated = jobManager.getCompiledExecutionPlan(CHAIN, reversed);
+        Assert.assertNotSame(cached, updated);
+        Assert.assertSame(reversed, updated.executionPlan);
+        Assert.assertEquals("ner", updated.plan.getEngine(0));
+        Assert.assertEquals("langdetect", updated.plan.getEngine(1));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testUnknownChain(){
+        Graph ep = new IndexedGraph();
+        createExecutionPlan(ep, CHAIN, null);
+        CompiledExecutionPlan.compile(ep.getImmutableGraph(), "other");
+    }
+}
@@ -0,0 +1,183 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.jobmanager.event.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EngineExecutorsTest {
+
+    @Test
+    public void testRejectWhenQueueIsFull() throws InterruptedException {
+        EngineExecutors executors = new EngineExecutors(4, 10, 
+            Collections.singletonMap("slow", new int[]{1, 1}));
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(2);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            }
+        };
+        try {
+            executors.execute("slow", task); //executed
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+            executors.execute("slow", task); //queued
+            try {
+                executors.execute("slow", task);
+                Assert.fail("RejectedExecutionException expected if the queue is full");
+            } catch (RejectedExecutionException e) {
+                //expected
+            }
+            blocked.countDown();
+            Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            executors.close();
+        }
+        EngineExecutors.Statistics stats = executors.getStatistics("slow");
+        Assert.assertNotNull(stats);
+        Assert.assertEquals(1, stats.getRejected());
+        Assert.assertTrue(stats.getMaxWaitTime() > 0);
+    }
+
+    @Test
+    public void testPriorityOrder() throws InterruptedException {
+        EngineExecutors executors = new EngineExecutors(1, 10, null);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch done = new CountDownLatch(4);
+        try {
+            executors.execute("test", new Runnable() {
+                @Override
+                public void run() {
+                    started.countDown();
+                    try {
+                        blocked.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    done.countDown();
+                }
+            });
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+            executors.execute("test", 0, new RecordingTask("low1", order, done), null);
+            executors.execute("test", 5, new RecordingTask("high", order, done), null);
+            executors.execute("test", 0, new RecordingTask("low2", order, done), null);
+            blocked.countDown();
+            Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            executors.close();
+        }
+        //higher priorities first, FIFO for the same priority
+        Assert.assertEquals(Arrays.asList("high","low1","low2"), order);
+    }
+    
+    @Test
+    public void testDisplacement() throws InterruptedException {
+        EngineExecutors executors = new EngineExecutors(1, 1, null);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch done = new CountDownLatch(3);
+        try {
+            executors.execute("test", new Runnable() {
+                @Override
+                public void run() {
+                    started.countDown();
+                    try {
+                        blocked.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    done.countDown();
+                }
+            });
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+            executors.execute("test", 0, new RecordingTask("low", order, done),
+                new RecordingTask("low-displaced", order, done));
+            //same priority: no displacement
+            try {
+                executors.execute("test", 0, new RecordingTask("low2", order, done), null);
+                Assert.fail("RejectedExecutionException expected if the queue is full");
+            } catch (RejectedExecutionException e) {
+                //expected
+            }
+            //higher priority displaces the queued execution
+            executors.execute("test", 1, new RecordingTask("high", order, done), null);
+            //the displaced task does not use capacity of the queue
+            try {
+                executors.execute("test", 1, new RecordingTask("high2", order, done), null);
+                Assert.fail("RejectedExecutionException expected if the queue is full");
+            } catch (RejectedExecutionException e) {
+                //expected
+            }
+            blocked.countDown();
+            Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            executors.close();
+        }
+        //the displaced callback is called before other queued tasks
+        Assert.assertEquals(Arrays.asList("low-displaced","high"), order);
+        EngineExecutors.Statistics stats = executors.getStatistics("test");
+        Assert.assertEquals(2, stats.getRejected());
+        Assert.assertEquals(1, stats.getDisplaced());
+    }
+    
+    private static class RecordingTask implements Runnable {
+        
+        private final String name;
+        private final List<String> order;
+        private final CountDownLatch done;
+
+        RecordingTask(String name, List<String> order, CountDownLatch done){
+            this.name = name;
+            this.order = order;
+            this.done = done;
+        }
+        @Override
+        public void run() {
+            order.add(name);
+            done.countDown();
+        }
+    }
+
+    @Test(expected=RejectedExecutionException.class)
+    public void testClosed(){
+        EngineExecutors executors = new EngineExecutors(1, 1, null);
+        executors.close();
+        executors.execute("test", new Runnable() {
+            @Override
+            public void run() {}
+        });
+    }
+}
@@ -0,0 +1,130 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.jobmanager.event.impl;
+
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.createExecutionPlan;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.writeExecutionNode;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.ImmutableGraph;
+import org.apache.stanbol.commons.indexedgraph.IndexedGraph;
+import org.apache.stanbol.commons.indexedgraph.StripedIndexedGraph;
+import org.apache.stanbol.enhancer.servicesapi.Blob;
+import org.apache.stanbol.enhancer.servicesapi.ContentItem;
+import org.apache.stanbol.enhancer.servicesapi.impl.ContentItemImpl;
+import org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionMetadata;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EnhancementJobTest {
+
+    private static final String CHAIN = "test";
+
+    private static final ImmutableGraph EXECUTION_PLAN;
+    static {
+        Graph ep = new IndexedGraph();
+        BlankNodeOrIRI epNode = createExecutionPlan(ep, CHAIN, null);
+        BlankNodeOrIRI langdetect = writeExecutionNode(ep, epNode, "langdetect", false, null, null);
+        writeExecutionNode(ep, epNode, "ner", false, Collections.singleton(langdetect), null);
+        EXECUTION_PLAN = ep.getImmutableGraph();
+    }
+
+    private static ContentItem createContentItem(){
+        Blob blob = new Blob() {
+            @Override
+            public String getMimeType() {
+                return "text/plain";
+            }
+            @Override
+            public InputStream getStream() {
+                return new ByteArrayInputStream(new byte[]{});
+            }
+            @Override
+            public Map<String,String> getParameter() {
+                return Collections.emptyMap();
+            }
+            @Override
+            public long getContentLength() {
+                return 0;
+            }
+        };
+        return new ContentItemImpl(new IRI("urn:test:contentItem"), blob, new IndexedGraph()){};
+    }
+
+    private static EnhancementJob createJob(ContentItem ci, boolean contentItemLock){
+        return new EnhancementJob(ci, CHAIN, EXECUTION_PLAN, 
+            CompiledExecutionPlan.compile(EXECUTION_PLAN, CHAIN), false, true, contentItemLock);
+    }
+
+    @Test
+    public void testContentItemLock() throws Exception {
+        ContentItem ci = createContentItem();
+        EnhancementJob job = createJob(ci, true);
+        Assert.assertTrue(job.isContentItemLock());
+        Assert.assertSame(ci.getLock(), job.getLock());
+        Assert.assertFalse(ci.getPart(ExecutionMetadata.CHAIN_EXECUTION, Graph.class) 
+            instanceof StripedIndexedGraph);
+    }
+
+    /**
+     * Tests that the state of an job using its own lock can be updated
+     * while an other thread holds the read lock of the ContentItem
+     */
+    @Test
+    public void testOwnLock() throws Exception {
+        ContentItem ci = createContentItem();
+        final EnhancementJob job = createJob(ci, false);
+        Assert.assertFalse(job.isContentItemLock());
+        Assert.assertNotSame(ci.getLock(), job.getLock());
+        Assert.assertTrue(ci.getPart(ExecutionMetadata.CHAIN_EXECUTION, Graph.class) 
+            instanceof StripedIndexedGraph);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        ci.getLock().readLock().lock();
+        try {
+            boolean finished = executor.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    job.startProcessing();
+                    while(!job.isFinished()){
+                        for(BlankNodeOrIRI execution : job.getExecutable()){
+                            job.setRunning(execution);
+                            job.setCompleted(execution);
+                        }
+                    }
+                    return job.isFinished();
+                }
+            }).get(10, TimeUnit.SECONDS);
+            Assert.assertTrue(finished);
+        } finally {
+            ci.getLock().readLock().unlock();
+            executor.shutdown();
+        }
+        Assert.assertFalse(job.isFailed());
+        Assert.assertEquals(2, job.getCompleted().size());
+    }
+}
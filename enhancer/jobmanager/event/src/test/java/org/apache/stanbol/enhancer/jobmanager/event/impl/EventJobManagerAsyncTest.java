@@ -0,0 +1,561 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.jobmanager.event.impl;
+
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.createExecutionPlan;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.writeExecutionNode;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Dictionary;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.ImmutableGraph;
+import org.apache.clerezza.commons.rdf.Triple;
+import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
+import org.apache.stanbol.commons.indexedgraph.IndexedGraph;
+import org.apache.stanbol.commons.indexedgraph.StripedIndexedGraph;
+import org.apache.stanbol.enhancer.servicesapi.Blob;
+import org.apache.stanbol.enhancer.servicesapi.Chain;
+import org.apache.stanbol.enhancer.servicesapi.ChainException;
+import org.apache.stanbol.enhancer.servicesapi.ChainManager;
+import org.apache.stanbol.enhancer.servicesapi.ContentItem;
+import org.apache.stanbol.enhancer.servicesapi.EngineException;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementEngine;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementEngineManager;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementJobCallback;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementJobRejectedException;
+import org.apache.stanbol.enhancer.servicesapi.impl.ContentItemImpl;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.service.component.ComponentContext;
+import org.osgi.service.event.EventAdmin;
+
+/**
+ * Tests {@link EventJobManagerImpl#enhanceContentAsync(ContentItem, Chain, EnhancementJobCallback)}
+ * including the {@link EnhancementJobFuture} and the timeout of jobs. Engines
+ * are executed by the {@link EngineExecutors} so that no EventAdmin is needed.
+ */
+public class EventJobManagerAsyncTest {
+
+    private static final String CHAIN = "test";
+    private static final String ENGINE = "testEngine";
+    
+    private static final ImmutableGraph EXECUTION_PLAN;
+    static {
+        Graph ep = new IndexedGraph();
+        writeExecutionNode(ep, createExecutionPlan(ep, CHAIN, null), ENGINE, false, null, null);
+        EXECUTION_PLAN = ep.getImmutableGraph();
+    }
+    
+    private static final Chain TEST_CHAIN = new Chain() {
+        @Override
+        public ImmutableGraph getExecutionPlan() {
+            return EXECUTION_PLAN;
+        }
+        @Override
+        public Set<String> getEngines() {
+            return Collections.singleton(ENGINE);
+        }
+        @Override
+        public String getName() {
+            return CHAIN;
+        }
+    };
+    /**
+     * The engine used by the {@link #TEST_CHAIN}. Set by the tests
+     */
+    private final AtomicReference<EnhancementEngine> engine = new AtomicReference<EnhancementEngine>();
+    /**
+     * Additional engines used by tests with other chains
+     */
+    private final Map<String,EnhancementEngine> engines = new ConcurrentHashMap<String,EnhancementEngine>();
+
+    private EventJobManagerImpl jobManager;
+    
+    @Before
+    public void activateJobManager() throws Exception {
+        activate(new Hashtable<String,Object>());
+    }
+    /**
+     * Activates the {@link #jobManager} with the parsed configuration
+     * @param config additional configuration
+     */
+    private void activate(final Dictionary<String,Object> config) throws Exception {
+        jobManager = new EventJobManagerImpl();
+        jobManager.engineManager = proxy(EnhancementEngineManager.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if(!"getEngine".equals(method.getName())){
+                    return null;
+                }
+                return ENGINE.equals(args[0]) ? engine.get() : engines.get(args[0]);
+            }
+        });
+        jobManager.chainManager = proxy(ChainManager.class, null);
+        jobManager.eventAdmin = proxy(EventAdmin.class, null);
+        config.put(EventJobManagerImpl.EXECUTOR_ENABLED, true);
+        config.put(EventJobManagerImpl.MAX_ENHANCEMENT_JOB_WAIT_TIME, 500);
+        final BundleContext bc = proxy(BundleContext.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                return "registerService".equals(method.getName()) ?
+                        proxy(ServiceRegistration.class, null) : null;
+            }
+        });
+        jobManager.activate(proxy(ComponentContext.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if("getProperties".equals(method.getName())){
+                    return config;
+                } else if("getBundleContext".equals(method.getName())){
+                    return bc;
+                } else {
+                    return null;
+                }
+            }
+        }));
+    }
+    
+    @After
+    public void deactivateJobManager(){
+        jobManager.deactivate(null);
+        jobManager = null;
+    }
+    
+    @Test
+    public void testCompleted() throws Exception {
+        engine.set(new TestEngine(null, null));
+        ContentItem ci = createContentItem();
+        TestCallback callback = new TestCallback();
+        Future<ContentItem> future = jobManager.enhanceContentAsync(ci, TEST_CHAIN, callback);
+        Assert.assertSame(ci, future.get(5, TimeUnit.SECONDS));
+        Assert.assertTrue(future.isDone());
+        Assert.assertTrue(callback.called.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(1, callback.completed.get());
+        Assert.assertEquals(0, callback.failed.get());
+        Assert.assertNull(callback.exception.get());
+    }
+    
+    @Test
+    public void testFailed() throws Exception {
+        engine.set(new TestEngine(null, new EngineException("test failure")));
+        ContentItem ci = createContentItem();
+        TestCallback callback = new TestCallback();
+        Future<ContentItem> future = jobManager.enhanceContentAsync(ci, TEST_CHAIN, callback);
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            Assert.fail("ExecutionException expected for a failed enhancement job");
+        } catch (ExecutionException e) {
+            Assert.assertNotNull(e.getCause());
+        }
+        Assert.assertTrue(callback.called.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(0, callback.completed.get());
+        Assert.assertEquals(1, callback.failed.get());
+        Assert.assertNotNull(callback.exception.get());
+    }
+    /**
+     * Tests that jobs not finished within the maximum wait time fail with
+     * a {@link ChainException} and that the later completion of the job is
+     * ignored.
+     */
+    @Test
+    public void testTimeout() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        TestEngine testEngine = new TestEngine(release, null);
+        engine.set(testEngine);
+        ContentItem ci = createContentItem();
+        TestCallback callback = new TestCallback();
+        Future<ContentItem> future = jobManager.enhanceContentAsync(ci, TEST_CHAIN, callback);
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            Assert.fail("ExecutionException expected for a timed out enhancement job");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof ChainException);
+        }
+        Assert.assertTrue(callback.called.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(1, callback.failed.get());
+        Assert.assertTrue(callback.exception.get() instanceof ChainException);
+        //let the engine complete and wait until the job is finished
+        release.countDown();
+        Assert.assertTrue(testEngine.finished.await(5, TimeUnit.SECONDS));
+        //the completion of the job after the timeout MUST NOT change the state
+        EnhancementJobFuture jobFuture = (EnhancementJobFuture)future;
+        Assert.assertFalse(jobFuture.completed());
+        Assert.assertEquals(0, callback.completed.get());
+        Assert.assertEquals(1, callback.failed.get());
+    }
+    /**
+     * Tests that jobs that time out release their slot in the backlog of the
+     * chain even if they do not finish.
+     */
+    @Test
+    public void testBacklogReleasedOnTimeout() throws Exception {
+        jobManager.deactivate(null);
+        Dictionary<String,Object> config = new Hashtable<String,Object>();
+        config.put(EventJobManagerImpl.MAX_CHAIN_BACKLOG, 1);
+        activate(config);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            //(1) a synchronous job that does not finish
+            engine.set(new TestEngine(release, null));
+            try {
+                jobManager.enhanceContent(createContentItem(), TEST_CHAIN);
+                Assert.fail("ChainException expected for a timed out enhancement job");
+            } catch (EnhancementJobRejectedException e) {
+                throw e;
+            } catch (ChainException e) {
+                //expected
+            }
+            //(2) an asynchronous job that does not finish
+            TestCallback callback = new TestCallback();
+            jobManager.enhanceContentAsync(createContentItem(), TEST_CHAIN, callback);
+            Assert.assertTrue(callback.called.await(5, TimeUnit.SECONDS));
+            Assert.assertTrue(callback.exception.get() instanceof ChainException);
+            Assert.assertFalse(callback.exception.get() instanceof EnhancementJobRejectedException);
+            //(3) both jobs are still running, but the chain MUST accept new jobs
+            engine.set(new TestEngine(null, null));
+            jobManager.enhanceContent(createContentItem(), TEST_CHAIN);
+            ContentItem ci = createContentItem();
+            Assert.assertSame(ci, jobManager.enhanceContentAsync(ci, TEST_CHAIN, 
+                new TestCallback()).get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+    }
+    /**
+     * Tests that results of finished jobs are rejected if the queue of the
+     * bounded callback executor is full.
+     */
+    @Test
+    public void testCallbackQueueFull() throws Exception {
+        jobManager.deactivate(null);
+        Dictionary<String,Object> config = new Hashtable<String,Object>();
+        config.put(EventJobManagerImpl.CALLBACK_THREADS, 1);
+        config.put(EventJobManagerImpl.CALLBACK_QUEUE_SIZE, 1);
+        activate(config);
+        engine.set(new TestEngine(null, null));
+        //(1) block the only callback thread
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        TestCallback blocking = new TestCallback(){
+            @Override
+            public void completed(ContentItem ci) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.completed(ci);
+            }
+        };
+        Future<ContentItem> first = jobManager.enhanceContentAsync(createContentItem(), 
+            TEST_CHAIN, blocking);
+        Assert.assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        //(2) fill the queue
+        TestCallback queued = new TestCallback();
+        Future<ContentItem> second = jobManager.enhanceContentAsync(createContentItem(), 
+            TEST_CHAIN, queued);
+        //(3) the result of this job can no longer be processed
+        TestCallback rejected = new TestCallback();
+        Future<ContentItem> third = null;
+        //the second job may not yet be queued, so retry until a result is rejected
+        for(int i = 0; i < 100 && rejected.failed.get() == 0; i++){
+            rejected = new TestCallback();
+            third = jobManager.enhanceContentAsync(createContentItem(), TEST_CHAIN, rejected);
+            Assert.assertTrue(rejected.called.await(5, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(1, rejected.failed.get());
+        Assert.assertTrue(rejected.exception.get() instanceof EnhancementJobRejectedException);
+        try {
+            third.get(5, TimeUnit.SECONDS);
+            Assert.fail("ExecutionException expected for a rejected result");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof EnhancementJobRejectedException);
+        }
+        release.countDown();
+        Assert.assertNotNull(first.get(5, TimeUnit.SECONDS));
+        Assert.assertNotNull(second.get(5, TimeUnit.SECONDS));
+    }
+    /**
+     * Tests that two engines executed in parallel can write to the
+     * {@link StripedIndexedGraph} used as metadata by the ContentItemFactories
+     * without acquiring the lock of the ContentItem.
+     */
+    @Test
+    public void testConcurrentMetadataWrites() throws Exception {
+        final String[] engineNames = new String[]{"writer1","writer2"};
+        Graph ep = new IndexedGraph();
+        BlankNodeOrIRI planNode = createExecutionPlan(ep, "concurrent", null);
+        for(String engineName : engineNames){
+            writeExecutionNode(ep, planNode, engineName, false, null, null);
+        }
+        final ImmutableGraph executionPlan = ep.getImmutableGraph();
+        Chain chain = new Chain() {
+            @Override
+            public ImmutableGraph getExecutionPlan() {
+                return executionPlan;
+            }
+            @Override
+            public Set<String> getEngines() {
+                return new HashSet<String>(Arrays.asList(engineNames));
+            }
+            @Override
+            public String getName() {
+                return "concurrent";
+            }
+        };
+        //both engines need to write at the same time
+        CyclicBarrier barrier = new CyclicBarrier(engineNames.length);
+        int triples = 1000;
+        for(String engineName : engineNames){
+            engines.put(engineName, new MetadataWriterEngine(engineName, barrier, triples));
+        }
+        ContentItem ci = createContentItem(new StripedIndexedGraph());
+        Future<ContentItem> future = jobManager.enhanceContentAsync(ci, chain, new TestCallback());
+        Assert.assertSame(ci, future.get(5, TimeUnit.SECONDS));
+        for(String engineName : engineNames){
+            Iterator<Triple> it = ci.getMetadata().filter(null, MetadataWriterEngine.WRITTEN_BY, 
+                new IRI("urn:test:engine:" + engineName));
+            int count = 0;
+            while(it.hasNext()){
+                it.next();
+                count++;
+            }
+            Assert.assertEquals(triples, count);
+        }
+    }
+    /**
+     * Tests that only the first result set for an {@link EnhancementJobFuture}
+     * is used and that this cancels the timeout check.
+     */
+    @Test
+    public void testFutureFirstResultWins() throws Exception {
+        ContentItem ci = createContentItem();
+        TestCallback callback = new TestCallback();
+        EnhancementJobFuture future = new EnhancementJobFuture(ci, callback);
+        Assert.assertFalse(future.isDone());
+        try {
+            future.get(10, TimeUnit.MILLISECONDS);
+            Assert.fail("TimeoutException expected for a future that is not done");
+        } catch (java.util.concurrent.TimeoutException e) {
+            //expected
+        }
+        TestTimeout timeout = new TestTimeout();
+        future.setTimeout(timeout);
+        Assert.assertTrue(future.completed());
+        Assert.assertTrue(timeout.cancelled);
+        Assert.assertFalse(future.failed(new ChainException("too late")));
+        Assert.assertFalse(future.completed());
+        Assert.assertSame(ci, future.get());
+        Assert.assertEquals(1, callback.completed.get());
+        Assert.assertEquals(0, callback.failed.get());
+        //setting the timeout for a done future cancels it
+        TestTimeout lateTimeout = new TestTimeout();
+        future.setTimeout(lateTimeout);
+        Assert.assertTrue(lateTimeout.cancelled);
+    }
+
+    private static ContentItem createContentItem(){
+        return createContentItem(new IndexedGraph());
+    }
+    
+    private static ContentItem createContentItem(Graph metadata){
+        Blob blob = new Blob() {
+            @Override
+            public String getMimeType() {
+                return "text/plain";
+            }
+            @Override
+            public InputStream getStream() {
+                return new ByteArrayInputStream(new byte[]{});
+            }
+            @Override
+            public Map<String,String> getParameter() {
+                return Collections.emptyMap();
+            }
+            @Override
+            public long getContentLength() {
+                return 0;
+            }
+        };
+        return new ContentItemImpl(new IRI("urn:test:contentItem"), blob, metadata){};
+    }
+    /**
+     * Creates a dynamic proxy for the parsed interface. If no handler is 
+     * parsed all methods return <code>null</code>
+     */
+    private static <T> T proxy(Class<T> type, InvocationHandler handler){
+        if(handler == null){
+            handler = new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    return null;
+                }
+            };
+        }
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), 
+            new Class<?>[]{type}, handler));
+    }
+    
+    private static class TestEngine implements EnhancementEngine {
+        
+        private final CountDownLatch release;
+        private final EngineException exception;
+        private final CountDownLatch finished = new CountDownLatch(1);
+        
+        TestEngine(CountDownLatch release, EngineException exception){
+            this.release = release;
+            this.exception = exception;
+        }
+        @Override
+        public int canEnhance(ContentItem ci) {
+            return ENHANCE_ASYNC;
+        }
+        @Override
+        public void computeEnhancements(ContentItem ci) throws EngineException {
+            try {
+                if(release != null){
+                    release.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                finished.countDown();
+            }
+            if(exception != null){
+                throw exception;
+            }
+        }
+        @Override
+        public String getName() {
+            return ENGINE;
+        }
+    }
+    
+    /**
+     * Engine that writes triples to the metadata of the ContentItem without
+     * acquiring the write lock of the ContentItem.
+     */
+    private static class MetadataWriterEngine implements EnhancementEngine {
+        
+        private static final IRI WRITTEN_BY = new IRI("urn:test:writtenBy");
+        
+        private final String name;
+        private final CyclicBarrier barrier;
+        private final int triples;
+        
+        MetadataWriterEngine(String name, CyclicBarrier barrier, int triples){
+            this.name = name;
+            this.barrier = barrier;
+            this.triples = triples;
+        }
+        @Override
+        public int canEnhance(ContentItem ci) {
+            return ENHANCE_ASYNC;
+        }
+        @Override
+        public void computeEnhancements(ContentItem ci) throws EngineException {
+            try {
+                barrier.await(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new EngineException(this, ci, "Engines were not executed in parallel", e);
+            }
+            Graph metadata = ci.getMetadata();
+            IRI engine = new IRI("urn:test:engine:" + name);
+            for(int i = 0; i < triples; i++){
+                metadata.add(new TripleImpl(new IRI("urn:test:" + name + ":" + i), WRITTEN_BY, engine));
+            }
+        }
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+    
+    private static class TestCallback implements EnhancementJobCallback {
+        
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicReference<Exception> exception = new AtomicReference<Exception>();
+        private final CountDownLatch called = new CountDownLatch(1);
+        
+        @Override
+        public void completed(ContentItem ci) {
+            completed.incrementAndGet();
+            called.countDown();
+        }
+        @Override
+        public void failed(ContentItem ci, Exception exception) {
+            this.exception.set(exception);
+            failed.incrementAndGet();
+            called.countDown();
+        }
+    }
+    
+    private static class TestTimeout implements Future<Object> {
+        
+        private volatile boolean cancelled;
+        
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            cancelled = true;
+            return true;
+        }
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+        @Override
+        public boolean isDone() {
+            return cancelled;
+        }
+        @Override
+        public Object get() {
+            return null;
+        }
+        @Override
+        public Object get(long timeout, TimeUnit unit) {
+            return null;
+        }
+    }
+}
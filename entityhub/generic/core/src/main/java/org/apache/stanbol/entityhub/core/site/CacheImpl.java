@@ -217,6 +217,12 @@ public class CacheImpl implements Cache {
         return yard.getRepresentation(id);
     }
 
+    @Override
+    public Iterable<Representation> getRepresentations(Iterable<String> ids) throws YardException,
+                                                                                IllegalArgumentException {
+        return yard.getRepresentations(ids);
+    }
+
     @Override
     public ValueFactory getValueFactory() {
         return yard.getValueFactory();
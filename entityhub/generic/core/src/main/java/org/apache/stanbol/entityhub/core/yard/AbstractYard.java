@@ -16,8 +16,12 @@
  */
 package org.apache.stanbol.entityhub.core.yard;
 
+import java.util.ArrayList;
 import java.util.Dictionary;
 import java.util.Hashtable;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Properties;
@@ -497,4 +501,42 @@ public abstract class AbstractYard implements Yard {
          */
         protected abstract void validateConfig() throws ConfigurationException;
     }
+    /**
+     * Default implementation that calls {@link #getRepresentation(String)}
+     * for all parsed ids. Yards that can retrieve several representations with
+     * a single request should override this method.
+     * @see Yard#getRepresentations(Iterable)
+     */
+    @Override
+    public Iterable<Representation> getRepresentations(Iterable<String> ids) throws YardException,
+                                                                                IllegalArgumentException {
+        Set<String> idSet = getIdSet(ids);
+        List<Representation> representations = new ArrayList<Representation>(idSet.size());
+        for(String id : idSet){
+            Representation rep = getRepresentation(id);
+            if(rep != null){
+                representations.add(rep);
+            }
+        }
+        return representations;
+    }
+    /**
+     * Utility method that collects the parsed ids in a set. <code>null</code>
+     * and empty ids are ignored.
+     * @param ids the ids
+     * @return the set with the (unique) ids in the iteration order of the parsed ids
+     * @throws IllegalArgumentException if <code>null</code> is parsed as ids
+     */
+    protected static Set<String> getIdSet(Iterable<String> ids) throws IllegalArgumentException {
+        if(ids == null){
+            throw new IllegalArgumentException("The parsed Iterable over Representation ids MUST NOT be NULL!");
+        }
+        Set<String> idSet = new LinkedHashSet<String>();
+        for(String id : ids){
+            if(id != null && !id.isEmpty()){
+                idSet.add(id);
+            }
+        }
+        return idSet;
+    }
 }
@@ -182,6 +182,22 @@ public interface Yard {
      */
     Representation getRepresentation(String id) throws YardException, IllegalArgumentException;
 
+    /**
+     * Getter for all the representations with the parsed ids. This allows
+     * implementations to retrieve several representations with a single
+     * request.<br>
+     * <code>null</code> and empty values as well as duplicates are ignored.
+     * Otherwise same as {@link #getRepresentation(String)}.
+     *
+     * @param ids the ids of the representations. Parsing an {@link Iterable}
+     * without any element MUST NOT throw an exception.
+     * @return the found representations. Ids with no representation in the
+     * Yard are not included. The iteration order is not specified.
+     * @throws IllegalArgumentException if <code>null</code> is parsed as Iterable
+     * @throws YardException On any error related to the Yard
+     */
+    Iterable<Representation> getRepresentations(Iterable<String> ids) throws YardException, IllegalArgumentException;
+
     /**
      * Updates the store with the new state of the parsed representation
      *
@@ -244,6 +244,41 @@ public abstract class YardTest {
         assertNull(getYard().getRepresentation(id));
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetRepresentationsWithNull() throws YardException {
+        getYard().getRepresentations(null);
+    }
+
+    @Test
+    public void testGetRepresentations() throws YardException {
+        String id1 = "urn:yard.test.testGetRepresentations:representation.id1";
+        String id2 = "urn:yard.test.testGetRepresentations:representation.id2";
+        String id3 = "urn:yard.test.testGetRepresentations:representation.id3";
+        String field = "urn:the.field:used.for.this.Test";
+        Yard yard = getYard();
+        Representation test1 = create(id1, false);
+        test1.add(field, "test value 1");
+        Representation test2 = create(id2, false);
+        test2.add(field, "test value 2");
+        yard.store(Arrays.asList(test1, test2));
+        // null, empty, duplicated and not existing ids
+        Iterable<Representation> found = yard.getRepresentations(
+            Arrays.asList(id1, null, id2, "", id1, id3));
+        assertNotNull(found);
+        Map<String,Representation> foundMap = new HashMap<String,Representation>();
+        for(Representation rep : found){
+            assertNull("Representation "+rep.getId()+" returned twice", 
+                foundMap.put(rep.getId(), rep));
+        }
+        assertEquals(2, foundMap.size());
+        assertEquals("test value 1", foundMap.get(id1).getFirst(field));
+        assertEquals("test value 2", foundMap.get(id2).getFirst(field));
+        // no ids
+        found = yard.getRepresentations(Collections.<String>emptyList());
+        assertNotNull(found);
+        assertFalse(found.iterator().hasNext());
+    }
+
     /**
      * This tests that {@link Representation} retrieved from the Yard do not influence other
      * {@link Representation} instances for the same ID. It is important, that when different
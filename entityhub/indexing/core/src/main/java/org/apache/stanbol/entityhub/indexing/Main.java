@@ -45,6 +45,13 @@ public final class Main {
         options.addOption("c","chunksize",true, 
             String.format("the number of documents stored to the Yard in one chunk (default: %s)",
                 Indexer.DEFAULT_CHUNK_SIZE));
+        options.addOption("p","processors",true, 
+            String.format("the number of threads used to process entities. "
+                + "Configured EntityProcessors MUST BE thread save if > 1 (default: %s)",
+                Indexer.DEFAULT_PROCESSOR_THREADS));
+        options.addOption("s","persisters",true, 
+            String.format("the number of threads used to store entities to the Yard (default: %s)",
+                Indexer.DEFAULT_PERSISTER_THREADS));
     }
     /**
      * @param args
@@ -77,6 +84,12 @@ public final class Main {
                 int cunckSize = Integer.parseInt(line.getOptionValue('c'));
                 indexer.setChunkSize(cunckSize);
             }
+            if(line.hasOption('p')){
+                indexer.setProcessorThreads(Integer.parseInt(line.getOptionValue('p')));
+            }
+            if(line.hasOption('s')){
+                indexer.setPersisterThreads(Integer.parseInt(line.getOptionValue('s')));
+            }
             if("index".equalsIgnoreCase(args[0])){
                 indexer.index();
             } else if("postprocess".equalsIgnoreCase(args[0])){
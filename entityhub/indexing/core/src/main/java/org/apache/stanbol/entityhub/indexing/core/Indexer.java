@@ -43,7 +43,9 @@ public interface Indexer {
         /**
          * All {@link IndexingSource}s are initialised, but the actual indexing
          * of the entities has not yet started.
-         * This is the last opportunity to call {@link Indexer#setChunkSize(int)}
+         * This is the last opportunity to call {@link Indexer#setChunkSize(int)},
+         * {@link Indexer#setProcessorThreads(int)}, 
+         * {@link Indexer#setPersisterThreads(int)}
          * and {@link Indexer#setIndexAllEntitiesState(boolean)}
          */
         INITIALISED,
@@ -95,6 +97,46 @@ public interface Indexer {
      * @return the chunkSize
      */
     int getChunkSize();
+    
+    /**
+     * The default number of threads used to process entities with the
+     * configured {@link EntityProcessor}s
+     */
+    public static final int DEFAULT_PROCESSOR_THREADS = 1;
+    /**
+     * The default number of threads used to store entities to the {@link Yard}
+     */
+    public static final int DEFAULT_PERSISTER_THREADS = 1;
+    
+    /**
+     * Setter for the number of threads used to process entities. Parsing
+     * values &lt;= 0 results in {@link #DEFAULT_PROCESSOR_THREADS}. If more
+     * than a single thread is used the configured {@link EntityProcessor}s
+     * MUST BE thread save.
+     * @param threads the number of processor threads
+     * @throws IllegalStateException if {@link #getState()} &gt; 
+     * {@link State#INITIALISED}
+     */
+    void setProcessorThreads(int threads) throws IllegalStateException;
+    /**
+     * Getter for the number of threads used to process entities
+     * @return the number of processor threads
+     */
+    int getProcessorThreads();
+    /**
+     * Setter for the number of threads used to store entities to the 
+     * {@link Yard}. Parsing values &lt;= 0 results in 
+     * {@link #DEFAULT_PERSISTER_THREADS}.
+     * @param threads the number of persister threads
+     * @throws IllegalStateException if {@link #getState()} &gt; 
+     * {@link State#INITIALISED}
+     */
+    void setPersisterThreads(int threads) throws IllegalStateException;
+    /**
+     * Getter for the number of threads used to store entities
+     * @return the number of persister threads
+     */
+    int getPersisterThreads();
 
     /**
      * Getter for the Yard used to store the indexed entities.
@@ -51,9 +51,9 @@ public class EntityPersisterRunnable extends IndexingDaemon<Representation,Repre
     public void run() {
         Map<String,QueueItem<Representation>> toStore = new HashMap<String,QueueItem<Representation>>();
         while(!isQueueFinished()){
-            QueueItem<Representation> item;
-            item = consume();
-            if(item != null){
+            //consume items in batches to reduce contention if several
+            //persisters are used
+            for(QueueItem<Representation> item : consume(chunkSize - toStore.size())){
                 if(item.getItem() != null){
                     toStore.put(item.getItem().getId(),item);
                 }
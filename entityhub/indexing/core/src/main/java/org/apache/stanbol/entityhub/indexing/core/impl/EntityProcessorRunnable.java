@@ -37,6 +37,10 @@ import org.apache.stanbol.entityhub.servicesapi.model.Representation;
  *
  */
 public class EntityProcessorRunnable extends IndexingDaemon<Representation,Representation> {
+    /**
+     * The maximum number of items consumed at once from the queue
+     */
+    private static final int BATCH_SIZE = 16;
     private final List<EntityProcessor> processors;
     private final Set<String> keys;
     public EntityProcessorRunnable(String name,
@@ -62,8 +66,9 @@ public class EntityProcessorRunnable extends IndexingDaemon<Representation,Repre
     @Override
     public void run() {
         while(!isQueueFinished()){
-            QueueItem<Representation> item = consume();
-            if(item != null){
+            //consume items in batches to reduce contention if several
+            //processors are used
+            for(QueueItem<Representation> item : consume(BATCH_SIZE)){
                 Long start = Long.valueOf(System.currentTimeMillis());
                 item.setProperty(PROCESS_STARTED, start);
                 Iterator<EntityProcessor> it = processors.iterator();
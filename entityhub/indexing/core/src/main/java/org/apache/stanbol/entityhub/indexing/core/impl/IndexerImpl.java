@@ -98,6 +98,13 @@ public class IndexerImpl implements Indexer {
 
     private int chunkSize;
     public static final int MIN_QUEUE_SIZE = 500;
+    /**
+     * The interval (in ms) used to log the statistics of the indexing 
+     * daemons while indexing/post-processing
+     */
+    private static final long STATS_INTERVAL = 60000;
+    private int processorThreads = DEFAULT_PROCESSOR_THREADS;
+    private int persisterThreads = DEFAULT_PERSISTER_THREADS;
     
     private boolean indexAllEntitiesState = false;
     
@@ -263,6 +270,28 @@ public class IndexerImpl implements Indexer {
     public int getChunkSize() {
         return chunkSize;
     }
+    @Override
+    public void setProcessorThreads(int threads) throws IllegalStateException {
+        if(getState().ordinal() >= State.INDEXING.ordinal()){
+            throw new IllegalStateException("Setting the number of processor threads is only allowed before starting the indexing process!");
+        }
+        this.processorThreads = threads <= 0 ? DEFAULT_PROCESSOR_THREADS : threads;
+    }
+    @Override
+    public int getProcessorThreads() {
+        return processorThreads;
+    }
+    @Override
+    public void setPersisterThreads(int threads) throws IllegalStateException {
+        if(getState().ordinal() >= State.INDEXING.ordinal()){
+            throw new IllegalStateException("Setting the number of persister threads is only allowed before starting the indexing process!");
+        }
+        this.persisterThreads = threads <= 0 ? DEFAULT_PERSISTER_THREADS : threads;
+    }
+    @Override
+    public int getPersisterThreads() {
+        return persisterThreads;
+    }
     /* (non-Javadoc)
      * @see org.apache.stanbol.entityhub.indexing.core.IndexerInterface#getYard()
      */
@@ -455,8 +484,9 @@ public class IndexerImpl implements Indexer {
         final SortedSet<IndexingDaemon<?,?>> activeIndexingDeamons = 
             new TreeSet<IndexingDaemon<?,?>>();
         //create the IndexingDaemos
-        //TODO: Here we would need to create multiple instances in case
-        //      one would e.g. like to use several threads for processing entities
+        //NOTE: the processing and persisting steps may use several daemons.
+        //      The end-of-queue item is only sent to the next step after all
+        //      daemons of the previous step have completed
         //(1) the daemon reading from the IndexingSources
         String entitySourceReaderName = name + ": post-processing: Entity Reader Deamon";
         activeIndexingDeamons.add(
@@ -467,25 +497,31 @@ public class IndexerImpl implements Indexer {
                 dataProvider, 
                 null, //no score normaliser
                 true)); //post-process all indexed entities
-        //(2) The daemon for post-processing the entities
-        activeIndexingDeamons.add(
-            new EntityProcessorRunnable(
-                name +": post-processing: Entity Processor Deamon",
-                indexedEntityQueue, //it consumes indexed Entities
-                processedEntityQueue,  //it produces processed Entities
-                errorEntityQueue,
-                entityPostProcessors, 
-                //TODO: check that the score is not overriden by the NULL
-                //      parsed by the used LineBasedEntityIterator!
-                Collections.singleton(SCORE_FIELD))); //ensure the score not changed
-        //(3) The daemon for persisting the entities
-        activeIndexingDeamons.add(
-            new EntityPersisterRunnable(
-                name + ": Entity Perstisting Deamon",
-                processedEntityQueue, //it consumes processed Entities
-                finishedEntityQueue, //it produces finished Entities
-                errorEntityQueue,
-                chunkSize, indexingDestination.getYard()));
+        //(2) The daemon(s) for post-processing the entities
+        for(int i=1;i<=processorThreads;i++){
+            activeIndexingDeamons.add(
+                new EntityProcessorRunnable(
+                    name +": post-processing: Entity Processor Deamon"
+                        + getDaemonSuffix(i, processorThreads),
+                    indexedEntityQueue, //it consumes indexed Entities
+                    processedEntityQueue,  //it produces processed Entities
+                    errorEntityQueue,
+                    entityPostProcessors, 
+                    //TODO: check that the score is not overriden by the NULL
+                    //      parsed by the used LineBasedEntityIterator!
+                    Collections.singleton(SCORE_FIELD))); //ensure the score not changed
+        }
+        //(3) The daemon(s) for persisting the entities
+        for(int i=1;i<=persisterThreads;i++){
+            activeIndexingDeamons.add(
+                new EntityPersisterRunnable(
+                    name + ": Entity Perstisting Deamon"
+                        + getDaemonSuffix(i, persisterThreads),
+                    processedEntityQueue, //it consumes processed Entities
+                    finishedEntityQueue, //it produces finished Entities
+                    errorEntityQueue,
+                    chunkSize, indexingDestination.getYard()));
+        }
         //(4) The daemon for logging finished entities
         activeIndexingDeamons.add(
             new FinishedEntityDaemon(
@@ -537,17 +573,89 @@ public class IndexerImpl implements Indexer {
             thread.start(); //start the Thread
         }
         //now we need to wait until all Threads have finished ...
+        Map<Integer,Long> lastConsumed = new HashMap<Integer,Long>();
+        long lastStats = System.currentTimeMillis();
         while(!activeIndexingDeamons.isEmpty()){
             synchronized (activeIndexingDeamons) {
                 try {
-                    activeIndexingDeamons.wait();
+                    if(!activeIndexingDeamons.isEmpty()){
+                        activeIndexingDeamons.wait(STATS_INTERVAL);
+                    }
                 } catch (InterruptedException e) {
                     //year ... looks like we are done
                 }
             }
+            long now = System.currentTimeMillis();
+            if(now - lastStats >= STATS_INTERVAL && !activeIndexingDeamons.isEmpty()){
+                logStatistics(deamonCopy, lastConsumed, now - lastStats);
+                lastStats = now;
+            }
         }
         //done!
     }
+    /**
+     * Logs the statistics of the {@link IndexingDaemon}s grouped by their
+     * {@link IndexingDaemon#getSequence() sequence}: the number of daemons,
+     * the number of consumed items, the throughput since the last call and
+     * the fill level of the consumed queue. A full queue indicates that
+     * this step is the bottleneck and that it might be worth to assign
+     * more threads.
+     * @param daemons all daemons started for the current indexing step
+     * @param lastConsumed the number of consumed items per sequence as of
+     * the last call. Updated by this method
+     * @param interval the time (in ms) since the last call
+     */
+    private void logStatistics(Collection<IndexingDaemon<?,?>> daemons, 
+                               Map<Integer,Long> lastConsumed, long interval) {
+        SortedSet<IndexingDaemon<?,?>> sorted = new TreeSet<IndexingDaemon<?,?>>(daemons);
+        Map<Integer,List<IndexingDaemon<?,?>>> stages = new HashMap<Integer,List<IndexingDaemon<?,?>>>();
+        List<Integer> sequences = new ArrayList<Integer>();
+        for(IndexingDaemon<?,?> daemon : sorted){
+            List<IndexingDaemon<?,?>> stage = stages.get(daemon.getSequence());
+            if(stage == null){
+                stage = new ArrayList<IndexingDaemon<?,?>>();
+                stages.put(daemon.getSequence(), stage);
+                sequences.add(daemon.getSequence());
+            }
+            stage.add(daemon);
+        }
+        log.info("{}: indexing statistics:",name);
+        for(Integer sequence : sequences){
+            List<IndexingDaemon<?,?>> stage = stages.get(sequence);
+            IndexingDaemon<?,?> first = stage.get(0);
+            long consumed = 0;
+            int active = 0;
+            for(IndexingDaemon<?,?> daemon : stage){
+                consumed = consumed + daemon.getConsumed();
+                if(!daemon.finished()){
+                    active++;
+                }
+            }
+            Long last = lastConsumed.put(sequence, consumed);
+            float rate = ((float)(consumed - (last == null ? 0 : last.longValue())))*1000/interval;
+            BlockingQueue<?> queue = first.getConsumeQueue();
+            String queueState;
+            if(queue == null){
+                queueState = "none";
+            } else {
+                int size = queue.size();
+                queueState = String.format("%d/%d",size,size + queue.remainingCapacity());
+            }
+            log.info(String.format(" > %s (%d/%d active): %d items (%.1f items/sec), queue: %s",
+                first.getClass().getSimpleName(), active, stage.size(), 
+                consumed, rate, queueState));
+        }
+    }
+    /**
+     * Creates the suffix for the name of an {@link IndexingDaemon} if several
+     * instances are used for the same indexing step
+     * @param i the index of the daemon (starting with 1)
+     * @param num the number of daemons
+     * @return the suffix or an empty String if a single daemon is used
+     */
+    private static String getDaemonSuffix(int i, int num){
+        return num > 1 ? String.format(" (%d/%d)", i, num) : "";
+    }
 
     @Override
     public void finaliseIndexing() {
@@ -627,8 +735,9 @@ public class IndexerImpl implements Indexer {
         final SortedSet<IndexingDaemon<?,?>> activeIndexingDeamons = 
             new TreeSet<IndexingDaemon<?,?>>();
         //create the IndexingDaemos
-        //TODO: Here we would need to create multiple instances in case
-        //      one would e.g. like to use several threads for processing entities
+        //NOTE: the processing and persisting steps may use several daemons.
+        //      The end-of-queue item is only sent to the next step after all
+        //      daemons of the previous step have completed
         //(1) the daemon reading from the IndexingSources
         String entitySourceReaderName = name +": Entity Source Reader Deamon";
         if(entityIterator != null){
@@ -650,23 +759,29 @@ public class IndexerImpl implements Indexer {
                     scoreNormaliser,
                     indexAllEntitiesState));
         }
-        //(2) The daemon for processing the entities
-        activeIndexingDeamons.add(
-            new EntityProcessorRunnable(
-                name +": Entity Processor Deamon",
-                indexedEntityQueue, //it consumes indexed Entities
-                processedEntityQueue,  //it produces processed Entities
-                errorEntityQueue,
-                entityProcessors, 
-                Collections.singleton(SCORE_FIELD)));
-        //(3) The daemon for persisting the entities
-        activeIndexingDeamons.add(
-            new EntityPersisterRunnable(
-                name + ": Entity Perstisting Deamon",
-                processedEntityQueue, //it consumes processed Entities
-                finishedEntityQueue, //it produces finished Entities
-                errorEntityQueue,
-                chunkSize, indexingDestination.getYard()));
+        //(2) The daemon(s) for processing the entities
+        for(int i=1;i<=processorThreads;i++){
+            activeIndexingDeamons.add(
+                new EntityProcessorRunnable(
+                    name +": Entity Processor Deamon"
+                        + getDaemonSuffix(i, processorThreads),
+                    indexedEntityQueue, //it consumes indexed Entities
+                    processedEntityQueue,  //it produces processed Entities
+                    errorEntityQueue,
+                    entityProcessors, 
+                    Collections.singleton(SCORE_FIELD)));
+        }
+        //(3) The daemon(s) for persisting the entities
+        for(int i=1;i<=persisterThreads;i++){
+            activeIndexingDeamons.add(
+                new EntityPersisterRunnable(
+                    name + ": Entity Perstisting Deamon"
+                        + getDaemonSuffix(i, persisterThreads),
+                    processedEntityQueue, //it consumes processed Entities
+                    finishedEntityQueue, //it produces finished Entities
+                    errorEntityQueue,
+                    chunkSize, indexingDestination.getYard()));
+        }
         //(4) The daemon for logging finished entities
         activeIndexingDeamons.add(
             new FinishedEntityDaemon(
@@ -22,9 +22,11 @@ package org.apache.stanbol.entityhub.indexing.core.impl;
 import static org.apache.stanbol.entityhub.indexing.core.impl.IndexerConstants.ERROR_TIME;
 import static org.apache.stanbol.entityhub.indexing.core.impl.IndexerConstants.INDEXING_COMPLETED_QUEUE_ITEM;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EventObject;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 
@@ -47,6 +49,10 @@ public abstract class IndexingDaemon<CI,PI> implements Comparable<IndexingDaemon
      * Used for {@link #compareTo(IndexingDaemon)}
      */
     private final Integer sequence;
+    /**
+     * The number of items consumed by this daemon (used for statistics)
+     */
+    private volatile long consumed = 0;
     protected IndexingDaemon(String name,
                              Integer sequence,
                              BlockingQueue<QueueItem<CI>> consume,
@@ -126,6 +132,7 @@ public abstract class IndexingDaemon<CI,PI> implements Comparable<IndexingDaemon
                 consume.put(consumed); //put it back to the list
                 return null;
             } else {
+                this.consumed++;
                 return consumed;
             }
         } catch (InterruptedException e) {
@@ -133,6 +140,44 @@ public abstract class IndexingDaemon<CI,PI> implements Comparable<IndexingDaemon
             return null;
         }
     }
+    /**
+     * Consumes up to <code>max</code> items at once. Blocks until at least
+     * a single item is available. Batch consumption reduces the contention
+     * on the queue if several daemons consume items of the same queue.
+     * @param max the maximum number of items
+     * @return the consumed items. An empty list if the queue has finished
+     */
+    protected final List<QueueItem<CI>> consume(int max){
+        QueueItem<CI> first = consume();
+        if(first == null){
+            return Collections.emptyList();
+        }
+        List<QueueItem<CI>> consumed = new ArrayList<QueueItem<CI>>(max);
+        consumed.add(first);
+        if(max > 1){
+            consume.drainTo(consumed, max-1);
+            //the end-of-queue item is always the last one
+            int last = consumed.size()-1;
+            if(consumed.get(last) == INDEXING_COMPLETED_QUEUE_ITEM){
+                QueueItem<CI> completed = consumed.remove(last);
+                queueFinished = true;
+                try {
+                    consume.put(completed); //put it back to the list
+                } catch (InterruptedException e) {
+                    log.error("Interupped while putting back end-of-queue item");
+                }
+            }
+        }
+        this.consumed = this.consumed + consumed.size() - 1; //first is already counted
+        return consumed;
+    }
+    /**
+     * The number of items consumed by this daemon
+     * @return the number of consumed items
+     */
+    public final long getConsumed() {
+        return consumed;
+    }
     /**
      * @return the queueFinished
      */
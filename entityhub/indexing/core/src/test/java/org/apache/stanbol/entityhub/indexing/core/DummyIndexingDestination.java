@@ -111,6 +111,18 @@ public class DummyIndexingDestination implements IndexingDestination {
             return IndexerTest.indexedData.get(id);
         }
         
+        @Override
+        public Iterable<Representation> getRepresentations(Iterable<String> ids) throws YardException, IllegalArgumentException {
+            Collection<Representation> reps = new ArrayList<Representation>();
+            for(String id : ids){
+                Representation rep = id == null ? null : IndexerTest.indexedData.get(id);
+                if(rep != null){
+                    reps.add(rep);
+                }
+            }
+            return reps;
+        }
+        
         @Override
         public FieldQueryFactory getQueryFactory() {
             return DefaultQueryFactory.getInstance();
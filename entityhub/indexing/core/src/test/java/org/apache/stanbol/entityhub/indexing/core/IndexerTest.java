@@ -66,7 +66,8 @@ public class IndexerTest {
     /**
      * Hold the results of the indexing process
      */
-    protected static final Map<String,Representation> indexedData = new HashMap<String,Representation>();
+    protected static final Map<String,Representation> indexedData = 
+            Collections.synchronizedMap(new HashMap<String,Representation>());
     protected static Logger log = LoggerFactory.getLogger(IndexerTest.class);
     private static String rootDir;
     private static IndexerFactory factory;
@@ -136,6 +137,19 @@ public class IndexerTest {
         validateAllIndexed();
         
     }
+    @Test
+    public void testMultiThreadedIndexing(){
+        indexedData.clear();
+        Indexer indexer = factory.create(CONFIG_ROOT+"idIterating",CONFIG_ROOT+"idIterating");
+        indexer.setProcessorThreads(4);
+        indexer.setPersisterThreads(2);
+        indexer.setChunkSize(3); //small chunks to store several chunks in parallel
+        assertEquals(4, indexer.getProcessorThreads());
+        assertEquals(2, indexer.getPersisterThreads());
+        indexer.index();
+        //check that all entities have been indexed
+        validateAllIndexed();
+    }
     /**
      * validate the all the indexed resources!<p>
      * NOTE: That the asserts expect a specific configuration as provided by the
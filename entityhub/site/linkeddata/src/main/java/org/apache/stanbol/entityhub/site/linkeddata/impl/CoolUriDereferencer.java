@@ -18,13 +18,13 @@ package org.apache.stanbol.entityhub.site.linkeddata.impl;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URL;
-import java.net.URLConnection;
+import java.net.URI;
 
 import org.apache.clerezza.commons.rdf.Graph;
 import org.apache.clerezza.commons.rdf.IRI;
 import org.apache.clerezza.rdf.core.serializedform.Parser;
 import org.apache.clerezza.rdf.core.serializedform.SupportedFormat;
+import org.apache.commons.io.IOUtils;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.stanbol.commons.indexedgraph.IndexedGraph;
@@ -45,6 +45,9 @@ public class CoolUriDereferencer extends AbstractEntityDereferencer implements E
     @Reference
     private Parser parser;
 
+    @Reference
+    private LinkedDataHttpClient httpClient;
+
     private final RdfValueFactory valueFactory = RdfValueFactory.getInstance();
 
 
@@ -55,10 +58,7 @@ public class CoolUriDereferencer extends AbstractEntityDereferencer implements E
     @Override
     public final InputStream dereference(String uri, String contentType) throws IOException{
         if(uri!=null){
-            final URL url = new URL(uri);
-            final URLConnection con = url.openConnection();
-            con.addRequestProperty("Accept", contentType);
-            return con.getInputStream();
+            return httpClient.get(URI.create(uri), contentType);
         } else {
             return null;
         }
@@ -72,7 +72,12 @@ public class CoolUriDereferencer extends AbstractEntityDereferencer implements E
         long queryEnd = System.currentTimeMillis();
         log.debug("  > DereferenceTime: "+(queryEnd-start));
         if(in != null){
-            Graph rdfData = new IndexedGraph(parser.parse(in, format,new IRI(getBaseUri())));
+            Graph rdfData;
+            try {
+                rdfData = new IndexedGraph(parser.parse(in, format,new IRI(getBaseUri())));
+            } finally {
+                IOUtils.closeQuietly(in);
+            }
             long parseEnd = System.currentTimeMillis();
             log.debug("  > ParseTime: "+(parseEnd-queryEnd));
             return valueFactory.createRdfRepresentation(new IRI(uri), rdfData);
@@ -27,6 +27,7 @@ import org.apache.clerezza.commons.rdf.Graph;
 import org.apache.clerezza.commons.rdf.Graph;
 import org.apache.clerezza.commons.rdf.IRI;
 import org.apache.clerezza.rdf.core.serializedform.Parser;
+import org.apache.commons.io.IOUtils;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.stanbol.commons.indexedgraph.IndexedGraph;
@@ -56,6 +57,9 @@ public class LarqSearcher extends AbstractEntitySearcher implements EntitySearch
     @Reference
     private Parser parser;
 
+    @Reference
+    private LinkedDataHttpClient httpClient;
+
     @Override
     public final QueryResultList<Representation> find(FieldQuery parsedQuery) throws IOException {
         long start = System.currentTimeMillis();
@@ -65,13 +69,18 @@ public class LarqSearcher extends AbstractEntitySearcher implements EntitySearch
         long initEnd = System.currentTimeMillis();
         log.debug("  > InitTime: "+(initEnd-start));
         log.debug("  > SPARQL query:\n"+sparqlQuery);
-        InputStream in = SparqlEndpointUtils.sendSparqlRequest(getQueryUri(), sparqlQuery, SparqlSearcher.DEFAULT_RDF_CONTENT_TYPE);
+        InputStream in = SparqlEndpointUtils.sendSparqlRequest(httpClient, getQueryUri(), sparqlQuery, SparqlSearcher.DEFAULT_RDF_CONTENT_TYPE);
         long queryEnd = System.currentTimeMillis();
         log.debug("  > QueryTime: "+(queryEnd-initEnd));
         if(in != null){
             Graph graph;
-            Graph rdfData = parser.parse(in, SparqlSearcher.DEFAULT_RDF_CONTENT_TYPE,
-                new IRI(getBaseUri()));
+            Graph rdfData;
+            try {
+                rdfData = parser.parse(in, SparqlSearcher.DEFAULT_RDF_CONTENT_TYPE,
+                    new IRI(getBaseUri()));
+            } finally {
+                IOUtils.closeQuietly(in);
+            }
             if(rdfData instanceof Graph){
                 graph = (Graph) rdfData;
             } else {
@@ -90,7 +99,7 @@ public class LarqSearcher extends AbstractEntitySearcher implements EntitySearch
         final SparqlFieldQuery query = SparqlFieldQueryFactory.getSparqlFieldQuery(parsedQuery);
         query.setSparqlEndpointType(SparqlEndpointTypeEnum.LARQ);
         String sparqlQuery = query.toSparqlSelect(false);
-        InputStream in = sendSparqlRequest(getQueryUri(), sparqlQuery, SparqlSearcher.DEFAULT_SPARQL_RESULT_CONTENT_TYPE);
+        InputStream in = sendSparqlRequest(httpClient, getQueryUri(), sparqlQuery, SparqlSearcher.DEFAULT_SPARQL_RESULT_CONTENT_TYPE);
         //Move to util class!
         final List<String> entities = extractEntitiesFromJsonResult(in,query.getRootVariableName());
         return new QueryResultListImpl<String>(query, entities.iterator(),String.class);
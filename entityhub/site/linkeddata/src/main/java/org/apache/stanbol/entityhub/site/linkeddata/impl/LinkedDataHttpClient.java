@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.entityhub.site.linkeddata.impl;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Dictionary;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.felix.scr.annotations.Activate;
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Properties;
+import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.Service;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.StatusLine;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.osgi.service.cm.ConfigurationException;
+import org.osgi.service.component.ComponentContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * HTTP client shared by all the {@link SparqlSearcher}, {@link VirtuosoSearcher},
+ * {@link LarqSearcher}, {@link SparqlDereferencer} and {@link CoolUriDereferencer}
+ * instances. Connections are pooled per host and kept alive between requests
+ * so that remote Sites do not need a new TCP (and TLS) handshake for every
+ * request. The maximum number of connections bounds the number of requests
+ * in-flight. Requests that can not get a connection within the configured
+ * {@link #CONNECTION_REQUEST_TIMEOUT} fail with an {@link IOException}.
+ */
+@Component(immediate=true, metatype=true)
+@Service(value=LinkedDataHttpClient.class)
+@Properties(value={
+    @Property(name=LinkedDataHttpClient.MAX_CONNECTIONS, 
+        intValue=LinkedDataHttpClient.DEFAULT_MAX_CONNECTIONS),
+    @Property(name=LinkedDataHttpClient.MAX_CONNECTIONS_PER_HOST, 
+        intValue=LinkedDataHttpClient.DEFAULT_MAX_CONNECTIONS_PER_HOST),
+    @Property(name=LinkedDataHttpClient.CONNECT_TIMEOUT, 
+        intValue=LinkedDataHttpClient.DEFAULT_CONNECT_TIMEOUT),
+    @Property(name=LinkedDataHttpClient.SOCKET_TIMEOUT, 
+        intValue=LinkedDataHttpClient.DEFAULT_SOCKET_TIMEOUT),
+    @Property(name=LinkedDataHttpClient.CONNECTION_REQUEST_TIMEOUT, 
+        intValue=LinkedDataHttpClient.DEFAULT_CONNECTION_REQUEST_TIMEOUT),
+    @Property(name=LinkedDataHttpClient.KEEP_ALIVE, 
+        intValue=LinkedDataHttpClient.DEFAULT_KEEP_ALIVE)
+})
+public class LinkedDataHttpClient {
+
+    private final Logger log = LoggerFactory.getLogger(LinkedDataHttpClient.class);
+    
+    /**
+     * The maximum number of connections (over all hosts). This is also the
+     * maximum number of requests in-flight.
+     */
+    public static final String MAX_CONNECTIONS = "org.apache.stanbol.entityhub.site.linkeddata.http.maxConnections";
+    
+    public static final int DEFAULT_MAX_CONNECTIONS = 50;
+    /**
+     * The maximum number of connections to a single host
+     */
+    public static final String MAX_CONNECTIONS_PER_HOST = "org.apache.stanbol.entityhub.site.linkeddata.http.maxConnectionsPerHost";
+    
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 10;
+    /**
+     * The timeout in milliseconds until a connection is established
+     */
+    public static final String CONNECT_TIMEOUT = "org.apache.stanbol.entityhub.site.linkeddata.http.connectTimeout";
+
+    public static final int DEFAULT_CONNECT_TIMEOUT = 5000;
+    /**
+     * The maximum time in milliseconds of inactivity while waiting for data
+     */
+    public static final String SOCKET_TIMEOUT = "org.apache.stanbol.entityhub.site.linkeddata.http.socketTimeout";
+
+    public static final int DEFAULT_SOCKET_TIMEOUT = 30000;
+    /**
+     * The maximum time in milliseconds a request waits for a connection of
+     * the pool if {@link #MAX_CONNECTIONS} or {@link #MAX_CONNECTIONS_PER_HOST}
+     * requests are already in-flight.
+     */
+    public static final String CONNECTION_REQUEST_TIMEOUT = "org.apache.stanbol.entityhub.site.linkeddata.http.connectionRequestTimeout";
+
+    public static final int DEFAULT_CONNECTION_REQUEST_TIMEOUT = 30000;
+    /**
+     * The time in seconds idle connections are kept alive in the pool
+     */
+    public static final String KEEP_ALIVE = "org.apache.stanbol.entityhub.site.linkeddata.http.keepAlive";
+    
+    public static final int DEFAULT_KEEP_ALIVE = 60;
+    
+    private static final String USER_AGENT = "Apache Stanbol Entityhub Linked Data Site";
+    
+    private PoolingHttpClientConnectionManager connectionManager;
+    
+    private CloseableHttpClient httpClient;
+    
+    @Activate
+    protected void activate(ComponentContext ctx) throws ConfigurationException {
+        init(ctx.getProperties());
+    }
+    
+    /**
+     * Initialises the HTTP client based on the parsed configuration
+     * @param config the configuration
+     * @throws ConfigurationException on any invalid configuration
+     */
+    void init(Dictionary<String,?> config) throws ConfigurationException {
+        int maxConnections = getPositiveInt(config, MAX_CONNECTIONS, DEFAULT_MAX_CONNECTIONS);
+        int maxConnectionsPerHost = Math.min(maxConnections, getPositiveInt(config, 
+            MAX_CONNECTIONS_PER_HOST, DEFAULT_MAX_CONNECTIONS_PER_HOST));
+        int keepAlive = getPositiveInt(config, KEEP_ALIVE, DEFAULT_KEEP_ALIVE);
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(getPositiveInt(config, CONNECT_TIMEOUT, DEFAULT_CONNECT_TIMEOUT))
+                .setSocketTimeout(getPositiveInt(config, SOCKET_TIMEOUT, DEFAULT_SOCKET_TIMEOUT))
+                .setConnectionRequestTimeout(getPositiveInt(config, 
+                    CONNECTION_REQUEST_TIMEOUT, DEFAULT_CONNECTION_REQUEST_TIMEOUT))
+                .build();
+        log.info("init {} (maxConnections: {}, perHost: {}, keepAlive: {}sec, {})",
+            new Object[]{getClass().getSimpleName(), maxConnections, 
+                    maxConnectionsPerHost, keepAlive, requestConfig});
+        connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setUserAgent(USER_AGENT)
+                .evictIdleConnections(Long.valueOf(keepAlive), TimeUnit.SECONDS)
+                .build();
+    }
+    
+    @Deactivate
+    protected void deactivate(ComponentContext ctx){
+        close();
+    }
+    
+    /**
+     * Closes the HTTP client and all pooled connections
+     */
+    void close(){
+        if(httpClient != null){
+            try {
+                httpClient.close();
+            } catch (IOException e) {
+                log.warn("Unable to close HTTP client", e);
+            }
+            httpClient = null;
+        }
+        connectionManager = null;
+    }
+    
+    /**
+     * Sends a GET request to the parsed URI.
+     * @param uri the URI
+     * @param accept the value for the Accept header or <code>null</code> if none
+     * @return the content of the response. The connection is returned to the 
+     * pool when the stream is consumed or {@link InputStream#close() closed}.
+     * <code>null</code> if the response has no content.
+     * @throws FileNotFoundException if the server responds with 
+     * <code>404 Not Found</code> (the same as {@link java.net.URLConnection})
+     * @throws IOException on any error while sending the request or if the
+     * server responds with an other error status. If present the error message
+     * of the server is included.
+     * @throws IllegalStateException if this component is not active
+     */
+    public InputStream get(URI uri, String accept) throws IOException {
+        CloseableHttpClient httpClient = this.httpClient;
+        if(httpClient == null){
+            throw new IllegalStateException(getClass().getSimpleName() + " is not active!");
+        }
+        HttpGet request = new HttpGet(uri);
+        if(accept != null){
+            request.addHeader(HttpHeaders.ACCEPT, accept);
+        }
+        CloseableHttpResponse response = httpClient.execute(request);
+        boolean success = false;
+        try {
+            StatusLine status = response.getStatusLine();
+            HttpEntity entity = response.getEntity();
+            if(status.getStatusCode() >= HttpStatus.SC_MULTIPLE_CHOICES){
+                String errorMessage = entity == null ? null : EntityUtils.toString(entity);
+                String message = "GET " + uri + " responded with " + status 
+                        + (errorMessage == null || errorMessage.isEmpty() ? "" :
+                            (" and Content: \n" + errorMessage));
+                if(status.getStatusCode() == HttpStatus.SC_NOT_FOUND){
+                    throw new FileNotFoundException(message);
+                } else {
+                    throw new IOException(message);
+                }
+            }
+            InputStream in = entity == null ? null : entity.getContent();
+            success = in != null;
+            return in;
+        } finally {
+            if(!success){ //release the connection
+                response.close();
+            }
+        }
+    }
+    
+    private static int getPositiveInt(Dictionary<String,?> config, String property, 
+            int defaultValue) throws ConfigurationException {
+        Object value = config == null ? null : config.get(property);
+        int intValue;
+        if(value instanceof Number){
+            intValue = ((Number)value).intValue();
+        } else if(value != null && !value.toString().trim().isEmpty()){
+            try {
+                intValue = Integer.parseInt(value.toString().trim());
+            } catch (NumberFormatException e) {
+                throw new ConfigurationException(property, "Unable to parse "
+                    + "integer value from '" + value + "'!", e);
+            }
+        } else {
+            return defaultValue;
+        }
+        if(intValue <= 0){
+            throw new ConfigurationException(property, "The configured value "
+                + "MUST BE > 0 (parsed: " + intValue + ")!");
+        }
+        return intValue;
+    }
+    
+}
@@ -23,6 +23,7 @@ import org.apache.clerezza.commons.rdf.Graph;
 import org.apache.clerezza.commons.rdf.IRI;
 import org.apache.clerezza.rdf.core.serializedform.Parser;
 import org.apache.clerezza.rdf.core.serializedform.SupportedFormat;
+import org.apache.commons.io.IOUtils;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.Service;
@@ -55,6 +56,9 @@ public class SparqlDereferencer extends AbstractEntityDereferencer {
     @Reference
     private Parser parser;
 
+    @Reference
+    private LinkedDataHttpClient httpClient;
+
 
     /*
      * TODO: Supports only Triple serialisations as content types.
@@ -76,7 +80,7 @@ public class SparqlDereferencer extends AbstractEntityDereferencer {
         query.append(" ?p ?o }");
 
         //String format = SupportedFormat.RDF_XML;
-        return SparqlEndpointUtils.sendSparqlRequest(getAccessUri(),query.toString(),contentType);
+        return SparqlEndpointUtils.sendSparqlRequest(httpClient, getAccessUri(),query.toString(),contentType);
     }
 
     public final Representation dereference(String uri) throws IOException {
@@ -86,7 +90,12 @@ public class SparqlDereferencer extends AbstractEntityDereferencer {
         long queryEnd = System.currentTimeMillis();
         log.debug("  > DereferenceTime: {}",(queryEnd-start));
         if(in != null){
-            Graph rdfData = new IndexedGraph(parser.parse(in, format,new IRI(getBaseUri())));
+            Graph rdfData;
+            try {
+                rdfData = new IndexedGraph(parser.parse(in, format,new IRI(getBaseUri())));
+            } finally {
+                IOUtils.closeQuietly(in);
+            }
             long parseEnd = System.currentTimeMillis();
             log.debug("  > ParseTime: {}",(parseEnd-queryEnd));
             return valueFactory.createRdfRepresentation(new IRI(uri), rdfData);
@@ -39,7 +39,8 @@ public final class SparqlEndpointUtils {
     public static final String SPARQL_RESULT_JSON = "application/sparql-results+json";
 
     /**
-     * Sends an SPARQL Request to the accessUri. Please note that based on the type of the SPARQL query
+     * Sends an SPARQL Request to the accessUri by using a new {@link URLConnection}. 
+     * Please note that based on the type of the SPARQL query
      * different content are supported by the Site
      * 
      * @param accessUri
@@ -54,13 +55,36 @@ public final class SparqlEndpointUtils {
      */
     public static InputStream sendSparqlRequest(String accessUri, String query, String contentType) 
             throws IOException, MalformedURLException {
-
+        return sendSparqlRequest(null, accessUri, query, contentType);
+    }
+    /**
+     * Sends an SPARQL Request to the accessUri. Please note that based on the type of the SPARQL query
+     * different content are supported by the Site
+     * 
+     * @param httpClient
+     *            the pooled HTTP client used to send the request or <code>null</code>
+     *            to use a new {@link URLConnection}
+     * @param accessUri
+     *            the uri of the SPARQL endpoint
+     * @param contentType
+     *            the contentType of the returned RDF graph
+     * @param query
+     *            the SPARQL Construct query
+     * @return the results as input stream
+     * @throws IOException
+     * @throws MalformedURLException
+     */
+    public static InputStream sendSparqlRequest(LinkedDataHttpClient httpClient, String accessUri, 
+            String query, String contentType) throws IOException, MalformedURLException {
 
         log.trace("Sending SPARQL request [accessUri :: {}][query :: {}][contentType :: {}].", 
             new Object[]{accessUri, query,contentType});
 
         final URI dereferenceUri = UriBuilder.fromUri(accessUri).queryParam("query", "{query}")
                 .queryParam("format", "{format}").build(query, contentType);
+        if(httpClient != null){
+            return httpClient.get(dereferenceUri, contentType);
+        }
         final URLConnection con = dereferenceUri.toURL().openConnection();
         con.addRequestProperty("Accept", contentType);
         try {
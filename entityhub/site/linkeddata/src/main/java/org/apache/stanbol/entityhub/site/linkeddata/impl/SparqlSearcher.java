@@ -60,13 +60,16 @@ public class SparqlSearcher extends AbstractEntitySearcher implements EntitySear
     @Reference
     private Parser parser;
 
+    @Reference
+    private LinkedDataHttpClient httpClient;
+
     protected static final String DEFAULT_RDF_CONTENT_TYPE = SupportedFormat.RDF_XML;
     protected static final String DEFAULT_SPARQL_RESULT_CONTENT_TYPE = SparqlEndpointUtils.SPARQL_RESULT_JSON;
     @Override
     public final QueryResultList<String> findEntities(FieldQuery parsedQuery)  throws IOException {
         final SparqlFieldQuery query = SparqlFieldQueryFactory.getSparqlFieldQuery(parsedQuery);
         String sparqlQuery = query.toSparqlSelect(false);
-        InputStream in = SparqlEndpointUtils.sendSparqlRequest(getQueryUri(), sparqlQuery, DEFAULT_SPARQL_RESULT_CONTENT_TYPE);
+        InputStream in = SparqlEndpointUtils.sendSparqlRequest(httpClient, getQueryUri(), sparqlQuery, DEFAULT_SPARQL_RESULT_CONTENT_TYPE);
         //Move to util class!
         final List<String> entities = extractEntitiesFromJsonResult(in,query.getRootVariableName());
         return new QueryResultListImpl<String>(query, entities.iterator(),String.class);
@@ -83,7 +86,12 @@ public class SparqlSearcher extends AbstractEntitySearcher implements EntitySear
     protected static List<String> extractEntitiesFromJsonResult(InputStream in, final String rootVariable) throws IOException {
         final List<String> entities;
         try {
-            JSONObject result = new JSONObject(IOUtils.toString(in));
+            JSONObject result;
+            try {
+                result = new JSONObject(IOUtils.toString(in));
+            } finally {
+                IOUtils.closeQuietly(in);
+            }
             JSONObject results = result.getJSONObject("results");
             if(results != null){
                 JSONArray bindings = results.getJSONArray("bindings");
@@ -122,13 +130,18 @@ public class SparqlSearcher extends AbstractEntitySearcher implements EntitySear
         long initEnd = System.currentTimeMillis();
         log.debug("  > InitTime: "+(initEnd-start));
         log.debug("  > SPARQL query:\n"+sparqlQuery);
-        InputStream in = SparqlEndpointUtils.sendSparqlRequest(getQueryUri(), sparqlQuery, DEFAULT_RDF_CONTENT_TYPE);
+        InputStream in = SparqlEndpointUtils.sendSparqlRequest(httpClient, getQueryUri(), sparqlQuery, DEFAULT_RDF_CONTENT_TYPE);
         long queryEnd = System.currentTimeMillis();
         log.debug("  > QueryTime: "+(queryEnd-initEnd));
         if(in != null){
             Graph graph;
-            Graph rdfData = parser.parse(in, DEFAULT_RDF_CONTENT_TYPE,
-                new IRI(getBaseUri()));
+            Graph rdfData;
+            try {
+                rdfData = parser.parse(in, DEFAULT_RDF_CONTENT_TYPE,
+                    new IRI(getBaseUri()));
+            } finally {
+                IOUtils.closeQuietly(in);
+            }
             if(rdfData instanceof Graph){
                 graph = (Graph) rdfData;
             } else {
@@ -27,6 +27,7 @@ import org.apache.clerezza.commons.rdf.Graph;
 import org.apache.clerezza.commons.rdf.Graph;
 import org.apache.clerezza.commons.rdf.IRI;
 import org.apache.clerezza.rdf.core.serializedform.Parser;
+import org.apache.commons.io.IOUtils;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.stanbol.commons.indexedgraph.IndexedGraph;
@@ -49,6 +50,9 @@ public class VirtuosoSearcher extends AbstractEntitySearcher implements EntitySe
     @Reference
     private Parser parser;
 
+    @Reference
+    private LinkedDataHttpClient httpClient;
+
     public VirtuosoSearcher() {
         super(LoggerFactory.getLogger(VirtuosoSearcher.class));
     }
@@ -62,14 +66,19 @@ public class VirtuosoSearcher extends AbstractEntitySearcher implements EntitySe
         long initEnd = System.currentTimeMillis();
         log.info("  > InitTime: " + (initEnd - start));
         log.info("  > SPARQL query:\n" + sparqlQuery);
-        InputStream in = SparqlEndpointUtils.sendSparqlRequest(getQueryUri(), sparqlQuery,
+        InputStream in = SparqlEndpointUtils.sendSparqlRequest(httpClient, getQueryUri(), sparqlQuery,
             SparqlSearcher.DEFAULT_RDF_CONTENT_TYPE);
         long queryEnd = System.currentTimeMillis();
         log.info("  > QueryTime: " + (queryEnd - initEnd));
         if (in != null) {
             Graph graph;
-            Graph rdfData = parser.parse(in, SparqlSearcher.DEFAULT_RDF_CONTENT_TYPE, new IRI(
-                    getBaseUri()));
+            Graph rdfData;
+            try {
+                rdfData = parser.parse(in, SparqlSearcher.DEFAULT_RDF_CONTENT_TYPE, new IRI(
+                        getBaseUri()));
+            } finally {
+                IOUtils.closeQuietly(in);
+            }
             if (rdfData instanceof Graph) {
                 graph = (Graph) rdfData;
             } else {
@@ -89,7 +98,7 @@ public class VirtuosoSearcher extends AbstractEntitySearcher implements EntitySe
         query.setSparqlEndpointType(SparqlEndpointTypeEnum.Virtuoso);
         String sparqlQuery = query.toSparqlSelect(false);
         log.trace("Sending Sparql request [{}].", sparqlQuery);
-        InputStream in = sendSparqlRequest(getQueryUri(), sparqlQuery,
+        InputStream in = sendSparqlRequest(httpClient, getQueryUri(), sparqlQuery,
             SparqlSearcher.DEFAULT_SPARQL_RESULT_CONTENT_TYPE);
         // Move to util class!
         final List<String> entities = extractEntitiesFromJsonResult(in, query.getRootVariableName());
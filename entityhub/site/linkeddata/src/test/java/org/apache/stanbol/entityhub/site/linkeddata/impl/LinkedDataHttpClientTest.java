@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.entityhub.site.linkeddata.impl;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.Collections;
+import java.util.Dictionary;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.Set;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.service.cm.ConfigurationException;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests the {@link LinkedDataHttpClient} against a local stub server
+ */
+public class LinkedDataHttpClientTest {
+
+    private static final String UTF8 = "UTF-8";
+    
+    private HttpServer server;
+    private String baseUri;
+    private LinkedDataHttpClient client;
+    /**
+     * The remote ports of all requests received by the stub server
+     */
+    private final Set<Integer> clientPorts = Collections.synchronizedSet(new HashSet<Integer>());
+    
+    @Before
+    public void startServer() throws IOException, ConfigurationException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/entity", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                clientPorts.add(exchange.getRemoteAddress().getPort());
+                String accept = exchange.getRequestHeaders().getFirst("Accept");
+                respond(exchange, 200, "accept: " + accept);
+            }
+        });
+        server.createContext("/error", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                respond(exchange, 500, "stub server error");
+            }
+        });
+        //all other paths will return 404
+        server.start();
+        baseUri = "http://127.0.0.1:" + server.getAddress().getPort();
+        client = new LinkedDataHttpClient();
+        client.init(new Hashtable<String,Object>());
+    }
+    
+    @After
+    public void stopServer(){
+        client.close();
+        server.stop(0);
+    }
+    
+    private static void respond(HttpExchange exchange, int status, String content) throws IOException {
+        byte[] data = content.getBytes(UTF8);
+        exchange.sendResponseHeaders(status, data.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(data);
+        out.close();
+    }
+    
+    private static String read(InputStream in) throws IOException {
+        try {
+            return IOUtils.toString(in, UTF8);
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+    
+    @Test
+    public void testGet() throws IOException {
+        String content = read(client.get(URI.create(baseUri + "/entity"), "text/turtle"));
+        Assert.assertEquals("accept: text/turtle", content);
+    }
+    
+    @Test
+    public void testConnectionReuse() throws IOException {
+        for(int i = 0; i < 10; i++){
+            read(client.get(URI.create(baseUri + "/entity/" + i), "application/rdf+xml"));
+        }
+        //all requests need to use the same (pooled) connection
+        Assert.assertEquals("Connections where not reused (client ports: " 
+                + clientPorts + ")", 1, clientPorts.size());
+    }
+    
+    @Test(expected=FileNotFoundException.class)
+    public void testNotFound() throws IOException {
+        client.get(URI.create(baseUri + "/unknown"), null);
+    }
+    
+    @Test
+    public void testErrorMessage() throws IOException {
+        try {
+            client.get(URI.create(baseUri + "/error"), null);
+            Assert.fail("IOException expected for status 500");
+        } catch (IOException e) {
+            Assert.assertFalse(e instanceof FileNotFoundException);
+            Assert.assertTrue(e.getMessage().contains("stub server error"));
+        }
+        //the connection of the failed request needs to be released
+        for(int i = 0; i < LinkedDataHttpClient.DEFAULT_MAX_CONNECTIONS_PER_HOST + 1; i++){
+            try {
+                client.get(URI.create(baseUri + "/error"), null);
+            } catch (IOException e) { /* expected */ }
+        }
+        Assert.assertEquals("accept: null", read(client.get(URI.create(baseUri + "/entity"), null)));
+    }
+    
+    @Test(expected=ConfigurationException.class)
+    public void testInvalidConfig() throws ConfigurationException {
+        Dictionary<String,Object> config = new Hashtable<String,Object>();
+        config.put(LinkedDataHttpClient.MAX_CONNECTIONS, "0");
+        new LinkedDataHttpClient().init(config);
+    }
+    
+    @Test(expected=IllegalStateException.class)
+    public void testInactive() throws IOException {
+        new LinkedDataHttpClient().get(URI.create(baseUri + "/entity"), null);
+    }
+}
@@ -21,6 +21,7 @@ import java.util.Dictionary;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.locks.Lock;
 
@@ -246,6 +247,29 @@ public class ClerezzaYard extends AbstractYard implements Yard {
         }
         return getRepresentation(new IRI(id),true);
     }
+    /**
+     * Extracts all the requested Representations while holding a single
+     * read lock on the graph.
+     */
+    @Override
+    public Iterable<Representation> getRepresentations(Iterable<String> ids) {
+        Set<String> idSet = getIdSet(ids);
+        List<Representation> representations = new ArrayList<Representation>(idSet.size());
+        final Lock readLock = readLockGraph();
+        try {
+            for(String id : idSet){
+                Representation rep = getRepresentation(new IRI(id), true);
+                if(rep != null){
+                    representations.add(rep);
+                }
+            }
+        } finally {
+            if(readLock != null){
+                readLock.unlock();
+            }
+        }
+        return representations;
+    }
     /**
      * Internally used to create Representations for URIs
      * @param uri the uri
@@ -17,6 +17,7 @@
 package org.apache.stanbol.entityhub.yard.sesame;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -267,6 +268,39 @@ public class SesameYard extends AbstractYard implements Yard {
             }
         }
     }
+    /**
+     * Extracts all the requested Representations within a single transaction
+     * of a single {@link RepositoryConnection}.
+     */
+    @Override
+    public Iterable<Representation> getRepresentations(Iterable<String> ids) throws YardException {
+        Set<String> idSet = getIdSet(ids);
+        if(idSet.isEmpty()){
+            return Collections.emptyList();
+        }
+        List<Representation> representations = new ArrayList<Representation>(idSet.size());
+        RepositoryConnection con = null;
+        try {
+            con = repository.getConnection();
+            con.begin();
+            for(String id : idSet){
+                Representation rep = getRepresentation(con, sesameFactory.createURI(id), true);
+                if(rep != null){
+                    representations.add(rep);
+                }
+            }
+            con.commit();
+            return representations;
+        } catch (RepositoryException e) {
+            throw new YardException("Unable to get Representations "+idSet, e);
+        } finally {
+            if(con != null){
+                try {
+                    con.close();
+                } catch (RepositoryException ignore) {}
+            }
+        }
+    }
     /**
      * Internally used to create Representations for URIs
      * @param uri the uri
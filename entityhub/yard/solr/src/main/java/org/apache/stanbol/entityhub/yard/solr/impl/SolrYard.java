@@ -23,6 +23,7 @@ import java.security.PrivilegedExceptionAction;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -397,6 +398,40 @@ public class SolrYard extends AbstractYard implements Yard {
                 : "done", (retrieve - start), (create - retrieve), (create - start)));
         return rep;
     }
+    /**
+     * Retrieves all requested Representations with a single query for the
+     * ids (or several if there are more ids as allowed boolean clauses).
+     * @see #getSolrDocuments(Collection, Collection)
+     */
+    @Override
+    public final Iterable<Representation> getRepresentations(Iterable<String> ids) throws YardException,
+                                                                                      IllegalArgumentException {
+        Set<String> idSet = getIdSet(ids);
+        if(idSet.isEmpty()){
+            return Collections.emptyList();
+        }
+        if(closed){
+            log.warn("The SolrYard '{}' was already closed!",config.getName());
+        }
+        Collection<SolrDocument> docs;
+        long start = System.currentTimeMillis();
+        try {
+            docs = getSolrDocuments(idSet, null);
+        } catch (SolrServerException e) {
+            throw new YardException("Error while getting SolrDocuments for ids " + idSet, e);
+        } catch (IOException e) {
+            throw new YardException("Unable to access SolrServer", e);
+        }
+        long retrieve = System.currentTimeMillis();
+        List<Representation> representations = new ArrayList<Representation>(docs.size());
+        for(SolrDocument doc : docs){
+            representations.add(createRepresentation(doc, null));
+        }
+        long create = System.currentTimeMillis();
+        log.debug(String.format("  ... found %d/%d [retrieve=%dms|create=%dms|sum=%dms]", 
+            representations.size(), idSet.size(), (retrieve - start), (create - retrieve), (create - start)));
+        return representations;
+    }
 
     /**
      * Creates the Representation for the parsed SolrDocument!
@@ -1013,7 +1048,7 @@ public class SolrYard extends AbstractYard implements Yard {
         int num = 0;
         StringBuilder queryBuilder = new StringBuilder();
         boolean myList = false;
-        Collection<SolrDocument> resultDocs = null;
+        Collection<SolrDocument> resultDocs = Collections.emptyList();
         // do while more uris
         while (uriIterator.hasNext()) {
             // do while more uris and free boolean clauses
@@ -1029,7 +1064,10 @@ public class SolrYard extends AbstractYard implements Yard {
                     num++;
                 }
             }
-            log.info("Get SolrDocuments for Query: " + queryBuilder.toString());
+            if(num == 0){ //only null values where left
+                break;
+            }
+            log.debug("Get SolrDocuments for Query: {}", queryBuilder);
             // no more items or all boolean clauses used -> send a request
             solrQuery.setQuery(queryBuilder.toString());
             queryBuilder = new StringBuilder(); // and a new StringBuilder
@@ -1053,7 +1091,7 @@ public class SolrYard extends AbstractYard implements Yard {
                     throw RuntimeException.class.cast(e);
                 }
             }
-            if (resultDocs == null) {
+            if (resultDocs.isEmpty() && !myList) {
                 resultDocs = queryResponse.getResults();
             } else {
                 if (!myList) {
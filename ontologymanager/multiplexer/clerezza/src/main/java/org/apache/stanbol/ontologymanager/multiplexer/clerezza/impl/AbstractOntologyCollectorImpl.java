@@ -90,6 +90,11 @@ public abstract class AbstractOntologyCollectorImpl implements OntologyCollector
 
     protected ConnectivityPolicy connectivityPolicy;
 
+    /**
+     * Caches the exported forms of this collector. Invalidated whenever ontologies are added or removed.
+     */
+    protected final ExportCache exportCache = new ExportCache();
+
     private Set<OntologyCollectorListener> listeners = new HashSet<OntologyCollectorListener>();
 
     /**
@@ -219,11 +224,21 @@ public abstract class AbstractOntologyCollectorImpl implements OntologyCollector
     @SuppressWarnings("unchecked")
     @Override
     public <O> O export(Class<O> returnType, boolean merge, org.semanticweb.owlapi.model.IRI universalPrefix) {
+        // Unchanged collectors are served from the cache.
+        boolean cacheable = isExportCacheable(merge);
+        if (cacheable) {
+            O cached = exportCache.get(returnType, merge, universalPrefix);
+            if (cached != null) return cached;
+        }
+        long version = exportCache.getVersion();
         if (OWLOntology.class.isAssignableFrom(returnType)) {
-            return (O) exportToOWLOntology(merge, universalPrefix);
+            OWLOntology o = exportToOWLOntology(merge, universalPrefix);
+            if (cacheable) return exportCache.put(returnType, merge, universalPrefix, o, version);
+            return (O) o;
         }
         if (Graph.class.isAssignableFrom(returnType)) {
             Graph root = exportToGraph(merge, universalPrefix);
+            if (cacheable) return exportCache.put(returnType, merge, universalPrefix, root, version);
             // A Clerezza graph has to be cast properly.
             if (returnType == ImmutableGraph.class) root = ((Graph) root).getImmutableGraph();
             else if (returnType == Graph.class) {}
@@ -233,6 +248,19 @@ public abstract class AbstractOntologyCollectorImpl implements OntologyCollector
                                                 + returnType);
     }
 
+    /**
+     * Whether the exported form of this collector only depends on its managed ontologies (and its
+     * namespace), so that it can be cached until an ontology is added or removed. Subclasses whose exports
+     * also depend on other collectors should override this method.
+     * 
+     * @param merge
+     *            the merge flag of the export.
+     * @return true if the export can be cached.
+     */
+    protected boolean isExportCacheable(boolean merge) {
+        return true;
+    }
+
     /**
      * This method has no conversion calls, to it can be invoked by subclasses that wish to modify it
      * afterwards.
@@ -436,6 +464,7 @@ public abstract class AbstractOntologyCollectorImpl implements OntologyCollector
      *            the identifier of the ontology that was added to this space.
      */
     protected void fireOntologyAdded(OWLOntologyID ontologyId) {
+        exportCache.invalidate();
         for (OntologyCollectorListener listener : listeners)
             listener.onOntologyAdded(this, ontologyId);
     }
@@ -447,6 +476,7 @@ public abstract class AbstractOntologyCollectorImpl implements OntologyCollector
      *            the identifier of the ontology that was removed from this space.
      */
     protected void fireOntologyRemoved(OWLOntologyID ontologyId) {
+        exportCache.invalidate();
         for (OntologyCollectorListener listener : listeners)
             listener.onOntologyRemoved(this, ontologyId);
     }
@@ -713,6 +743,7 @@ public abstract class AbstractOntologyCollectorImpl implements OntologyCollector
     @Override
     public void setConnectivityPolicy(ConnectivityPolicy policy) {
         this.connectivityPolicy = policy;
+        exportCache.invalidate();
     }
 
     /**
@@ -738,6 +769,7 @@ public abstract class AbstractOntologyCollectorImpl implements OntologyCollector
             namespace = org.semanticweb.owlapi.model.IRI.create(namespace + "/");
         }
         this.namespace = namespace;
+        exportCache.invalidate();
     }
 
     protected abstract void setID(String id);
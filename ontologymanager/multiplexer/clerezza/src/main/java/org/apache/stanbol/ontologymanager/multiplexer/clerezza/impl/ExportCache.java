@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.ontologymanager.multiplexer.clerezza.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.ImmutableGraph;
+import org.apache.clerezza.commons.rdf.impl.utils.simple.SimpleGraph;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.AddOntologyAnnotation;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLImportsDeclaration;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the exported (and possibly merged) forms of an ontology collector, keyed by return type, merge flag
+ * and universal prefix.<br>
+ * <br>
+ * Cached artifacts are never handed out directly: Clerezza exports are kept as {@link ImmutableGraph}s and
+ * copied if a modifiable {@link Graph} is requested, OWL API exports are copied into a fresh
+ * {@link OWLOntologyManager}. Copying is linear in the number of triples/axioms and therefore much cheaper
+ * than reading and merging all managed ontologies from the store.<br>
+ * <br>
+ * The owning collector is responsible for calling {@link #invalidate()} whenever the exported form could
+ * change, i.e. when ontologies are added or removed (as notified to
+ * {@link org.apache.stanbol.ontologymanager.servicesapi.collector.OntologyCollectorListener}s) or
+ * when its namespace or connectivity policy is changed. Changes of the content of stored ontologies that
+ * keep their public key are not tracked.<br>
+ * <br>
+ * Caches of collectors whose exports depend on other collectors (e.g. scopes and their spaces) are
+ * registered as {@link #addDependent(ExportCache) dependents} and invalidated together with this cache.
+ */
+class ExportCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportCache.class);
+
+    private final Map<String,Object> cache = new ConcurrentHashMap<String,Object>();
+
+    /**
+     * Incremented on every {@link #invalidate()}. Used to prevent exports that were computed concurrently
+     * with a modification of the collector from being cached.
+     */
+    private long version = 0;
+
+    /**
+     * Caches that are invalidated together with this one.
+     */
+    private final Set<ExportCache> dependents = new CopyOnWriteArraySet<ExportCache>();
+
+    private static String getKey(Class<?> returnType, boolean merge, IRI universalPrefix) {
+        String type;
+        if (OWLOntology.class.isAssignableFrom(returnType)) type = "owl";
+        else if (Graph.class.isAssignableFrom(returnType)) type = "graph";
+        else return null;
+        return type + '|' + merge + '|' + universalPrefix;
+    }
+
+    /**
+     * Gets a copy of the cached export.
+     * 
+     * @return the cached export or <code>null</code> if not present.
+     */
+    @SuppressWarnings("unchecked")
+    public <O> O get(Class<O> returnType, boolean merge, IRI universalPrefix) {
+        String key = getKey(returnType, merge, universalPrefix);
+        if (key == null) return null;
+        Object cached = cache.get(key);
+        if (cached == null) return null;
+        log.debug("Serving cached export {}", key);
+        return (O) copy(returnType, cached);
+    }
+
+    /**
+     * The current version of the cache, to be read before computing an export to be
+     * {@link #put(Class, boolean, IRI, Object, long)}.
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Caches the parsed export (if the cache was not invalidated since <code>version</code>) and returns
+     * the object to be handed out to the caller. Clerezza exports are converted to an {@link ImmutableGraph}
+     * if requested by the return type.
+     * 
+     * @param export
+     *            the {@link OWLOntology} or {@link Graph} as exported by the collector.
+     * @param version
+     *            the value of {@link #getVersion()} before the export was computed.
+     * @return the export to be returned to the caller.
+     */
+    @SuppressWarnings("unchecked")
+    public <O> O put(Class<O> returnType, boolean merge, IRI universalPrefix, Object export, long version) {
+        String key = getKey(returnType, merge, universalPrefix);
+        if (key == null || export == null) return (O) export;
+        Object cached;
+        if (export instanceof Graph) {
+            // The immutable form is a copy, so the exported graph can be handed out as is.
+            cached = export instanceof ImmutableGraph ? export : ((Graph) export).getImmutableGraph();
+        } else cached = export;
+        boolean stored;
+        synchronized (this) {
+            stored = version == this.version;
+            if (stored) cache.put(key, cached);
+        }
+        if (!stored) log.debug("Collector modified while exporting {}. Export will not be cached.", key);
+        if (cached instanceof ImmutableGraph) return (O) (returnType == ImmutableGraph.class ? cached : export);
+        // A cached ontology must not be modified by the caller.
+        return (O) (stored ? copy(returnType, cached) : export);
+    }
+
+    /**
+     * Removes all cached exports, including the ones of all dependent caches.
+     */
+    public void invalidate() {
+        synchronized (this) {
+            version++;
+            cache.clear();
+        }
+        for (ExportCache dependent : dependents)
+            dependent.invalidate();
+    }
+
+    /**
+     * Registers a cache to be invalidated whenever this cache is invalidated, e.g. the cache of a scope
+     * with the caches of its spaces.
+     */
+    public void addDependent(ExportCache dependent) {
+        if (dependent == null || dependent == this) return;
+        dependents.add(dependent);
+        dependent.invalidate();
+    }
+
+    /**
+     * Removes a cache registered by {@link #addDependent(ExportCache)}.
+     */
+    public void removeDependent(ExportCache dependent) {
+        dependents.remove(dependent);
+    }
+
+    private Object copy(Class<?> returnType, Object cached) {
+        if (cached instanceof ImmutableGraph) {
+            if (returnType == ImmutableGraph.class) return cached;
+            return new SimpleGraph((ImmutableGraph) cached);
+        }
+        OWLOntology source = (OWLOntology) cached;
+        OWLOntologyManager mgr = OWLManager.createOWLOntologyManager();
+        OWLOntology copy;
+        try {
+            copy = mgr.createOntology(source.getOntologyID());
+        } catch (OWLOntologyCreationException e) {
+            log.error("Failed to copy cached export of ontology " + source.getOntologyID(), e);
+            return null;
+        }
+        List<OWLOntologyChange> changes = new ArrayList<OWLOntologyChange>();
+        for (OWLImportsDeclaration decl : source.getImportsDeclarations())
+            changes.add(new AddImport(copy, decl));
+        for (OWLAnnotation ann : source.getAnnotations())
+            changes.add(new AddOntologyAnnotation(copy, ann));
+        mgr.applyChanges(changes);
+        mgr.addAxioms(copy, source.getAxioms());
+        return copy;
+    }
+
+}
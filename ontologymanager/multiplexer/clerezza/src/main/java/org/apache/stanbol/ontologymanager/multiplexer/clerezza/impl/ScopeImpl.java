@@ -79,6 +79,13 @@ public class ScopeImpl implements Scope, OntologyCollectorListener {
      */
     protected String id = null;
 
+    /**
+     * Caches the exported forms of this scope. Invalidated whenever ontologies are added to or removed from
+     * its spaces and, as a dependent of the caches of the spaces, whenever the export of a space changes
+     * (e.g. its namespace or connectivity policy).
+     */
+    protected final ExportCache exportCache = new ExportCache();
+
     private Set<OntologyCollectorListener> listeners = new HashSet<OntologyCollectorListener>();
 
     /**
@@ -117,6 +124,7 @@ public class ScopeImpl implements Scope, OntologyCollectorListener {
     private void configureCoreSpace(OntologySpaceFactory factory) {
         this.coreSpace = factory.createCoreOntologySpace(id/* , coreOntologies */);
         this.coreSpace.addOntologyCollectorListener(this); // Set listener before adding core ontologies
+        trackExportChanges(null, this.coreSpace);
 
     }
 
@@ -155,18 +163,19 @@ if (!this.getCustomSpace().equals(sc.getCustomSpace())) return false;
         return export(returnType, merge, getDefaultNamespace());
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public <O> O export(Class<O> returnType, boolean merge, org.semanticweb.owlapi.model.IRI universalPrefix) {
+        // Unchanged scopes are served from the cache.
+        O cached = exportCache.get(returnType, merge, universalPrefix);
+        if (cached != null) return cached;
+        long version = exportCache.getVersion();
         if (OWLOntology.class.isAssignableFrom(returnType)) {
-            return (O) exportToOWLOntology(merge, universalPrefix);
+            OWLOntology o = exportToOWLOntology(merge, universalPrefix);
+            return exportCache.put(returnType, merge, universalPrefix, o, version);
         }
         if (Graph.class.isAssignableFrom(returnType)) {
             Graph root = exportToGraph(merge, universalPrefix);
-            // A Clerezza graph has to be cast properly.
-            if (returnType == ImmutableGraph.class) root = ((Graph) root).getImmutableGraph();
-            else if (returnType == Graph.class) {}
-            return (O) root;
+            return exportCache.put(returnType, merge, universalPrefix, root, version);
         }
         throw new UnsupportedOperationException("Cannot export scope " + getID() + " to a " + returnType);
     }
@@ -366,12 +375,14 @@ if (!this.getCustomSpace().equals(sc.getCustomSpace())) return false;
 
     @Override
     public void onOntologyAdded(OntologyCollector collector, OWLOntologyID addedOntology) {
+        exportCache.invalidate();
         // Propagate events to scope listeners
         if (collector instanceof OntologySpace) fireOntologyAdded((OntologySpace) collector, addedOntology);
     }
 
     @Override
     public void onOntologyRemoved(OntologyCollector collector, OWLOntologyID removedOntology) {
+        exportCache.invalidate();
         // Propagate events to scope listeners
         if (collector instanceof OntologySpace) fireOntologyRemoved((OntologySpace) collector,
             removedOntology);
@@ -392,8 +403,22 @@ if (!this.getCustomSpace().equals(sc.getCustomSpace())) return false;
     public synchronized void setCustomSpace(OntologySpace customSpace) throws UnmodifiableOntologyCollectorException {
         if (this.customSpace != null && this.customSpace.isLocked()) throw new UnmodifiableOntologyCollectorException(
                 getCustomSpace());
+        trackExportChanges(this.customSpace, customSpace);
         this.customSpace = customSpace;
         this.customSpace.addOntologyCollectorListener(this);
+        exportCache.invalidate();
+    }
+
+    /**
+     * Registers the export cache of this scope as a dependent of the export cache of the new space (and
+     * removes it from the old one), so that changes of the space that are not notified to
+     * {@link OntologyCollectorListener}s also invalidate the exports of this scope.
+     */
+    private void trackExportChanges(OntologySpace oldSpace, OntologySpace newSpace) {
+        if (oldSpace instanceof AbstractOntologyCollectorImpl) ((AbstractOntologyCollectorImpl) oldSpace).exportCache
+                .removeDependent(exportCache);
+        if (newSpace instanceof AbstractOntologyCollectorImpl) ((AbstractOntologyCollectorImpl) newSpace).exportCache
+                .addDependent(exportCache);
     }
 
     /**
@@ -418,6 +443,7 @@ if (!this.getCustomSpace().equals(sc.getCustomSpace())) return false;
             namespace = org.semanticweb.owlapi.model.IRI.create(namespace + "/");
         }
         this.namespace = namespace;
+        exportCache.invalidate();
     }
 
     protected void setID(String id) {
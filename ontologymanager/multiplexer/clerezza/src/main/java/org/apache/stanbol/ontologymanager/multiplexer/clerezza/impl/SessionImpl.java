@@ -88,6 +88,7 @@ public class SessionImpl extends AbstractOntologyCollectorImpl implements Sessio
     @Override
     public void attachScope(String scopeId) {
         attachedScopes.add(scopeId);
+        exportCache.invalidate();
         fireScopeAppended(scopeId);
     }
 
@@ -122,6 +123,7 @@ public class SessionImpl extends AbstractOntologyCollectorImpl implements Sessio
     @Override
     public void clearScopes() {
         attachedScopes.clear();
+        exportCache.invalidate();
     }
 
     @Override
@@ -141,6 +143,7 @@ public class SessionImpl extends AbstractOntologyCollectorImpl implements Sessio
     public void detachScope(String scopeId) {
         if (!attachedScopes.contains(scopeId)) return;
         attachedScopes.remove(scopeId);
+        exportCache.invalidate();
         fireScopeDetached(scopeId);
     }
 
@@ -158,6 +161,14 @@ public class SessionImpl extends AbstractOntologyCollectorImpl implements Sessio
                && this.getSessionState().equals(coll.getSessionState());
     }
 
+    /**
+     * Merged OWL exports also contain the attached scopes, whose changes are not tracked by this session.
+     */
+    @Override
+    protected boolean isExportCacheable(boolean merge) {
+        return !merge || attachedScopes.isEmpty();
+    }
+
     @Override
     protected Graph exportToGraph(boolean merge, org.semanticweb.owlapi.model.IRI universalPrefix) {
         Graph mg = super.exportToGraph(merge, universalPrefix);
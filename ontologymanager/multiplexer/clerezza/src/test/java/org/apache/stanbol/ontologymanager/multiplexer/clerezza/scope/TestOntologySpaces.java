@@ -18,7 +18,9 @@ package org.apache.stanbol.ontologymanager.multiplexer.clerezza.scope;
 
 import static org.apache.stanbol.ontologymanager.multiplexer.clerezza.MockOsgiContext.onManager;
 import static org.apache.stanbol.ontologymanager.multiplexer.clerezza.MockOsgiContext.reset;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
@@ -29,14 +31,17 @@ import java.io.File;
 import java.net.URISyntaxException;
 import java.net.URL;
 
+import org.apache.clerezza.commons.rdf.ImmutableGraph;
 import org.apache.stanbol.commons.owl.OWLOntologyManagerFactory;
 import org.apache.stanbol.ontologymanager.multiplexer.clerezza.Constants;
 import org.apache.stanbol.ontologymanager.servicesapi.collector.MissingOntologyException;
 import org.apache.stanbol.ontologymanager.servicesapi.collector.UnmodifiableOntologyCollectorException;
 import org.apache.stanbol.ontologymanager.servicesapi.io.OntologyInputSource;
+import org.apache.stanbol.ontologymanager.servicesapi.ontology.OWLExportable.ConnectivityPolicy;
 import org.apache.stanbol.ontologymanager.servicesapi.scope.OntologySpace;
 import org.apache.stanbol.ontologymanager.servicesapi.scope.OntologySpace.SpaceType;
 import org.apache.stanbol.ontologymanager.servicesapi.scope.OntologySpaceFactory;
+import org.apache.stanbol.ontologymanager.servicesapi.scope.Scope;
 import org.apache.stanbol.ontologymanager.sources.owlapi.BlankOntologySource;
 import org.apache.stanbol.ontologymanager.sources.owlapi.ParentPathInputSource;
 import org.apache.stanbol.ontologymanager.sources.owlapi.RootOntologySource;
@@ -122,6 +127,62 @@ public class TestOntologySpaces {
         assertTrue(space.hasOntology(logicalId));
     }
 
+    /**
+     * Checks that cached exports of a space are not shared with callers and reflect added ontologies.
+     * 
+     * @throws Exception
+     *             if an unexpected error occurs.
+     */
+    @Test
+    public void testCachedExport() throws Exception {
+        OntologySpace space = factory.createCustomOntologySpace("testCachedExport", inMemorySrc);
+        // Custom spaces created by the factory have no connectivity policy.
+        space.setConnectivityPolicy(ConnectivityPolicy.LOOSE);
+        OWLOntology exported = space.export(OWLOntology.class, true);
+        assertTrue(exported.containsAxiom(linusIsHuman));
+        OWLOntology cached = space.export(OWLOntology.class, true);
+        assertNotSame(exported, cached);
+        assertEquals(exported.getAxioms(), cached.getAxioms());
+        // Modifying the exported ontology must not affect further exports
+        exported.getOWLOntologyManager().removeAxiom(exported, linusIsHuman);
+        assertTrue(space.export(OWLOntology.class, true).containsAxiom(linusIsHuman));
+
+        // Adding an ontology must invalidate the cache
+        int imports = space.export(OWLOntology.class, false).getImportsDeclarations().size();
+        space.addOntology(minorSrc);
+        assertEquals(imports + 1, space.export(OWLOntology.class, false).getImportsDeclarations().size());
+    }
+
+    /**
+     * Checks that cached exports of a scope are invalidated when the namespace or the connectivity policy of
+     * one of its spaces changes.
+     * 
+     * @throws Exception
+     *             if an unexpected error occurs.
+     */
+    @Test
+    public void testCachedScopeExport() throws Exception {
+        Scope scope = onManager.createOntologyScope("testCachedScopeExport", inMemorySrc);
+        OntologySpace custom = scope.getCustomSpace();
+        custom.setConnectivityPolicy(ConnectivityPolicy.LOOSE);
+        custom.addOntology(minorSrc);
+        ImmutableGraph exported = scope.export(ImmutableGraph.class, true);
+        assertSame(exported, scope.export(ImmutableGraph.class, true));
+
+        custom.setDefaultNamespace(IRI.create("http://stanbol.apache.org/testCachedScopeExport/"));
+        ImmutableGraph afterNamespace = scope.export(ImmutableGraph.class, true);
+        assertNotSame(exported, afterNamespace);
+        assertSame(afterNamespace, scope.export(ImmutableGraph.class, true));
+
+        custom.setConnectivityPolicy(ConnectivityPolicy.TIGHT);
+        assertNotSame(afterNamespace, scope.export(ImmutableGraph.class, true));
+
+        // The same applies to the core space.
+        ImmutableGraph beforeCore = scope.export(ImmutableGraph.class, true);
+        scope.getCoreSpace().setConnectivityPolicy(ConnectivityPolicy.TIGHT);
+        assertNotSame(beforeCore, scope.export(ImmutableGraph.class, true));
+    }
+
     @Test
     public void testCoreLock() throws Exception {
         OntologySpace space = factory.createCoreOntologySpace("testCoreLock", inMemorySrc);
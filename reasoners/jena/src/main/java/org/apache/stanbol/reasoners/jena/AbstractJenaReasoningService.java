@@ -16,12 +16,14 @@
  */
 package org.apache.stanbol.reasoners.jena;
 
+import java.util.Dictionary;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.stanbol.reasoners.jena.InferenceCache.InferenceTask;
 import org.apache.stanbol.reasoners.jena.filters.PropertyFilter;
 import org.apache.stanbol.reasoners.servicesapi.InconsistentInputException;
 import org.apache.stanbol.reasoners.servicesapi.ReasoningService;
@@ -41,14 +43,27 @@ import com.hp.hpl.jena.reasoner.ValidityReport.Report;
 import com.hp.hpl.jena.reasoner.rulesys.FBRuleReasoner;
 import com.hp.hpl.jena.reasoner.rulesys.GenericRuleReasoner;
 import com.hp.hpl.jena.reasoner.rulesys.Rule;
+import com.hp.hpl.jena.util.iterator.Filter;
 import com.hp.hpl.jena.vocabulary.RDF;
 
 /**
- * Abstract implementation of the {@see JenaReasoningService} interface
+ * Abstract implementation of the {@see StreamingJenaReasoningService} interface
  */
-public abstract class AbstractJenaReasoningService implements JenaReasoningService {
+public abstract class AbstractJenaReasoningService implements StreamingJenaReasoningService {
+    /**
+     * The number of materialized inference closures kept by the reasoning service. If &gt; 0 the closures
+     * of the most recently used inputs are cached and updated incrementally for inputs that only add
+     * triples. Only used by the default tasks (without custom rules) and the consistency check. Default is
+     * 0 (disabled).
+     */
+    public static final String INFERENCE_CACHE_SIZE = "org.apache.stanbol.reasoners.jena.inferenceCacheSize";
+
     private Reasoner reasoner;
     private static final Logger log = LoggerFactory.getLogger(AbstractJenaReasoningService.class);
+    /**
+     * The cache for inference closures or <code>null</code> if not enabled
+     */
+    private volatile InferenceCache inferenceCache;
 
     /**
      * This constructor sets the given reasoner instance as the default shared one.
@@ -68,6 +83,43 @@ public abstract class AbstractJenaReasoningService implements JenaReasoningServi
         return reasoner;
     }
 
+    /**
+     * Sets the number of cached inference closures. Parse a value &lt;= 0 to disable the cache.
+     * 
+     * @param size
+     */
+    protected void setInferenceCacheSize(int size) {
+        InferenceCache old = this.inferenceCache;
+        this.inferenceCache = size > 0 ? new InferenceCache(this.reasoner, size) : null;
+        if (old != null) {
+            old.clear();
+        }
+    }
+
+    /**
+     * Configures the inference cache based on the {@link #INFERENCE_CACHE_SIZE} property (to be used by
+     * subclasses on activation)
+     * 
+     * @param properties
+     */
+    protected void configureInferenceCache(Dictionary<?,?> properties) {
+        Object value = properties.get(INFERENCE_CACHE_SIZE);
+        int size;
+        if (value instanceof Number) {
+            size = ((Number) value).intValue();
+        } else if (value != null && !value.toString().trim().isEmpty()) {
+            try {
+                size = Integer.parseInt(value.toString().trim());
+            } catch (NumberFormatException e) {
+                log.warn("Unable to parse {} from '{}' (inference cache disabled)", INFERENCE_CACHE_SIZE, value);
+                size = 0;
+            }
+        } else {
+            size = 0;
+        }
+        setInferenceCacheSize(size);
+    }
+
     /**
      * Generic method to perform inferences
      */
@@ -124,6 +176,43 @@ public abstract class AbstractJenaReasoningService implements JenaReasoningServi
         } else throw new UnsupportedTaskException();
     }
 
+    /**
+     * This method provides the default implementation for streaming the results of one of the default
+     * tasks. If the inference cache is enabled, the results are collected by
+     * {@link #runTask(String, Model, List, boolean, Map)}, because the cached closure can not be read
+     * outside of its lock.
+     */
+    @Override
+    public Iterator<Statement> streamTask(String taskID,
+                                          Model data,
+                                          List<Rule> rules,
+                                          boolean filtered,
+                                          Map<String,List<String>> parameters) throws UnsupportedTaskException,
+                                                                               ReasoningServiceException,
+                                                                               InconsistentInputException {
+        log.debug(" streamTask(String taskID,Model data,List<Rule> rules,boolean filtered,Map<String,List<String>> parameters)");
+        if (inferenceCache != null && rules == null) {
+            return runTask(taskID, data, rules, filtered, parameters).iterator();
+        }
+        if (taskID.equals(ReasoningService.Tasks.CLASSIFY)) {
+            InfModel inferred = rules != null ? run(data, rules) : run(data);
+            return inferred.listStatements().filterKeep(new PropertyFilter(RDF.type));
+        } else if (taskID.equals(ReasoningService.Tasks.ENRICH)) {
+            InfModel inferred = rules != null ? run(data, rules) : run(data);
+            if (!filtered) {
+                return inferred.listStatements();
+            }
+            // The raw model is the input data
+            final Model raw = inferred.getRawModel();
+            return inferred.listStatements().filterDrop(new Filter<Statement>() {
+                @Override
+                public boolean accept(Statement s) {
+                    return raw.contains(s);
+                }
+            });
+        } else throw new UnsupportedTaskException();
+    }
+
     /**
      * This method provides the default implementation for executing one of the default tasks with no
      * additional arguments.
@@ -178,6 +267,15 @@ public abstract class AbstractJenaReasoningService implements JenaReasoningServi
      */
     protected Set<Statement> classify(Model data) {
         log.debug(" classify(Model data)");
+        InferenceCache cache = this.inferenceCache;
+        if (cache != null) {
+            return cache.execute(data, new InferenceTask<Set<Statement>>() {
+                @Override
+                public Set<Statement> execute(InfModel model) {
+                    return model.listStatements().filterKeep(new PropertyFilter(RDF.type)).toSet();
+                }
+            });
+        }
         return run(data).listStatements().filterKeep(new PropertyFilter(RDF.type)).toSet();
     }
 
@@ -211,8 +309,29 @@ public abstract class AbstractJenaReasoningService implements JenaReasoningServi
      * @param rules
      * @return
      */
-    protected Set<Statement> enrich(Model data, boolean filtered) {
+    protected Set<Statement> enrich(Model data, final boolean filtered) {
         log.debug(" enrich(Model data, boolean filtered)");
+        InferenceCache cache = this.inferenceCache;
+        if (cache != null) {
+            return cache.execute(data, new InferenceTask<Set<Statement>>() {
+                @Override
+                public Set<Statement> execute(InfModel model) {
+                    if (!filtered) {
+                        return model.listStatements().toSet();
+                    }
+                    // The raw model of the cached closure has the same content as the input
+                    Model raw = model.getRawModel();
+                    Set<Statement> inferred = new HashSet<Statement>();
+                    for (Iterator<Statement> it = model.listStatements(); it.hasNext();) {
+                        Statement s = it.next();
+                        if (!raw.contains(s)) {
+                            inferred.add(s);
+                        }
+                    }
+                    return inferred;
+                }
+            });
+        }
         // Since the input model is modified by the reasoner,
         // We keep the original list to prune the data after, if necessary
         if(filtered){
@@ -317,6 +436,15 @@ public abstract class AbstractJenaReasoningService implements JenaReasoningServi
     @Override
     public boolean isConsistent(Model data) {
         log.debug(" isConsistent(Model data)");
+        InferenceCache cache = this.inferenceCache;
+        if (cache != null) {
+            return isConsistent(cache.execute(data, new InferenceTask<ValidityReport>() {
+                @Override
+                public ValidityReport execute(InfModel model) {
+                    return model.validate();
+                }
+            }));
+        }
         return isConsistent(run(data).validate());
     }
 
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.reasoners.jena;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.rdf.model.InfModel;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.reasoner.Reasoner;
+import com.hp.hpl.jena.util.iterator.ExtendedIterator;
+
+/**
+ * Keeps the materialized inference closures of the most recently used inputs of a reasoner.<br>
+ * If an input contains all the triples of a cached input, the additional triples are added to the cached
+ * {@link InfModel}, so that forward rules are only applied to the delta (the Jena rule reasoners support
+ * incremental additions). Inputs with removed triples require the closure to be recomputed.<br>
+ * <br>
+ * Note that cached closures are only reused if the blank nodes of the inputs are the same, e.g. if the
+ * input is derived from the same {@link Model}.
+ */
+class InferenceCache {
+
+    private static final Logger log = LoggerFactory.getLogger(InferenceCache.class);
+
+    /**
+     * A task to be executed over the (cached) inference model of an input.
+     */
+    interface InferenceTask<T> {
+        /**
+         * Executed while holding the lock of the cached closure. Implementations MUST NOT modify the parsed
+         * model nor return objects that are backed by it (e.g. iterators).
+         */
+        T execute(InfModel model);
+    }
+
+    private final Reasoner reasoner;
+
+    private final int size;
+
+    /**
+     * The cached closures. Most recently used first.
+     */
+    private final LinkedList<Closure> closures = new LinkedList<Closure>();
+
+    /**
+     * @param reasoner
+     *            the reasoner used to compute the closures
+     * @param size
+     *            the maximum number of cached closures
+     */
+    InferenceCache(Reasoner reasoner, int size) {
+        if (size <= 0) throw new IllegalArgumentException("The size of the inference cache MUST BE > 0");
+        this.reasoner = reasoner;
+        this.size = size;
+    }
+
+    /**
+     * Executes the parsed task over the inference closure of the parsed data.
+     */
+    <T> T execute(Model data, InferenceTask<T> task) {
+        Graph input = data.getGraph();
+        List<Closure> candidates;
+        synchronized (closures) {
+            candidates = new ArrayList<Closure>(closures);
+        }
+        for (Closure closure : candidates) {
+            synchronized (closure) {
+                if (closure.update(input)) {
+                    touch(closure);
+                    return task.execute(closure.model);
+                }
+            }
+        }
+        long start = System.currentTimeMillis();
+        Closure closure = new Closure(data);
+        T result;
+        synchronized (closure) {
+            closure.model.prepare();
+            log.debug("Computed inference closure of {} triples in {}ms", closure.base.size(),
+                System.currentTimeMillis() - start);
+            result = task.execute(closure.model);
+        }
+        touch(closure);
+        return result;
+    }
+
+    /**
+     * Marks the parsed closure as most recently used, adding it to the cache if necessary.
+     */
+    private void touch(Closure closure) {
+        synchronized (closures) {
+            closures.remove(closure);
+            closures.addFirst(closure);
+            while (closures.size() > size) {
+                closures.removeLast();
+            }
+        }
+    }
+
+    /**
+     * Removes all cached closures.
+     */
+    void clear() {
+        synchronized (closures) {
+            closures.clear();
+        }
+    }
+
+    /**
+     * A materialized inference closure over a private copy of an input.
+     */
+    private class Closure {
+
+        private final Graph base;
+
+        private final InfModel model;
+
+        Closure(Model data) {
+            // copy the data, as the parsed model may be changed by the caller
+            Model copy = ModelFactory.createDefaultModel().add(data);
+            this.base = copy.getGraph();
+            this.model = ModelFactory.createInfModel(reasoner, copy);
+        }
+
+        /**
+         * Updates this closure with the triples added by the parsed input.
+         * 
+         * @return <code>false</code> if the input does not contain all triples of this closure.
+         */
+        boolean update(Graph input) {
+            if (input.size() < base.size()) return false;
+            // all the cached triples need to be present
+            ExtendedIterator<Triple> it = base.find(Node.ANY, Node.ANY, Node.ANY);
+            try {
+                while (it.hasNext()) {
+                    if (!input.contains(it.next())) return false;
+                }
+            } finally {
+                it.close();
+            }
+            List<Triple> added = new ArrayList<Triple>();
+            it = input.find(Node.ANY, Node.ANY, Node.ANY);
+            try {
+                while (it.hasNext()) {
+                    Triple t = it.next();
+                    if (!base.contains(t)) added.add(t);
+                }
+            } finally {
+                it.close();
+            }
+            if (!added.isEmpty()) {
+                long start = System.currentTimeMillis();
+                // adding to the inference graph applies the forward rules to the delta
+                Graph inf = model.getGraph();
+                for (Iterator<Triple> addIt = added.iterator(); addIt.hasNext();) {
+                    inf.add(addIt.next());
+                }
+                model.prepare();
+                log.debug("Updated inference closure with {} triples in {}ms", added.size(),
+                    System.currentTimeMillis() - start);
+            } else {
+                log.debug("Inference closure of {} triples served from cache", base.size());
+            }
+            return true;
+        }
+    }
+}
@@ -31,6 +31,7 @@ import com.hp.hpl.jena.reasoner.ReasonerRegistry;
  */
 @Component(immediate = true, metatype = true)
 @Service
+@Property(name = AbstractJenaReasoningService.INFERENCE_CACHE_SIZE, intValue = 0)
 @Documentation(name = "Jena OWL", description = "This service use the Jena OWL reasoner.")
 public class JenaOWLReasoningService extends AbstractJenaReasoningService {
     public static final String _DEFAULT_PATH = "owl";
@@ -50,5 +51,6 @@ public class JenaOWLReasoningService extends AbstractJenaReasoningService {
     @Activate
     public void activate(ComponentContext context) {
         this.path = (String) context.getProperties().get(ReasoningService.SERVICE_PATH);
+        configureInferenceCache(context.getProperties());
     }
 }
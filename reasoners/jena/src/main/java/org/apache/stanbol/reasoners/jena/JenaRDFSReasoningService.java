@@ -34,6 +34,7 @@ import com.hp.hpl.jena.reasoner.ReasonerRegistry;
  */
 @Component(immediate = true, metatype = true)
 @Service
+@Property(name = AbstractJenaReasoningService.INFERENCE_CACHE_SIZE, intValue = 0)
 @Documentation(name = "Jena RDFS", description = "This service use the Jena RDFS reasoner.")
 public class JenaRDFSReasoningService extends AbstractJenaReasoningService {
     public static final String _DEFAULT_PATH = "rdfs";
@@ -53,5 +54,6 @@ public class JenaRDFSReasoningService extends AbstractJenaReasoningService {
     @Activate
     public void activate(ComponentContext context) {
         this.path = (String) context.getProperties().get(ReasoningService.SERVICE_PATH);
+        configureInferenceCache(context.getProperties());
     }
 }
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.reasoners.jena;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.stanbol.reasoners.servicesapi.InconsistentInputException;
+import org.apache.stanbol.reasoners.servicesapi.ReasoningServiceException;
+import org.apache.stanbol.reasoners.servicesapi.UnsupportedTaskException;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.Statement;
+import com.hp.hpl.jena.reasoner.rulesys.Rule;
+
+/**
+ * A {@link JenaReasoningService} that can return the results of a task while they are inferred. Services
+ * not implementing this interface are executed by {@link #runTask(String, Object, List, boolean, Map)}.
+ */
+public interface StreamingJenaReasoningService extends JenaReasoningService {
+
+    /**
+     * Executes the given task like
+     * {@link #runTask(String, Object, List, boolean, Map)}, but returns the
+     * resulting statements as they are read from the inferred model instead of
+     * collecting them in a {@link java.util.Set}. This allows to serialize
+     * large results without keeping them in memory. Note that the returned
+     * iterator may contain duplicates.
+     * 
+     * @param taskID
+     * @param data
+     * @param rules
+     * @param filtered
+     * @param parameters
+     * @return
+     * @throws UnsupportedTaskException
+     * @throws ReasoningServiceException
+     * @throws InconsistentInputException
+     */
+    public abstract Iterator<Statement> streamTask(String taskID,
+                                                   Model data,
+                                                   List<Rule> rules,
+                                                   boolean filtered,
+                                                   Map<String,List<String>> parameters) throws UnsupportedTaskException,
+                                                                                        ReasoningServiceException,
+                                                                                        InconsistentInputException;
+}
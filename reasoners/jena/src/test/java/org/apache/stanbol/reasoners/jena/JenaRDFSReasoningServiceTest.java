@@ -16,8 +16,16 @@
  */
 package org.apache.stanbol.reasoners.jena;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.apache.stanbol.reasoners.servicesapi.ReasoningService;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.slf4j.Logger;
@@ -27,6 +35,7 @@ import com.hp.hpl.jena.rdf.model.InfModel;
 import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.ModelFactory;
 import com.hp.hpl.jena.rdf.model.Property;
+import com.hp.hpl.jena.rdf.model.Resource;
 import com.hp.hpl.jena.rdf.model.Statement;
 import com.hp.hpl.jena.vocabulary.RDF;
 import com.hp.hpl.jena.vocabulary.RDFS;
@@ -171,4 +180,57 @@ public class JenaRDFSReasoningServiceTest {
 		// Reset resource to be clean for other tests
 		TestData.alexdma.removeProperties();
 	}
+
+	/**
+	 * Tests that cached inference closures are updated with added triples and
+	 * recomputed if triples are removed
+	 */
+	@Test
+	public void testInferenceCache() throws Exception {
+		log.info("Testing the inference cache with RDFS reasoner");
+		JenaRDFSReasoningService cachingService = new JenaRDFSReasoningService();
+		cachingService.setInferenceCacheSize(2);
+
+		Model input = ModelFactory.createDefaultModel().add(TestData.foaf);
+		Resource person = input.createResource(TestData.TEST_NS + "person");
+		Resource friend = input.createResource(TestData.TEST_NS + "friend");
+		input.add(person, RDF.type, TestData.foaf_Person);
+		assertEquals(reasoningService.runTask(ReasoningService.Tasks.ENRICH, input),
+				cachingService.runTask(ReasoningService.Tasks.ENRICH, input));
+
+		// Added triples are inferred incrementally
+		input.add(person, TestData.foaf_knows, friend);
+		Set<Statement> enriched = cachingService.runTask(ReasoningService.Tasks.ENRICH, input);
+		Statement isPerson = input.createStatement(friend, RDF.type, TestData.foaf_Person);
+		assertTrue(enriched.contains(isPerson));
+		assertEquals(reasoningService.runTask(ReasoningService.Tasks.ENRICH, input), enriched);
+		assertEquals(reasoningService.runTask(ReasoningService.Tasks.CLASSIFY, input),
+				cachingService.runTask(ReasoningService.Tasks.CLASSIFY, input));
+
+		// Removed triples require the closure to be recomputed
+		input.remove(person, TestData.foaf_knows, friend);
+		enriched = cachingService.runTask(ReasoningService.Tasks.ENRICH, input);
+		assertFalse(enriched.contains(isPerson));
+		assertEquals(reasoningService.runTask(ReasoningService.Tasks.ENRICH, input), enriched);
+	}
+
+	/**
+	 * Tests that streamed task results are the same as the collected ones
+	 */
+	@Test
+	public void testStreamTask() throws Exception {
+		log.info("Testing streamed enrichment with RDFS reasoner");
+		Model input = ModelFactory.createDefaultModel().add(TestData.foaf);
+		Resource person = input.createResource(TestData.TEST_NS + "person");
+		input.add(person, TestData.foaf_knows, input.createResource(TestData.TEST_NS + "friend"));
+		for (String task : new String[] {ReasoningService.Tasks.ENRICH, ReasoningService.Tasks.CLASSIFY}) {
+			Set<Statement> streamed = new HashSet<Statement>();
+			Iterator<Statement> it = ((StreamingJenaReasoningService) reasoningService).streamTask(task, input,
+					null, true, null);
+			while (it.hasNext()) {
+				streamed.add(it.next());
+			}
+			assertEquals(reasoningService.runTask(task, input, null, true, null), streamed);
+		}
+	}
 }
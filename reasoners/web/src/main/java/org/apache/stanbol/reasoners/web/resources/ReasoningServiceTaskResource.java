@@ -30,6 +30,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
@@ -55,6 +56,7 @@ import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.Service;
 import org.apache.stanbol.commons.jobs.api.JobManager;
+import org.apache.stanbol.commons.jobs.api.PrioritizedJob;
 import org.apache.stanbol.commons.web.viewable.Viewable;
 import org.apache.stanbol.commons.web.base.format.KRFormat;
 import org.apache.stanbol.commons.web.base.resource.BaseStanbolResource;
@@ -313,7 +315,14 @@ public class ReasoningServiceTaskResource extends BaseStanbolResource {
         // The service executor
         ReasoningServiceExecutor executor = new ReasoningServiceExecutor(tcManager, imngr,
                 getCurrentService(), getCurrentTask(), target, parameters);
-        String jid = getJobManager().execute(executor);
+        executor.setPriority(getPriority());
+        String jid;
+        try {
+            jid = getJobManager().execute(executor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Background job rejected: {}", e.getMessage());
+            throw new WebApplicationException(e, Response.Status.SERVICE_UNAVAILABLE);
+        }
         URI location = URI.create(getPublicBaseUri() + "jobs/" + jid);
         this.jobLocation = location.toString();
         /**
@@ -345,8 +354,11 @@ public class ReasoningServiceTaskResource extends BaseStanbolResource {
             // The service executor
             ReasoningServiceExecutor executor = new ReasoningServiceExecutor(tcManager, imngr,
                     getCurrentService(), getCurrentTask(), target, parameters);
+            ResponseTaskBuilder builder = new ResponseTaskBuilder(new ReasoningTaskResult(uriInfo, headers));
+            // Write inferred statements while they are computed, if the requested format allows it
+            executor.setStreaming(target == null && builder.isStreamable());
             ReasoningServiceResult<?> result = executor.call();
-            return new ResponseTaskBuilder(new ReasoningTaskResult(uriInfo, headers)).build(result);
+            return builder.build(result);
         } catch (Exception e) {
             if (e instanceof RuntimeException) {
                 throw (RuntimeException)e;
@@ -379,6 +391,28 @@ public class ReasoningServiceTaskResource extends BaseStanbolResource {
         return target;
     }
 
+    /**
+     * Get the priority of a background job, or {@link PrioritizedJob#NORMAL_PRIORITY} if no priority have
+     * been given
+     * 
+     * @return
+     */
+    private int getPriority() {
+        int priority = PrioritizedJob.NORMAL_PRIORITY;
+        if (parameters.get("priority") != null) {
+            String value = parameters.get("priority").isEmpty() ? null : parameters.get("priority").iterator()
+                    .next();
+            try {
+                priority = Integer.parseInt(value == null ? "" : value.trim());
+            } catch (NumberFormatException e) {
+                // Parameter exists without an integer value
+                log.error("Parameter 'priority' must be an integer value (was: {})!", value);
+                throw new WebApplicationException(Response.Status.BAD_REQUEST);
+            }
+        }
+        return priority;
+    }
+
     /**
      * To catch additional parameters in case of a POST with content-type multipart/form-data, we need to
      * access the {@link FormDataMultiPart} representation of the input.
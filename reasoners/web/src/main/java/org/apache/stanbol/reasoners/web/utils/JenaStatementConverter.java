@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.reasoners.web.utils;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+
+import org.apache.clerezza.commons.rdf.BlankNode;
+import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.Language;
+import org.apache.clerezza.commons.rdf.RDFTerm;
+import org.apache.clerezza.commons.rdf.Triple;
+import org.apache.clerezza.commons.rdf.impl.utils.PlainLiteralImpl;
+import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
+import org.apache.clerezza.commons.rdf.impl.utils.TypedLiteralImpl;
+
+import com.hp.hpl.jena.rdf.model.AnonId;
+import com.hp.hpl.jena.rdf.model.Literal;
+import com.hp.hpl.jena.rdf.model.RDFNode;
+import com.hp.hpl.jena.rdf.model.Resource;
+import com.hp.hpl.jena.rdf.model.Statement;
+
+/**
+ * Converts Jena {@link Statement}s to Clerezza {@link Triple}s one by one. An instance keeps the mapping of
+ * Jena blank nodes to Clerezza {@link BlankNode}s, so a blank node used by several statements is always
+ * converted to the same {@link BlankNode}, regardless of how the statements are split into chunks.
+ */
+public class JenaStatementConverter {
+
+    private final Map<AnonId,BlankNode> bNodes = new HashMap<AnonId,BlankNode>();
+
+    /**
+     * Converts a single statement
+     * 
+     * @param statement
+     * @return
+     */
+    public Triple convert(Statement statement) {
+        return new TripleImpl((BlankNodeOrIRI) convert(statement.getSubject()), new IRI(statement
+                .getPredicate().getURI()), convert(statement.getObject()));
+    }
+
+    private RDFTerm convert(RDFNode node) {
+        if (node.isAnon()) {
+            AnonId id = ((Resource) node).getId();
+            BlankNode bNode = bNodes.get(id);
+            if (bNode == null) {
+                bNode = new BlankNode();
+                bNodes.put(id, bNode);
+            }
+            return bNode;
+        } else if (node.isURIResource()) {
+            return new IRI(((Resource) node).getURI());
+        } else {
+            Literal literal = (Literal) node;
+            String lang = literal.getLanguage();
+            if (literal.getDatatypeURI() != null) {
+                return new TypedLiteralImpl(literal.getLexicalForm(), new IRI(literal.getDatatypeURI()));
+            } else if (lang != null && !lang.isEmpty()) {
+                return new PlainLiteralImpl(literal.getLexicalForm(), new Language(lang));
+            } else {
+                return new PlainLiteralImpl(literal.getLexicalForm());
+            }
+        }
+    }
+
+    /**
+     * Adds the parsed statements to the graph. Statements are converted and added in chunks of
+     * {@link StatementStreamingOutput#CHUNK_SIZE} while holding the write lock of the graph. All chunks
+     * share a single blank node mapping. Stops after the current chunk if the thread gets interrupted.
+     * 
+     * @param statements
+     * @param graph
+     * @return the number of added statements
+     * @throws InterruptedIOException if the thread was interrupted
+     */
+    public static long addAll(Iterator<Statement> statements, Graph graph) throws InterruptedIOException {
+        JenaStatementConverter converter = new JenaStatementConverter();
+        Lock writeLock = graph.getLock().writeLock();
+        List<Triple> chunk = new ArrayList<Triple>(StatementStreamingOutput.CHUNK_SIZE);
+        long added = 0;
+        while (statements.hasNext()) {
+            for (int i = 0; i < StatementStreamingOutput.CHUNK_SIZE && statements.hasNext(); i++) {
+                chunk.add(converter.convert(statements.next()));
+            }
+            writeLock.lock();
+            try {
+                graph.addAll(chunk);
+            } finally {
+                writeLock.unlock();
+            }
+            added += chunk.size();
+            chunk.clear();
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Interrupted after adding " + added + " statements");
+            }
+        }
+        return added;
+    }
+}
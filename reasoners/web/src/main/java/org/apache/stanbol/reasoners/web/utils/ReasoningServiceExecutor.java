@@ -30,9 +30,11 @@ import org.apache.clerezza.commons.rdf.IRI;
 import org.apache.clerezza.rdf.core.access.NoSuchEntityException;
 import org.apache.clerezza.rdf.core.access.TcManager;
 import org.apache.stanbol.commons.jobs.api.Job;
+import org.apache.stanbol.commons.jobs.api.PrioritizedJob;
 import org.apache.stanbol.commons.owl.transformation.JenaToClerezzaConverter;
 import org.apache.stanbol.commons.owl.transformation.OWLAPIToClerezzaConverter;
 import org.apache.stanbol.reasoners.jena.JenaReasoningService;
+import org.apache.stanbol.reasoners.jena.StreamingJenaReasoningService;
 import org.apache.stanbol.reasoners.owlapi.OWLApiReasoningService;
 import org.apache.stanbol.reasoners.servicesapi.InconsistentInputException;
 import org.apache.stanbol.reasoners.servicesapi.ReasoningService;
@@ -56,14 +58,15 @@ import com.hp.hpl.jena.reasoner.rulesys.Rule;
 
 /**
  * This class executes the reasoning process, by delegating the actual work on the given {@see
- * ReasoningService}. It can be used on real-time operations and as background {@see Job}
+ * ReasoningService}. It can be used on real-time operations and as background {@see Job}. Background jobs
+ * stop at the next check of {@link Thread#isInterrupted()} if they exceed the maximum execution time.
  * 
  * Actually this class supports OWLApi and Jena based services. TODO In the future we may want to remove
  * specific dependencies on service implementation from the executor.
  * 
  * @author enridaga
  */
-public class ReasoningServiceExecutor implements Job {
+public class ReasoningServiceExecutor implements PrioritizedJob {
     private Logger log = LoggerFactory.getLogger(getClass());
     private TcManager tcManager;
     private ReasoningServiceInputManager inmgr;
@@ -71,6 +74,8 @@ public class ReasoningServiceExecutor implements Job {
     private String task;
     private Map<String,List<String>> parameters;
     private String targetGraph;
+    private boolean streaming = false;
+    private int priority = NORMAL_PRIORITY;
 
     // This task is not dinamically provided by the service, since it work on a
     // specific method
@@ -91,6 +96,48 @@ public class ReasoningServiceExecutor implements Job {
         this.parameters = parameters;
     }
 
+    /**
+     * If enabled, the results of {@link StreamingJenaReasoningService}s that are not saved to a target graph
+     * are returned as {@link Iterator} over the inferred statements (see
+     * {@link StreamingJenaReasoningService#streamTask(String, Model, List, boolean, Map)}) instead of a
+     * {@link Model}. This MUST only be enabled if the result is consumed while processing the request (e.g.
+     * by a {@link StatementStreamingOutput}) and not for background jobs. Default is <code>false</code>.<p>
+     * If disabled the statements are read when the result is requested or spilled by the job manager (see
+     * {@link ReasoningServiceResult#collect(String, Iterator)}).
+     * 
+     * @param streaming
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * The priority of this executor if it is executed as background {@link Job}. Default is
+     * {@link PrioritizedJob#NORMAL_PRIORITY}.
+     * 
+     * @param priority
+     */
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    @Override
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Stops the execution if the thread was interrupted (e.g. because the job exceeded the maximum execution
+     * time)
+     * 
+     * @throws ReasoningServiceException
+     */
+    private static void checkInterrupted() throws ReasoningServiceException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new ReasoningServiceException(new InterruptedException("Reasoning interrupted"));
+        }
+    }
+
     /**
      * Execute a JenaReasoningService
      * 
@@ -103,7 +150,7 @@ public class ReasoningServiceExecutor implements Job {
      * @throws ReasoningServiceException
      * @throws UnsupportedTaskException
      */
-    private ReasoningServiceResult<Model> executeJenaReasoningService(String task,
+    private ReasoningServiceResult<?> executeJenaReasoningService(String task,
                                                                       JenaReasoningService s,
                                                                       Model input,
                                                                       List<Rule> rules,
@@ -124,7 +171,23 @@ public class ReasoningServiceExecutor implements Job {
             }
         }
         try {
+            if (s instanceof StreamingJenaReasoningService) {
+                // Statements are serialized, saved or spilled while they are inferred
+                Iterator<Statement> result = ((StreamingJenaReasoningService) s).streamTask(task, input, rules,
+                    filtered, parameters);
+                if (targetGraphID != null) {
+                    save(result, targetGraphID);
+                    return new ReasoningServiceResult<Model>(task, true);
+                } else if (streaming) {
+                    log.debug("Returning streamed statements");
+                    return new ReasoningServiceResult<Iterator<Statement>>(task, true, result);
+                } else {
+                    log.debug("Returning statements to collect");
+                    return ReasoningServiceResult.collect(task, result);
+                }
+            }
             Set<Statement> result = s.runTask(task, input, rules, filtered, parameters);
+            checkInterrupted();
             if (result == null) {
                 log.error("Result is null");
                 throw new RuntimeException("Result is null.");
@@ -133,8 +196,6 @@ public class ReasoningServiceExecutor implements Job {
             outputModel.add(result.toArray(new Statement[result.size()]));
             // If target is null, then get back results, elsewhere put it in
             // target graph
-
-            log.debug("Prepare output");
             if (targetGraphID == null) {
                 log.debug("Returning {} statements", result.size());
                 return new ReasoningServiceResult<Model>(task, true, outputModel);
@@ -196,6 +257,7 @@ public class ReasoningServiceExecutor implements Job {
         try {
             OWLOntology output = manager.createOntology();
             Set<OWLAxiom> axioms = s.runTask(task, input, rules, filtered, parameters);
+            checkInterrupted();
             log.debug("Prepare output: {} axioms", axioms.size());
             manager.addAxioms(output, axioms);
             if (targetGraphID == null) {
@@ -233,18 +295,7 @@ public class ReasoningServiceExecutor implements Job {
         log.debug("Attempt saving in target graph {}", targetGraphID);
 
         final long startSave = System.currentTimeMillis();
-        Graph mGraph;
-        IRI graphIRI = new IRI(targetGraphID);
-
-        // tcManager must be synchronized
-        synchronized (tcManager) {
-            try {
-                // Check whether the graph already exists
-                mGraph = tcManager.getGraph(graphIRI);
-            } catch (NoSuchEntityException e) {
-                mGraph = tcManager.createGraph(graphIRI);
-            }
-        }
+        Graph mGraph = getTargetGraph(targetGraphID);
 
         // We lock the graph before proceed
         Lock writeLock = mGraph.getLock().writeLock();
@@ -265,6 +316,44 @@ public class ReasoningServiceExecutor implements Job {
         log.debug("Saved in time: {}ms", (endSave - startSave));
     }
 
+    /**
+     * To save statements in the triple store while they are read from the parsed iterator. Statements are
+     * converted and added in chunks of {@link StatementStreamingOutput#CHUNK_SIZE} using a single
+     * {@link JenaStatementConverter}, so blank nodes shared by statements of different chunks are preserved.
+     * 
+     * @param statements
+     * @param targetGraphID
+     * @throws IOException
+     */
+    protected void save(Iterator<Statement> statements, String targetGraphID) throws IOException {
+        log.debug("Attempt saving streamed statements in target graph {}", targetGraphID);
+        final long startSave = System.currentTimeMillis();
+        Graph mGraph = getTargetGraph(targetGraphID);
+        // Statements are converted one by one, as blank nodes must be shared across chunks
+        long saved = JenaStatementConverter.addAll(statements, mGraph);
+        final long endSave = System.currentTimeMillis();
+        log.debug("Saved {} statements in time: {}ms", saved, (endSave - startSave));
+    }
+
+    /**
+     * Gets or creates the target graph
+     * 
+     * @param targetGraphID
+     * @return
+     */
+    private Graph getTargetGraph(String targetGraphID) {
+        IRI graphIRI = new IRI(targetGraphID);
+        // tcManager must be synchronized
+        synchronized (tcManager) {
+            try {
+                // Check whether the graph already exists
+                return tcManager.getGraph(graphIRI);
+            } catch (NoSuchEntityException e) {
+                return tcManager.createGraph(graphIRI);
+            }
+        }
+    }
+
     /**
      * General method for execution, delegates to specific implementations.
      * 
@@ -317,6 +406,7 @@ public class ReasoningServiceExecutor implements Job {
             synchronized (inmgr) {
                 Iterator<Statement> statements = inmgr.getInputData(Statement.class);
                 while (statements.hasNext()) {
+                    checkInterrupted();
                     input.add(statements.next());
                 }
             }
@@ -324,6 +414,7 @@ public class ReasoningServiceExecutor implements Job {
             synchronized (inmgr) {
                 Iterator<Rule> rulesI = inmgr.getInputData(Rule.class);
                 while (rulesI.hasNext()) {
+                    checkInterrupted();
                     Rule o = rulesI.next();
                     log.debug("Rule: {}", o);
                     if (rules == null) {
@@ -333,8 +424,9 @@ public class ReasoningServiceExecutor implements Job {
                 }
             }
             if (log.isDebugEnabled()) {
-                log.debug("Input size is {} statements", input.listStatements().toSet().size());
+                log.debug("Input size is {} statements", input.size());
             }
+            checkInterrupted();
             result = executeJenaReasoningService(task, (JenaReasoningService) service, input, rules,
                 targetGraphID, true, parameters);
         } else if (service instanceof OWLApiReasoningService) {
@@ -347,6 +439,7 @@ public class ReasoningServiceExecutor implements Job {
             synchronized (inmgr) {
                 Iterator<OWLAxiom> statements = inmgr.getInputData(OWLAxiom.class);
                 while (statements.hasNext()) {
+                    checkInterrupted();
                     input.getOWLOntologyManager().addAxiom(input, statements.next());
                 }
             }
@@ -356,6 +449,7 @@ public class ReasoningServiceExecutor implements Job {
             synchronized (inmgr) {
                 Iterator<SWRLRule> rulesI = inmgr.getInputData(SWRLRule.class);
                 while (rulesI.hasNext()) {
+                    checkInterrupted();
                     if (rules == null) {
                         rules = new ArrayList<SWRLRule>();
                     }
@@ -365,6 +459,7 @@ public class ReasoningServiceExecutor implements Job {
             if (log.isDebugEnabled()) {
                 log.debug("Input size is {} statements", input.getAxiomCount());
             }
+            checkInterrupted();
             result = executeOWLApiReasoningService(task, (OWLApiReasoningService) service, input, rules,
                 targetGraphID, true, parameters);
 
@@ -16,19 +16,46 @@
  */
 package org.apache.stanbol.reasoners.web.utils;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+
 import org.apache.stanbol.commons.jobs.api.JobResult;
+import org.apache.stanbol.commons.jobs.api.SpillableJobResult;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.io.RDFXMLOntologyFormat;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyStorageException;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Statement;
 
 /**
- * To represent a result of a reasoning service.
+ * To represent a result of a reasoning service.<p>
+ * Results of background jobs may be spilled to a file by the job manager: {@link Model}s are written as
+ * N-Triples and {@link OWLOntology}s as RDF/XML. Other results are never spilled. Statements parsed to
+ * {@link #collect(String, Iterator)} are always spilled and written while they are read, so a large
+ * result is never held in memory.
  * 
  * @author enridaga
  *
  * @param <T>
  */
-public class ReasoningServiceResult<T extends Object> implements JobResult{
+public class ReasoningServiceResult<T extends Object> implements SpillableJobResult {
     private T resultObj;
     private boolean success;
     private String task;
+    /**
+     * The type of the released result, <code>null</code> while the result is held
+     */
+    private Class<?> releasedType;
+    /**
+     * Statements not yet read, see {@link #collect(String, Iterator)}
+     */
+    private Iterator<Statement> statements;
 
     public ReasoningServiceResult(String task, boolean success, T resultObj) {
         this.task = task;
@@ -54,7 +81,30 @@ public class ReasoningServiceResult<T extends Object> implements JobResult{
         this.success = true;
     }
 
-    public T get() {
+    /**
+     * Creates a result with the {@link Model} of the parsed statements. The statements are only read when
+     * the result is spilled by the job manager or when the model is requested by {@link #get()}.
+     * 
+     * @param task
+     * @param statements
+     * @return
+     */
+    public static ReasoningServiceResult<Model> collect(String task, Iterator<Statement> statements) {
+        ReasoningServiceResult<Model> result = new ReasoningServiceResult<Model>(task, true);
+        result.statements = statements;
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    public synchronized T get() {
+        if (statements != null) { // not spilled
+            Model model = ModelFactory.createDefaultModel();
+            while (statements.hasNext()) {
+                model.add(statements.next());
+            }
+            statements = null;
+            resultObj = (T) model;
+        }
         return this.resultObj;
     }
 
@@ -76,4 +126,70 @@ public class ReasoningServiceResult<T extends Object> implements JobResult{
         }
         return sb.toString();
     }
+
+    /**
+     * The number of statements of a {@link Model} or axioms of an {@link OWLOntology}, <code>0</code> for
+     * other results. {@link Long#MAX_VALUE} for statements that are not yet read.
+     */
+    @Override
+    public synchronized long getSize() {
+        if (statements != null) {
+            return Long.MAX_VALUE;
+        } else if (resultObj instanceof Model) {
+            return ((Model) resultObj).size();
+        } else if (resultObj instanceof OWLOntology) {
+            return ((OWLOntology) resultObj).getAxiomCount();
+        } else {
+            return 0;
+        }
+    }
+
+    @Override
+    public synchronized void writeTo(OutputStream out) throws IOException {
+        if (statements != null) {
+            new StatementStreamingOutput(statements).write(out);
+        } else if (resultObj instanceof Model) {
+            ((Model) resultObj).write(out, "N-TRIPLE");
+        } else if (resultObj instanceof OWLOntology) {
+            OWLOntology ontology = (OWLOntology) resultObj;
+            try {
+                ontology.getOWLOntologyManager().saveOntology(ontology, new RDFXMLOntologyFormat(), out);
+            } catch (OWLOntologyStorageException e) {
+                throw new IOException("Unable to write the result ontology", e);
+            }
+        } else {
+            throw new IOException("Unable to write a result of type "
+                    + (resultObj == null ? null : resultObj.getClass().getName()));
+        }
+    }
+
+    @Override
+    public synchronized void release() {
+        if (statements != null || resultObj instanceof Model) {
+            releasedType = Model.class;
+        } else if (resultObj instanceof OWLOntology) {
+            releasedType = OWLOntology.class;
+        }
+        resultObj = null;
+        statements = null;
+    }
+
+    @Override
+    public JobResult readFrom(InputStream in) throws IOException {
+        if (releasedType == Model.class) {
+            Model model = ModelFactory.createDefaultModel();
+            model.read(in, null, "N-TRIPLE");
+            return new ReasoningServiceResult<Model>(task, success, model);
+        } else if (releasedType == OWLOntology.class) {
+            try {
+                OWLOntology ontology = OWLManager.createOWLOntologyManager()
+                        .loadOntologyFromOntologyDocument(in);
+                return new ReasoningServiceResult<OWLOntology>(task, success, ontology);
+            } catch (OWLOntologyCreationException e) {
+                throw new IOException("Unable to read the result ontology", e);
+            }
+        } else {
+            throw new IOException("The result was not released");
+        }
+    }
 }
@@ -23,6 +23,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
@@ -46,6 +47,7 @@ import org.slf4j.LoggerFactory;
 import uk.ac.manchester.cs.owl.owlapi.mansyntaxrenderer.ManchesterOWLSyntaxOntologyStorer;
 
 import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.Statement;
 
 /**
  * Builds a response according to the reasoning output.
@@ -93,8 +95,14 @@ public class ResponseTaskBuilder {
      * @param object
      * @return
      */
+    @SuppressWarnings("unchecked")
     private Response build(Object object){
-        if (isHTML()) {
+        if (object instanceof Iterator<?>) {
+            // Streamed statements, see isStreamable()
+            ResponseBuilder rb = Response.ok(new StatementStreamingOutput((Iterator<Statement>) object));
+            rb.header(HttpHeaders.CONTENT_TYPE, getStreamableFormat() + "; charset=utf-8");
+            return rb.build();
+        } else if (isHTML()) {
             OutputStream out = stream(object);
             this.result.setResult(out);
             ResponseBuilder rb = Response.ok( 
@@ -179,6 +187,43 @@ public class ResponseTaskBuilder {
     }
     
 
+    /**
+     * Check if the preferred format requested by the client is one the N-Triples serialization of
+     * {@link StatementStreamingOutput} conforms to (N-Triples is a subset of both Turtle and N3). If so
+     * inferred statements can be written while they are computed.
+     * 
+     * @return
+     */
+    public boolean isStreamable() {
+        return getStreamableFormat() != null;
+    }
+
+    /**
+     * The preferred format requested by the client if it supports streamed statements, <code>null</code>
+     * otherwise
+     * 
+     * @return
+     */
+    private String getStreamableFormat() {
+        Set<String> streamableformats = new HashSet<String>();
+        String[] streamable = {"text/plain", KRFormat.TURTLE, "application/turtle", KRFormat.N3,
+                               "text/n3", KRFormat.N_TRIPLE};
+        streamableformats.addAll(Arrays.asList(streamable));
+        Set<String> rdfformats = new HashSet<String>();
+        String[] formats = {TEXT_HTML, KRFormat.RDF_XML};
+        rdfformats.addAll(Arrays.asList(formats));
+        for (MediaType t : result.getHeaders().getAcceptableMediaTypes()) {
+            String strty = t.getType() + "/" + t.getSubtype();
+            if (streamableformats.contains(strty)) {
+                log.debug("Requested format {} supports streaming", t);
+                return strty;
+            } else if (rdfformats.contains(strty)) {
+                return null;
+            }
+        }
+        return null;
+    }
+
     /**
      * To build the Response for any CHECK task execution
      * 
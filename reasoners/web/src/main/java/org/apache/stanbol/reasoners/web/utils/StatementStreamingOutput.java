@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.reasoners.web.utils;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Statement;
+
+/**
+ * Serializes the statements of a reasoning task while they are read from the inferred model. Statements
+ * are written as N-Triples (that are also valid Turtle and N3) in chunks of {@link #CHUNK_SIZE}
+ * statements, so only a single chunk is kept in memory. Stops after the current chunk if the thread gets
+ * interrupted.
+ */
+public class StatementStreamingOutput implements StreamingOutput {
+
+    /**
+     * The number of statements serialized at once
+     */
+    public static final int CHUNK_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final Iterator<Statement> statements;
+
+    public StatementStreamingOutput(Iterator<Statement> statements) {
+        this.statements = statements;
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException, WebApplicationException {
+        long start = System.currentTimeMillis();
+        int written = 0;
+        while (statements.hasNext()) {
+            Model chunk = nextChunk(statements);
+            written += chunk.size();
+            // N-Triples has no header, so chunks can be simply appended
+            chunk.write(output, "N-TRIPLE");
+            output.flush();
+            chunk.close();
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Interrupted after writing " + written + " statements");
+            }
+        }
+        log.debug("Streamed {} statements in {}ms", written, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Reads the next (up to) {@link #CHUNK_SIZE} statements.
+     * 
+     * @param statements
+     * @return
+     */
+    public static Model nextChunk(Iterator<Statement> statements) {
+        Model chunk = ModelFactory.createDefaultModel();
+        for (int i = 0; i < CHUNK_SIZE && statements.hasNext(); i++) {
+            chunk.add(statements.next());
+        }
+        return chunk;
+    }
+}
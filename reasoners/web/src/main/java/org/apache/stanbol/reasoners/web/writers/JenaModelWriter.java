@@ -72,7 +72,9 @@ public class JenaModelWriter implements MessageBodyWriter<Model> {
     }
 
     public ByteArrayOutputStream toStream(Model t, String mediaType) {
-        log.debug("Serializing model to {}. Statements are {}", mediaType, t.listStatements().toSet().size());
+        if (log.isDebugEnabled()) {
+            log.debug("Serializing model to {}. Statements are {}", mediaType, t.size());
+        }
         ByteArrayOutputStream stream = new ByteArrayOutputStream();
         if (mediaType.equals("application/rdf+xml")) {
             t.write(stream);
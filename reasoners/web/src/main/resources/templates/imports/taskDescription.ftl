@@ -34,6 +34,7 @@
 						<li><tt>scope</tt>: an Ontonet scope ID; the service adds the scope to the input stream.</li>
 						<li><tt>recipe</tt>: a Recipe defined in the Rules module; the service adds the recipe to the reasoner.</li>
 						<li><tt>session</tt>: an Ontonet session ID; the service adds the session to the input stream</li>
+						<li><tt>priority</tt>: an integer; background jobs with a higher priority are executed first (default: <tt>0</tt>)</li>
 		          	</ul>
 	          	</td>
 	          </tr>
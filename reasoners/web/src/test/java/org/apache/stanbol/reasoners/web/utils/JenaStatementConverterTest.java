@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.reasoners.web.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.apache.clerezza.commons.rdf.BlankNode;
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.Language;
+import org.apache.clerezza.commons.rdf.Literal;
+import org.apache.clerezza.commons.rdf.RDFTerm;
+import org.apache.clerezza.commons.rdf.Triple;
+import org.apache.clerezza.commons.rdf.impl.utils.simple.SimpleGraph;
+import org.junit.Test;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Property;
+import com.hp.hpl.jena.rdf.model.Resource;
+import com.hp.hpl.jena.vocabulary.RDF;
+import com.hp.hpl.jena.vocabulary.RDFS;
+
+public class JenaStatementConverterTest {
+
+    private static final String NS = "http://www.example.org/test#";
+
+    /**
+     * Blank nodes shared by statements in different chunks must be converted to the same {@link BlankNode}
+     */
+    @Test
+    public void bNodesSharedAcrossChunks() throws IOException {
+        Model model = ModelFactory.createDefaultModel();
+        Resource shared = model.createResource(); // blank node
+        Property member = model.createProperty(NS, "member");
+        Property value = model.createProperty(NS, "value");
+        model.add(shared, RDF.type, model.createResource(NS + "Group"));
+        int members = StatementStreamingOutput.CHUNK_SIZE * 2 + 500;
+        for (int i = 0; i < members; i++) {
+            Resource m = model.createResource(); // an other blank node per member
+            model.add(shared, member, m);
+            model.add(m, value, model.createTypedLiteral(i));
+        }
+        model.add(shared, RDFS.label, "shared", "en");
+        Graph graph = new SimpleGraph();
+        long added = JenaStatementConverter.addAll(model.listStatements(), graph);
+        assertEquals(model.size(), added);
+        assertEquals(model.size(), graph.size());
+
+        // a single subject for all rdfs:label, rdf:type and member statements
+        Set<RDFTerm> groups = new HashSet<RDFTerm>();
+        for (Iterator<Triple> it = graph.filter(null, new IRI(NS + "member"), null); it.hasNext();) {
+            groups.add(it.next().getSubject());
+        }
+        assertEquals(1, groups.size());
+        RDFTerm group = groups.iterator().next();
+        assertTrue(group instanceof BlankNode);
+        assertTrue(graph.filter((BlankNode) group, new IRI(RDF.type.getURI()), new IRI(NS + "Group"))
+                .hasNext());
+        Iterator<Triple> labels = graph.filter((BlankNode) group, new IRI(RDFS.label.getURI()), null);
+        assertTrue(labels.hasNext());
+        Literal label = (Literal) labels.next().getObject();
+        assertEquals("shared", label.getLexicalForm());
+        assertEquals(new Language("en"), label.getLanguage());
+
+        // every member node links the group with exactly one value
+        Set<RDFTerm> memberNodes = new HashSet<RDFTerm>();
+        for (Iterator<Triple> it = graph.filter(null, new IRI(NS + "member"), null); it.hasNext();) {
+            BlankNode m = (BlankNode) it.next().getObject();
+            memberNodes.add(m);
+            Iterator<Triple> values = graph.filter(m, new IRI(NS + "value"), null);
+            assertTrue(values.hasNext());
+            values.next();
+            assertTrue(!values.hasNext());
+        }
+        assertEquals(members, memberNodes.size());
+        Set<RDFTerm> valueSubjects = new HashSet<RDFTerm>();
+        for (Iterator<Triple> it = graph.filter(null, new IRI(NS + "value"), null); it.hasNext();) {
+            valueSubjects.add(it.next().getSubject());
+        }
+        assertEquals(memberNodes, valueSubjects);
+    }
+}
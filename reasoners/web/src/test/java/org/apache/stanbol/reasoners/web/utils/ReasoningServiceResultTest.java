@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.reasoners.web.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Resource;
+import com.hp.hpl.jena.vocabulary.RDF;
+import com.hp.hpl.jena.vocabulary.RDFS;
+
+/**
+ * Results of background jobs are spilled to files and reloaded when requested
+ */
+public class ReasoningServiceResultTest {
+
+    private static final String NS = "http://www.example.org/test#";
+
+    private static byte[] spill(ReasoningServiceResult<?> result) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        result.writeTo(out);
+        result.release();
+        assertNull(result.get());
+        return out.toByteArray();
+    }
+
+    @Test
+    public void modelRoundTrip() throws IOException {
+        Model model = ModelFactory.createDefaultModel();
+        Resource bNode = model.createResource();
+        model.add(model.createResource(NS + "a"), RDFS.seeAlso, bNode);
+        model.add(bNode, RDF.type, RDFS.Resource);
+        model.add(bNode, RDFS.label, "label", "en");
+        ReasoningServiceResult<Model> result = new ReasoningServiceResult<Model>("classify", true, model);
+        assertEquals(3, result.getSize());
+        Model expected = ModelFactory.createDefaultModel().add(model);
+        byte[] data = spill(result);
+        ReasoningServiceResult<?> reloaded = (ReasoningServiceResult<?>) result
+                .readFrom(new ByteArrayInputStream(data));
+        assertEquals("classify", reloaded.getTask());
+        assertTrue(reloaded.isSuccess());
+        assertTrue(expected.isIsomorphicWith((Model) reloaded.get()));
+    }
+
+    @Test
+    public void ontologyRoundTrip() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory factory = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology();
+        OWLClass a = factory.getOWLClass(IRI.create(NS + "A"));
+        OWLClass b = factory.getOWLClass(IRI.create(NS + "B"));
+        manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(a, b));
+        manager.addAxiom(ontology, factory.getOWLDeclarationAxiom(a));
+        ReasoningServiceResult<OWLOntology> result = new ReasoningServiceResult<OWLOntology>("enrich", true,
+                ontology);
+        assertEquals(2, result.getSize());
+        byte[] data = spill(result);
+        ReasoningServiceResult<?> reloaded = (ReasoningServiceResult<?>) result
+                .readFrom(new ByteArrayInputStream(data));
+        OWLOntology read = (OWLOntology) reloaded.get();
+        assertTrue(read.containsAxiom(factory.getOWLSubClassOfAxiom(a, b)));
+    }
+
+    @Test
+    public void collectedStatementsRoundTrip() throws IOException {
+        Model model = ModelFactory.createDefaultModel();
+        Resource bNode = model.createResource();
+        for (int i = 0; i < StatementStreamingOutput.CHUNK_SIZE + 1; i++) {
+            model.add(model.createResource(NS + i), RDFS.seeAlso, bNode);
+        }
+        ReasoningServiceResult<Model> result = ReasoningServiceResult.collect("enrich",
+            model.listStatements());
+        assertEquals(Long.MAX_VALUE, result.getSize());
+        byte[] data = spill(result);
+        Model reloaded = (Model) ((ReasoningServiceResult<?>) result.readFrom(new ByteArrayInputStream(data)))
+                .get();
+        // the blank node is shared across chunks
+        assertTrue(model.isIsomorphicWith(reloaded));
+    }
+
+    @Test
+    public void collectedStatementsNotSpilled() {
+        Model model = ModelFactory.createDefaultModel();
+        model.add(model.createResource(NS + "a"), RDF.type, RDFS.Resource);
+        ReasoningServiceResult<Model> result = ReasoningServiceResult.collect("classify",
+            model.listStatements());
+        assertTrue(model.isIsomorphicWith(result.get()));
+        // the statements are collected once
+        assertTrue(result.get() == result.get());
+        assertEquals(1, result.getSize());
+    }
+
+    @Test
+    public void otherResultsAreNotSpilled() {
+        assertEquals(0, new ReasoningServiceResult<Object>("check", true).getSize());
+    }
+}
@@ -0,0 +1,520 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.rules.refactor.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+
+import org.apache.clerezza.commons.rdf.BlankNode;
+import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.RDFTerm;
+import org.apache.clerezza.commons.rdf.Triple;
+import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
+import org.apache.clerezza.rdf.core.access.TcManager;
+import org.apache.clerezza.rdf.core.sparql.query.BasicGraphPattern;
+import org.apache.clerezza.rdf.core.sparql.query.ConstructQuery;
+import org.apache.clerezza.rdf.core.sparql.query.GraphPattern;
+import org.apache.clerezza.rdf.core.sparql.query.GroupGraphPattern;
+import org.apache.clerezza.rdf.core.sparql.query.ResourceOrVariable;
+import org.apache.clerezza.rdf.core.sparql.query.TriplePattern;
+import org.apache.stanbol.rules.refactor.api.RefactoringException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The rules of a recipe (as adapted to {@link ConstructQuery}s) compiled for the execution against a source
+ * graph.
+ * <p>
+ * Rules whose body is a plain basic graph pattern (no filters, optionals, sub selects ...) are evaluated
+ * natively as a join of indexed {@link Graph#filter(BlankNodeOrIRI, IRI, RDFTerm)} lookups. Triple
+ * patterns are ordered so that the most bound pattern is looked up first; lookups that only depend on the
+ * constants of a pattern are shared by all rules of the recipe and evaluated only once. Any other rule is
+ * executed as SPARQL CONSTRUCT query via the {@link TcManager}.
+ * <p>
+ * Rules only read the source graph, so they are independent of each other and are executed in parallel if
+ * an {@link ExecutorService} is parsed. Inferred triples are streamed to the target graph in chunks of
+ * {@link #CHUNK_SIZE} triples.
+ */
+class CompiledRecipe {
+
+    private static final Logger log = LoggerFactory.getLogger(CompiledRecipe.class);
+
+    /**
+     * The number of triples added at once to the target graph
+     */
+    static final int CHUNK_SIZE = 1000;
+
+    /**
+     * Results of shared lookups with more triples are not cached
+     */
+    static final int MAX_CACHED_TRIPLES = 100000;
+
+    private final List<CompiledRule> rules;
+
+    CompiledRecipe(List<ConstructQuery> constructQueries) {
+        rules = new ArrayList<CompiledRule>(constructQueries.size());
+        List<List<TriplePattern>> bodies = new ArrayList<List<TriplePattern>>(constructQueries.size());
+        // count how often a lookup only depending on constants is used within the recipe
+        Map<PatternKey,Integer> frequencies = new HashMap<PatternKey,Integer>();
+        for (ConstructQuery query : constructQueries) {
+            List<TriplePattern> body = getBasicGraphPattern(query);
+            bodies.add(body);
+            if (body != null) {
+                for (TriplePattern pattern : body) {
+                    PatternKey key = PatternKey.forConstants(pattern);
+                    if (key != null) {
+                        Integer count = frequencies.get(key);
+                        frequencies.put(key, count == null ? 1 : count + 1);
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < constructQueries.size(); i++) {
+            ConstructQuery query = constructQueries.get(i);
+            List<TriplePattern> body = bodies.get(i);
+            if (body == null) {
+                log.debug("Rule {} is executed as SPARQL query", query);
+                rules.add(new CompiledRule(query, null, null));
+            } else {
+                rules.add(new CompiledRule(query, plan(body, frequencies), new ArrayList<TriplePattern>(
+                        query.getConstructTemplate())));
+            }
+        }
+    }
+
+    /**
+     * The number of rules that are evaluated natively
+     * 
+     * @return
+     */
+    int getCompiledRuleCount() {
+        int count = 0;
+        for (CompiledRule rule : rules) {
+            if (rule.body != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the triple patterns of the query if it can be evaluated natively, <code>null</code> otherwise
+     */
+    private static List<TriplePattern> getBasicGraphPattern(ConstructQuery query) {
+        if (query.getDataSet() != null || query.getInlineData() != null || query.getLimit() >= 0
+            || query.getOffset() > 0) {
+            return null;
+        }
+        GroupGraphPattern group = query.getQueryPattern();
+        if (group == null || group.isSubSelect() || !group.getFilter().isEmpty()) {
+            return null;
+        }
+        List<TriplePattern> patterns = new ArrayList<TriplePattern>();
+        for (GraphPattern pattern : group.getGraphPatterns()) {
+            if (!(pattern instanceof BasicGraphPattern)) {
+                return null;
+            }
+            patterns.addAll(((BasicGraphPattern) pattern).getTriplePatterns());
+        }
+        for (TriplePattern pattern : query.getConstructTemplate()) {
+            if (isBoundExpression(pattern.getSubject()) || isBoundExpression(pattern.getPredicate())
+                || isBoundExpression(pattern.getObject())) {
+                return null;
+            }
+        }
+        return patterns.isEmpty() ? null : patterns;
+    }
+
+    private static boolean isBoundExpression(ResourceOrVariable rov) {
+        return rov.isVariable() && rov.getVariable().getBoundExpression() != null;
+    }
+
+    /**
+     * Orders the triple patterns so that each pattern is the one with the most positions bound by constants
+     * or by the variables of the previous patterns. Ties are broken by preferring lookups shared with other
+     * rules.
+     */
+    private static List<TriplePattern> plan(List<TriplePattern> body, Map<PatternKey,Integer> frequencies) {
+        List<TriplePattern> remaining = new ArrayList<TriplePattern>(body);
+        List<TriplePattern> plan = new ArrayList<TriplePattern>(body.size());
+        Set<Object> bound = new HashSet<Object>();
+        while (!remaining.isEmpty()) {
+            TriplePattern best = null;
+            int bestScore = -1;
+            int bestFrequency = -1;
+            for (TriplePattern pattern : remaining) {
+                // subject and object lookups are more selective than predicate lookups
+                int score = (isBound(pattern.getSubject(), bound) ? 3 : 0)
+                            + (isBound(pattern.getObject(), bound) ? 3 : 0)
+                            + (isBound(pattern.getPredicate(), bound) ? 1 : 0);
+                PatternKey key = PatternKey.forConstants(pattern);
+                Integer frequency = key == null ? null : frequencies.get(key);
+                int freq = frequency == null ? 0 : frequency;
+                if (score > bestScore || (score == bestScore && freq > bestFrequency)) {
+                    best = pattern;
+                    bestScore = score;
+                    bestFrequency = freq;
+                }
+            }
+            remaining.remove(best);
+            plan.add(best);
+            addVariable(best.getSubject(), bound);
+            addVariable(best.getPredicate(), bound);
+            addVariable(best.getObject(), bound);
+        }
+        return plan;
+    }
+
+    private static boolean isBound(ResourceOrVariable rov, Set<Object> bound) {
+        Object var = getVariable(rov);
+        return var == null || bound.contains(var);
+    }
+
+    private static void addVariable(ResourceOrVariable rov, Set<Object> bound) {
+        Object var = getVariable(rov);
+        if (var != null) {
+            bound.add(var);
+        }
+    }
+
+    /**
+     * The key used to bind a variable, or <code>null</code> if the parsed position is a constant. Blank
+     * nodes in rule bodies act as variables.
+     */
+    private static Object getVariable(ResourceOrVariable rov) {
+        if (rov.isVariable()) {
+            return rov.getVariable().getName();
+        } else if (rov.getResource() instanceof BlankNode) {
+            return rov.getResource();
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Executes all rules against the source graph and adds the results to the target graph.
+     * 
+     * @param tcManager
+     *            used to execute the rules that can not be evaluated natively
+     * @param source
+     *            the graph to refactor
+     * @param target
+     *            the graph the inferred triples are added to
+     * @param executor
+     *            the executor used to evaluate rules in parallel or <code>null</code> to evaluate them in
+     *            the current thread
+     * @throws RefactoringException
+     */
+    void execute(final TcManager tcManager, final Graph source, final Graph target, ExecutorService executor) 
+            throws RefactoringException {
+        final Map<PatternKey,List<Triple>> cache = new ConcurrentHashMap<PatternKey,List<Triple>>();
+        long start = System.currentTimeMillis();
+        if (executor == null || rules.size() < 2) {
+            for (CompiledRule rule : rules) {
+                rule.execute(tcManager, source, target, cache);
+            }
+        } else {
+            List<Future<?>> futures = new ArrayList<Future<?>>(rules.size());
+            for (final CompiledRule rule : rules) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        rule.execute(tcManager, source, target, cache);
+                        return null;
+                    }
+                }));
+            }
+            try {
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                cancel(futures);
+                Thread.currentThread().interrupt();
+                throw new RefactoringException("Interrupted while executing the recipe", e);
+            } catch (ExecutionException e) {
+                cancel(futures);
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new RefactoringException("Unable to execute the recipe: " + cause.getMessage(), cause);
+            }
+        }
+        log.debug("Executed {} rules ({} compiled) in {}ms", new Object[] {rules.size(),
+                getCompiledRuleCount(), System.currentTimeMillis() - start});
+    }
+
+    private static void cancel(Collection<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * A rule either compiled to a join plan or executed as SPARQL query
+     */
+    private static class CompiledRule {
+
+        private final ConstructQuery query;
+        private final List<TriplePattern> body;
+        private final List<TriplePattern> head;
+
+        CompiledRule(ConstructQuery query, List<TriplePattern> body, List<TriplePattern> head) {
+            this.query = query;
+            this.body = body;
+            this.head = head;
+        }
+
+        void execute(TcManager tcManager, Graph source, Graph target, Map<PatternKey,List<Triple>> cache) {
+            if (body == null) {
+                add(target, tcManager.executeSparqlQuery(query, source));
+                return;
+            }
+            Evaluation evaluation = new Evaluation(source, target, cache);
+            Lock readLock = source.getLock().readLock();
+            readLock.lock();
+            try {
+                evaluation.match(0);
+            } finally {
+                readLock.unlock();
+            }
+            evaluation.flush();
+        }
+
+        /**
+         * The state of a single evaluation of this rule
+         */
+        private class Evaluation {
+            private final Graph source;
+            private final Graph target;
+            private final Map<PatternKey,List<Triple>> cache;
+            private final Map<Object,RDFTerm> bindings = new HashMap<Object,RDFTerm>();
+            private final List<Triple> buffer = new ArrayList<Triple>();
+
+            Evaluation(Graph source, Graph target, Map<PatternKey,List<Triple>> cache) {
+                this.source = source;
+                this.target = target;
+                this.cache = cache;
+            }
+
+            void match(int index) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IllegalStateException("Rule execution interrupted");
+                }
+                if (index == body.size()) {
+                    instantiateHead();
+                    return;
+                }
+                TriplePattern pattern = body.get(index);
+                RDFTerm s = resolve(pattern.getSubject());
+                RDFTerm p = resolve(pattern.getPredicate());
+                RDFTerm o = resolve(pattern.getObject());
+                if ((s != null && !(s instanceof BlankNodeOrIRI)) || (p != null && !(p instanceof IRI))) {
+                    return; // can not match any triple
+                }
+                boolean shared = isUnbound(pattern.getSubject()) && isUnbound(pattern.getPredicate())
+                                 && isUnbound(pattern.getObject());
+                Iterator<Triple> triples = shared ? lookup(pattern, (BlankNodeOrIRI) s, (IRI) p, o) 
+                        : source.filter((BlankNodeOrIRI) s, (IRI) p, o);
+                while (triples.hasNext()) {
+                    Triple triple = triples.next();
+                    List<Object> added = new ArrayList<Object>(3);
+                    if (bind(pattern.getSubject(), triple.getSubject(), added)
+                        && bind(pattern.getPredicate(), triple.getPredicate(), added)
+                        && bind(pattern.getObject(), triple.getObject(), added)) {
+                        match(index + 1);
+                    }
+                    for (Object var : added) {
+                        bindings.remove(var);
+                    }
+                }
+            }
+
+            /**
+             * If the parsed position is a constant or a variable that is not yet bound
+             */
+            private boolean isUnbound(ResourceOrVariable rov) {
+                Object var = getVariable(rov);
+                return var == null || !bindings.containsKey(var);
+            }
+
+            /**
+             * Lookups that only depend on constants are shared by all rules
+             */
+            private Iterator<Triple> lookup(TriplePattern pattern, BlankNodeOrIRI s, IRI p, RDFTerm o) {
+                PatternKey key = PatternKey.forConstants(pattern);
+                if (key == null) {
+                    return source.filter(s, p, o);
+                }
+                List<Triple> triples = cache.get(key);
+                if (triples == null) {
+                    triples = new ArrayList<Triple>();
+                    Iterator<Triple> it = source.filter(s, p, o);
+                    while (it.hasNext() && triples.size() <= MAX_CACHED_TRIPLES) {
+                        triples.add(it.next());
+                    }
+                    if (triples.size() > MAX_CACHED_TRIPLES) {
+                        return source.filter(s, p, o);
+                    }
+                    triples = Collections.unmodifiableList(triples);
+                    cache.put(key, triples);
+                }
+                return triples.iterator();
+            }
+
+            private RDFTerm resolve(ResourceOrVariable rov) {
+                Object var = getVariable(rov);
+                return var == null ? rov.getResource() : bindings.get(var);
+            }
+
+            /**
+             * Binds the variable (if any) at the parsed position, returns <code>false</code> if it is already
+             * bound to a different value.
+             */
+            private boolean bind(ResourceOrVariable rov, RDFTerm value, List<Object> added) {
+                Object var = getVariable(rov);
+                if (var == null) {
+                    return true;
+                }
+                RDFTerm current = bindings.get(var);
+                if (current == null) {
+                    bindings.put(var, value);
+                    added.add(var);
+                    return true;
+                }
+                return current.equals(value);
+            }
+
+            private void instantiateHead() {
+                // blank nodes in the template are created for each solution
+                Map<BlankNode,BlankNode> blankNodes = null;
+                for (TriplePattern pattern : head) {
+                    RDFTerm s = instantiate(pattern.getSubject());
+                    RDFTerm p = instantiate(pattern.getPredicate());
+                    RDFTerm o = instantiate(pattern.getObject());
+                    if (s instanceof BlankNode || o instanceof BlankNode) {
+                        if (blankNodes == null) {
+                            blankNodes = new HashMap<BlankNode,BlankNode>();
+                        }
+                        s = freshBlankNode(s, pattern.getSubject(), blankNodes);
+                        o = freshBlankNode(o, pattern.getObject(), blankNodes);
+                    }
+                    // as for SPARQL CONSTRUCT, triples with unbound or illegal terms are skipped
+                    if (s instanceof BlankNodeOrIRI && p instanceof IRI && o != null) {
+                        buffer.add(new TripleImpl((BlankNodeOrIRI) s, (IRI) p, o));
+                    }
+                }
+                if (buffer.size() >= CHUNK_SIZE) {
+                    flush();
+                }
+            }
+
+            private RDFTerm instantiate(ResourceOrVariable rov) {
+                return rov.isVariable() ? bindings.get(rov.getVariable().getName()) : rov.getResource();
+            }
+
+            private RDFTerm freshBlankNode(RDFTerm term, ResourceOrVariable rov, Map<BlankNode,BlankNode> blankNodes) {
+                if (rov.isVariable() || !(term instanceof BlankNode)) {
+                    return term; // blank nodes bound to variables are kept
+                }
+                BlankNode fresh = blankNodes.get(term);
+                if (fresh == null) {
+                    fresh = new BlankNode();
+                    blankNodes.put((BlankNode) term, fresh);
+                }
+                return fresh;
+            }
+
+            void flush() {
+                if (!buffer.isEmpty()) {
+                    add(target, buffer);
+                    buffer.clear();
+                }
+            }
+        }
+    }
+
+    private static void add(Graph target, Collection<Triple> triples) {
+        Lock writeLock = target.getLock().writeLock();
+        writeLock.lock();
+        try {
+            target.addAll(triples);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * The constants of a triple pattern. Used as key for shared lookups.
+     */
+    private static class PatternKey {
+        private final RDFTerm subject;
+        private final RDFTerm predicate;
+        private final RDFTerm object;
+
+        private PatternKey(RDFTerm subject, RDFTerm predicate, RDFTerm object) {
+            this.subject = subject;
+            this.predicate = predicate;
+            this.object = object;
+        }
+
+        /**
+         * The key for the lookup of the parsed pattern with only its constants bound or <code>null</code> if
+         * the pattern has no constant (a full scan of the graph that is not worth sharing)
+         */
+        static PatternKey forConstants(TriplePattern pattern) {
+            RDFTerm s = getVariable(pattern.getSubject()) == null ? pattern.getSubject().getResource() : null;
+            RDFTerm p = getVariable(pattern.getPredicate()) == null ? pattern.getPredicate().getResource() : null;
+            RDFTerm o = getVariable(pattern.getObject()) == null ? pattern.getObject().getResource() : null;
+            return s == null && p == null && o == null ? null : new PatternKey(s, p, o);
+        }
+
+        @Override
+        public int hashCode() {
+            return (subject == null ? 0 : subject.hashCode()) * 31 * 31
+                   + (predicate == null ? 0 : predicate.hashCode()) * 31
+                   + (object == null ? 0 : object.hashCode());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof PatternKey)) {
+                return false;
+            }
+            PatternKey other = (PatternKey) obj;
+            return (subject == null ? other.subject == null : subject.equals(other.subject))
+                   && (predicate == null ? other.predicate == null : predicate.equals(other.predicate))
+                   && (object == null ? other.object == null : object.equals(other.object));
+        }
+    }
+}
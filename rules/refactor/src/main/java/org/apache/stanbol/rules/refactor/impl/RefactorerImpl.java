@@ -19,8 +19,11 @@ package org.apache.stanbol.rules.refactor.impl;
 import java.io.IOException;
 import java.util.Dictionary;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import org.apache.clerezza.commons.rdf.ImmutableGraph;
 import org.apache.clerezza.commons.rdf.Graph;
 import org.apache.clerezza.commons.rdf.IRI;
 import org.apache.clerezza.rdf.core.access.TcManager;
@@ -30,6 +33,7 @@ import org.apache.clerezza.rdf.core.sparql.query.ConstructQuery;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.Service;
 import org.apache.stanbol.rules.base.api.NoSuchRecipeException;
@@ -61,12 +65,23 @@ import com.hp.hpl.jena.sparql.pfunction.PropertyFunctionRegistry;
  * 
  */
 
-@Component(immediate = true)
+@Component(immediate = true, metatype = true)
 @Service(Refactorer.class)
+@Property(name = RefactorerImpl.EXECUTOR_THREADS, intValue = RefactorerImpl.DEFAULT_EXECUTOR_THREADS)
 public class RefactorerImpl implements Refactorer {
 
+    /**
+     * The number of threads used to execute the rules of a recipe in parallel. Values <code>&lt;= 0</code>
+     * use the number of available processors, <code>1</code> executes rules sequentially.
+     */
+    public static final String EXECUTOR_THREADS = "org.apache.stanbol.rules.refactor.threads";
+
+    public static final int DEFAULT_EXECUTOR_THREADS = 0;
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
+    private ExecutorService executor;
+
     @Reference
     protected RuleStore ruleStore;
 
@@ -134,13 +149,42 @@ public class RefactorerImpl implements Refactorer {
         FunctionRegistry.get().put("http://www.stlab.istc.cnr.it/semion/function#propString",
             CreatePropertyURIStringFromLabel.class);
 
-        log.debug(Refactorer.class + "activated.");
+        int threads = DEFAULT_EXECUTOR_THREADS;
+        Object value = configuration == null ? null : configuration.get(EXECUTOR_THREADS);
+        if (value instanceof Number) {
+            threads = ((Number) value).intValue();
+        } else if (value != null) {
+            try {
+                threads = Integer.parseInt(value.toString());
+            } catch (NumberFormatException e) {
+                log.warn("Unable to parse the number of threads from '{}' (using the default)", value);
+            }
+        }
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        if (threads > 1) {
+            final AtomicInteger count = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "Stanbol Refactorer " + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+        log.debug(Refactorer.class + "activated (rule execution threads: {}).", threads);
     }
 
     @Deactivate
     protected void deactivate(ComponentContext context) {
         log.info("in " + getClass() + " deactivate with context " + context);
 
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
         this.tcManager = null;
         this.ruleStore = null;
     }
@@ -152,22 +196,18 @@ public class RefactorerImpl implements Refactorer {
     }
 
     /**
-     * Execute a sparql construct on Clerezza.
+     * Executes the rules of a recipe (adapted to construct queries) against the input graph.
      * 
-     * @param sparql
-     * @param datasetID
-     * @return
+     * @param constructQueries
+     * @param inputGraph
+     * @param outputGraph
+     *            the graph the refactored triples are added to
+     * @throws RefactoringException
      */
-    private ImmutableGraph sparqlConstruct(ConstructQuery constructQuery, IRI datasetID) {
-
-        Graph graph = tcManager.getGraph(datasetID);
-        return sparqlConstruct(constructQuery, graph);
-
-    }
-
-    private ImmutableGraph sparqlConstruct(ConstructQuery constructQuery, Graph tripleCollection) {
+    private void execute(List<ConstructQuery> constructQueries, Graph inputGraph, Graph outputGraph)
+            throws RefactoringException {
 
-        return tcManager.executeSparqlQuery(constructQuery, tripleCollection);
+        new CompiledRecipe(constructQueries).execute(tcManager, inputGraph, outputGraph, executor);
 
     }
 
@@ -186,9 +226,7 @@ public class RefactorerImpl implements Refactorer {
                     ConstructQuery.class);
 
                 Graph mGraph = tcManager.createGraph(refactoredOntologyID);
-                for (ConstructQuery constructQuery : constructQueries) {
-                    mGraph.addAll(this.sparqlConstruct(constructQuery, datasetID));
-                }
+                execute(constructQueries, tcManager.getGraph(datasetID), mGraph);
             } catch (RecipeConstructionException e) {
                 throw new RefactoringException(
                         "The cause of the refactoring excpetion is: " + e.getMessage(), e);
@@ -231,9 +269,7 @@ public class RefactorerImpl implements Refactorer {
 
             unionGraph = new SimpleGraph();
 
-            for (ConstructQuery constructQuery : constructQueries) {
-                unionGraph.addAll(this.sparqlConstruct(constructQuery, graphID));
-            }
+            execute(constructQueries, tcManager.getGraph(graphID), unionGraph);
 
         } catch (NoSuchRecipeException e1) {
             log.error("Refactor : No Such recipe in the Rule Store", e1);
@@ -262,14 +298,8 @@ public class RefactorerImpl implements Refactorer {
             List<ConstructQuery> constructQueries = (List<ConstructQuery>) ruleAdapter.adaptTo(recipe,
                 ConstructQuery.class);
 
-            for(ConstructQuery constructQuery : constructQueries){
-                System.out.println(constructQuery.toString());
-            }
-
             Graph unionGraph = new SimpleGraph();
-            for (ConstructQuery constructQuery : constructQueries) {
-                unionGraph.addAll(sparqlConstruct(constructQuery, inputGraph));
-            }
+            execute(constructQueries, inputGraph, unionGraph);
 
             return unionGraph;
         } catch (UnavailableRuleObjectException e) {
@@ -22,12 +22,16 @@ import static org.junit.Assert.fail;
 import java.io.InputStream;
 import java.util.Dictionary;
 import java.util.Hashtable;
+import java.util.List;
 
 
 import org.apache.clerezza.commons.rdf.Graph;
 import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
+import org.apache.clerezza.commons.rdf.impl.utils.simple.SimpleGraph;
 import org.apache.clerezza.rdf.core.access.TcManager;
 import org.apache.clerezza.rdf.core.access.WeightedTcProvider;
+import org.apache.clerezza.rdf.core.sparql.query.ConstructQuery;
 import org.apache.clerezza.rdf.simple.storage.SimpleTcProvider;
 import org.apache.stanbol.commons.owl.transformation.JenaToClerezzaConverter;
 import org.apache.stanbol.rules.adapters.clerezza.ClerezzaAdapter;
@@ -66,6 +70,7 @@ public class RefactoringTest {
     private static Refactorer refactorer;
     private static TcManager tcm;
     private static RuleStore store;
+    private static RuleAdapterManager ruleAdapterManager;
     private Graph tripleCollection;
     private String rule;
 
@@ -86,7 +91,7 @@ public class RefactoringTest {
         Dictionary<String,Object> configuration3 = new Hashtable<String,Object>();
         new ClerezzaAdapter(configuration3, store, ruleAdaptersFactory);
 
-        RuleAdapterManager ruleAdapterManager = new RuleAdaptersManagerImpl(configuration2,
+        ruleAdapterManager = new RuleAdaptersManagerImpl(configuration2,
                 ruleAdaptersFactory);
 
         Dictionary<String,Object> configuration4 = new Hashtable<String,Object>();
@@ -97,6 +102,7 @@ public class RefactoringTest {
     @AfterClass
     public static void tearDownClass() throws Exception {
         store = null;
+        ruleAdapterManager = null;
         tcm = null;
         refactorer = null;
     }
@@ -237,6 +243,56 @@ public class RefactoringTest {
         }
     }
 
+    /**
+     * Rules with plain triple pattern bodies are not executed as SPARQL queries. Checks that the results are
+     * the same.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void compiledRefactoringTest() throws Exception {
+        String separator = System.getProperty("line.separator");
+        String rules = "kres = <http://kres.iks-project.eu/ontology.owl#> . " + separator
+                       + "foaf = <http://xmlns.com/foaf/0.1/> . " + separator
+                       + "person[ is(kres:Person, ?x) -> is(foaf:Person, ?x) ] . " + separator
+                       + "knows[ is(kres:Person, ?x) . has(kres:knows, ?x, ?y) . is(kres:Person, ?y) "
+                       + "-> has(foaf:knows, ?x, ?y) ] . " + separator
+                       + "indirect[ has(kres:knows, ?x, ?y) . has(kres:knows, ?y, ?z) "
+                       + "-> has(kres:knowsIndirectly, ?x, ?z) ]";
+        IRI recipeID = new IRI("http://incubator.apache.com/stanbol/rules/refactor/test/recipeC");
+        Recipe recipe = store.createRecipe(recipeID, "Recipe for testing compiled rules.");
+        recipe = store.addRulesToRecipe(recipe, rules, "Test");
+        try {
+            IRI rdfType = new IRI("http://www.w3.org/1999/02/22-rdf-syntax-ns#type");
+            IRI person = new IRI("http://kres.iks-project.eu/ontology.owl#Person");
+            IRI knows = new IRI("http://kres.iks-project.eu/ontology.owl#knows");
+            Graph input = new SimpleGraph();
+            for (int i = 0; i < 50; i++) {
+                IRI p = new IRI("http://kres.iks-project.eu/ontology/test.owl#Person" + i);
+                if (i % 5 != 0) {
+                    input.add(new TripleImpl(p, rdfType, person));
+                }
+                input.add(new TripleImpl(p, knows, new IRI(
+                        "http://kres.iks-project.eu/ontology/test.owl#Person" + ((i * 7) % 50))));
+                input.add(new TripleImpl(p, knows, new IRI(
+                        "http://kres.iks-project.eu/ontology/test.owl#Person" + ((i + 1) % 50))));
+            }
+
+            Graph refactored = refactorer.graphRefactoring(input, recipe);
+
+            Graph expected = new SimpleGraph();
+            List<ConstructQuery> queries = (List<ConstructQuery>) ruleAdapterManager.getAdapter(recipe,
+                ConstructQuery.class).adaptTo(recipe, ConstructQuery.class);
+            for (ConstructQuery query : queries) {
+                expected.addAll(tcm.executeSparqlQuery(query, input));
+            }
+            Assert.assertFalse(expected.isEmpty());
+            Assert.assertEquals(expected.size(), refactored.size());
+            Assert.assertTrue(refactored.containsAll(expected));
+        } finally {
+            store.removeRecipe(recipeID);
+        }
+    }
+
     @Test
     public void brokenRecipeTest() throws Exception {
         // broken recipe